@@ -0,0 +1,44 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.terasology.world.WorldBlock;
+import com.gempukku.terasology.world.chunk.ChunkBlocks;
+import com.gempukku.terasology.world.chunk.ChunkBlocksProvider;
+import com.gempukku.terasology.world.chunk.IntLocationKey;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Provides chunks prepared by the benchmark, in place of the chunks loaded by the game. The profile is never
+ * activated, it only keeps the system out of contexts created by scanning the classpath.
+ */
+@RegisterSystem(
+        profiles = "benchmark", shared = ChunkBlocksProvider.class)
+public class BenchmarkChunkBlocksProvider implements ChunkBlocksProvider {
+    private final Map<IntLocationKey, ChunkBlocks> chunks = new HashMap<>();
+    private final WorldBlock tempWorldBlock = new WorldBlock();
+
+    public void addChunk(ChunkBlocks chunkBlocks) {
+        chunks.put(new IntLocationKey(chunkBlocks), chunkBlocks);
+    }
+
+    @Override
+    public short getCommonBlockAt(String worldId, int x, int y, int z) {
+        tempWorldBlock.set(x, y, z);
+        ChunkBlocks chunkBlocks = getChunkBlocks(worldId, tempWorldBlock.getChunkX(), tempWorldBlock.getChunkY(), tempWorldBlock.getChunkZ());
+        if (chunkBlocks == null)
+            return -1;
+        return chunkBlocks.getCommonBlockAt(tempWorldBlock.getInChunkX(), tempWorldBlock.getInChunkY(), tempWorldBlock.getInChunkZ());
+    }
+
+    @Override
+    public boolean isChunkLoaded(String worldId, int x, int y, int z) {
+        return getChunkBlocks(worldId, x, y, z) != null;
+    }
+
+    @Override
+    public ChunkBlocks getChunkBlocks(String worldId, int x, int y, int z) {
+        return chunks.get(new IntLocationKey(worldId, x, y, z));
+    }
+}
@@ -0,0 +1,28 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.secsy.entity.Component;
+import com.gempukku.secsy.entity.component.map.GetProperty;
+import com.gempukku.secsy.entity.component.map.SetProperty;
+
+/**
+ * Component usable by both proxy component managers, methods follow the naming convention and are annotated.
+ */
+public interface BenchmarkComponent extends Component {
+    @GetProperty("name")
+    String getName();
+
+    @SetProperty("name")
+    void setName(String name);
+
+    @GetProperty("value")
+    float getValue();
+
+    @SetProperty("value")
+    void setValue(float value);
+
+    @GetProperty("count")
+    int getCount();
+
+    @SetProperty("count")
+    void setCount(int count);
+}
@@ -0,0 +1,6 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.secsy.entity.event.Event;
+
+public class BenchmarkEvent extends Event {
+}
@@ -0,0 +1,20 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
+
+/**
+ * Not annotated with RegisterSystem, so that it's only part of the contexts created by EntityBenchmarkContext.
+ */
+public class BenchmarkEventReceiver {
+    private int received;
+
+    @ReceiveEvent
+    public void eventReceived(BenchmarkEvent event, EntityRef entity, BenchmarkComponent component) {
+        received += component.getCount();
+    }
+
+    public int getReceived() {
+        return received;
+    }
+}
@@ -0,0 +1,100 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.terasology.physics.basic.BasicCharacterController;
+import com.gempukku.terasology.physics.basic.ObstructsMovementPredicate;
+import com.gempukku.terasology.physics.basic.VoxelPhysicsEngine;
+import com.gempukku.terasology.world.CommonBlockManager;
+import com.gempukku.terasology.world.chunk.ChunkSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulation steps of a character walking in a circle over flat terrain and over terrain generated by L&D world
+ * generator (rough), with the voxel physics engine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CharacterWalkingBenchmark {
+    private static final int chunkCount = 4;
+    private static final int flatGroundLevel = 20;
+    private static final float stepLength = 0.05f;
+    // Character turns a bit with each step, so it walks in a circle of ~25 blocks radius
+    private static final float turnPerStep = 0.01f;
+
+    @Param({"flat", "rough"})
+    public String terrain;
+
+    private BenchmarkChunkBlocksProvider chunkBlocksProvider;
+    private BasicCharacterController characterController;
+    private final BasicCharacterController.CharacterState state = new BasicCharacterController.CharacterState();
+    private short air;
+
+    @Setup
+    public void setup(HeadlessWorld headlessWorld) {
+        chunkBlocksProvider = new BenchmarkChunkBlocksProvider();
+        for (int x = 0; x < chunkCount; x++) {
+            for (int y = -1; y <= 1; y++) {
+                for (int z = 0; z < chunkCount; z++) {
+                    if (terrain.equals("flat"))
+                        chunkBlocksProvider.addChunk(headlessWorld.createFlatChunkBlocks(x, y, z, flatGroundLevel));
+                    else
+                        chunkBlocksProvider.addChunk(headlessWorld.generateChunkBlocks(x, y, z));
+                }
+            }
+        }
+        air = headlessWorld.getSystem(CommonBlockManager.class).getCommonBlockId("air");
+
+        VoxelPhysicsEngine physicsEngine = new VoxelPhysicsEngine();
+        headlessWorld.initializeSystems(physicsEngine, chunkBlocksProvider);
+        characterController = new BasicCharacterController(physicsEngine, new ObstructsMovementPredicate());
+
+        state.worldId = HeadlessWorld.WORLD_ID;
+        state.horizontalSpeed = 5f;
+        state.radius = 0.3f;
+        state.height = 1.8f;
+        placeAtStart();
+    }
+
+    private void placeAtStart() {
+        float x = chunkCount * ChunkSize.X / 2f + 0.5f;
+        float z = chunkCount * ChunkSize.Z / 2f + 0.5f;
+        state.setPosition(x, getGroundLevel((int) x, (int) z) + 1, z);
+        state.verticalSpeed = 0;
+    }
+
+    private int getGroundLevel(int x, int z) {
+        for (int y = 2 * ChunkSize.Y - 1; y >= -ChunkSize.Y; y--) {
+            if (chunkBlocksProvider.getCommonBlockAt(HeadlessWorld.WORLD_ID, x, y, z) != air)
+                return y;
+        }
+        return -ChunkSize.Y;
+    }
+
+    @Benchmark
+    public BasicCharacterController.CharacterState step() {
+        state.yaw += turnPerStep;
+        characterController.step(state, stepLength);
+
+        // Should not happen, unless the character gets pushed off the circle by the terrain
+        if (state.positionX < ChunkSize.X / 2 || state.positionX > (chunkCount - 0.5f) * ChunkSize.X
+                || state.positionZ < ChunkSize.Z / 2 || state.positionZ > (chunkCount - 0.5f) * ChunkSize.Z
+                || state.positionY < -ChunkSize.Y / 2)
+            placeAtStart();
+        return state;
+    }
+}
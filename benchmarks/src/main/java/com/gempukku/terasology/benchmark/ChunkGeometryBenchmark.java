@@ -0,0 +1,75 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.secsy.entity.io.ComponentData;
+import com.gempukku.terasology.graphics.component.GeneratedBlockMeshComponent;
+import com.gempukku.terasology.graphics.environment.mesh.ListsChunkGeometryAndMeshGenerator;
+import com.gempukku.terasology.world.CommonBlockManager;
+import com.gempukku.terasology.world.chunk.geometry.BlockGeometryGenerator;
+import com.gempukku.terasology.world.chunk.geometry.ListsChunkGeometry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Preparing geometry of a chunk off the rendering thread, with a stub texture atlas, for a chunk of flat terrain
+ * and for a chunk generated by L&D world generator. Blocks with generated meshes (i.e. trees) are registered with
+ * a generator that produces nothing, as their generators need the rendering systems.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkGeometryBenchmark {
+    private static final int chunkX = 1;
+    private static final int chunkY = 0;
+    private static final int chunkZ = 1;
+
+    @Param({"flat", "generated"})
+    public String terrain;
+
+    private ListsChunkGeometryAndMeshGenerator chunkGeometryGenerator;
+
+    @Setup
+    public void setup(HeadlessWorld headlessWorld) {
+        BenchmarkChunkBlocksProvider chunkBlocksProvider = new BenchmarkChunkBlocksProvider();
+        for (int x = chunkX - 1; x <= chunkX + 1; x++) {
+            for (int y = chunkY - 1; y <= chunkY + 1; y++) {
+                for (int z = chunkZ - 1; z <= chunkZ + 1; z++) {
+                    if (terrain.equals("flat"))
+                        chunkBlocksProvider.addChunk(headlessWorld.createFlatChunkBlocks(x, y, z, 20));
+                    else
+                        chunkBlocksProvider.addChunk(headlessWorld.generateChunkBlocks(x, y, z));
+                }
+            }
+        }
+
+        chunkGeometryGenerator = new ListsChunkGeometryAndMeshGenerator();
+        headlessWorld.initializeSystems(chunkGeometryGenerator, chunkBlocksProvider, new StubTextureAtlasProvider());
+
+        CommonBlockManager commonBlockManager = headlessWorld.getSystem(CommonBlockManager.class);
+        BlockGeometryGenerator noGeometry = (callback, vertexOutput, texture, chunkBlocks, xInChunk, yInChunk, zInChunk) -> {
+        };
+        for (short i = 0; i < commonBlockManager.getCommonBlockCount(); i++) {
+            ComponentData generatedBlockMesh = commonBlockManager.getCommonBlockById(i).getComponent(GeneratedBlockMeshComponent.class);
+            if (generatedBlockMesh != null)
+                chunkGeometryGenerator.registerBlockMeshGenerator((String) generatedBlockMesh.getFields().get("generatorType"), noGeometry);
+        }
+    }
+
+    @Benchmark
+    public ListsChunkGeometry prepareChunkGeometry() {
+        return chunkGeometryGenerator.prepareChunkGeometryOffThread(HeadlessWorld.WORLD_ID, chunkX, chunkY, chunkZ);
+    }
+}
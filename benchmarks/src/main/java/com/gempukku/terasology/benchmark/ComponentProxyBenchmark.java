@@ -0,0 +1,70 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.secsy.entity.component.InternalComponentManager;
+import com.gempukku.secsy.entity.component.map.MapAnnotationDrivenProxyComponentManager;
+import com.gempukku.secsy.entity.component.map.MapNamingConventionProxyComponentManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and changing component values through the proxies created by both component managers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentProxyBenchmark {
+    @Param({"nameConvention", "annotationDriven"})
+    public String componentManager;
+
+    private InternalComponentManager internalComponentManager;
+    private BenchmarkComponent component;
+    private BenchmarkComponent copy;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        if (componentManager.equals("nameConvention"))
+            internalComponentManager = new MapNamingConventionProxyComponentManager();
+        else
+            internalComponentManager = new MapAnnotationDrivenProxyComponentManager();
+
+        component = internalComponentManager.createComponent(null, BenchmarkComponent.class);
+        component.setName("benchmark");
+        component.setValue(1.5f);
+        component.setCount(1);
+        // Move the values from changes to stored values, as when an entity is saved
+        internalComponentManager.saveComponent(component, component);
+        copy = internalComponentManager.copyComponent(null, component);
+    }
+
+    @Benchmark
+    public float getValue() {
+        return copy.getValue();
+    }
+
+    @Benchmark
+    public int setAndSave() {
+        copy.setCount(counter++);
+        internalComponentManager.saveComponent(component, copy);
+        return component.getCount();
+    }
+
+    @Benchmark
+    public BenchmarkComponent copyComponent() {
+        return internalComponentManager.copyComponent(null, component);
+    }
+}
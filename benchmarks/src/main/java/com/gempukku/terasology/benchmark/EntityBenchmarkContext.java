@@ -0,0 +1,43 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.secsy.context.system.ClassSystemProducer;
+import com.gempukku.secsy.context.system.ShareSystemInitializer;
+import com.gempukku.secsy.context.system.SimpleContext;
+import com.gempukku.secsy.entity.SimpleEntityManager;
+import com.gempukku.secsy.entity.component.map.MapNamingConventionProxyComponentManager;
+import com.gempukku.secsy.entity.dispatch.AnnotationDrivenEventDispatcher;
+import com.gempukku.secsy.entity.game.SimpleGameLoop;
+import com.gempukku.secsy.entity.index.SimpleEntityIndexManager;
+
+/**
+ * Creates a context with just the entity systems, as used by the game, and BenchmarkEventReceiver.
+ */
+class EntityBenchmarkContext {
+    private EntityBenchmarkContext() {
+    }
+
+    static SimpleContext<Object> createContext() {
+        ClassSystemProducer classSystemProducer = new ClassSystemProducer();
+        classSystemProducer.addClass(MapNamingConventionProxyComponentManager.class);
+        classSystemProducer.addClass(SimpleEntityManager.class);
+        classSystemProducer.addClass(SimpleGameLoop.class);
+        classSystemProducer.addClass(AnnotationDrivenEventDispatcher.class);
+        classSystemProducer.addClass(SimpleEntityIndexManager.class);
+        classSystemProducer.addClass(BenchmarkEventReceiver.class);
+
+        SimpleContext<Object> simpleContext = new SimpleContext<>();
+        simpleContext.setSystemProducer(classSystemProducer);
+        simpleContext.setSystemInitializer(new ShareSystemInitializer<>());
+
+        simpleContext.startup();
+        return simpleContext;
+    }
+
+    static <T> T findSystem(SimpleContext<Object> context, Class<T> systemClass) {
+        for (Object system : context.getSystems()) {
+            if (systemClass.isInstance(system))
+                return systemClass.cast(system);
+        }
+        throw new IllegalStateException("System not found in context: " + systemClass.getName());
+    }
+}
@@ -0,0 +1,74 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.secsy.context.system.SimpleContext;
+import com.gempukku.secsy.entity.EntityManager;
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.index.EntityIndex;
+import com.gempukku.secsy.entity.index.EntityIndexManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Iterating over the entities of a component index, half of the entities created have the indexed component.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityIndexBenchmark {
+    @Param({"100", "10000"})
+    public int entityCount;
+
+    private SimpleContext<Object> context;
+    private EntityIndex entityIndex;
+
+    // Generic array created for addIndexOnComponents varargs is only read
+    @SuppressWarnings("unchecked")
+    @Setup
+    public void setup() {
+        context = EntityBenchmarkContext.createContext();
+        entityIndex = context.getSystem(EntityIndexManager.class).addIndexOnComponents(BenchmarkComponent.class);
+
+        EntityManager entityManager = context.getSystem(EntityManager.class);
+        for (int i = 0; i < entityCount; i++) {
+            EntityRef entity = entityManager.createEntity();
+            if (i % 2 == 0) {
+                BenchmarkComponent component = entity.createComponent(BenchmarkComponent.class);
+                component.setCount(i);
+                entity.saveChanges();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.shutdown();
+    }
+
+    @Benchmark
+    public void getEntities(Blackhole blackhole) {
+        for (EntityRef entity : entityIndex.getEntities())
+            blackhole.consume(entity);
+    }
+
+    @Benchmark
+    public void getEntitiesAndComponents(Blackhole blackhole) {
+        for (EntityRef entity : entityIndex.getEntities())
+            blackhole.consume(entity.getComponent(BenchmarkComponent.class).getCount());
+    }
+}
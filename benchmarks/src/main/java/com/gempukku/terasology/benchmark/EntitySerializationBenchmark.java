@@ -0,0 +1,92 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.secsy.context.system.SimpleContext;
+import com.gempukku.secsy.entity.Component;
+import com.gempukku.secsy.entity.EntityManager;
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.component.InternalComponentManager;
+import com.gempukku.secsy.network.serialize.EntityInformation;
+import com.gempukku.secsy.network.serialize.EntitySerializationUtil;
+import com.gempukku.secsy.network.server.EntityComponentFieldFilter;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing an entity for a client and encoding it with Jackson, the way StreamClientCommunication does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntitySerializationBenchmark {
+    private SimpleContext<Object> context;
+    private InternalComponentManager internalComponentManager;
+    private EntityRef entity;
+    private List<EntityComponentFieldFilter> componentFieldFilters;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    @Setup
+    public void setup() {
+        context = EntityBenchmarkContext.createContext();
+        internalComponentManager = context.getSystem(InternalComponentManager.class);
+
+        entity = context.getSystem(EntityManager.class).createEntity();
+        BenchmarkComponent component = entity.createComponent(BenchmarkComponent.class);
+        component.setName("benchmark");
+        component.setValue(1.5f);
+        component.setCount(10);
+        entity.saveChanges();
+
+        componentFieldFilters = Collections.singletonList(new AllFieldsFilter());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.shutdown();
+    }
+
+    @Benchmark
+    public EntityInformation serialize() {
+        return EntitySerializationUtil.serializeEntity(internalComponentManager, null, 1, entity, componentFieldFilters);
+    }
+
+    @Benchmark
+    public int serializeAndEncode() throws IOException {
+        EntityInformation entityInformation = EntitySerializationUtil.serializeEntity(internalComponentManager, null, 1, entity, componentFieldFilters);
+        outputStream.reset();
+        objectMapper.writeValue(outputStream, entityInformation);
+        return outputStream.size();
+    }
+
+    private static class AllFieldsFilter implements EntityComponentFieldFilter {
+        @Override
+        public boolean isComponentRelevant(EntityRef clientEntity, EntityRef entity, Class<? extends Component> component) {
+            return true;
+        }
+
+        @Override
+        public boolean isComponentFieldRelevant(EntityRef clientEntity, EntityRef entity, Class<? extends Component> component, String field) {
+            return true;
+        }
+    }
+}
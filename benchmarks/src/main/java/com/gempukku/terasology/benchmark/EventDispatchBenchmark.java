@@ -0,0 +1,79 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.secsy.context.system.SimpleContext;
+import com.gempukku.secsy.entity.EntityManager;
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.dispatch.AnnotationDrivenEventDispatcher;
+import com.gempukku.secsy.entity.event.Event;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatching events to the receivers of the systems, for an entity that has the components the receiver
+ * requires, one that does not, and an event type no system receives.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatchBenchmark {
+    private SimpleContext<Object> context;
+    private AnnotationDrivenEventDispatcher eventDispatcher;
+
+    private EntityRef entityWithComponent;
+    private EntityRef entityWithoutComponent;
+    private final BenchmarkEvent receivedEvent = new BenchmarkEvent();
+    private final Event notReceivedEvent = new Event();
+
+    @Setup
+    public void setup() {
+        context = EntityBenchmarkContext.createContext();
+        eventDispatcher = EntityBenchmarkContext.findSystem(context, AnnotationDrivenEventDispatcher.class);
+
+        EntityManager entityManager = context.getSystem(EntityManager.class);
+        entityWithComponent = entityManager.createEntity();
+        BenchmarkComponent component = entityWithComponent.createComponent(BenchmarkComponent.class);
+        component.setCount(1);
+        entityWithComponent.saveChanges();
+
+        entityWithoutComponent = entityManager.createEntity();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.shutdown();
+    }
+
+    @Benchmark
+    public void eventReceived() {
+        eventDispatcher.eventSent(entityWithComponent, receivedEvent);
+    }
+
+    @Benchmark
+    public void eventFilteredByComponents() {
+        eventDispatcher.eventSent(entityWithoutComponent, receivedEvent);
+    }
+
+    @Benchmark
+    public void eventWithoutReceivers() {
+        eventDispatcher.eventSent(entityWithComponent, notReceivedEvent);
+    }
+
+    @Benchmark
+    public void sendThroughEntity() {
+        entityWithComponent.send(receivedEvent);
+    }
+}
@@ -0,0 +1,118 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.secsy.context.SECSyContext;
+import com.gempukku.secsy.context.annotation.NetProfiles;
+import com.gempukku.secsy.context.system.ShareSystemInitializer;
+import com.gempukku.secsy.entity.io.EntityData;
+import com.gempukku.terasology.component.TerasologyComponentManager;
+import com.gempukku.terasology.graphics.shape.ShapeProvider;
+import com.gempukku.terasology.prefab.PrefabManager;
+import com.gempukku.terasology.world.CommonBlockManager;
+import com.gempukku.terasology.world.MultiverseManager;
+import com.gempukku.terasology.world.chunk.ChunkBlocks;
+import com.gempukku.terasology.world.chunk.ChunkComponent;
+import com.gempukku.terasology.world.chunk.ChunkSize;
+import com.gempukku.terasology.world.chunk.WorldGenerator;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.reflections.Configuration;
+import org.reflections.Reflections;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Authority context with L&D world generator, started the same way WorldPregenerationLauncher does it, so no
+ * window or OpenGL context is needed. Shared by the benchmarks that need common blocks, shapes or generated chunks.
+ */
+@State(Scope.Benchmark)
+public class HeadlessWorld {
+    public static final String WORLD_ID = "world";
+
+    private SECSyContext context;
+
+    @Setup
+    public void setup() {
+        Configuration scanBasedOnAnnotations = new ConfigurationBuilder()
+                .setScanners(new TypeAnnotationsScanner())
+                .setUrls(ClasspathHelper.forJavaClassPath());
+
+        Set<String> profiles = new HashSet<>();
+        profiles.add(NetProfiles.AUTHORITY);
+        profiles.add("nameConventionComponents");
+        profiles.add("lAndDWorld");
+
+        context = new SECSyContext(profiles, new Reflections(scanBasedOnAnnotations));
+        context.startup();
+
+        // Creating the world also assigns ids to common blocks, that the generator uses
+        context.getSystem(MultiverseManager.class).createWorld(WORLD_ID);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.shutdown();
+    }
+
+    public <T> T getSystem(Class<T> clazz) {
+        return context.getSystem(clazz);
+    }
+
+    /**
+     * Injects the systems created by the benchmark, they can use common blocks, shapes and prefabs of this world,
+     * in addition to each other.
+     */
+    public void initializeSystems(Object... systems) {
+        List<Object> allSystems = new ArrayList<>(Arrays.asList(systems));
+        allSystems.add(context.getSystem(CommonBlockManager.class));
+        allSystems.add(context.getSystem(ShapeProvider.class));
+        allSystems.add(context.getSystem(PrefabManager.class));
+        allSystems.add(context.getSystem(TerasologyComponentManager.class));
+        new ShareSystemInitializer<>().initializeSystems(allSystems);
+    }
+
+    public ChunkBlocks generateChunkBlocks(int x, int y, int z) {
+        for (EntityData entityData : context.getSystem(WorldGenerator.class).generateChunk(WORLD_ID, x, y, z)) {
+            if (entityData.getComponent(ChunkComponent.class) != null)
+                return createChunkBlocks(x, y, z,
+                        (short[]) entityData.getComponent(ChunkComponent.class).getFields().get("blockIds"));
+        }
+        throw new IllegalStateException("Generator did not create chunk entity");
+    }
+
+    /**
+     * Creates chunk with grass at the ground level (in world coordinates), dirt below it and air above it.
+     */
+    public ChunkBlocks createFlatChunkBlocks(int x, int y, int z, int groundLevel) {
+        CommonBlockManager commonBlockManager = context.getSystem(CommonBlockManager.class);
+        short grass = commonBlockManager.getCommonBlockId("grass");
+        short dirt = commonBlockManager.getCommonBlockId("dirt");
+        short air = commonBlockManager.getCommonBlockId("air");
+
+        short[] blockIds = new short[ChunkSize.X * ChunkSize.Y * ChunkSize.Z];
+        int index = 0;
+        for (int dx = 0; dx < ChunkSize.X; dx++) {
+            for (int dy = 0; dy < ChunkSize.Y; dy++) {
+                int blockLevel = y * ChunkSize.Y + dy;
+                short block = (blockLevel > groundLevel) ? air : ((blockLevel == groundLevel) ? grass : dirt);
+                for (int dz = 0; dz < ChunkSize.Z; dz++)
+                    blockIds[index++] = block;
+            }
+        }
+        return createChunkBlocks(x, y, z, blockIds);
+    }
+
+    private static ChunkBlocks createChunkBlocks(int x, int y, int z, short[] blockIds) {
+        ChunkBlocks chunkBlocks = new ChunkBlocks(ChunkBlocks.Status.READY, WORLD_ID, x, y, z);
+        chunkBlocks.setBlocks(blockIds);
+        return chunkBlocks;
+    }
+}
@@ -0,0 +1,106 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.terasology.procedural.Noise;
+import com.gempukku.terasology.procedural.SimplexNoise;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sampling noise one point at a time compared to the bulk methods, over the area of a chunk column (2D) and
+ * a whole chunk (3D).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoiseBenchmark {
+    private static final int sizeX = 32;
+    private static final int sizeY = 64;
+    private static final int sizeZ = 32;
+    private static final float scale = 0.01f;
+    private static final int octaves = 4;
+
+    private Noise noise;
+    private float[] values2D;
+    private float[] values3D;
+
+    @Setup
+    public void setup() {
+        noise = new SimplexNoise(0);
+        values2D = new float[sizeX * sizeZ];
+        values3D = new float[sizeX * sizeY * sizeZ];
+    }
+
+    @Benchmark
+    public float[] scalar2D() {
+        int index = 0;
+        for (int x = 0; x < sizeX; x++) {
+            for (int z = 0; z < sizeZ; z++)
+                values2D[index++] = noise.noise(x * scale, z * scale);
+        }
+        return values2D;
+    }
+
+    @Benchmark
+    public float[] bulk2D() {
+        noise.fill2D(values2D, 0, 0, scale, scale, sizeX, sizeZ);
+        return values2D;
+    }
+
+    @Benchmark
+    public float[] scalarFractal2D() {
+        int index = 0;
+        for (int x = 0; x < sizeX; x++) {
+            for (int z = 0; z < sizeZ; z++) {
+                float frequency = 1f;
+                float amplitude = 1f;
+                float totalAmplitude = 0f;
+                float value = 0f;
+                for (int octave = 0; octave < octaves; octave++) {
+                    value += amplitude * noise.noise(x * scale * frequency, z * scale * frequency);
+                    totalAmplitude += amplitude;
+                    frequency *= 2f;
+                    amplitude *= 0.5f;
+                }
+                values2D[index++] = value / totalAmplitude;
+            }
+        }
+        return values2D;
+    }
+
+    @Benchmark
+    public float[] bulkFractal2D() {
+        noise.fillFractal2D(values2D, 0, 0, scale, scale, sizeX, sizeZ, octaves, 2f, 0.5f);
+        return values2D;
+    }
+
+    @Benchmark
+    public float[] scalar3D() {
+        int index = 0;
+        for (int x = 0; x < sizeX; x++) {
+            for (int y = 0; y < sizeY; y++) {
+                for (int z = 0; z < sizeZ; z++)
+                    values3D[index++] = noise.noise(x * scale, y * scale, z * scale);
+            }
+        }
+        return values3D;
+    }
+
+    @Benchmark
+    public float[] bulk3D() {
+        noise.fill3D(values3D, 0, 0, 0, scale, scale, scale, sizeX, sizeY, sizeZ);
+        return values3D;
+    }
+}
@@ -0,0 +1,70 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.terasology.utils.tree.DimensionalMap;
+import com.gempukku.terasology.utils.tree.SpaceTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest neighbour queries on a 3D tree of points spread randomly in a 1000x100x1000 area.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpaceTreeBenchmark {
+    private static final int queryCount = 1024;
+
+    @Param({"1000", "100000"})
+    public int pointCount;
+
+    private SpaceTree<Integer> spaceTree;
+    private float[][] queries;
+    private int queryIndex;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        spaceTree = new SpaceTree<>(3);
+        for (int i = 0; i < pointCount; i++)
+            spaceTree.add(randomPosition(random), i);
+
+        queries = new float[queryCount][];
+        for (int i = 0; i < queryCount; i++)
+            queries[i] = randomPosition(random);
+    }
+
+    private static float[] randomPosition(Random random) {
+        return new float[]{random.nextFloat() * 1000, random.nextFloat() * 100, random.nextFloat() * 1000};
+    }
+
+    private float[] nextQuery() {
+        queryIndex = (queryIndex + 1) % queryCount;
+        return queries[queryIndex];
+    }
+
+    @Benchmark
+    public DimensionalMap.Entry<Integer> findNearest() {
+        return spaceTree.findNearest(nextQuery());
+    }
+
+    @Benchmark
+    public Collection<DimensionalMap.Entry<Integer>> findTenNearestWithin() {
+        return spaceTree.findNearest(nextQuery(), 10, 50f);
+    }
+}
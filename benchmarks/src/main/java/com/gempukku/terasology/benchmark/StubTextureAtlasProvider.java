@@ -0,0 +1,123 @@
+package com.gempukku.terasology.benchmark;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.terasology.graphics.TextureAtlasProvider;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Atlas with a single texture, that has the same region for every texture name, so that geometry can be generated
+ * without OpenGL context. Texture is created against GL20 that does nothing (Gdx.gl is replaced, if not set).
+ */
+@RegisterSystem(
+        profiles = "benchmark", shared = TextureAtlasProvider.class)
+public class StubTextureAtlasProvider implements TextureAtlasProvider {
+    private static final int textureSize = 1024;
+
+    private final Texture texture;
+    private final TextureRegion textureRegion;
+
+    public StubTextureAtlasProvider() {
+        if (Gdx.gl == null) {
+            GL20 gl = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class},
+                    (proxy, method, args) -> getDefaultValue(method.getReturnType()));
+            Gdx.gl = gl;
+            Gdx.gl20 = gl;
+        }
+        texture = new Texture(new StubTextureData());
+        textureRegion = new TextureRegion(texture, 0, 0, 16, 16);
+    }
+
+    @Override
+    public List<Texture> getTextures(String textureAtlasId) {
+        return Collections.singletonList(texture);
+    }
+
+    @Override
+    public TextureRegion getTexture(String textureAtlasId, String name) {
+        return textureRegion;
+    }
+
+    private static Object getDefaultValue(Class<?> type) {
+        if (type == boolean.class)
+            return false;
+        if (type == int.class)
+            return 0;
+        if (type == float.class)
+            return 0f;
+        if (type == long.class)
+            return 0L;
+        if (type == short.class)
+            return (short) 0;
+        if (type == byte.class)
+            return (byte) 0;
+        if (type == double.class)
+            return 0d;
+        if (type == char.class)
+            return (char) 0;
+        return null;
+    }
+
+    private static class StubTextureData implements TextureData {
+        @Override
+        public TextureDataType getType() {
+            return TextureDataType.Custom;
+        }
+
+        @Override
+        public boolean isPrepared() {
+            return true;
+        }
+
+        @Override
+        public void prepare() {
+        }
+
+        @Override
+        public Pixmap consumePixmap() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean disposePixmap() {
+            return false;
+        }
+
+        @Override
+        public void consumeCustomData(int target) {
+        }
+
+        @Override
+        public int getWidth() {
+            return textureSize;
+        }
+
+        @Override
+        public int getHeight() {
+            return textureSize;
+        }
+
+        @Override
+        public Pixmap.Format getFormat() {
+            return Pixmap.Format.RGBA8888;
+        }
+
+        @Override
+        public boolean useMipMaps() {
+            return false;
+        }
+
+        @Override
+        public boolean isManaged() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.gempukku.terasology.benchmark;
+
+import com.gempukku.secsy.entity.io.StoredEntityData;
+import com.gempukku.terasology.world.chunk.WorldGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generating chunks of the L&D world, going through all the columns of the world and three chunks of each
+ * (below, at and above the ground). Heightmaps of the columns are cached by the generator, as in the game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldGenerationBenchmark {
+    private static final int worldSizeChunks = 10;
+    private static final int minChunkY = -1;
+    private static final int chunkLevels = 3;
+
+    private WorldGenerator worldGenerator;
+    private int chunkIndex;
+
+    @Setup
+    public void setup(HeadlessWorld headlessWorld) {
+        worldGenerator = headlessWorld.getSystem(WorldGenerator.class);
+    }
+
+    @Benchmark
+    public Iterable<StoredEntityData> generateChunk() {
+        chunkIndex = (chunkIndex + 1) % (worldSizeChunks * worldSizeChunks * chunkLevels);
+        int x = chunkIndex % worldSizeChunks;
+        int z = (chunkIndex / worldSizeChunks) % worldSizeChunks;
+        int y = minChunkY + chunkIndex / (worldSizeChunks * worldSizeChunks);
+        return worldGenerator.generateChunk(HeadlessWorld.WORLD_ID, x, y, z);
+    }
+}
@@ -2,15 +2,22 @@
 precision mediump float;
 #endif
 
-uniform sampler2D u_depthMap;
+// Shadow maps of cascades, each cascade covers the view up to its far distance
+uniform sampler2D u_depthMap0;
+uniform sampler2D u_depthMap1;
+uniform sampler2D u_depthMap2;
+uniform vec3 u_shadowMapSizes;
+uniform vec3 u_cascadeFarDistances;
 uniform sampler2D u_diffuseTexture;
 uniform float u_ambientLighting;
 uniform vec3 u_fogColor;
 uniform int u_noDirectionalLight;
-uniform int u_shadowMapSize;
 
-// Fragment position in the light coordinates
-varying vec4 v_positionLightTrans;
+// Fragment position in the light coordinates of each cascade
+varying vec4 v_positionLightTrans0;
+varying vec4 v_positionLightTrans1;
+varying vec4 v_positionLightTrans2;
+varying float v_cameraDepth;
 // Texture coordinate
 varying vec2 v_texCoord0;
 varying vec3 v_normal;
@@ -29,29 +36,40 @@ float unpackDistance(vec4 distanceVector) {
                + distanceVector.a / 255.0;
 }
 
-float getPercentageInLight() {
-    if (u_noDirectionalLight == 1) {
-        return 0.0;
-    } else {
-        float texelSize = 1.0 / float(u_shadowMapSize);
-        float totalInLight = 0.0;
+float getPercentageInCascadeLight(sampler2D depthMap, vec4 positionLightTrans, float shadowMapSize) {
+    float texelSize = 1.0 / shadowMapSize;
+    float totalInLight = 0.0;
 
-        vec2 depthLocation = (v_positionLightTrans.xy / v_positionLightTrans.w) * 0.5 + 0.5;
+    vec2 depthLocation = (positionLightTrans.xy / positionLightTrans.w) * 0.5 + 0.5;
 
-        float bias = 0.5;
-        //float bias = clamp(tan(acos(cosTheta)), 0.05, 1.0);
-        for (int x = -pcfCount; x <= pcfCount; x++) {
-            for (int y = -pcfCount; y <= pcfCount; y++) {
-                vec4 distanceFromDepthMap = texture2D(u_depthMap,
-                    depthLocation + vec2(float(x), float(y)) * texelSize);
-                float lightTravelingDistance = unpackDistance(distanceFromDepthMap);
+    float bias = 0.5;
+    //float bias = clamp(tan(acos(cosTheta)), 0.05, 1.0);
+    for (int x = -pcfCount; x <= pcfCount; x++) {
+        for (int y = -pcfCount; y <= pcfCount; y++) {
+            vec4 distanceFromDepthMap = texture2D(depthMap,
+                depthLocation + vec2(float(x), float(y)) * texelSize);
+            float lightTravelingDistance = unpackDistance(distanceFromDepthMap);
 
-                if (lightTravelingDistance >= v_distanceToLight - bias) {
-                    totalInLight += 1.0;
-                }
+            if (lightTravelingDistance >= v_distanceToLight - bias) {
+                totalInLight += 1.0;
             }
         }
-        return totalInLight / float(totalTexelsFromShadowMap);
+    }
+    return totalInLight / float(totalTexelsFromShadowMap);
+}
+
+float getPercentageInLight() {
+    if (u_noDirectionalLight == 1) {
+        return 0.0;
+    } else if (v_cameraDepth < u_cascadeFarDistances.x) {
+        return getPercentageInCascadeLight(u_depthMap0, v_positionLightTrans0, u_shadowMapSizes.x);
+    } else if (v_cameraDepth < u_cascadeFarDistances.y) {
+        return getPercentageInCascadeLight(u_depthMap1, v_positionLightTrans1, u_shadowMapSizes.y);
+    } else if (v_cameraDepth < u_cascadeFarDistances.z) {
+        return getPercentageInCascadeLight(u_depthMap2, v_positionLightTrans2, u_shadowMapSizes.z);
+    } else {
+        // Not covered by any of the cascades
+        return 1.0;
     }
 }
 
@@ -5,13 +5,19 @@ attribute float a_flag;
 
 uniform mat4 u_projViewTrans;
 uniform mat4 u_worldTrans;
-uniform mat4 u_lightTrans;
+// Light transformations of shadow cascades
+uniform mat4 u_lightTrans0;
+uniform mat4 u_lightTrans1;
+uniform mat4 u_lightTrans2;
 uniform vec3 u_lightDirection;
 uniform float u_lightPlaneDistance;
 uniform vec3 u_lightPosition;
 uniform float u_time;
 
-varying vec4 v_positionLightTrans;
+varying vec4 v_positionLightTrans0;
+varying vec4 v_positionLightTrans1;
+varying vec4 v_positionLightTrans2;
+varying float v_cameraDepth;
 varying vec3 v_position;
 varying vec3 v_normal;
 varying vec2 v_texCoord0;
@@ -60,10 +66,14 @@ void main() {
     v_distanceToLight = dot(position.xyz, u_lightDirection) + u_lightPlaneDistance;
     v_lightingComponent = clamp(dot(a_normal, normalize(u_lightPosition-position.xyz)), 0.0, 1.0);
 
-    v_positionLightTrans = u_lightTrans * position;
+    v_positionLightTrans0 = u_lightTrans0 * position;
+    v_positionLightTrans1 = u_lightTrans1 * position;
+    v_positionLightTrans2 = u_lightTrans2 * position;
     v_position = position.xyz;
 
     vec4 positionRelativeToCamera = u_projViewTrans * position;
+    // For perspective projection w is the distance from the camera along its direction
+    v_cameraDepth = positionRelativeToCamera.w;
 
     float distanceFromCamera = length(positionRelativeToCamera.xyz);
     v_visibility = clamp(exp(-pow((distanceFromCamera * fogDensity), fogGradient)), 0.0, 1.0);
@@ -15,11 +15,13 @@ import com.gempukku.secsy.network.LocalCommunication;
 import com.gempukku.secsy.network.client.RemoteEntityManager;
 import com.gempukku.secsy.network.server.ClientManager;
 import com.gempukku.terasology.graphics.RenderingEngine;
-import com.gempukku.terasology.graphics.component.CameraComponent;
 import com.gempukku.terasology.graphics.environment.event.ScreenshotFactory;
+import com.gempukku.terasology.log.GdxLogOutput;
+import com.gempukku.terasology.log.Log;
+import com.gempukku.terasology.server.PlayerSpawner;
+import com.gempukku.terasology.server.ServerTickScheduler;
 import com.gempukku.terasology.time.InternalTimeManager;
 import com.gempukku.terasology.world.MultiverseManager;
-import com.gempukku.terasology.world.component.LocationComponent;
 import org.reflections.Configuration;
 import org.reflections.Reflections;
 import org.reflections.scanners.TypeAnnotationsScanner;
@@ -27,11 +29,12 @@ import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
 
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Set;
 
 public class TerasologyApplication extends ApplicationAdapter {
     private static final boolean PROFILE = false;
+    // Measures time spent in each system, see JmxSystemProfiler
+    private static final boolean PROFILE_SYSTEMS = Boolean.getBoolean("terasology.profileSystems");
 
     private SECSyContext serverContext;
     private SECSyContext clientContext;
@@ -41,10 +44,12 @@ public class TerasologyApplication extends ApplicationAdapter {
 
     private FPSLogger fpsLogger = new FPSLogger();
 
-    private RunningServer runningServer;
+    private ServerTickScheduler serverTickScheduler;
 
     @Override
     public void create() {
+        Log.setLogOutput(new GdxLogOutput());
+
         Configuration scanBasedOnAnnotations = new ConfigurationBuilder()
                 .setScanners(new TypeAnnotationsScanner())
                 .setUrls(ClasspathHelper.forJavaClassPath());
@@ -63,10 +68,10 @@ public class TerasologyApplication extends ApplicationAdapter {
         serverContext.getSystem(ClientManager.class).addClient("clientId", playerEntity, localCommunication);
         ((RemoteEntityManager) clientContext.getSystem(EntityManager.class)).setServerCommunication(localCommunication);
 
-        runningServer = new RunningServer(
+        serverTickScheduler = new ServerTickScheduler(
                 serverContext.getSystem(InternalGameLoop.class),
                 serverContext.getSystem(InternalTimeManager.class));
-        runningServer.start();
+        serverTickScheduler.start();
 
         if (PROFILE)
             GLProfiler.enable();
@@ -88,6 +93,10 @@ public class TerasologyApplication extends ApplicationAdapter {
         // Player controls direction with mouse
         clientProfiles.add("mouseController");
         clientProfiles.add("basicPhysics");
+        // Collide with blocks, rather than chunk meshes
+        clientProfiles.add("voxelCollision");
+        if (PROFILE_SYSTEMS)
+            clientProfiles.add("profileSystems");
 
         clientContext = new SECSyContext(clientProfiles, new Reflections(scanBasedOnAnnotations));
         clientContext.startup();
@@ -106,10 +115,15 @@ public class TerasologyApplication extends ApplicationAdapter {
         serverProfiles.add("nameConventionComponents");
         // World generator
         serverProfiles.add("lAndDWorld");
+        // Store unloaded chunks on disk
+        serverProfiles.add("persistChunks");
         serverProfiles.add("generateTextureAtlas");
         // Server needs to generate chunk geometries
         serverProfiles.add("generateChunkGeometry");
         serverProfiles.add("basicPhysics");
+        serverProfiles.add("voxelCollision");
+        if (PROFILE_SYSTEMS)
+            serverProfiles.add("profileSystems");
 
         serverContext = new SECSyContext(serverProfiles, new Reflections(scanBasedOnAnnotations));
         serverContext.startup();
@@ -122,27 +136,7 @@ public class TerasologyApplication extends ApplicationAdapter {
         MultiverseManager multiverseManager = serverContext.getSystem(MultiverseManager.class);
         multiverseManager.createWorld("world");
 
-        PlayerManager playerManager = serverContext.getSystem(PlayerManager.class);
-        EntityRef player = playerManager.createPlayer("clientId");
-
-        LocationComponent playerLocation = player.createComponent(LocationComponent.class);
-        playerLocation.setX(5f);
-        playerLocation.setY(1.5f);
-        playerLocation.setZ(5f);
-        playerLocation.setWorldId("world");
-
-        CameraComponent playerCamera = player.createComponent(CameraComponent.class);
-        playerCamera.setNear(0.1f);
-        playerCamera.setFar(8f * 32);
-        playerCamera.setActive(true);
-        playerCamera.setDirectionX(0);
-        playerCamera.setDirectionY(0);
-        playerCamera.setDirectionZ(-1);
-        playerCamera.setTranslateFromLocationX(0f);
-        playerCamera.setTranslateFromLocationY(1.8f);
-        playerCamera.setTranslateFromLocationZ(0f);
-
-        player.saveChanges();
+        PlayerSpawner.spawnPlayer(serverContext.getSystem(PlayerManager.class), "clientId");
 
         Gdx.input.setCursorCatched(true);
     }
@@ -183,9 +177,9 @@ public class TerasologyApplication extends ApplicationAdapter {
 
     @Override
     public void dispose() {
-        runningServer.stopServer();
+        serverTickScheduler.stopServer();
         try {
-            runningServer.join();
+            serverTickScheduler.join();
         } catch (InterruptedException exp) {
             // ignore
         }
@@ -193,51 +187,4 @@ public class TerasologyApplication extends ApplicationAdapter {
         serverContext.shutdown();
         clientContext.shutdown();
     }
-
-    private class RunningServer extends Thread {
-        private volatile boolean running = true;
-        private InternalTimeManager internalTimeManager;
-        private InternalGameLoop internalGameLoop;
-        private LinkedList<Runnable> tasksToExecute = new LinkedList<>();
-
-        public RunningServer(InternalGameLoop internalGameLoop, InternalTimeManager internalTimeManager) {
-            this.internalGameLoop = internalGameLoop;
-            this.internalTimeManager = internalTimeManager;
-            setName("Terasology-server");
-        }
-
-        public void executeInServerThread(Runnable runnable) {
-            tasksToExecute.add(runnable);
-        }
-
-        public void stopServer() {
-            running = false;
-        }
-
-        public void run() {
-            long lastUpdate = System.currentTimeMillis();
-            while (running) {
-                while (true) {
-                    Runnable task = tasksToExecute.poll();
-                    if (task == null)
-                        break;
-                    else
-                        task.run();
-                }
-
-                long newTime = System.currentTimeMillis();
-                // The biggest difference between two ticks can be 1000
-                long timeDiff = Math.min(1000, newTime - lastUpdate);
-                lastUpdate = newTime;
-
-                internalTimeManager.updateMultiverseTime(timeDiff);
-                internalGameLoop.processUpdate();
-                try {
-                    Thread.sleep(20);
-                } catch (InterruptedException exp) {
-                    // ignore
-                }
-            }
-        }
-    }
 }
@@ -1,6 +1,5 @@
 package com.gempukku.terasology.communication;
 
-import com.badlogic.gdx.Gdx;
 import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
@@ -16,6 +15,7 @@ import com.gempukku.secsy.network.server.ClientConnectedEvent;
 import com.gempukku.secsy.network.server.ClientEntityRelevanceRule;
 import com.gempukku.secsy.network.server.ClientEntityRelevancyRuleListener;
 import com.gempukku.secsy.network.server.ClientManager;
+import com.gempukku.terasology.log.Log;
 import com.gempukku.terasology.world.WorldBlock;
 import com.gempukku.terasology.world.chunk.ChunkBlocks;
 import com.gempukku.terasology.world.chunk.ChunkBlocksProvider;
@@ -165,7 +165,7 @@ public class ClientReceivesStuffAroundIt implements ClientEntityRelevanceRule, L
 
                 ChunkBlocks chunkBlocks = chunkBlocksProvider.getChunkBlocks(chunk.getWorldId(), chunk.getX(), chunk.getY(), chunk.getZ());
                 short[] blocks = chunkBlocks.getBlocks();
-                Gdx.app.debug("ClientReceivesBlocksAroundIt", "Sending chunk to client: " + chunk.getX() + "," + chunk.getY() + "," + chunk.getZ());
+                Log.debug("ClientReceivesBlocksAroundIt", "Sending chunk to client: " + chunk.getX() + "," + chunk.getY() + "," + chunk.getZ());
                 storeNewChunks.add(new StoreNewChunk(chunk.getWorldId(), chunk.getX(), chunk.getY(), chunk.getZ(), blocks));
                 chunksClientHas.put(clientComponent.getClientId(), chunkBlocks);
             }
@@ -288,7 +288,7 @@ public class ClientReceivesStuffAroundIt implements ClientEntityRelevanceRule, L
 
                 ChunkBlocks chunkBlocks = chunkBlocksProvider.getChunkBlocks(worldId, chunkX, chunkY, chunkZ);
                 short[] blocks = chunkBlocks.getBlocks();
-                Gdx.app.debug("ClientReceivesBlocksAroundIt", "Sending chunk to client: " + chunkX + "," + chunkY + "," + chunkZ);
+                Log.debug("ClientReceivesBlocksAroundIt", "Sending chunk to client: " + chunkX + "," + chunkY + "," + chunkZ);
                 clientEntity.send(new StoreNewChunk(worldId, chunkX, chunkY, chunkZ, blocks));
                 chunksClientHas.put(client.getClientId(), chunkBlocks);
             }
@@ -348,11 +348,11 @@ public class ClientReceivesStuffAroundIt implements ClientEntityRelevanceRule, L
                         if (clientHasChunk) {
                             if (!chunksClientHas.remove(client.getClientId(), chunkBlocks))
                                 throw new RuntimeException("Failed to remove");
-                            Gdx.app.debug("ClientReceivesBlocksAroundIt", "Removing chunk from client: " + chunk.getX() + "," + chunk.getY() + "," + chunk.getZ());
+                            Log.debug("ClientReceivesBlocksAroundIt", "Removing chunk from client: " + chunk.getX() + "," + chunk.getY() + "," + chunk.getZ());
                             removeOldChunks.add(new RemoveOldChunk(chunk.getWorldId(), chunk.getX(), chunk.getY(), chunk.getZ()));
                         } else {
                             short[] blocks = chunkBlocks.getBlocks();
-                            Gdx.app.debug("ClientReceivesBlocksAroundIt", "Sending chunk to client: " + chunk.getX() + "," + chunk.getY() + "," + chunk.getZ());
+                            Log.debug("ClientReceivesBlocksAroundIt", "Sending chunk to client: " + chunk.getX() + "," + chunk.getY() + "," + chunk.getZ());
                             storeNewChunks.add(new StoreNewChunk(chunk.getWorldId(), chunk.getX(), chunk.getY(), chunk.getZ(), blocks));
                             chunksClientHas.put(client.getClientId(), chunkBlocks);
                         }
@@ -0,0 +1,31 @@
+package com.gempukku.terasology.communication;
+
+import com.gempukku.secsy.context.annotation.In;
+import com.gempukku.secsy.context.annotation.NetProfiles;
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.context.system.LifeCycleSystem;
+import com.gempukku.secsy.network.server.ClientManager;
+import com.gempukku.terasology.movement.MovementComponent;
+import com.gempukku.terasology.world.component.LocationComponent;
+
+/**
+ * Sends changes of position and movement of entities to clients at most the configured number of times per second,
+ * clients interpolate the positions in between. Other changes of entities are still sent right away.
+ */
+@RegisterSystem(
+        profiles = NetProfiles.AUTHORITY)
+public class ThrottledPositionUpdates implements LifeCycleSystem {
+    @In
+    private ClientManager clientManager;
+
+    private final int positionUpdatesPerSecond = Integer.getInteger("terasology.network.positionUpdatesPerSecond", 10);
+
+    @Override
+    public void initialize() {
+        if (positionUpdatesPerSecond > 0) {
+            long updateInterval = 1000 / positionUpdatesPerSecond;
+            clientManager.setComponentUpdateInterval(LocationComponent.class, updateInterval);
+            clientManager.setComponentUpdateInterval(MovementComponent.class, updateInterval);
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.gempukku.terasology.graphics;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.PerspectiveCamera;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.utils.DefaultTextureBinder;
+import com.badlogic.gdx.graphics.g3d.utils.RenderContext;
 import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.math.Vector3;
 import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
@@ -23,6 +25,8 @@ import com.gempukku.terasology.graphics.environment.renderer.EnvironmentRenderer
 import com.gempukku.terasology.graphics.environment.renderer.EnvironmentRendererRegistry;
 import com.gempukku.terasology.graphics.environment.renderer.MyShaderProvider;
 import com.gempukku.terasology.graphics.environment.renderer.RenderingBuffer;
+import com.gempukku.terasology.graphics.environment.renderer.ShadowCascade;
+import com.gempukku.terasology.graphics.environment.renderer.ShadowCascades;
 import com.gempukku.terasology.graphics.postprocess.PostProcessingRenderer;
 import com.gempukku.terasology.graphics.postprocess.PostProcessingRendererRegistry;
 import com.gempukku.terasology.graphics.ui.UiRenderer;
@@ -58,19 +62,30 @@ public class FourPhaseMasterRenderer implements RenderingEngine, EnvironmentRend
 
     private PerspectiveCamera camera;
     private MyShaderProvider myShaderProvider;
+    private RenderContext renderContext;
     private ModelBatch modelBatch;
-    private FrameBuffer lightFrameBuffer;
-    private Camera lightCamera;
 
-    private EntityIndex cameraAndLocationIndex;
+    // Shadow maps of cascades are bound to consecutive texture units starting with this one, units above them are
+    // left for the textures of models
+    private static final int shadowMapTextureUnit = 2;
+    private static final float shadowCascadeSlack = 0.15f;
+
+    private final int[] shadowCascadeResolutions = parseInts(System.getProperty("terasology.shadow.cascadeResolutions", "2048,2048,1024"));
+    private final float[] shadowCascadeSplits = parseFloats(System.getProperty("terasology.shadow.cascadeSplits", "0.1,0.35,1"));
+    private final float sunDirectionThreshold = Float.parseFloat(System.getProperty("terasology.shadow.sunDirectionThreshold", "0.5"));
+
+    private ShadowCascades shadowCascades;
+    private FrameBuffer[] shadowFrameBuffers;
+    private RenderingBuffer[] shadowRenderingBuffers;
+    private Vector3 sunDirection = new Vector3();
+    private Vector3 lightPosition = new Vector3();
 
-    private static int shadowFidelity = 4;
+    private EntityIndex cameraAndLocationIndex;
 
     private FrameBuffer firstOffScreenBuffer;
     private FrameBuffer secondOffScreenBuffer;
 
     private RenderingBuffer screenRenderingBuffer;
-    private RenderingBuffer lightsRenderingBuffer;
 
     @Override
     public void registerBackdropRenderer(BackdropRenderer backdropRenderer) {
@@ -101,12 +116,37 @@ public class FourPhaseMasterRenderer implements RenderingEngine, EnvironmentRend
     public void preInitialize() {
         updateCamera();
         myShaderProvider = new MyShaderProvider();
-        modelBatch = new ModelBatch(myShaderProvider);
-        lightFrameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, shadowFidelity * 1024, shadowFidelity * 1024, true);
-        lightCamera = new PerspectiveCamera(120f, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        renderContext = new RenderContext(new DefaultTextureBinder(DefaultTextureBinder.WEIGHTED,
+                shadowMapTextureUnit + ShadowCascades.MAX_CASCADES));
+        modelBatch = new ModelBatch(renderContext, myShaderProvider);
+
+        shadowCascades = new ShadowCascades(shadowCascadeResolutions, shadowCascadeSplits, sunDirectionThreshold, shadowCascadeSlack);
+        int cascadeCount = shadowCascades.getCascadeCount();
+        shadowFrameBuffers = new FrameBuffer[cascadeCount];
+        shadowRenderingBuffers = new RenderingBuffer[cascadeCount];
+        for (int i = 0; i < cascadeCount; i++) {
+            int resolution = shadowCascades.getCascade(i).getResolution();
+            shadowFrameBuffers[i] = new FrameBuffer(Pixmap.Format.RGBA8888, resolution, resolution, true);
+            shadowRenderingBuffers[i] = new OffScreenRenderingBuffer(shadowFrameBuffers[i]);
+        }
 
         screenRenderingBuffer = new ScreenRenderingBuffer();
-        lightsRenderingBuffer = new OffScreenRenderingBuffer(lightFrameBuffer);
+    }
+
+    private static int[] parseInts(String values) {
+        String[] split = values.split(",");
+        int[] result = new int[split.length];
+        for (int i = 0; i < split.length; i++)
+            result[i] = Integer.parseInt(split[i].trim());
+        return result;
+    }
+
+    private static float[] parseFloats(String values) {
+        String[] split = values.split(",");
+        float[] result = new float[split.length];
+        for (int i = 0; i < split.length; i++)
+            result[i] = Float.parseFloat(split[i].trim());
+        return result;
     }
 
     @Override
@@ -116,7 +156,8 @@ public class FourPhaseMasterRenderer implements RenderingEngine, EnvironmentRend
 
     @Override
     public void postDestroy() {
-        lightFrameBuffer.dispose();
+        for (FrameBuffer shadowFrameBuffer : shadowFrameBuffers)
+            shadowFrameBuffer.dispose();
         modelBatch.dispose();
     }
 
@@ -200,10 +241,12 @@ public class FourPhaseMasterRenderer implements RenderingEngine, EnvironmentRend
     }
 
     private void renderLightMap(String worldId, float radialTimeOfDay) {
-        lightsRenderingBuffer.begin();
-        cleanBuffer();
-        lightRenderPass(worldId, radialTimeOfDay);
-        lightsRenderingBuffer.end();
+        for (int i = 0; i < shadowRenderingBuffers.length; i++) {
+            shadowRenderingBuffers[i].begin();
+            cleanBuffer();
+            lightRenderPass(worldId, radialTimeOfDay, shadowCascades.getCascade(i));
+            shadowRenderingBuffers[i].end();
+        }
     }
 
     private Collection<PostProcessingRenderer> getEnabledPostProcessors(EntityRef activeCameraEntity) {
@@ -224,12 +267,12 @@ public class FourPhaseMasterRenderer implements RenderingEngine, EnvironmentRend
         myShaderProvider.setAmbientLight(ambientLight);
         // Time used in shading depends on real time, not multiverse time
         myShaderProvider.setTime((System.currentTimeMillis() % 10000) / 1000f);
-        myShaderProvider.setLightTrans(lightCamera.combined);
-        myShaderProvider.setLightPosition(lightCamera.position);
-        myShaderProvider.setLightPlaneDistance(lightCamera.position.len());
-        myShaderProvider.setLightDirection(lightCamera.direction);
+        myShaderProvider.setShadowCascades(shadowCascades);
+        myShaderProvider.setShadowMapTextureUnit(shadowMapTextureUnit);
+        myShaderProvider.setLightPosition(lightPosition);
+        myShaderProvider.setLightPlaneDistance(lightPosition.len());
+        myShaderProvider.setLightDirection(shadowCascades.getSunDirection());
         myShaderProvider.setNight(!isDay(radialTimeOfDay));
-        myShaderProvider.setShadowMapSize(shadowFidelity * 1024);
     }
 
     private float getAmbientLight(float radialTimeOfDay) {
@@ -286,31 +329,31 @@ public class FourPhaseMasterRenderer implements RenderingEngine, EnvironmentRend
     }
 
     private void setupLight(float radialTimeOfDay) {
-        lightCamera.position.set(
-                (float) (camera.position.x - 1.1 * camera.far * Math.sin(radialTimeOfDay)),
-                (float) (camera.position.y - 1.1 * camera.far * Math.cos(radialTimeOfDay)),
-                camera.position.z);
-        if (radialTimeOfDay == 0) {
-            lightCamera.up.set(1, 0, 0);
-        } else {
-            lightCamera.up.set(0, 1, 0);
+        sunDirection.set((float) Math.sin(radialTimeOfDay), (float) Math.cos(radialTimeOfDay), 0);
+        // Objects as far as the camera sees, towards the sun, can cast shadows into the view
+        int changedCascades = shadowCascades.update(camera.position, camera.direction, camera.fieldOfView,
+                camera.viewportWidth / camera.viewportHeight, camera.far, sunDirection, camera.far);
+        for (int i = 0; i < shadowCascades.getCascadeCount(); i++) {
+            if ((changedCascades & (1 << i)) != 0)
+                shadowCascades.getCascade(i).getCamera().update();
         }
-        lightCamera.lookAt(camera.position.x, camera.position.y, camera.position.z);
-        lightCamera.far = camera.far * 2.21f;
-        lightCamera.near = camera.near;
-        lightCamera.update();
+
+        // Sun used for lighting moves together with the shadows
+        lightPosition.set(shadowCascades.getSunDirection()).scl(-1.1f * camera.far).add(camera.position);
     }
 
-    private void lightRenderPass(String worldId, float radialTimeOfDay) {
+    private void lightRenderPass(String worldId, float radialTimeOfDay, ShadowCascade shadowCascade) {
         // If sun is over the horizon, just skip drawing anything in the light pass to save time
         // (and avoid artifacts created due to light shining through from beneath the chunks)
         if (isDay(radialTimeOfDay)) {
             myShaderProvider.setMode(MyShaderProvider.Mode.ENVIRONMENT_SHADOW);
-            modelBatch.begin(lightCamera);
+            renderContext.begin();
+            modelBatch.begin(shadowCascade.getCamera());
             for (EnvironmentRenderer environmentRenderer : environmentRenderers) {
-                environmentRenderer.renderEnvironment(lightCamera, worldId, modelBatch);
+                environmentRenderer.renderEnvironmentShadow(shadowCascade, worldId, modelBatch);
             }
             modelBatch.end();
+            renderContext.end();
         }
     }
 
@@ -320,12 +363,15 @@ public class FourPhaseMasterRenderer implements RenderingEngine, EnvironmentRend
 
     private void normalRenderPass(String worldId) {
         myShaderProvider.setMode(MyShaderProvider.Mode.ENVIRONMENT);
-        lightFrameBuffer.getColorBufferTexture().bind(2);
+        for (int i = 0; i < shadowFrameBuffers.length; i++)
+            shadowFrameBuffers[i].getColorBufferTexture().bind(shadowMapTextureUnit + i);
+        renderContext.begin();
         modelBatch.begin(camera);
         for (EnvironmentRenderer environmentRenderer : environmentRenderers) {
             environmentRenderer.renderEnvironment(camera, worldId, modelBatch);
         }
         modelBatch.end();
+        renderContext.end();
     }
 
     private void renderPostEnvironment(String worldId) {
@@ -1,6 +1,7 @@
 package com.gempukku.terasology.graphics.environment.mesh;
 
 import com.badlogic.gdx.graphics.g3d.model.MeshPart;
+import com.badlogic.gdx.math.collision.BoundingBox;
 import com.badlogic.gdx.utils.Array;
 import com.gempukku.terasology.world.chunk.ChunkLocation;
 
@@ -11,6 +12,8 @@ public class ChunkMesh implements ChunkLocation {
     public final int z;
 
     private Array<MeshPart> meshParts;
+    private BoundingBox boundingBox;
+    private int faceConnectivity;
 
     public ChunkMesh(String worldId, int x, int y, int z) {
         this.worldId = worldId;
@@ -27,6 +30,22 @@ public class ChunkMesh implements ChunkLocation {
         this.meshParts = meshParts;
     }
 
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
+    public void setBoundingBox(BoundingBox boundingBox) {
+        this.boundingBox = boundingBox;
+    }
+
+    public int getFaceConnectivity() {
+        return faceConnectivity;
+    }
+
+    public void setFaceConnectivity(int faceConnectivity) {
+        this.faceConnectivity = faceConnectivity;
+    }
+
     @Override
     public String getWorldId() {
         return worldId;
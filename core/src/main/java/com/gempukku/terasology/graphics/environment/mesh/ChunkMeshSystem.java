@@ -9,6 +9,7 @@ import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
 import com.gempukku.terasology.graphics.environment.event.AfterChunkGeometryCreated;
 import com.gempukku.terasology.graphics.environment.event.BeforeChunkGeometryRemoved;
 import com.gempukku.terasology.world.chunk.IntLocationKey;
+import com.gempukku.terasology.world.chunk.geometry.ChunkGeometry;
 import com.gempukku.terasology.world.chunk.geometry.ChunkGeometryContainer;
 import com.gempukku.terasology.world.chunk.geometry.ChunkGeometryManager;
 
@@ -34,9 +35,12 @@ public class ChunkMeshSystem implements ChunkMeshManager {
     @ReceiveEvent
     public void chunkGeometryCreated(AfterChunkGeometryCreated event, EntityRef worldEntity) {
         ChunkGeometryContainer chunkGeometryContainer = chunkGeometryManager.getChunkGeometry(event.worldId, event.x, event.y, event.z);
-        Array<MeshPart> array = chunkMeshGenerator.generateMeshParts(chunkGeometryContainer.getChunkGeometry());
+        ChunkGeometry chunkGeometry = chunkGeometryContainer.getChunkGeometry();
+        Array<MeshPart> array = chunkMeshGenerator.generateMeshParts(chunkGeometry);
         ChunkMesh chunkMesh = new ChunkMesh(event.worldId, event.x, event.y, event.z);
         chunkMesh.setMeshParts(array);
+        chunkMesh.setBoundingBox(chunkGeometry.getBoundingBox());
+        chunkMesh.setFaceConnectivity(chunkGeometry.getFaceConnectivity());
         meshesInWorld.put(new IntLocationKey(chunkMesh), chunkMesh);
         worldEntity.send(new AfterChunkMeshCreated(event.worldId, event.x, event.y, event.z));
     }
@@ -30,6 +30,7 @@ import com.gempukku.terasology.world.chunk.ChunkBlocksProvider;
 import com.gempukku.terasology.world.chunk.ChunkSize;
 import com.gempukku.terasology.world.chunk.geometry.BlockGeometryGenerator;
 import com.gempukku.terasology.world.chunk.geometry.BlockGeometryGeneratorRegistry;
+import com.gempukku.terasology.world.chunk.geometry.ChunkFaceConnectivity;
 import com.gempukku.terasology.world.chunk.geometry.ChunkGeometryGenerator;
 import com.gempukku.terasology.world.chunk.geometry.ListsChunkGeometry;
 import com.gempukku.terasology.world.component.CommonBlockComponent;
@@ -65,6 +66,8 @@ public class ListsChunkGeometryAndMeshGenerator implements ChunkGeometryGenerato
     private ShapeDef[] shapesByBlockId;
     private Map<String, String>[] texturesByBlockId;
     private boolean[] opaqueByBlockId;
+    // Opaque blocks covering all of their sides, nothing can be seen through them
+    private boolean[] occludingByBlockId;
     private String[] blockMeshGenerators;
 
     private Map<String, BlockGeometryGenerator> registeredBlockMeshGenerators = new HashMap<>();
@@ -107,6 +110,7 @@ public class ListsChunkGeometryAndMeshGenerator implements ChunkGeometryGenerato
             shapesByBlockId = new ShapeDef[commonBlockCount];
             texturesByBlockId = new Map[commonBlockCount];
             opaqueByBlockId = new boolean[commonBlockCount];
+            occludingByBlockId = new boolean[commonBlockCount];
             blockMeshGenerators = new String[commonBlockCount];
             for (short i = 0; i < commonBlockCount; i++) {
                 EntityData commonBlockData = commonBlockManager.getCommonBlockById(i);
@@ -115,6 +119,8 @@ public class ListsChunkGeometryAndMeshGenerator implements ChunkGeometryGenerato
                     shapesByBlockId[i] = shapeProvider.getShapeById((String) shapeAndTextureComponent.getFields().get("shapeId"));
                     texturesByBlockId[i] = (Map<String, String>) shapeAndTextureComponent.getFields().get("parts");
                     opaqueByBlockId[i] = (Boolean) shapeAndTextureComponent.getFields().get("opaque");
+                    occludingByBlockId[i] = opaqueByBlockId[i]
+                            && shapesByBlockId[i].getFullParts().size() == BlockSide.values().length;
                 }
                 ComponentData generatedBlockMeshComponent = commonBlockData.getComponent(GeneratedBlockMeshComponent.class);
                 if (generatedBlockMeshComponent != null) {
@@ -185,7 +191,9 @@ public class ListsChunkGeometryAndMeshGenerator implements ChunkGeometryGenerato
             indicesPerTexture[i] = indices.toArray();
         }
 
-        return new ListsChunkGeometry(9, verticesPerTexture, blocksPerTexture, indicesPerTexture);
+        int faceConnectivity = ChunkFaceConnectivity.computeConnectivity(chunkSector[13], occludingByBlockId);
+
+        return new ListsChunkGeometry(9, verticesPerTexture, blocksPerTexture, indicesPerTexture, faceConnectivity);
     }
 
     @Override
@@ -0,0 +1,153 @@
+package com.gempukku.terasology.graphics.environment.renderer;
+
+import com.gempukku.terasology.graphics.shape.BlockSide;
+import com.gempukku.terasology.world.chunk.geometry.ChunkFaceConnectivity;
+
+import java.util.Arrays;
+
+/**
+ * Finds chunks that might be visible from the chunk the camera is in, by a breadth first walk over the chunk grid.
+ * Walk enters a neighbouring chunk only through faces, that are connected (see ChunkFaceConnectivity) to the face
+ * it entered the current chunk through, and never turns back in a direction opposite to the one it already went
+ * in. So chunks that are fully enclosed by solid blocks (i.e. underground) are not reached from the surface.
+ * <p>
+ * The walk does not need any rendering context, and reuses its buffers, so it should be used from one thread only.
+ */
+public class ChunkOcclusionCuller {
+    private static final BlockSide[] sides = BlockSide.values();
+
+    private int gridRadius = -1;
+    private int gridSize;
+    private int[] visitedFrame;
+    private int frame;
+
+    // Queued chunks, stored as relative position to the camera chunk, face it was entered through and directions
+    // the walk went in to get there
+    private int[] queue;
+
+    /**
+     * Calls the visitor for each chunk that can be seen from chunk cameraX, cameraY, cameraZ, including the
+     * camera chunk itself.
+     *
+     * @param cameraX
+     * @param cameraY
+     * @param cameraZ
+     * @param maxDistance Maximum distance (in chunks, along any axis) from the camera chunk to walk.
+     * @param chunkGrid
+     * @param visitor
+     */
+    public void visitVisibleChunks(int cameraX, int cameraY, int cameraZ, int maxDistance, ChunkGrid chunkGrid, ChunkVisitor visitor) {
+        prepareGrid(maxDistance);
+
+        int head = 0;
+        int tail = 0;
+
+        markVisited(0, 0, 0);
+        visitor.visitChunk(cameraX, cameraY, cameraZ);
+        for (int exitFace = 0; exitFace < sides.length; exitFace++) {
+            tail = enqueueNeighbour(cameraX, cameraY, cameraZ, 0, 0, 0, exitFace, 0, chunkGrid, tail);
+        }
+
+        while (head < tail) {
+            int dx = queue[head++];
+            int dy = queue[head++];
+            int dz = queue[head++];
+            int entryFace = queue[head++];
+            int directions = queue[head++];
+
+            int x = cameraX + dx;
+            int y = cameraY + dy;
+            int z = cameraZ + dz;
+            visitor.visitChunk(x, y, z);
+
+            int connectivity = chunkGrid.getFaceConnectivity(x, y, z);
+            for (int exitFace = 0; exitFace < sides.length; exitFace++) {
+                if (exitFace == entryFace
+                        || (directions & (1 << sides[exitFace].getOpposite().ordinal())) != 0
+                        || !ChunkFaceConnectivity.isConnected(connectivity, entryFace, exitFace))
+                    continue;
+
+                tail = enqueueNeighbour(cameraX, cameraY, cameraZ, dx, dy, dz, exitFace, directions, chunkGrid, tail);
+            }
+        }
+    }
+
+    private int enqueueNeighbour(int cameraX, int cameraY, int cameraZ, int dx, int dy, int dz, int exitFace, int directions,
+                                 ChunkGrid chunkGrid, int tail) {
+        BlockSide side = sides[exitFace];
+        int nx = dx + side.getNormalX();
+        int ny = dy + side.getNormalY();
+        int nz = dz + side.getNormalZ();
+        if (Math.abs(nx) > gridRadius || Math.abs(ny) > gridRadius || Math.abs(nz) > gridRadius)
+            return tail;
+        if (isVisited(nx, ny, nz))
+            return tail;
+        if (!chunkGrid.isInView(cameraX + nx, cameraY + ny, cameraZ + nz))
+            return tail;
+
+        markVisited(nx, ny, nz);
+        queue[tail++] = nx;
+        queue[tail++] = ny;
+        queue[tail++] = nz;
+        queue[tail++] = side.getOpposite().ordinal();
+        queue[tail++] = directions | (1 << exitFace);
+        return tail;
+    }
+
+    private void prepareGrid(int maxDistance) {
+        if (maxDistance != gridRadius) {
+            gridRadius = maxDistance;
+            gridSize = 2 * maxDistance + 1;
+            int cellCount = gridSize * gridSize * gridSize;
+            visitedFrame = new int[cellCount];
+            queue = new int[5 * cellCount];
+            frame = 0;
+        }
+        frame++;
+        // Very unlikely, but once the counter wraps, cells marked long time ago would look visited
+        if (frame == 0) {
+            Arrays.fill(visitedFrame, 0);
+            frame = 1;
+        }
+    }
+
+    private boolean isVisited(int dx, int dy, int dz) {
+        return visitedFrame[getCellIndex(dx, dy, dz)] == frame;
+    }
+
+    private void markVisited(int dx, int dy, int dz) {
+        visitedFrame[getCellIndex(dx, dy, dz)] = frame;
+    }
+
+    private int getCellIndex(int dx, int dy, int dz) {
+        return ((dx + gridRadius) * gridSize + dy + gridRadius) * gridSize + dz + gridRadius;
+    }
+
+    public interface ChunkGrid {
+        /**
+         * Returns connectivity of faces of the chunk, chunks which are not known yet should return
+         * ChunkFaceConnectivity.ALL_CONNECTED, so that the chunks behind them are not hidden.
+         *
+         * @param x
+         * @param y
+         * @param z
+         * @return
+         */
+        int getFaceConnectivity(int x, int y, int z);
+
+        /**
+         * Tells if the chunk is in the view of the camera (i.e. in its frustum), walk does not continue through
+         * chunks that are not.
+         *
+         * @param x
+         * @param y
+         * @param z
+         * @return
+         */
+        boolean isInView(int x, int y, int z);
+    }
+
+    public interface ChunkVisitor {
+        void visitChunk(int x, int y, int z);
+    }
+}
@@ -1,8 +1,10 @@
 package com.gempukku.terasology.graphics.environment.renderer;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
 import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
@@ -16,13 +18,22 @@ import com.gempukku.terasology.graphics.environment.mesh.BeforeChunkMeshRemoved;
 import com.gempukku.terasology.graphics.environment.mesh.ChunkMeshGenerator;
 import com.gempukku.terasology.graphics.environment.mesh.ChunkMeshManager;
 import com.gempukku.terasology.graphics.shape.ShapeProvider;
+import com.gempukku.terasology.log.Log;
 import com.gempukku.terasology.world.CommonBlockManager;
 import com.gempukku.terasology.world.WorldStorage;
 import com.gempukku.terasology.world.chunk.ChunkBlocksProvider;
+import com.gempukku.terasology.world.chunk.ChunkSize;
+import com.gempukku.terasology.world.chunk.IntLocationKey;
+import com.gempukku.terasology.world.chunk.geometry.ChunkFaceConnectivity;
 import com.gempukku.terasology.world.component.WorldComponent;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @RegisterSystem(
         profiles = NetProfiles.CLIENT)
 public class ChunkRenderingSystem implements EnvironmentRenderer, LifeCycleSystem {
@@ -44,6 +55,14 @@ public class ChunkRenderingSystem implements EnvironmentRenderer, LifeCycleSyste
     private ChunkMeshManager chunkMeshManager;
 
     private Multimap<String, RenderableChunk> renderableChunksInWorld = HashMultimap.create();
+    private Map<IntLocationKey, RenderableChunk> renderableChunksByLocation = new HashMap<>();
+
+    private ChunkOcclusionCuller chunkOcclusionCuller = new ChunkOcclusionCuller();
+    private CameraChunkGrid cameraChunkGrid = new CameraChunkGrid();
+
+    // Changes each time a chunk is added, removed or its mesh is replaced
+    private int chunksVersion;
+    private ShadowDrawList[] shadowDrawLists = new ShadowDrawList[ShadowCascades.MAX_CASCADES];
 
     @Override
     public void initialize() {
@@ -52,13 +71,48 @@ public class ChunkRenderingSystem implements EnvironmentRenderer, LifeCycleSyste
 
     @Override
     public void renderEnvironment(Camera camera, String worldId, ModelBatch modelBatch) {
-        for (RenderableChunk renderableChunk : renderableChunksInWorld.get(worldId)) {
-            if (renderableChunk.isRenderable() && renderableChunk.isVisible(camera)) {
-                modelBatch.render(renderableChunk.getRenderableProvider());
+        int cameraChunkX = MathUtils.floor(camera.position.x / ChunkSize.X);
+        int cameraChunkY = MathUtils.floor(camera.position.y / ChunkSize.Y);
+        int cameraChunkZ = MathUtils.floor(camera.position.z / ChunkSize.Z);
+
+        if (findRenderableChunk(worldId, cameraChunkX, cameraChunkY, cameraChunkZ) != null) {
+            // Camera is in the loaded part of the world, so only the chunks that can be seen from its chunk are drawn
+            int maxDistance = MathUtils.ceil(camera.far / Math.min(ChunkSize.X, ChunkSize.Z)) + 1;
+            cameraChunkGrid.setup(camera, worldId, modelBatch);
+            chunkOcclusionCuller.visitVisibleChunks(cameraChunkX, cameraChunkY, cameraChunkZ, maxDistance,
+                    cameraChunkGrid, cameraChunkGrid);
+            cameraChunkGrid.clear();
+        } else {
+            for (RenderableChunk renderableChunk : renderableChunksInWorld.get(worldId)) {
+                if (renderableChunk.isRenderable() && renderableChunk.isVisible(camera)) {
+                    modelBatch.render(renderableChunk.getRenderableProvider());
+                }
             }
         }
     }
 
+    @Override
+    public void renderEnvironmentShadow(ShadowCascade shadowCascade, String worldId, ModelBatch modelBatch) {
+        ShadowDrawList shadowDrawList = shadowDrawLists[shadowCascade.getIndex()];
+        if (shadowDrawList == null) {
+            shadowDrawList = new ShadowDrawList();
+            shadowDrawLists[shadowCascade.getIndex()] = shadowDrawList;
+        }
+
+        if (!shadowDrawList.isValid(worldId, shadowCascade.getViewVersion(), chunksVersion)) {
+            shadowDrawList.rebuild(worldId, shadowCascade.getViewVersion(), chunksVersion);
+            Camera lightCamera = shadowCascade.getCamera();
+            for (RenderableChunk renderableChunk : renderableChunksInWorld.get(worldId)) {
+                if (renderableChunk.isRenderable() && renderableChunk.isVisible(lightCamera))
+                    shadowDrawList.chunks.add(renderableChunk);
+            }
+        }
+
+        for (RenderableChunk renderableChunk : shadowDrawList.chunks) {
+            modelBatch.render(renderableChunk.getRenderableProvider());
+        }
+    }
+
     @ReceiveEvent
     public void chunkMeshCreated(AfterChunkMeshCreated event, EntityRef worldEntity, WorldComponent worldComponent) {
         String worldId = worldComponent.getWorldId();
@@ -70,9 +124,11 @@ public class ChunkRenderingSystem implements EnvironmentRenderer, LifeCycleSyste
         if (renderableChunk == null) {
             renderableChunk = new RenderableChunk(worldId, x, y, z);
             renderableChunksInWorld.put(worldId, renderableChunk);
+            renderableChunksByLocation.put(new IntLocationKey(worldId, x, y, z), renderableChunk);
         }
         renderableChunk.updateChunkMesh(chunkMeshManager.getChunkMesh(worldId, x, y, z), textureAtlasProvider.getTextures(ChunkMeshGenerator.CHUNK_ATLAS_NAME));
-        Gdx.app.debug("ChunkRenderingSystem", "Chunk renderable created: " + x + "," + y + "," + z);
+        chunksVersion++;
+        Log.debug("ChunkRenderingSystem", "Chunk renderable created: " + x + "," + y + "," + z);
     }
 
     @ReceiveEvent
@@ -85,14 +141,82 @@ public class ChunkRenderingSystem implements EnvironmentRenderer, LifeCycleSyste
         RenderableChunk chunk = findRenderableChunk(worldId, x, y, z);
         if (chunk != null) {
             renderableChunksInWorld.remove(worldId, chunk);
+            renderableChunksByLocation.remove(new IntLocationKey(worldId, x, y, z));
+            chunksVersion++;
         }
     }
 
     private RenderableChunk findRenderableChunk(String worldId, int x, int y, int z) {
-        for (RenderableChunk renderableChunk : renderableChunksInWorld.get(worldId)) {
-            if (renderableChunk.x == x && renderableChunk.y == y && renderableChunk.z == z)
-                return renderableChunk;
+        return renderableChunksByLocation.get(new IntLocationKey(worldId, x, y, z));
+    }
+
+    /**
+     * Chunks to draw into the shadow map of a cascade, valid until light view of the cascade or chunks change.
+     */
+    private static class ShadowDrawList {
+        private final List<RenderableChunk> chunks = new ArrayList<>();
+        private String worldId;
+        private int viewVersion;
+        private int chunksVersion;
+
+        public boolean isValid(String worldId, int viewVersion, int chunksVersion) {
+            return worldId.equals(this.worldId) && viewVersion == this.viewVersion && chunksVersion == this.chunksVersion;
+        }
+
+        public void rebuild(String worldId, int viewVersion, int chunksVersion) {
+            this.worldId = worldId;
+            this.viewVersion = viewVersion;
+            this.chunksVersion = chunksVersion;
+            chunks.clear();
+        }
+    }
+
+    private class CameraChunkGrid implements ChunkOcclusionCuller.ChunkGrid, ChunkOcclusionCuller.ChunkVisitor {
+        private final BoundingBox chunkBounds = new BoundingBox();
+        private final Vector3 chunkMin = new Vector3();
+        private final Vector3 chunkMax = new Vector3();
+
+        private Camera camera;
+        private String worldId;
+        private ModelBatch modelBatch;
+
+        public void setup(Camera camera, String worldId, ModelBatch modelBatch) {
+            this.camera = camera;
+            this.worldId = worldId;
+            this.modelBatch = modelBatch;
+        }
+
+        public void clear() {
+            camera = null;
+            worldId = null;
+            modelBatch = null;
+        }
+
+        @Override
+        public int getFaceConnectivity(int x, int y, int z) {
+            RenderableChunk renderableChunk = findRenderableChunk(worldId, x, y, z);
+            if (renderableChunk == null)
+                return ChunkFaceConnectivity.ALL_CONNECTED;
+            return renderableChunk.getFaceConnectivity();
+        }
+
+        @Override
+        public boolean isInView(int x, int y, int z) {
+            chunkMin.set(x * ChunkSize.X, y * ChunkSize.Y, z * ChunkSize.Z);
+            chunkMax.set((x + 1) * ChunkSize.X, (y + 1) * ChunkSize.Y, (z + 1) * ChunkSize.Z);
+            if (camera.frustum.boundsInFrustum(chunkBounds.set(chunkMin, chunkMax)))
+                return true;
+            // Geometry of the chunk might stick out of it into the view
+            RenderableChunk renderableChunk = findRenderableChunk(worldId, x, y, z);
+            return renderableChunk != null && renderableChunk.isVisible(camera);
+        }
+
+        @Override
+        public void visitChunk(int x, int y, int z) {
+            RenderableChunk renderableChunk = findRenderableChunk(worldId, x, y, z);
+            if (renderableChunk != null && renderableChunk.isRenderable() && renderableChunk.isVisible(camera)) {
+                modelBatch.render(renderableChunk.getRenderableProvider());
+            }
         }
-        return null;
     }
 }
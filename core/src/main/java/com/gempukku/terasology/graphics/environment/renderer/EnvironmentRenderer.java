@@ -5,4 +5,15 @@ import com.badlogic.gdx.graphics.g3d.ModelBatch;
 
 public interface EnvironmentRenderer {
     void renderEnvironment(Camera camera, String worldId, ModelBatch modelBatch);
+
+    /**
+     * Renders the environment into the shadow map of the cascade. What should be rendered depends only on the light
+     * view of the cascade, so renderers of things that do not move can reuse it, until the view version of the
+     * cascade changes.
+     *
+     * @param shadowCascade
+     * @param worldId
+     * @param modelBatch
+     */
+    void renderEnvironmentShadow(ShadowCascade shadowCascade, String worldId, ModelBatch modelBatch);
 }
@@ -4,12 +4,15 @@ import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.graphics.g3d.shaders.DefaultShader;
 import com.badlogic.gdx.graphics.g3d.utils.RenderContext;
-import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector3;
 
 public class EnvironmentShader extends DefaultShader {
-    private final int u_depthMap = register("u_depthMap");
-    private final int u_lightTrans = register("u_lightTrans");
+    private final int[] u_depthMaps = new int[]{
+            register("u_depthMap0"), register("u_depthMap1"), register("u_depthMap2")};
+    private final int[] u_lightTrans = new int[]{
+            register("u_lightTrans0"), register("u_lightTrans1"), register("u_lightTrans2")};
+    private final int u_shadowMapSizes = register("u_shadowMapSizes");
+    private final int u_cascadeFarDistances = register("u_cascadeFarDistances");
     private final int u_lightDirection = register("u_lightDirection");
     private final int u_lightPosition = register("u_lightPosition");
     private final int u_lightPlaneDistance = register("u_lightPlaneDistance");
@@ -17,16 +20,17 @@ public class EnvironmentShader extends DefaultShader {
     private final int u_fogColor = register("u_fogColor");
     private final int u_time = register("u_time");
     private final int u_noDirectionalLight = register("u_noDirectionalLight");
-    private final int u_shadowMapSize = register("u_shadowMapSize");
 
-    private Matrix4 lightTrans;
+    private ShadowCascades shadowCascades;
+    private int shadowMapTextureUnit;
+    private final float[] shadowMapSizes = new float[ShadowCascades.MAX_CASCADES];
+    private final float[] farDistances = new float[ShadowCascades.MAX_CASCADES];
     private Vector3 lightDirection;
     private Vector3 lightPosition;
     private Vector3 fogColor;
     private float lightPlaneDistance;
     private float time;
     private boolean noDirectionalLight;
-    private int shadowMapSize;
     private float ambientLight;
 
     public EnvironmentShader(Renderable renderable, Config config) {
@@ -41,8 +45,12 @@ public class EnvironmentShader extends DefaultShader {
         this.time = time;
     }
 
-    public void setLightTrans(Matrix4 lightTrans) {
-        this.lightTrans = lightTrans;
+    public void setShadowCascades(ShadowCascades shadowCascades) {
+        this.shadowCascades = shadowCascades;
+    }
+
+    public void setShadowMapTextureUnit(int shadowMapTextureUnit) {
+        this.shadowMapTextureUnit = shadowMapTextureUnit;
     }
 
     public void setLightDirection(Vector3 lightDirection) {
@@ -61,10 +69,6 @@ public class EnvironmentShader extends DefaultShader {
         this.noDirectionalLight = noDirectionalLight;
     }
 
-    public void setShadowMapSize(int shadowMapSize) {
-        this.shadowMapSize = shadowMapSize;
-    }
-
     public void setAmbientLight(float ambientLight) {
         this.ambientLight = ambientLight;
     }
@@ -73,16 +77,29 @@ public class EnvironmentShader extends DefaultShader {
     public void begin(Camera camera, RenderContext context) {
         super.begin(camera, context);
 
-        set(u_lightTrans, lightTrans);
         set(u_lightPosition, lightPosition);
         set(u_lightDirection, lightDirection);
         set(u_lightPlaneDistance, lightPlaneDistance);
-        set(u_depthMap, 2);
         set(u_ambientLighting, ambientLight);
         set(u_fogColor, fogColor);
         set(u_time, time);
         set(u_noDirectionalLight, noDirectionalLight ? 1 : 0);
-        set(u_shadowMapSize, shadowMapSize);
+        setShadowCascades();
+    }
+
+    private void setShadowCascades() {
+        int cascadeCount = shadowCascades.getCascadeCount();
+        for (int i = 0; i < ShadowCascades.MAX_CASCADES; i++) {
+            // Cascades that are not used, get the values of the last one, but are never picked by the shader
+            int cascadeIndex = Math.min(i, cascadeCount - 1);
+            ShadowCascade cascade = shadowCascades.getCascade(cascadeIndex);
+            set(u_lightTrans[i], cascade.getCamera().combined);
+            set(u_depthMaps[i], shadowMapTextureUnit + cascadeIndex);
+            shadowMapSizes[i] = cascade.getResolution();
+            farDistances[i] = (i < cascadeCount) ? cascade.getFarDistance() : 0;
+        }
+        set(u_shadowMapSizes, shadowMapSizes[0], shadowMapSizes[1], shadowMapSizes[2]);
+        set(u_cascadeFarDistances, farDistances[0], farDistances[1], farDistances[2]);
     }
 
 }
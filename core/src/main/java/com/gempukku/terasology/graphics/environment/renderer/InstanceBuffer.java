@@ -0,0 +1,182 @@
+package com.gempukku.terasology.graphics.environment.renderer;
+
+/**
+ * Vertices of up to capacity instances of a model, each translated to the position of its instance, so that all of
+ * them can be drawn with one call. Instances are kept packed at the start of the buffer, removing an instance moves
+ * the last one into its slot. Buffer keeps track of the range of vertex data changed since the last upload, so
+ * only the instances that moved have to be uploaded.
+ * <p>
+ * Model vertices are expected in the environment vertex format (position first), with floatsPerVertex floats each.
+ */
+public class InstanceBuffer {
+    private final float[] modelVertices;
+    private final int floatsPerVertex;
+    private final int floatsPerInstance;
+    private final int capacity;
+
+    private final float[] vertices;
+    private final float[] positions;
+    private final String[] instanceIds;
+    private int instanceCount;
+
+    private int dirtyFrom = Integer.MAX_VALUE;
+    private int dirtyTo = 0;
+
+    public InstanceBuffer(float[] modelVertices, int floatsPerVertex, int capacity) {
+        this.modelVertices = modelVertices;
+        this.floatsPerVertex = floatsPerVertex;
+        this.floatsPerInstance = modelVertices.length;
+        this.capacity = capacity;
+
+        vertices = new float[capacity * floatsPerInstance];
+        positions = new float[capacity * 3];
+        instanceIds = new String[capacity];
+    }
+
+    /**
+     * Creates indices for capacity instances of a model, where vertices of each instance follow the vertices of
+     * the previous one.
+     *
+     * @param modelIndices
+     * @param verticesPerInstance
+     * @param capacity
+     * @return
+     */
+    public static short[] createIndices(short[] modelIndices, int verticesPerInstance, int capacity) {
+        if (verticesPerInstance * capacity > 65536)
+            throw new IllegalArgumentException("Too many vertices to index with shorts");
+
+        short[] result = new short[modelIndices.length * capacity];
+        for (int instance = 0; instance < capacity; instance++) {
+            int vertexOffset = instance * verticesPerInstance;
+            for (int i = 0; i < modelIndices.length; i++)
+                result[instance * modelIndices.length + i] = (short) (vertexOffset + modelIndices[i]);
+        }
+        return result;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    public boolean isFull() {
+        return instanceCount == capacity;
+    }
+
+    public String getInstanceId(int slot) {
+        return instanceIds[slot];
+    }
+
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Adds an instance at the position.
+     *
+     * @param instanceId
+     * @param x
+     * @param y
+     * @param z
+     * @return Slot of the instance.
+     */
+    public int add(String instanceId, float x, float y, float z) {
+        if (isFull())
+            throw new IllegalStateException("Instance buffer is full");
+
+        int slot = instanceCount++;
+        instanceIds[slot] = instanceId;
+        writeInstance(slot, x, y, z);
+        return slot;
+    }
+
+    /**
+     * Moves the instance in the slot to the position.
+     *
+     * @param slot
+     * @param x
+     * @param y
+     * @param z
+     * @return If the position of the instance has changed.
+     */
+    public boolean setPosition(int slot, float x, float y, float z) {
+        int positionIndex = slot * 3;
+        if (positions[positionIndex] == x && positions[positionIndex + 1] == y && positions[positionIndex + 2] == z)
+            return false;
+
+        writeInstance(slot, x, y, z);
+        return true;
+    }
+
+    /**
+     * Removes the instance in the slot, the last instance is moved into it.
+     *
+     * @param slot
+     * @return Id of the instance, that has been moved into the slot, or null if the removed instance was the last one.
+     */
+    public String remove(int slot) {
+        int lastSlot = --instanceCount;
+        String movedInstanceId = null;
+        if (slot != lastSlot) {
+            movedInstanceId = instanceIds[lastSlot];
+            instanceIds[slot] = movedInstanceId;
+            System.arraycopy(positions, lastSlot * 3, positions, slot * 3, 3);
+            System.arraycopy(vertices, lastSlot * floatsPerInstance, vertices, slot * floatsPerInstance, floatsPerInstance);
+            markDirty(slot);
+        }
+        instanceIds[lastSlot] = null;
+        return movedInstanceId;
+    }
+
+    public boolean isDirty() {
+        return dirtyFrom < dirtyTo;
+    }
+
+    /**
+     * Returns index of the first float in vertices changed since clearDirty was called.
+     *
+     * @return
+     */
+    public int getDirtyFrom() {
+        return dirtyFrom;
+    }
+
+    /**
+     * Returns index after the last float in vertices changed since clearDirty was called.
+     *
+     * @return
+     */
+    public int getDirtyTo() {
+        return dirtyTo;
+    }
+
+    public void clearDirty() {
+        dirtyFrom = Integer.MAX_VALUE;
+        dirtyTo = 0;
+    }
+
+    private void writeInstance(int slot, float x, float y, float z) {
+        int positionIndex = slot * 3;
+        positions[positionIndex] = x;
+        positions[positionIndex + 1] = y;
+        positions[positionIndex + 2] = z;
+
+        int offset = slot * floatsPerInstance;
+        System.arraycopy(modelVertices, 0, vertices, offset, floatsPerInstance);
+        for (int i = offset; i < offset + floatsPerInstance; i += floatsPerVertex) {
+            vertices[i] += x;
+            vertices[i + 1] += y;
+            vertices[i + 2] += z;
+        }
+        markDirty(slot);
+    }
+
+    private void markDirty(int slot) {
+        dirtyFrom = Math.min(dirtyFrom, slot * floatsPerInstance);
+        dirtyTo = Math.max(dirtyTo, (slot + 1) * floatsPerInstance);
+    }
+}
@@ -0,0 +1,35 @@
+package com.gempukku.terasology.graphics.environment.renderer;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.gempukku.secsy.entity.EntityRef;
+
+/**
+ * Draws instances of models placed at (interpolated) locations of entities. All instances of a model in a world
+ * are drawn together, with one call for up to a few hundred instances, and only instances that have moved since the
+ * last frame are updated.
+ */
+public interface InstancedModelRenderer {
+    /**
+     * Registers a model, that instances can use.
+     *
+     * @param modelId  Id of the model.
+     * @param vertices Vertices of the model in the environment vertex format (position, normal, texture coordinates
+     *                 and flag, as produced by ArrayVertexOutput), relative to the location of an instance.
+     * @param indices  Indices of the triangles of the model.
+     * @param texture  Texture of the model.
+     */
+    void registerModel(String modelId, float[] vertices, short[] indices, Texture texture);
+
+    boolean hasModel(String modelId);
+
+    /**
+     * Starts drawing the model at location of the entity, the entity has to have LocationComponent. If the entity
+     * already has an instance, it is replaced.
+     *
+     * @param entity
+     * @param modelId
+     */
+    void addInstance(EntityRef entity, String modelId);
+
+    void removeInstance(EntityRef entity);
+}
@@ -0,0 +1,274 @@
+package com.gempukku.terasology.graphics.environment.renderer;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g3d.Material;
+import com.badlogic.gdx.graphics.g3d.ModelBatch;
+import com.badlogic.gdx.graphics.g3d.Renderable;
+import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
+import com.badlogic.gdx.math.Vector3;
+import com.gempukku.secsy.context.annotation.In;
+import com.gempukku.secsy.context.annotation.NetProfiles;
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.context.system.LifeCycleSystem;
+import com.gempukku.secsy.entity.EntityManager;
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
+import com.gempukku.secsy.entity.event.AfterComponentUpdated;
+import com.gempukku.terasology.movement.InterpolatedLocationProvider;
+import com.gempukku.terasology.world.component.LocationComponent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RegisterSystem(
+        profiles = NetProfiles.CLIENT, shared = InstancedModelRenderer.class)
+public class InstancedModelRenderingSystem implements InstancedModelRenderer, EnvironmentRenderer, LifeCycleSystem {
+    private static final int floatsPerVertex = 9;
+
+    @In
+    private EnvironmentRendererRegistry environmentRendererRegistry;
+    @In
+    private EntityManager entityManager;
+    @In
+    private InterpolatedLocationProvider interpolatedLocationProvider;
+
+    private final int instancesPerBatch = Integer.getInteger("terasology.graphics.instancesPerBatch", 512);
+
+    private Map<String, InstancedModel> models = new HashMap<>();
+    // Batches of instances by world and model
+    private Map<String, Map<String, List<InstanceBatch>>> batchesInWorld = new HashMap<>();
+    private Map<String, Instance> instances = new HashMap<>();
+
+    private long refreshedFrame = -1;
+    private Vector3 position = new Vector3();
+
+    @Override
+    public void initialize() {
+        environmentRendererRegistry.registerEnvironmentRendered(this);
+    }
+
+    @Override
+    public void destroy() {
+        for (Map<String, List<InstanceBatch>> worldBatches : batchesInWorld.values()) {
+            for (List<InstanceBatch> modelBatches : worldBatches.values()) {
+                for (InstanceBatch instanceBatch : modelBatches)
+                    instanceBatch.dispose();
+            }
+        }
+        batchesInWorld.clear();
+    }
+
+    @Override
+    public void registerModel(String modelId, float[] vertices, short[] indices, Texture texture) {
+        int verticesPerInstance = vertices.length / floatsPerVertex;
+        // Indices are shorts, so a batch can't have more vertices than that
+        int capacity = Math.min(instancesPerBatch, 65536 / verticesPerInstance);
+        models.put(modelId, new InstancedModel(vertices, indices.length, texture, capacity,
+                InstanceBuffer.createIndices(indices, verticesPerInstance, capacity)));
+    }
+
+    @Override
+    public boolean hasModel(String modelId) {
+        return models.containsKey(modelId);
+    }
+
+    @Override
+    public void addInstance(EntityRef entity, String modelId) {
+        InstancedModel model = models.get(modelId);
+        if (model == null)
+            throw new IllegalArgumentException("Unknown instanced model: " + modelId);
+
+        String instanceId = entityManager.getEntityUniqueIdentifier(entity);
+        removeInstance(instanceId);
+
+        String worldId = entity.getComponent(LocationComponent.class).getWorldId();
+        interpolatedLocationProvider.getInterpolatedLocation(entity, position);
+
+        Instance instance = new Instance(entity, modelId);
+        placeInstance(instanceId, instance, worldId, position);
+        instances.put(instanceId, instance);
+    }
+
+    @Override
+    public void removeInstance(EntityRef entity) {
+        removeInstance(entityManager.getEntityUniqueIdentifier(entity));
+    }
+
+    @ReceiveEvent
+    public void locationUpdated(AfterComponentUpdated event, EntityRef entity, LocationComponent location) {
+        String instanceId = entityManager.getEntityUniqueIdentifier(entity);
+        Instance instance = instances.get(instanceId);
+        if (instance != null && !instance.batch.worldId.equals(location.getWorldId())) {
+            takeOutInstance(instance);
+            interpolatedLocationProvider.getInterpolatedLocation(entity, position);
+            placeInstance(instanceId, instance, location.getWorldId(), position);
+        }
+    }
+
+    @Override
+    public void renderEnvironment(Camera camera, String worldId, ModelBatch modelBatch) {
+        renderInstances(worldId, modelBatch);
+    }
+
+    @Override
+    public void renderEnvironmentShadow(ShadowCascade shadowCascade, String worldId, ModelBatch modelBatch) {
+        renderInstances(worldId, modelBatch);
+    }
+
+    private void renderInstances(String worldId, ModelBatch modelBatch) {
+        long frameId = Gdx.graphics.getFrameId();
+        if (refreshedFrame != frameId) {
+            refreshInstances();
+            refreshedFrame = frameId;
+        }
+
+        Map<String, List<InstanceBatch>> worldBatches = batchesInWorld.get(worldId);
+        if (worldBatches != null) {
+            for (List<InstanceBatch> modelBatches : worldBatches.values()) {
+                for (InstanceBatch instanceBatch : modelBatches) {
+                    // Batch created since the last refresh has nothing uploaded yet
+                    if (instanceBatch.renderable.meshPart.size > 0)
+                        modelBatch.render(instanceBatch.renderable);
+                }
+            }
+        }
+    }
+
+    private void refreshInstances() {
+        for (Instance instance : instances.values()) {
+            interpolatedLocationProvider.getInterpolatedLocation(instance.entity, position);
+            instance.batch.buffer.setPosition(instance.slot, position.x, position.y, position.z);
+        }
+
+        for (Map<String, List<InstanceBatch>> worldBatches : batchesInWorld.values()) {
+            for (List<InstanceBatch> modelBatches : worldBatches.values()) {
+                for (InstanceBatch instanceBatch : modelBatches)
+                    instanceBatch.upload();
+            }
+        }
+    }
+
+    private void placeInstance(String instanceId, Instance instance, String worldId, Vector3 position) {
+        InstanceBatch batch = findBatchWithSpace(worldId, instance.modelId);
+        instance.batch = batch;
+        instance.slot = batch.buffer.add(instanceId, position.x, position.y, position.z);
+    }
+
+    private void removeInstance(String instanceId) {
+        Instance instance = instances.remove(instanceId);
+        if (instance != null)
+            takeOutInstance(instance);
+    }
+
+    private void takeOutInstance(Instance instance) {
+        InstanceBatch batch = instance.batch;
+        String movedInstanceId = batch.buffer.remove(instance.slot);
+        if (movedInstanceId != null)
+            instances.get(movedInstanceId).slot = instance.slot;
+
+        if (batch.buffer.getInstanceCount() == 0) {
+            Map<String, List<InstanceBatch>> worldBatches = batchesInWorld.get(batch.worldId);
+            List<InstanceBatch> modelBatches = worldBatches.get(instance.modelId);
+            modelBatches.remove(batch);
+            if (modelBatches.isEmpty())
+                worldBatches.remove(instance.modelId);
+            if (worldBatches.isEmpty())
+                batchesInWorld.remove(batch.worldId);
+            batch.dispose();
+        }
+        instance.batch = null;
+    }
+
+    private InstanceBatch findBatchWithSpace(String worldId, String modelId) {
+        Map<String, List<InstanceBatch>> worldBatches = batchesInWorld.get(worldId);
+        if (worldBatches == null) {
+            worldBatches = new HashMap<>();
+            batchesInWorld.put(worldId, worldBatches);
+        }
+        List<InstanceBatch> modelBatches = worldBatches.get(modelId);
+        if (modelBatches == null) {
+            modelBatches = new ArrayList<>();
+            worldBatches.put(modelId, modelBatches);
+        }
+        for (InstanceBatch modelBatch : modelBatches) {
+            if (!modelBatch.buffer.isFull())
+                return modelBatch;
+        }
+        InstanceBatch instanceBatch = new InstanceBatch(worldId, models.get(modelId));
+        modelBatches.add(instanceBatch);
+        return instanceBatch;
+    }
+
+    private static class InstancedModel {
+        private final float[] vertices;
+        private final int indexCount;
+        private final Texture texture;
+        private final int capacity;
+        private final short[] batchIndices;
+
+        private InstancedModel(float[] vertices, int indexCount, Texture texture, int capacity, short[] batchIndices) {
+            this.vertices = vertices;
+            this.indexCount = indexCount;
+            this.texture = texture;
+            this.capacity = capacity;
+            this.batchIndices = batchIndices;
+        }
+    }
+
+    private static class Instance {
+        private final EntityRef entity;
+        private final String modelId;
+        private InstanceBatch batch;
+        private int slot;
+
+        private Instance(EntityRef entity, String modelId) {
+            this.entity = entity;
+            this.modelId = modelId;
+        }
+    }
+
+    private static class InstanceBatch {
+        private final String worldId;
+        private final InstancedModel model;
+        private final InstanceBuffer buffer;
+        private final Mesh mesh;
+        private final Renderable renderable = new Renderable();
+
+        private InstanceBatch(String worldId, InstancedModel model) {
+            this.worldId = worldId;
+            this.model = model;
+            buffer = new InstanceBuffer(model.vertices, floatsPerVertex, model.capacity);
+
+            VertexAttribute customVertexInformation = new VertexAttribute(VertexAttributes.Usage.Generic, 1, "a_flag");
+            mesh = new Mesh(false, model.capacity * model.vertices.length / floatsPerVertex, model.batchIndices.length,
+                    VertexAttribute.Position(), VertexAttribute.Normal(), VertexAttribute.TexCoords(0),
+                    customVertexInformation);
+            mesh.setVertices(buffer.getVertices());
+            mesh.setIndices(model.batchIndices);
+
+            renderable.meshPart.set("instances", mesh, 0, 0, GL20.GL_TRIANGLES);
+            renderable.material = new Material(TextureAttribute.createDiffuse(model.texture));
+        }
+
+        private void upload() {
+            if (buffer.isDirty()) {
+                int from = buffer.getDirtyFrom();
+                mesh.updateVertices(from, buffer.getVertices(), from, buffer.getDirtyTo() - from);
+                buffer.clearDirty();
+            }
+            renderable.meshPart.size = buffer.getInstanceCount() * model.indexCount;
+        }
+
+        private void dispose() {
+            mesh.dispose();
+        }
+    }
+}
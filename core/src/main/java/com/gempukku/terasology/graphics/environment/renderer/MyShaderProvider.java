@@ -5,7 +5,6 @@ import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.graphics.g3d.Shader;
 import com.badlogic.gdx.graphics.g3d.shaders.DefaultShader;
 import com.badlogic.gdx.graphics.g3d.utils.ShaderProvider;
-import com.badlogic.gdx.math.Matrix4;
 import com.badlogic.gdx.math.Vector3;
 
 public class MyShaderProvider implements ShaderProvider {
@@ -18,7 +17,8 @@ public class MyShaderProvider implements ShaderProvider {
     private EnvironmentShader environmentShader;
 
     private Mode mode;
-    private Matrix4 lightTrans;
+    private ShadowCascades shadowCascades;
+    private int shadowMapTextureUnit;
     private Vector3 lightPosition;
     private Vector3 lightDirection;
     private float lightPlaneDistance;
@@ -26,7 +26,6 @@ public class MyShaderProvider implements ShaderProvider {
     private Vector3 skyColor;
     private float ambientLight;
     private boolean night;
-    private int shadowMapSize;
 
     public void setMode(Mode mode) {
         this.mode = mode;
@@ -44,8 +43,12 @@ public class MyShaderProvider implements ShaderProvider {
         this.time = time;
     }
 
-    public void setLightTrans(Matrix4 lightTrans) {
-        this.lightTrans = lightTrans;
+    public void setShadowCascades(ShadowCascades shadowCascades) {
+        this.shadowCascades = shadowCascades;
+    }
+
+    public void setShadowMapTextureUnit(int shadowMapTextureUnit) {
+        this.shadowMapTextureUnit = shadowMapTextureUnit;
     }
 
     public void setLightPosition(Vector3 lightPosition) {
@@ -64,10 +67,6 @@ public class MyShaderProvider implements ShaderProvider {
         this.night = night;
     }
 
-    public void setShadowMapSize(int shadowMapSize) {
-        this.shadowMapSize = shadowMapSize;
-    }
-
     @Override
     public Shader getShader(Renderable renderable) {
         if (mode == Mode.ENVIRONMENT_SHADOW) {
@@ -80,7 +79,8 @@ public class MyShaderProvider implements ShaderProvider {
         } else if (mode == Mode.ENVIRONMENT) {
             if (environmentShader == null)
                 environmentShader = createEnvironmentShader(renderable);
-            environmentShader.setLightTrans(lightTrans);
+            environmentShader.setShadowCascades(shadowCascades);
+            environmentShader.setShadowMapTextureUnit(shadowMapTextureUnit);
             environmentShader.setLightPosition(lightPosition);
             environmentShader.setLightDirection(lightDirection);
             environmentShader.setLightPlaneDistance(lightPlaneDistance);
@@ -88,7 +88,6 @@ public class MyShaderProvider implements ShaderProvider {
             environmentShader.setFogColor(skyColor);
             environmentShader.setAmbientLight(ambientLight);
             environmentShader.setNoDirectionalLight(night);
-            environmentShader.setShadowMapSize(shadowMapSize);
             return environmentShader;
         } else {
             return null;
@@ -9,10 +9,9 @@ import com.badlogic.gdx.graphics.g3d.RenderableProvider;
 import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
 import com.badlogic.gdx.graphics.g3d.model.MeshPart;
 import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
-import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.math.collision.BoundingBox;
 import com.gempukku.terasology.graphics.environment.mesh.ChunkMesh;
-import com.gempukku.terasology.world.chunk.ChunkSize;
+import com.gempukku.terasology.world.chunk.geometry.ChunkFaceConnectivity;
 
 import java.util.List;
 
@@ -23,6 +22,7 @@ public class RenderableChunk {
     public final int z;
 
     private BoundingBox boundingBox;
+    private int faceConnectivity;
     private Model model;
     private ModelInstance modelInstance;
 
@@ -31,16 +31,33 @@ public class RenderableChunk {
         this.x = x;
         this.y = y;
         this.z = z;
-        // Bounding box also spreads to all the chunks around it, because blocks in this chunk can generate a geometry
-        // that extends max 1 chunk away
-        this.boundingBox = new BoundingBox(new Vector3((x - 1) * ChunkSize.X, (y - 1) * ChunkSize.Y, (z - 1) * ChunkSize.Z), new Vector3((x + 2) * ChunkSize.X, (y + 2) * ChunkSize.Y, (z + 2) * ChunkSize.Z));
+        // Nothing to see until the mesh is there, and nothing known to block the view through the chunk
+        this.boundingBox = new BoundingBox().inf();
+        this.faceConnectivity = ChunkFaceConnectivity.ALL_CONNECTED;
     }
 
     public boolean isVisible(Camera camera) {
-        return camera.frustum.boundsInFrustum(boundingBox);
+        return boundingBox.isValid() && camera.frustum.boundsInFrustum(boundingBox);
+    }
+
+    /**
+     * Returns the box enclosing the geometry of the chunk. Blocks in this chunk can generate a geometry that extends
+     * outside of it, so the box is not limited to the chunk itself.
+     *
+     * @return
+     */
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
+    public int getFaceConnectivity() {
+        return faceConnectivity;
     }
 
     public void updateChunkMesh(ChunkMesh chunkMesh, List<Texture> textures) {
+        boundingBox = chunkMesh.getBoundingBox();
+        faceConnectivity = chunkMesh.getFaceConnectivity();
+
         ModelBuilder modelBuilder = new ModelBuilder();
         modelBuilder.begin();
 
@@ -0,0 +1,157 @@
+package com.gempukku.terasology.graphics.environment.renderer;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Part of the camera view (between two fractions of the distance to the far plane), that gets its own shadow map.
+ * Light view of the cascade covers a sphere around that part of the view, with some slack, and it is kept as long as
+ * the part of the view stays inside of the sphere and the sun does not move. This way shadows do not flicker when the camera moves,
+ * and renderers can keep what they decided to draw into the shadow map until the view version changes.
+ */
+public class ShadowCascade {
+    private final int index;
+    private final int resolution;
+    private final float nearSplit;
+    private final float farSplit;
+    private final float slack;
+
+    private final OrthographicCamera camera = new OrthographicCamera();
+
+    private final Vector3 center = new Vector3();
+    private final Vector3 sunDirection = new Vector3();
+    private final Vector3 requiredCenter = new Vector3();
+    private float radius;
+    private float nearDistance;
+    private float farDistance;
+    private boolean fitted;
+    private int viewVersion;
+
+    /**
+     * @param index
+     * @param resolution Width and height of the shadow map of this cascade.
+     * @param nearSplit  Fraction of the distance to the far plane of the camera, where this cascade starts.
+     * @param farSplit   Fraction of the distance to the far plane of the camera, where this cascade ends.
+     * @param slack      How much bigger (as a fraction of radius) the covered sphere is than what is needed.
+     */
+    public ShadowCascade(int index, int resolution, float nearSplit, float farSplit, float slack) {
+        this.index = index;
+        this.resolution = resolution;
+        this.nearSplit = nearSplit;
+        this.farSplit = farSplit;
+        this.slack = slack;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Returns distance from the camera, where this cascade started, when it was last updated.
+     *
+     * @return
+     */
+    public float getNearDistance() {
+        return nearDistance;
+    }
+
+    /**
+     * Returns distance from the camera, where this cascade ended, when it was last updated.
+     *
+     * @return
+     */
+    public float getFarDistance() {
+        return farDistance;
+    }
+
+    /**
+     * Returns a number that changes each time the light view of this cascade changes.
+     *
+     * @return
+     */
+    public int getViewVersion() {
+        return viewVersion;
+    }
+
+    public Vector3 getCenter() {
+        return center;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    /**
+     * Returns the camera of the light view, it is updated (i.e. its matrices) by the caller of update, if the
+     * light view changes.
+     *
+     * @return
+     */
+    public OrthographicCamera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Fits the light view to the part of the camera view of this cascade, if it does not cover it already.
+     *
+     * @param cameraPosition
+     * @param cameraDirection  Normalized direction of the camera.
+     * @param fieldOfViewY     Vertical field of view of the camera in degrees.
+     * @param aspectRatio      Width/height ratio of the camera viewport.
+     * @param cameraFar        Distance to the far plane of the camera.
+     * @param sunDirection     Normalized direction the sun light travels in.
+     * @param casterDistance   How far towards the sun from the covered sphere, objects can cast shadows into it.
+     * @return If the light view has changed.
+     */
+    public boolean update(Vector3 cameraPosition, Vector3 cameraDirection, float fieldOfViewY, float aspectRatio, float cameraFar,
+                          Vector3 sunDirection, float casterDistance) {
+        nearDistance = nearSplit * cameraFar;
+        farDistance = farSplit * cameraFar;
+
+        float tan = (float) Math.tan(Math.toRadians(fieldOfViewY / 2));
+        // Distance of corners of the view from its axis, relative to the distance from the camera
+        float lateral = tan * (float) Math.sqrt(1 + aspectRatio * aspectRatio);
+        float nearLateral = nearDistance * lateral;
+        float farLateral = farDistance * lateral;
+
+        // Center of the smallest sphere containing the corners of both ends is on the axis of the view
+        float centerDistance = (farDistance * farDistance + farLateral * farLateral - nearDistance * nearDistance - nearLateral * nearLateral)
+                / (2 * (farDistance - nearDistance));
+        centerDistance = Math.max(nearDistance, Math.min(farDistance, centerDistance));
+        float requiredRadius = Math.max(
+                length(farDistance - centerDistance, farLateral),
+                length(centerDistance - nearDistance, nearLateral));
+        requiredCenter.set(cameraDirection).scl(centerDistance).add(cameraPosition);
+
+        if (fitted && this.sunDirection.equals(sunDirection)
+                && requiredCenter.dst(center) + requiredRadius <= radius)
+            return false;
+
+        fitted = true;
+        center.set(requiredCenter);
+        radius = requiredRadius * (1 + slack);
+        this.sunDirection.set(sunDirection);
+        viewVersion++;
+
+        camera.viewportWidth = 2 * radius;
+        camera.viewportHeight = 2 * radius;
+        camera.near = 0;
+        camera.far = 2 * radius + casterDistance;
+        camera.direction.set(sunDirection);
+        camera.position.set(sunDirection).scl(-(radius + casterDistance)).add(center);
+        // Any vector not parallel to the sun direction will do
+        if (Math.abs(sunDirection.z) < 0.9f)
+            camera.up.set(0, 0, 1);
+        else
+            camera.up.set(1, 0, 0);
+        return true;
+    }
+
+    private static float length(float x, float y) {
+        return (float) Math.sqrt(x * x + y * y);
+    }
+}
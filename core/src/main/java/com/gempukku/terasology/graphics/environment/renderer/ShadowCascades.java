@@ -0,0 +1,86 @@
+package com.gempukku.terasology.graphics.environment.renderer;
+
+import com.badlogic.gdx.math.Vector3;
+
+/**
+ * Cascades of the shadow map of the sun, the first one covers the part of the view closest to the camera. Direction
+ * of the sun used for the shadows only follows the real one, once they are more than the threshold apart, so the
+ * light views of cascades do not have to change every frame as the sun moves slowly over the sky.
+ */
+public class ShadowCascades {
+    // Environment shader has a fixed number of shadow maps it can sample
+    public static final int MAX_CASCADES = 3;
+
+    private final ShadowCascade[] cascades;
+    private final float sunDirectionThresholdCos;
+
+    private final Vector3 sunDirection = new Vector3();
+    private boolean hasSunDirection;
+
+    /**
+     * @param resolutions           Resolution of the shadow map of each cascade.
+     * @param splits                Fraction of the distance to the far plane of the camera, where each cascade ends.
+     * @param sunDirectionThreshold Angle (in degrees) the sun has to move, before the shadows follow.
+     * @param slack                 How much bigger (as a fraction of radius) the light view of a cascade is than needed.
+     */
+    public ShadowCascades(int[] resolutions, float[] splits, float sunDirectionThreshold, float slack) {
+        if (resolutions.length == 0 || resolutions.length > MAX_CASCADES)
+            throw new IllegalArgumentException("Number of shadow cascades has to be between 1 and " + MAX_CASCADES);
+        if (resolutions.length != splits.length)
+            throw new IllegalArgumentException("Each shadow cascade needs a resolution and a split distance");
+
+        cascades = new ShadowCascade[resolutions.length];
+        float nearSplit = 0;
+        for (int i = 0; i < resolutions.length; i++) {
+            if (splits[i] <= nearSplit)
+                throw new IllegalArgumentException("Shadow cascade splits have to be increasing");
+            cascades[i] = new ShadowCascade(i, resolutions[i], nearSplit, splits[i], slack);
+            nearSplit = splits[i];
+        }
+        sunDirectionThresholdCos = (float) Math.cos(Math.toRadians(sunDirectionThreshold));
+    }
+
+    public int getCascadeCount() {
+        return cascades.length;
+    }
+
+    public ShadowCascade getCascade(int index) {
+        return cascades[index];
+    }
+
+    /**
+     * Returns the direction of sun light used for the shadows.
+     *
+     * @return
+     */
+    public Vector3 getSunDirection() {
+        return sunDirection;
+    }
+
+    /**
+     * Updates direction of the sun used for the shadows and light views of the cascades.
+     *
+     * @param cameraPosition
+     * @param cameraDirection Normalized direction of the camera.
+     * @param fieldOfViewY    Vertical field of view of the camera in degrees.
+     * @param aspectRatio     Width/height ratio of the camera viewport.
+     * @param cameraFar       Distance to the far plane of the camera.
+     * @param sunDirection    Normalized direction the sun light travels in.
+     * @param casterDistance  How far towards the sun from the view, objects can cast shadows into it.
+     * @return Bit set of cascades, which light views have changed.
+     */
+    public int update(Vector3 cameraPosition, Vector3 cameraDirection, float fieldOfViewY, float aspectRatio, float cameraFar,
+                      Vector3 sunDirection, float casterDistance) {
+        if (!hasSunDirection || this.sunDirection.dot(sunDirection) < sunDirectionThresholdCos) {
+            this.sunDirection.set(sunDirection);
+            hasSunDirection = true;
+        }
+
+        int changed = 0;
+        for (ShadowCascade cascade : cascades) {
+            if (cascade.update(cameraPosition, cameraDirection, fieldOfViewY, aspectRatio, cameraFar, this.sunDirection, casterDistance))
+                changed |= 1 << cascade.getIndex();
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,42 @@
+package com.gempukku.terasology.log;
+
+/**
+ * Prints messages to the standard output (errors to the standard error output). Messages less important than
+ * the level set in "terasology.logLevel" system property (NONE, ERROR, INFO or DEBUG, default INFO) are dropped.
+ */
+public class ConsoleLogOutput implements LogOutput {
+    public enum Level {
+        NONE, ERROR, INFO, DEBUG
+    }
+
+    private final Level level;
+
+    public ConsoleLogOutput() {
+        this(Level.valueOf(System.getProperty("terasology.logLevel", "INFO")));
+    }
+
+    public ConsoleLogOutput(Level level) {
+        this.level = level;
+    }
+
+    @Override
+    public void debug(String tag, String message) {
+        if (level.compareTo(Level.DEBUG) >= 0)
+            System.out.println("[" + tag + "] " + message);
+    }
+
+    @Override
+    public void info(String tag, String message) {
+        if (level.compareTo(Level.INFO) >= 0)
+            System.out.println("[" + tag + "] " + message);
+    }
+
+    @Override
+    public void error(String tag, String message, Throwable throwable) {
+        if (level.compareTo(Level.ERROR) >= 0) {
+            System.err.println("[" + tag + "] " + message);
+            if (throwable != null)
+                throwable.printStackTrace();
+        }
+    }
+}
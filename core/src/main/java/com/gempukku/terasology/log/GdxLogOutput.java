@@ -0,0 +1,26 @@
+package com.gempukku.terasology.log;
+
+import com.badlogic.gdx.Gdx;
+
+/**
+ * Passes messages to Gdx.app, so they are filtered by its log level.
+ */
+public class GdxLogOutput implements LogOutput {
+    @Override
+    public void debug(String tag, String message) {
+        Gdx.app.debug(tag, message);
+    }
+
+    @Override
+    public void info(String tag, String message) {
+        Gdx.app.log(tag, message);
+    }
+
+    @Override
+    public void error(String tag, String message, Throwable throwable) {
+        if (throwable != null)
+            Gdx.app.error(tag, message, throwable);
+        else
+            Gdx.app.error(tag, message);
+    }
+}
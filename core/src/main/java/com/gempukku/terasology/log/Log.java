@@ -0,0 +1,32 @@
+package com.gempukku.terasology.log;
+
+/**
+ * Logging used by the systems, so that they do not depend on Gdx.app, which is not available on a dedicated
+ * server. Messages go to the standard output by default, the desktop application routes them to Gdx.app instead.
+ */
+public final class Log {
+    private static volatile LogOutput logOutput = new ConsoleLogOutput();
+
+    private Log() {
+    }
+
+    public static void setLogOutput(LogOutput logOutput) {
+        Log.logOutput = logOutput;
+    }
+
+    public static void debug(String tag, String message) {
+        logOutput.debug(tag, message);
+    }
+
+    public static void info(String tag, String message) {
+        logOutput.info(tag, message);
+    }
+
+    public static void error(String tag, String message) {
+        logOutput.error(tag, message, null);
+    }
+
+    public static void error(String tag, String message, Throwable throwable) {
+        logOutput.error(tag, message, throwable);
+    }
+}
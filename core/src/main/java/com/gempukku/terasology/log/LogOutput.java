@@ -0,0 +1,12 @@
+package com.gempukku.terasology.log;
+
+/**
+ * Destination of messages logged through Log.
+ */
+public interface LogOutput {
+    void debug(String tag, String message);
+
+    void info(String tag, String message);
+
+    void error(String tag, String message, Throwable throwable);
+}
@@ -0,0 +1,174 @@
+package com.gempukku.terasology.movement;
+
+import com.badlogic.gdx.math.Vector3;
+import com.gempukku.secsy.context.annotation.In;
+import com.gempukku.secsy.context.annotation.NetProfiles;
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.context.system.LifeCycleSystem;
+import com.gempukku.secsy.entity.EntityManager;
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
+import com.gempukku.secsy.entity.event.AfterComponentAdded;
+import com.gempukku.secsy.entity.event.AfterComponentUpdated;
+import com.gempukku.secsy.entity.event.BeforeComponentRemoved;
+import com.gempukku.secsy.entity.game.GameLoop;
+import com.gempukku.secsy.entity.game.GameLoopListener;
+import com.gempukku.secsy.entity.game.ParallelUpdate;
+import com.gempukku.terasology.world.component.ClientComponent;
+import com.gempukku.terasology.world.component.LocationComponent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the last positions received for each entity, with the time they were received. Entities are rendered
+ * interpolationDelay milliseconds in the past, between the two positions received around that time. If no newer
+ * position has been received yet, the position is extrapolated from the movement of the entity, for at most
+ * maxExtrapolation milliseconds.
+ * <p>
+ * Entity controlled by this client (with ClientComponent) is moved locally, so it's rendered where it is.
+ */
+@RegisterSystem(
+        profiles = NetProfiles.CLIENT, shared = InterpolatedLocationProvider.class)
+@ParallelUpdate
+public class ClientLocationInterpolation implements InterpolatedLocationProvider, GameLoopListener, LifeCycleSystem {
+    @In
+    private GameLoop gameLoop;
+    @In
+    private EntityManager entityManager;
+
+    private final long interpolationDelay = Long.getLong("terasology.client.interpolationDelay", 200);
+    private final long maxExtrapolation = Long.getLong("terasology.client.maxExtrapolation", 250);
+
+    // Changes of position larger than that are not interpolated (i.e. teleports)
+    private static final float maxInterpolatedDistance = 10f;
+    private static final int bufferSize = 32;
+
+    private final Map<String, LocationBuffer> locationBuffers = new HashMap<>();
+    private long renderTime;
+
+    @Override
+    public void initialize() {
+        gameLoop.addGameLoopListener(this);
+    }
+
+    @Override
+    public void update() {
+        renderTime = System.currentTimeMillis() - interpolationDelay;
+    }
+
+    @ReceiveEvent
+    public void locationAdded(AfterComponentAdded event, EntityRef entity, LocationComponent location) {
+        if (!entity.hasComponent(ClientComponent.class)) {
+            LocationBuffer locationBuffer = new LocationBuffer();
+            locationBuffer.addLocation(System.currentTimeMillis(), location);
+            locationBuffers.put(entityManager.getEntityUniqueIdentifier(entity), locationBuffer);
+        }
+    }
+
+    @ReceiveEvent
+    public void locationUpdated(AfterComponentUpdated event, EntityRef entity, LocationComponent location) {
+        LocationBuffer locationBuffer = locationBuffers.get(entityManager.getEntityUniqueIdentifier(entity));
+        if (locationBuffer != null)
+            locationBuffer.addLocation(System.currentTimeMillis(), location);
+    }
+
+    @ReceiveEvent
+    public void locationRemoved(BeforeComponentRemoved event, EntityRef entity, LocationComponent location) {
+        locationBuffers.remove(entityManager.getEntityUniqueIdentifier(entity));
+    }
+
+    @ReceiveEvent
+    public void clientAdded(AfterComponentAdded event, EntityRef entity, ClientComponent client) {
+        locationBuffers.remove(entityManager.getEntityUniqueIdentifier(entity));
+    }
+
+    @Override
+    public void getInterpolatedLocation(EntityRef entity, Vector3 result) {
+        LocationBuffer locationBuffer = locationBuffers.get(entityManager.getEntityUniqueIdentifier(entity));
+        if (locationBuffer == null) {
+            LocationComponent location = entity.getComponent(LocationComponent.class);
+            result.set(location.getX(), location.getY(), location.getZ());
+        } else {
+            locationBuffer.getLocation(entity, result);
+        }
+    }
+
+    private class LocationBuffer {
+        private String worldId;
+        private final long[] times = new long[bufferSize];
+        private final float[] positions = new float[bufferSize * 3];
+        private int newest = -1;
+        private int count;
+
+        private void addLocation(long time, LocationComponent location) {
+            float x = location.getX();
+            float y = location.getY();
+            float z = location.getZ();
+            if (count > 0) {
+                float dx = x - positions[newest * 3];
+                float dy = y - positions[newest * 3 + 1];
+                float dz = z - positions[newest * 3 + 2];
+                if (!location.getWorldId().equals(worldId)
+                        || dx * dx + dy * dy + dz * dz > maxInterpolatedDistance * maxInterpolatedDistance)
+                    count = 0;
+            }
+            worldId = location.getWorldId();
+
+            // More updates received in one frame, only the last one counts
+            if (count == 0 || times[newest] != time) {
+                newest = (newest + 1) % bufferSize;
+                count = Math.min(bufferSize, count + 1);
+            }
+            times[newest] = time;
+            positions[newest * 3] = x;
+            positions[newest * 3 + 1] = y;
+            positions[newest * 3 + 2] = z;
+        }
+
+        private void getLocation(EntityRef entity, Vector3 result) {
+            // Newest position received before the render time, or the oldest one
+            int index = newest;
+            for (int i = 1; i < count && times[index] > renderTime; i++)
+                index = (index + bufferSize - 1) % bufferSize;
+
+            if (times[index] > renderTime) {
+                // Older than any position received
+                setPosition(index, result);
+            } else if (index == newest) {
+                extrapolate(entity, result);
+            } else {
+                int next = (index + 1) % bufferSize;
+                float alpha = (float) (renderTime - times[index]) / (times[next] - times[index]);
+                result.set(
+                        positions[index * 3] + (positions[next * 3] - positions[index * 3]) * alpha,
+                        positions[index * 3 + 1] + (positions[next * 3 + 1] - positions[index * 3 + 1]) * alpha,
+                        positions[index * 3 + 2] + (positions[next * 3 + 2] - positions[index * 3 + 2]) * alpha);
+            }
+        }
+
+        private void extrapolate(EntityRef entity, Vector3 result) {
+            setPosition(newest, result);
+            float seconds = Math.min(renderTime - times[newest], maxExtrapolation) / 1000f;
+
+            MovementComponent movement = entity.getComponent(MovementComponent.class);
+            if (movement != null) {
+                result.add(
+                        seconds * movement.getSpeed() * (float) Math.cos(movement.getYaw()),
+                        seconds * movement.getVerticalSpeed(),
+                        seconds * movement.getSpeed() * (float) Math.sin(movement.getYaw()));
+            } else if (count > 1) {
+                int previous = (newest + bufferSize - 1) % bufferSize;
+                float scale = seconds * 1000f / (times[newest] - times[previous]);
+                result.add(
+                        (positions[newest * 3] - positions[previous * 3]) * scale,
+                        (positions[newest * 3 + 1] - positions[previous * 3 + 1]) * scale,
+                        (positions[newest * 3 + 2] - positions[previous * 3 + 2]) * scale);
+            }
+        }
+
+        private void setPosition(int index, Vector3 result) {
+            result.set(positions[index * 3], positions[index * 3 + 1], positions[index * 3 + 2]);
+        }
+    }
+}
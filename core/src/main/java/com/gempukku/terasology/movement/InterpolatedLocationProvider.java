@@ -0,0 +1,19 @@
+package com.gempukku.terasology.movement;
+
+import com.badlogic.gdx.math.Vector3;
+import com.gempukku.secsy.entity.EntityRef;
+
+/**
+ * Provides positions of entities to render in the current frame. Positions of entities controlled by the server
+ * are interpolated between the updates received, so that they move smoothly, even if the updates are not sent
+ * every tick.
+ */
+public interface InterpolatedLocationProvider {
+    /**
+     * Sets the result to the position the entity should be rendered at. The entity has to have LocationComponent.
+     *
+     * @param entity Entity to get the position of.
+     * @param result Vector the position is set to.
+     */
+    void getInterpolatedLocation(EntityRef entity, Vector3 result);
+}
@@ -0,0 +1,20 @@
+package com.gempukku.terasology.movement;
+
+import com.gempukku.secsy.entity.event.Event;
+import com.gempukku.secsy.network.ToClientEvent;
+
+/**
+ * Sent by authority, when it rejects the position reported by a client in MovementRequestEvent.
+ */
+@ToClientEvent
+public class MovementCorrectionEvent extends Event {
+    public final float positionX;
+    public final float positionY;
+    public final float positionZ;
+
+    public MovementCorrectionEvent(float positionX, float positionY, float positionZ) {
+        this.positionX = positionX;
+        this.positionY = positionY;
+        this.positionZ = positionZ;
+    }
+}
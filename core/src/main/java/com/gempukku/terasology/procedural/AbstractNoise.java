@@ -16,9 +16,12 @@
 
 package com.gempukku.terasology.procedural;
 
+import java.util.Arrays;
+
 /**
  * An abstract implementation of most methods.
  * The int-based methods delegate to float-bases ones.
+ * The bulk methods delegate to add2D/add3D, which implementations can override with a faster version.
  */
 public abstract class AbstractNoise implements Noise {
 
@@ -36,4 +39,105 @@ public abstract class AbstractNoise implements Noise {
     public float noise(float x, float y) {
         return noise(x, y, 0);
     }
+
+    @Override
+    public void fill2D(float[] out, float x0, float y0, float dx, float dy, int width, int height) {
+        int count = validateBuffer(out, width * height);
+        Arrays.fill(out, 0, count, 0f);
+        add2D(out, x0, y0, dx, dy, width, height, 1f);
+    }
+
+    @Override
+    public void fill3D(float[] out, float x0, float y0, float z0, float dx, float dy, float dz, int width, int height, int depth) {
+        int count = validateBuffer(out, width * height * depth);
+        Arrays.fill(out, 0, count, 0f);
+        add3D(out, x0, y0, z0, dx, dy, dz, width, height, depth, 1f);
+    }
+
+    @Override
+    public void fillFractal2D(float[] out, float x0, float y0, float dx, float dy, int width, int height,
+                              int octaves, float lacunarity, float persistence) {
+        int count = validateBuffer(out, width * height);
+        validateOctaves(octaves);
+        Arrays.fill(out, 0, count, 0f);
+
+        float frequency = 1f;
+        float amplitude = 1f;
+        float totalAmplitude = 0f;
+        for (int octave = 0; octave < octaves; octave++) {
+            add2D(out, x0 * frequency, y0 * frequency, dx * frequency, dy * frequency, width, height, amplitude);
+            totalAmplitude += amplitude;
+            frequency *= lacunarity;
+            amplitude *= persistence;
+        }
+        scale(out, count, 1f / totalAmplitude);
+    }
+
+    @Override
+    public void fillFractal3D(float[] out, float x0, float y0, float z0, float dx, float dy, float dz, int width, int height, int depth,
+                              int octaves, float lacunarity, float persistence) {
+        int count = validateBuffer(out, width * height * depth);
+        validateOctaves(octaves);
+        Arrays.fill(out, 0, count, 0f);
+
+        float frequency = 1f;
+        float amplitude = 1f;
+        float totalAmplitude = 0f;
+        for (int octave = 0; octave < octaves; octave++) {
+            add3D(out, x0 * frequency, y0 * frequency, z0 * frequency, dx * frequency, dy * frequency, dz * frequency,
+                    width, height, depth, amplitude);
+            totalAmplitude += amplitude;
+            frequency *= lacunarity;
+            amplitude *= persistence;
+        }
+        scale(out, count, 1f / totalAmplitude);
+    }
+
+    /**
+     * Adds noise values multiplied by amplitude to the values already in the buffer, using the layout described
+     * in fill2D.
+     */
+    protected void add2D(float[] out, float x0, float y0, float dx, float dy, int width, int height, float amplitude) {
+        int index = 0;
+        for (int i = 0; i < width; i++) {
+            float x = x0 + i * dx;
+            for (int j = 0; j < height; j++) {
+                out[index++] += amplitude * noise(x, y0 + j * dy);
+            }
+        }
+    }
+
+    /**
+     * Adds noise values multiplied by amplitude to the values already in the buffer, using the layout described
+     * in fill3D.
+     */
+    protected void add3D(float[] out, float x0, float y0, float z0, float dx, float dy, float dz, int width, int height, int depth, float amplitude) {
+        int index = 0;
+        for (int i = 0; i < width; i++) {
+            float x = x0 + i * dx;
+            for (int j = 0; j < height; j++) {
+                float y = y0 + j * dy;
+                for (int k = 0; k < depth; k++) {
+                    out[index++] += amplitude * noise(x, y, z0 + k * dz);
+                }
+            }
+        }
+    }
+
+    private static int validateBuffer(float[] out, int count) {
+        if (out.length < count)
+            throw new IllegalArgumentException("Buffer too small, required: " + count + ", got: " + out.length);
+        return count;
+    }
+
+    private static void validateOctaves(int octaves) {
+        if (octaves < 1)
+            throw new IllegalArgumentException("At least one octave is required");
+    }
+
+    private static void scale(float[] out, int count, float multiplier) {
+        for (int i = 0; i < count; i++) {
+            out[i] *= multiplier;
+        }
+    }
 }
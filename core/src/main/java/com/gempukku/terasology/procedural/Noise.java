@@ -59,4 +59,51 @@ public interface Noise {
      * @return The noise value in the range [-1..1]
      */
     float noise(float x, float y, float z);
+
+    /**
+     * Fills the buffer with noise values sampled on a regular 2D grid. The value for the sample at
+     * (x0 + i * dx, y0 + j * dy) is stored at index i * height + j.
+     *
+     * @param out    Buffer to fill, has to hold at least width * height values
+     * @param x0     Position of the first sample on the x-axis
+     * @param y0     Position of the first sample on the y-axis
+     * @param dx     Distance between samples on the x-axis
+     * @param dy     Distance between samples on the y-axis
+     * @param width  Number of samples on the x-axis
+     * @param height Number of samples on the y-axis
+     */
+    void fill2D(float[] out, float x0, float y0, float dx, float dy, int width, int height);
+
+    /**
+     * Fills the buffer with noise values sampled on a regular 3D grid. The value for the sample at
+     * (x0 + i * dx, y0 + j * dy, z0 + k * dz) is stored at index (i * height + j) * depth + k.
+     *
+     * @param out    Buffer to fill, has to hold at least width * height * depth values
+     * @param x0     Position of the first sample on the x-axis
+     * @param y0     Position of the first sample on the y-axis
+     * @param z0     Position of the first sample on the z-axis
+     * @param dx     Distance between samples on the x-axis
+     * @param dy     Distance between samples on the y-axis
+     * @param dz     Distance between samples on the z-axis
+     * @param width  Number of samples on the x-axis
+     * @param height Number of samples on the y-axis
+     * @param depth  Number of samples on the z-axis
+     */
+    void fill3D(float[] out, float x0, float y0, float z0, float dx, float dy, float dz, int width, int height, int depth);
+
+    /**
+     * Same as fill2D, but sums the given number of octaves, each with frequency multiplied by lacunarity
+     * and amplitude multiplied by persistence compared to the previous one. The sum is normalized back to the
+     * range [-1..1].
+     */
+    void fillFractal2D(float[] out, float x0, float y0, float dx, float dy, int width, int height,
+                       int octaves, float lacunarity, float persistence);
+
+    /**
+     * Same as fill3D, but sums the given number of octaves, each with frequency multiplied by lacunarity
+     * and amplitude multiplied by persistence compared to the previous one. The sum is normalized back to the
+     * range [-1..1].
+     */
+    void fillFractal3D(float[] out, float x0, float y0, float z0, float dx, float dy, float dz, int width, int height, int depth,
+                       int octaves, float lacunarity, float persistence);
 }
@@ -0,0 +1,96 @@
+package com.gempukku.terasology.server;
+
+import com.gempukku.secsy.context.SECSyContext;
+import com.gempukku.secsy.context.annotation.NetProfiles;
+import com.gempukku.secsy.entity.component.InternalComponentManager;
+import com.gempukku.secsy.entity.game.InternalGameLoop;
+import com.gempukku.secsy.network.server.ClientManager;
+import com.gempukku.terasology.PlayerManager;
+import com.gempukku.terasology.log.Log;
+import com.gempukku.terasology.time.InternalTimeManager;
+import com.gempukku.terasology.world.MultiverseManager;
+import org.reflections.Configuration;
+import org.reflections.Reflections;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Runs only the authority context, without a window or OpenGL context, and accepts remote clients on a TCP port.
+ * Systems needing OpenGL (texture atlas and chunk geometry generation) are not started.
+ */
+public class DedicatedServer {
+    // Measures time spent in each system, see JmxSystemProfiler
+    private static final boolean PROFILE_SYSTEMS = Boolean.getBoolean("terasology.profileSystems");
+
+    private final int port;
+
+    private SECSyContext serverContext;
+    private ServerTickScheduler serverTickScheduler;
+    private SocketClientAcceptor socketClientAcceptor;
+
+    public DedicatedServer(int port) {
+        this.port = port;
+    }
+
+    public void start() throws IOException {
+        Configuration scanBasedOnAnnotations = new ConfigurationBuilder()
+                .setScanners(new TypeAnnotationsScanner())
+                .setUrls(ClasspathHelper.forJavaClassPath());
+
+        Set<String> serverProfiles = new HashSet<>();
+        // This is server context
+        serverProfiles.add(NetProfiles.AUTHORITY);
+        // We use components with naming convention
+        serverProfiles.add("nameConventionComponents");
+        // World generator
+        serverProfiles.add("lAndDWorld");
+        // Store unloaded chunks on disk
+        serverProfiles.add("persistChunks");
+        serverProfiles.add("basicPhysics");
+        serverProfiles.add("voxelCollision");
+        if (PROFILE_SYSTEMS)
+            serverProfiles.add("profileSystems");
+
+        serverContext = new SECSyContext(serverProfiles, new Reflections(scanBasedOnAnnotations));
+        serverContext.startup();
+
+        Log.info(DedicatedServer.class.getSimpleName(), "List of systems in server context:");
+        for (Object system : serverContext.getSystems()) {
+            Log.info(DedicatedServer.class.getSimpleName(), system.getClass().getSimpleName());
+        }
+
+        serverContext.getSystem(MultiverseManager.class).createWorld("world");
+
+        serverTickScheduler = new ServerTickScheduler(
+                serverContext.getSystem(InternalGameLoop.class),
+                serverContext.getSystem(InternalTimeManager.class));
+
+        socketClientAcceptor = new SocketClientAcceptor(port, serverTickScheduler,
+                serverContext.getSystem(ClientManager.class),
+                serverContext.getSystem(PlayerManager.class),
+                serverContext.getSystem(InternalComponentManager.class));
+
+        serverTickScheduler.start();
+        socketClientAcceptor.start();
+
+        Log.info(DedicatedServer.class.getSimpleName(), "Accepting clients on port: " + socketClientAcceptor.getPort());
+    }
+
+    public void stop() {
+        socketClientAcceptor.stopAccepting();
+
+        serverTickScheduler.stopServer();
+        try {
+            serverTickScheduler.join();
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+        }
+
+        serverContext.shutdown();
+    }
+}
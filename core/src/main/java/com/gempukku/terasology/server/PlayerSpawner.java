@@ -0,0 +1,39 @@
+package com.gempukku.terasology.server;
+
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.terasology.PlayerManager;
+import com.gempukku.terasology.graphics.component.CameraComponent;
+import com.gempukku.terasology.world.component.LocationComponent;
+
+/**
+ * Creates player entities of clients joining the game for the first time, at the spawn point of "world".
+ */
+public final class PlayerSpawner {
+    private PlayerSpawner() {
+    }
+
+    public static EntityRef spawnPlayer(PlayerManager playerManager, String clientId) {
+        EntityRef player = playerManager.createPlayer(clientId);
+
+        LocationComponent playerLocation = player.createComponent(LocationComponent.class);
+        playerLocation.setX(5f);
+        playerLocation.setY(1.5f);
+        playerLocation.setZ(5f);
+        playerLocation.setWorldId("world");
+
+        CameraComponent playerCamera = player.createComponent(CameraComponent.class);
+        playerCamera.setNear(0.1f);
+        playerCamera.setFar(8f * 32);
+        playerCamera.setActive(true);
+        playerCamera.setDirectionX(0);
+        playerCamera.setDirectionY(0);
+        playerCamera.setDirectionZ(-1);
+        playerCamera.setTranslateFromLocationX(0f);
+        playerCamera.setTranslateFromLocationY(1.8f);
+        playerCamera.setTranslateFromLocationZ(0f);
+
+        player.saveChanges();
+
+        return player;
+    }
+}
@@ -0,0 +1,157 @@
+package com.gempukku.terasology.server;
+
+import com.gempukku.secsy.entity.game.InternalGameLoop;
+import com.gempukku.terasology.log.Log;
+import com.gempukku.terasology.time.InternalTimeManager;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs server ticks at a fixed rate (terasology.server.tps system property), on its own thread. Each tick advances
+ * the multiverse time by the same amount, the thread sleeps for the remainder of the tick, rather than a fixed time.
+ * <p>
+ * If a tick takes longer than its length, the following ticks start late. With CATCH_UP overrun policy, up to
+ * maxCatchUpTicks late ticks are run right after each other, to catch up with the real time, with SKIP policy the
+ * late ticks are dropped right away. Dropped ticks do not advance the multiverse time, so the game is slowed down.
+ * <p>
+ * Tasks can be submitted from any thread, they are executed on the server thread at the start of the next tick.
+ */
+public class ServerTickScheduler extends Thread {
+    public enum OverrunPolicy {
+        CATCH_UP, SKIP
+    }
+
+    // Last part of the wait is spent yielding, rather than parking, as parking is not precise enough
+    private static final long spinNanos = 1000000;
+
+    private final InternalGameLoop internalGameLoop;
+    private final InternalTimeManager internalTimeManager;
+
+    private final long tickLengthNanos;
+    private final OverrunPolicy overrunPolicy;
+    private final int maxCatchUpTicks;
+    private final long metricsDumpInterval = Long.getLong("terasology.server.tickMetricsDumpInterval", 0);
+
+    // ConcurrentLinkedQueue is a lock-free queue, the server thread is the only consumer
+    private final Queue<Runnable> tasksToExecute = new ConcurrentLinkedQueue<>();
+    private final TickMetrics tickMetrics = new TickMetrics();
+
+    private volatile boolean running = true;
+
+    private long simulatedNanos;
+    private long simulatedMillis;
+
+    public ServerTickScheduler(InternalGameLoop internalGameLoop, InternalTimeManager internalTimeManager) {
+        this(internalGameLoop, internalTimeManager, Integer.getInteger("terasology.server.tps", 20),
+                OverrunPolicy.valueOf(System.getProperty("terasology.server.overrunPolicy", "CATCH_UP")),
+                Integer.getInteger("terasology.server.maxCatchUpTicks", 5));
+    }
+
+    ServerTickScheduler(InternalGameLoop internalGameLoop, InternalTimeManager internalTimeManager,
+                        int ticksPerSecond, OverrunPolicy overrunPolicy, int maxCatchUpTicks) {
+        if (ticksPerSecond <= 0 || ticksPerSecond > 1000000000)
+            throw new IllegalArgumentException("terasology.server.tps has to be between 1 and 1000000000, was: " + ticksPerSecond);
+        if (maxCatchUpTicks < 0)
+            throw new IllegalArgumentException("terasology.server.maxCatchUpTicks can't be negative, was: " + maxCatchUpTicks);
+        this.internalGameLoop = internalGameLoop;
+        this.internalTimeManager = internalTimeManager;
+        this.tickLengthNanos = 1000000000L / ticksPerSecond;
+        this.overrunPolicy = overrunPolicy;
+        this.maxCatchUpTicks = maxCatchUpTicks;
+        setName("Terasology-server");
+        internalGameLoop.addUpdatePhaseRecorder(tickMetrics);
+    }
+
+    public void executeInServerThread(Runnable runnable) {
+        tasksToExecute.add(runnable);
+    }
+
+    public TickMetrics getTickMetrics() {
+        return tickMetrics;
+    }
+
+    public void stopServer() {
+        running = false;
+        LockSupport.unpark(this);
+    }
+
+    @Override
+    public void run() {
+        long nextTickTime = System.nanoTime();
+        long lastMetricsDump = System.currentTimeMillis();
+        while (running) {
+            nextTickTime = runTick(System.nanoTime(), nextTickTime);
+
+            if (metricsDumpInterval > 0 && System.currentTimeMillis() - lastMetricsDump >= metricsDumpInterval) {
+                Log.debug(ServerTickScheduler.class.getSimpleName(), "Tick metrics:\n" + tickMetrics.dump());
+                tickMetrics.reset();
+                lastMetricsDump = System.currentTimeMillis();
+            }
+
+            waitUntil(nextTickTime);
+        }
+    }
+
+    /**
+     * Runs a single tick, that was scheduled to start at nextTickTime, but started at tickStart.
+     *
+     * @param tickStart    Time the tick started at (System.nanoTime()).
+     * @param nextTickTime Time the tick was scheduled to start at.
+     * @return Time the following tick should start at.
+     */
+    long runTick(long tickStart, long nextTickTime) {
+        long lateness = tickStart - nextTickTime;
+        tickMetrics.tickStartedLate(Math.max(0, lateness));
+
+        long lateTicks = lateness / tickLengthNanos;
+        long allowedLateTicks = (overrunPolicy == OverrunPolicy.CATCH_UP) ? maxCatchUpTicks : 0;
+        if (lateTicks > allowedLateTicks) {
+            long skipped = lateTicks - allowedLateTicks;
+            tickMetrics.ticksSkipped(skipped);
+            nextTickTime += skipped * tickLengthNanos;
+        }
+
+        executeTasks();
+        long tasksFinished = System.nanoTime();
+        tickMetrics.tasksExecuted(tasksFinished - tickStart);
+
+        internalTimeManager.updateMultiverseTime(getTickTimeDiff());
+        internalGameLoop.processUpdate();
+        tickMetrics.tickFinished(System.nanoTime() - tickStart, tickLengthNanos);
+
+        return nextTickTime + tickLengthNanos;
+    }
+
+    private void executeTasks() {
+        while (true) {
+            Runnable task = tasksToExecute.poll();
+            if (task == null)
+                break;
+            else
+                task.run();
+        }
+    }
+
+    // Time is tracked in nanoseconds, so that ticks not lasting whole milliseconds do not drift
+    private long getTickTimeDiff() {
+        simulatedNanos += tickLengthNanos;
+        long newSimulatedMillis = simulatedNanos / 1000000;
+        long timeDiff = newSimulatedMillis - simulatedMillis;
+        simulatedMillis = newSimulatedMillis;
+        return timeDiff;
+    }
+
+    private void waitUntil(long time) {
+        while (running) {
+            long remaining = time - System.nanoTime();
+            if (remaining <= 0)
+                return;
+            if (remaining > spinNanos)
+                LockSupport.parkNanos(this, remaining - spinNanos);
+            else
+                Thread.yield();
+        }
+    }
+}
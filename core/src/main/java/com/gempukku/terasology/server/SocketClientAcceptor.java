@@ -0,0 +1,97 @@
+package com.gempukku.terasology.server;
+
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.component.InternalComponentManager;
+import com.gempukku.secsy.network.server.ClientManager;
+import com.gempukku.secsy.network.server.nio.NioClientCommunication;
+import com.gempukku.secsy.network.server.nio.NioClientConnection;
+import com.gempukku.secsy.network.server.nio.NioClientServer;
+import com.gempukku.terasology.PlayerManager;
+import com.gempukku.terasology.log.Log;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Accepts connections of remote clients on a TCP port, with NioClientServer. A client starts by sending its client
+ * id (as written by DataOutputStream.writeUTF), then it talks to the server through NioClientCommunication.
+ * <p>
+ * Socket reads and writes happen on the selector thread of NioClientServer. Everything touching the server context
+ * (creating the player, adding and removing the client) is executed on the server thread.
+ * <p>
+ * Each client gets an outbound buffer of "terasology.server.clientBufferSize" bytes (4MB by default), with a backlog
+ * of up to "terasology.server.clientMaxBacklog" bytes (512MB by default, as a reconnecting client gets all the loaded
+ * chunks around it in a single tick). It is disconnected, if the backlog gets full, or if it does not read anything
+ * for "terasology.server.slowClientTimeout" milliseconds (10 seconds by default).
+ */
+public class SocketClientAcceptor implements NioClientServer.ConnectionListener {
+    private final ServerTickScheduler serverTickScheduler;
+    private final ClientManager clientManager;
+    private final PlayerManager playerManager;
+    private final InternalComponentManager componentManager;
+
+    private final NioClientServer nioClientServer;
+    private final Set<String> connectedClientIds = ConcurrentHashMap.newKeySet();
+
+    public SocketClientAcceptor(int port, ServerTickScheduler serverTickScheduler, ClientManager clientManager,
+                                PlayerManager playerManager, InternalComponentManager componentManager) throws IOException {
+        this.serverTickScheduler = serverTickScheduler;
+        this.clientManager = clientManager;
+        this.playerManager = playerManager;
+        this.componentManager = componentManager;
+
+        nioClientServer = new NioClientServer(port, this,
+                Integer.getInteger("terasology.server.clientBufferSize", 4 * 1024 * 1024),
+                Integer.getInteger("terasology.server.clientMaxBacklog", 512 * 1024 * 1024),
+                Long.getLong("terasology.server.slowClientTimeout", 10000));
+    }
+
+    public int getPort() {
+        return nioClientServer.getPort();
+    }
+
+    public void start() {
+        nioClientServer.start();
+    }
+
+    public void stopAccepting() {
+        nioClientServer.stopServer();
+    }
+
+    @Override
+    public boolean clientConnected(NioClientConnection connection) {
+        String clientId = connection.getClientId();
+        if (!connectedClientIds.add(clientId)) {
+            Log.info(SocketClientAcceptor.class.getSimpleName(), "Client already connected: " + clientId);
+            return false;
+        }
+
+        serverTickScheduler.executeInServerThread(
+                () -> {
+                    EntityRef player = playerManager.getPlayer(clientId);
+                    if (player == null)
+                        player = PlayerSpawner.spawnPlayer(playerManager, clientId);
+
+                    clientManager.addClient(clientId, player, new NioClientCommunication(componentManager, player, connection));
+                    Log.info(SocketClientAcceptor.class.getSimpleName(), "Client connected: " + clientId);
+                });
+        return true;
+    }
+
+    @Override
+    public void clientDisconnected(NioClientConnection connection, String reason) {
+        String clientId = connection.getClientId();
+        serverTickScheduler.executeInServerThread(
+                () -> {
+                    clientManager.removeClient(clientId);
+                    connectedClientIds.remove(clientId);
+                    Log.info(SocketClientAcceptor.class.getSimpleName(), "Client disconnected: " + clientId + " (" + reason + ")");
+                });
+    }
+
+    @Override
+    public void networkError(String message, Exception exception) {
+        Log.error(SocketClientAcceptor.class.getSimpleName(), message, exception);
+    }
+}
@@ -0,0 +1,71 @@
+package com.gempukku.terasology.server;
+
+/**
+ * Histogram of durations, with buckets growing in powers of two (from 1 microsecond up to over half an hour).
+ * Durations are recorded on the server thread, while the histogram can be read from any other thread.
+ */
+public class TickHistogram {
+    private static final int bucketCount = 32;
+
+    private final String name;
+    private final long[] buckets = new long[bucketCount];
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+
+    public TickHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized void record(long durationNanos) {
+        long micros = Math.max(0, durationNanos / 1000);
+        int bucket = Math.min(bucketCount - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets[bucket]++;
+        count++;
+        totalNanos += durationNanos;
+        maxNanos = Math.max(maxNanos, durationNanos);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getMeanNanos() {
+        return (count == 0) ? 0 : totalNanos / count;
+    }
+
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Returns the upper bound of the bucket the percentile of recorded durations falls into.
+     *
+     * @param percentile Percentile, between 0 and 100.
+     * @return Duration in nanoseconds.
+     */
+    public synchronized long getPercentileNanos(double percentile) {
+        if (count == 0)
+            return 0;
+        long rank = (long) Math.ceil(count * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            seen += buckets[i];
+            if (seen >= Math.max(1, rank))
+                return Math.min(maxNanos, (1L << i) * 1000);
+        }
+        return maxNanos;
+    }
+
+    public synchronized void reset() {
+        for (int i = 0; i < bucketCount; i++)
+            buckets[i] = 0;
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+}
@@ -0,0 +1,130 @@
+package com.gempukku.terasology.server;
+
+import com.gempukku.secsy.entity.game.GameLoopListener;
+import com.gempukku.secsy.entity.game.InternalGameLoopListener;
+import com.gempukku.secsy.entity.game.UpdatePhaseRecorder;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timings of server ticks, split into phases. Besides the totals of the pre-update, update and post-update phases,
+ * each internal game loop listener gets its own histogram, named after its class (i.e. "pre.ClientSystem" is
+ * the time spent sending changes to and receiving events from the clients, "post.SimpleEntityManager" is the time
+ * spent unloading entities that are no longer relevant).
+ */
+public class TickMetrics implements UpdatePhaseRecorder {
+    private final List<TickHistogram> histograms = new CopyOnWriteArrayList<>();
+
+    private final TickHistogram tick = addHistogram("tick");
+    private final TickHistogram tasks = addHistogram("tasks");
+    private final TickHistogram pre = addHistogram("pre");
+    private final TickHistogram update = addHistogram("update");
+    private final TickHistogram post = addHistogram("post");
+    private final TickHistogram lateness = addHistogram("lateness");
+
+    private final Map<InternalGameLoopListener, TickHistogram> preListenerHistograms = new IdentityHashMap<>();
+    private final Map<InternalGameLoopListener, TickHistogram> postListenerHistograms = new IdentityHashMap<>();
+
+    private final AtomicLong overrunTicks = new AtomicLong();
+    private final AtomicLong skippedTicks = new AtomicLong();
+
+    private long preNanos;
+    private long postNanos;
+
+    @Override
+    public void preUpdateFinished(InternalGameLoopListener internalGameLoopListener, long durationNanos, long allocatedBytes) {
+        getListenerHistogram(preListenerHistograms, "pre.", internalGameLoopListener).record(durationNanos);
+        preNanos += durationNanos;
+    }
+
+    @Override
+    public void listenerUpdated(GameLoopListener gameLoopListener, long durationNanos, long allocatedBytes) {
+        // Only the total of update phase is kept, see JmxSystemProfiler for the times of each listener
+    }
+
+    @Override
+    public void updateFinished(long durationNanos) {
+        pre.record(preNanos);
+        preNanos = 0;
+        update.record(durationNanos);
+    }
+
+    @Override
+    public void postUpdateFinished(InternalGameLoopListener internalGameLoopListener, long durationNanos, long allocatedBytes) {
+        getListenerHistogram(postListenerHistograms, "post.", internalGameLoopListener).record(durationNanos);
+        postNanos += durationNanos;
+    }
+
+    void tasksExecuted(long durationNanos) {
+        tasks.record(durationNanos);
+    }
+
+    void tickFinished(long durationNanos, long tickLengthNanos) {
+        post.record(postNanos);
+        postNanos = 0;
+        tick.record(durationNanos);
+        if (durationNanos > tickLengthNanos)
+            overrunTicks.incrementAndGet();
+    }
+
+    void tickStartedLate(long latenessNanos) {
+        lateness.record(latenessNanos);
+    }
+
+    void ticksSkipped(long count) {
+        skippedTicks.addAndGet(count);
+    }
+
+    public List<TickHistogram> getHistograms() {
+        return histograms;
+    }
+
+    public long getOverrunTicks() {
+        return overrunTicks.get();
+    }
+
+    public long getSkippedTicks() {
+        return skippedTicks.get();
+    }
+
+    public void reset() {
+        for (TickHistogram histogram : histograms)
+            histogram.reset();
+        overrunTicks.set(0);
+        skippedTicks.set(0);
+    }
+
+    public String dump() {
+        StringBuilder result = new StringBuilder();
+        result.append("Ticks: ").append(tick.getCount())
+                .append(", overrun: ").append(overrunTicks.get())
+                .append(", skipped: ").append(skippedTicks.get()).append('\n');
+        for (TickHistogram histogram : histograms) {
+            result.append(String.format("%-32s count=%d mean=%.3fms p50=%.3fms p99=%.3fms max=%.3fms%n",
+                    histogram.getName(), histogram.getCount(), histogram.getMeanNanos() / 1000000f,
+                    histogram.getPercentileNanos(50) / 1000000f, histogram.getPercentileNanos(99) / 1000000f,
+                    histogram.getMaxNanos() / 1000000f));
+        }
+        return result.toString();
+    }
+
+    private TickHistogram getListenerHistogram(Map<InternalGameLoopListener, TickHistogram> listenerHistograms,
+                                               String prefix, InternalGameLoopListener internalGameLoopListener) {
+        TickHistogram histogram = listenerHistograms.get(internalGameLoopListener);
+        if (histogram == null) {
+            histogram = addHistogram(prefix + internalGameLoopListener.getClass().getSimpleName());
+            listenerHistograms.put(internalGameLoopListener, histogram);
+        }
+        return histogram;
+    }
+
+    private TickHistogram addHistogram(String name) {
+        TickHistogram histogram = new TickHistogram(name);
+        histograms.add(histogram);
+        return histogram;
+    }
+}
@@ -6,11 +6,23 @@ import com.gempukku.secsy.context.annotation.RegisterSystem;
 import com.gempukku.secsy.context.system.LifeCycleSystem;
 import com.gempukku.secsy.entity.EntityManager;
 import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
+import com.gempukku.secsy.entity.event.AfterComponentAdded;
+import com.gempukku.secsy.entity.event.AfterComponentUpdated;
+import com.gempukku.secsy.entity.event.AfterEntityLoaded;
+import com.gempukku.secsy.entity.event.BeforeComponentRemoved;
 import com.gempukku.secsy.entity.game.InternalGameLoop;
 import com.gempukku.secsy.entity.game.InternalGameLoopListener;
 import com.gempukku.terasology.world.component.MultiverseComponent;
 import com.gempukku.terasology.world.component.WorldComponent;
 
+/**
+ * Server sends the multiverse time only once in a while, in between the time is advanced by the time passed since
+ * the last time was received. It's calculated once for each tick.
+ * <p>
+ * The time never goes backwards - if the received time is behind the time already handed out (the server persists
+ * its time only once in a while), the time is held until the server time catches up.
+ */
 @RegisterSystem(
         profiles = NetProfiles.CLIENT, shared = TimeManager.class)
 public class ClientTimeManager implements TimeManager, InternalGameLoopListener, LifeCycleSystem {
@@ -22,22 +34,68 @@ public class ClientTimeManager implements TimeManager, InternalGameLoopListener,
     private long lastUpdateTime = -1;
     private long timeSinceLastUpdate = 0;
 
+    private TickTimeSnapshot tickTime;
+    private long receivedMultiverseTime;
+    private long receivedAt = -1;
+
     @Override
     public void initialize() {
         gameLoop.addInternalGameLoopListener(this);
+        tickTime = new TickTimeSnapshot(this::getWorldEntity);
     }
 
     @Override
     public void preUpdate() {
         if (lastUpdateTime != -1) {
-            long currentTime = System.currentTimeMillis();
+            long currentTime = getCurrentTime();
             timeSinceLastUpdate = Math.min(1000, currentTime - lastUpdateTime);
             lastUpdateTime = currentTime;
         } else {
-            long currentTime = System.currentTimeMillis();
+            long currentTime = getCurrentTime();
             lastUpdateTime = currentTime;
             timeSinceLastUpdate = 0;
         }
+        if (receivedAt != -1)
+            advanceMultiverseTime(receivedMultiverseTime + lastUpdateTime - receivedAt);
+    }
+
+    @ReceiveEvent
+    public void multiverseLoaded(AfterEntityLoaded event, EntityRef entity, MultiverseComponent multiverse) {
+        multiverseTimeReceived(multiverse);
+    }
+
+    @ReceiveEvent
+    public void multiverseUpdated(AfterComponentUpdated event, EntityRef entity, MultiverseComponent multiverse) {
+        multiverseTimeReceived(multiverse);
+    }
+
+    private void multiverseTimeReceived(MultiverseComponent multiverse) {
+        receivedMultiverseTime = multiverse.getTime();
+        receivedAt = getCurrentTime();
+        advanceMultiverseTime(receivedMultiverseTime);
+    }
+
+    private void advanceMultiverseTime(long multiverseTime) {
+        tickTime.setMultiverseTime(Math.max(tickTime.getMultiverseTime(), multiverseTime));
+    }
+
+    long getCurrentTime() {
+        return System.currentTimeMillis();
+    }
+
+    @ReceiveEvent
+    public void worldAdded(AfterComponentAdded event, EntityRef entity, WorldComponent world) {
+        tickTime.invalidateWorlds();
+    }
+
+    @ReceiveEvent
+    public void worldUpdated(AfterComponentUpdated event, EntityRef entity, WorldComponent world) {
+        tickTime.invalidateWorlds();
+    }
+
+    @ReceiveEvent
+    public void worldRemoved(BeforeComponentRemoved event, EntityRef entity, WorldComponent world) {
+        tickTime.invalidateWorlds();
     }
 
     @Override
@@ -47,7 +105,9 @@ public class ClientTimeManager implements TimeManager, InternalGameLoopListener,
 
     @Override
     public long getMultiverseTime() {
-        return getMultiverseEntity().getComponent(MultiverseComponent.class).getTime();
+        if (receivedAt == -1)
+            multiverseTimeReceived(getMultiverseEntity().getComponent(MultiverseComponent.class));
+        return tickTime.getMultiverseTime();
     }
 
     @Override
@@ -73,10 +133,7 @@ public class ClientTimeManager implements TimeManager, InternalGameLoopListener,
 
     @Override
     public float getWorldDayTime(String worldId) {
-        EntityRef worldEntity = getWorldEntity(worldId);
-        WorldComponent world = worldEntity.getComponent(WorldComponent.class);
-        int dayLength = world.getDayLength();
-        long multiverseTime = getMultiverseTime();
-        return ((multiverseTime + world.getDayStartDifferenceFromMultiverse()) % dayLength) / (1f * dayLength);
+        getMultiverseTime();
+        return tickTime.getWorldDayTime(worldId);
     }
 }
@@ -3,34 +3,92 @@ package com.gempukku.terasology.time;
 import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.context.system.LifeCycleSystem;
 import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
+import com.gempukku.secsy.entity.event.AfterComponentAdded;
+import com.gempukku.secsy.entity.event.AfterComponentUpdated;
+import com.gempukku.secsy.entity.event.AfterEntityLoaded;
+import com.gempukku.secsy.entity.event.BeforeComponentRemoved;
 import com.gempukku.terasology.world.MultiverseManager;
 import com.gempukku.terasology.world.component.MultiverseComponent;
 import com.gempukku.terasology.world.component.WorldComponent;
 
+/**
+ * Keeps the multiverse time of the current tick in memory. It's written to the multiverse entity (and therefore
+ * stored and sent to clients) only every persistInterval milliseconds, as every change of the entity is sent to
+ * all the listeners.
+ */
 @RegisterSystem(
         profiles = NetProfiles.AUTHORITY, shared = {TimeManager.class, InternalTimeManager.class})
-public class ServerTimeManager implements TimeManager, InternalTimeManager {
+public class ServerTimeManager implements TimeManager, InternalTimeManager, LifeCycleSystem {
     @In
     private MultiverseManager multiverseManager;
 
+    private final long persistInterval = Long.getLong("terasology.time.persistInterval", 1000);
+
+    private TickTimeSnapshot tickTime;
+    private boolean timeLoaded;
+    private long lastPersistedTime;
+
     private long timeSinceLastUpdate = 0;
 
+    @Override
+    public void initialize() {
+        tickTime = new TickTimeSnapshot(worldId -> multiverseManager.getWorldEntity(worldId));
+    }
+
+    @Override
+    public void preDestroy() {
+        if (timeLoaded)
+            persistMultiverseTime();
+    }
+
     @Override
     public void updateMultiverseTime(long timeDiff) {
-        EntityRef multiverseEntity = multiverseManager.getMultiverseEntity();
-        MultiverseComponent multiverse = multiverseEntity.getComponent(MultiverseComponent.class);
-        long lastTime = multiverse.getTime();
+        long time = getMultiverseTime() + timeDiff;
         timeSinceLastUpdate = timeDiff;
-        multiverse.setTime(lastTime + timeDiff);
-        multiverseEntity.saveChanges();
+        tickTime.setMultiverseTime(time);
+        if (time - lastPersistedTime >= persistInterval)
+            persistMultiverseTime();
+    }
+
+    @ReceiveEvent
+    public void multiverseLoaded(AfterEntityLoaded event, EntityRef entity, MultiverseComponent multiverse) {
+        timeLoaded = false;
+    }
+
+    @ReceiveEvent
+    public void multiverseUpdated(AfterComponentUpdated event, EntityRef entity, MultiverseComponent multiverse) {
+        // Time was changed by someone else
+        if (multiverse.getTime() != lastPersistedTime)
+            timeLoaded = false;
+    }
+
+    @ReceiveEvent
+    public void worldAdded(AfterComponentAdded event, EntityRef entity, WorldComponent world) {
+        tickTime.invalidateWorlds();
+    }
+
+    @ReceiveEvent
+    public void worldUpdated(AfterComponentUpdated event, EntityRef entity, WorldComponent world) {
+        tickTime.invalidateWorlds();
+    }
+
+    @ReceiveEvent
+    public void worldRemoved(BeforeComponentRemoved event, EntityRef entity, WorldComponent world) {
+        tickTime.invalidateWorlds();
     }
 
     @Override
     public long getMultiverseTime() {
-        EntityRef multiverseEntity = multiverseManager.getMultiverseEntity();
-        MultiverseComponent multiverse = multiverseEntity.getComponent(MultiverseComponent.class);
-        return multiverse.getTime();
+        if (!timeLoaded) {
+            long time = multiverseManager.getMultiverseEntity().getComponent(MultiverseComponent.class).getTime();
+            tickTime.setMultiverseTime(time);
+            lastPersistedTime = time;
+            timeLoaded = true;
+        }
+        return tickTime.getMultiverseTime();
     }
 
     @Override
@@ -40,10 +98,15 @@ public class ServerTimeManager implements TimeManager, InternalTimeManager {
 
     @Override
     public float getWorldDayTime(String worldId) {
-        EntityRef worldEntity = multiverseManager.getWorldEntity(worldId);
-        WorldComponent world = worldEntity.getComponent(WorldComponent.class);
-        int dayLength = world.getDayLength();
-        long multiverseTime = getMultiverseTime();
-        return ((multiverseTime + world.getDayStartDifferenceFromMultiverse()) % dayLength) / (1f * dayLength);
+        getMultiverseTime();
+        return tickTime.getWorldDayTime(worldId);
+    }
+
+    private void persistMultiverseTime() {
+        EntityRef multiverseEntity = multiverseManager.getMultiverseEntity();
+        MultiverseComponent multiverse = multiverseEntity.getComponent(MultiverseComponent.class);
+        lastPersistedTime = tickTime.getMultiverseTime();
+        multiverse.setTime(lastPersistedTime);
+        multiverseEntity.saveChanges();
     }
 }
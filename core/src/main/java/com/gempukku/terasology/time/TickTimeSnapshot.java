@@ -0,0 +1,56 @@
+package com.gempukku.terasology.time;
+
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.terasology.world.component.WorldComponent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Time of the current tick, kept in primitive fields, so that it can be queried for each entity in a tick without
+ * looking up and reading the multiverse and world entities. Day settings of worlds are read from world entities
+ * the first time they are needed, and then until invalidated.
+ */
+class TickTimeSnapshot {
+    private final Function<String, EntityRef> worldEntityProvider;
+    private final Map<String, WorldDay> worldDays = new HashMap<>();
+
+    private long multiverseTime;
+
+    TickTimeSnapshot(Function<String, EntityRef> worldEntityProvider) {
+        this.worldEntityProvider = worldEntityProvider;
+    }
+
+    long getMultiverseTime() {
+        return multiverseTime;
+    }
+
+    void setMultiverseTime(long multiverseTime) {
+        this.multiverseTime = multiverseTime;
+    }
+
+    float getWorldDayTime(String worldId) {
+        WorldDay worldDay = worldDays.get(worldId);
+        if (worldDay == null) {
+            WorldComponent world = worldEntityProvider.apply(worldId).getComponent(WorldComponent.class);
+            worldDay = new WorldDay(world.getDayLength(), world.getDayStartDifferenceFromMultiverse());
+            worldDays.put(worldId, worldDay);
+        }
+        return ((multiverseTime + worldDay.dayStartDifferenceFromMultiverse) % worldDay.dayLength) / (1f * worldDay.dayLength);
+    }
+
+    void invalidateWorlds() {
+        worldDays.clear();
+    }
+
+    private static class WorldDay {
+        private final int dayLength;
+        private final int dayStartDifferenceFromMultiverse;
+
+        private WorldDay(int dayLength, int dayStartDifferenceFromMultiverse) {
+            this.dayLength = dayLength;
+            this.dayStartDifferenceFromMultiverse = dayStartDifferenceFromMultiverse;
+        }
+    }
+}
@@ -5,34 +5,57 @@ import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
 import com.gempukku.secsy.context.system.LifeCycleSystem;
 import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.InternalEntityManager;
 import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
 import com.gempukku.secsy.entity.event.AfterEntityLoaded;
 import com.gempukku.secsy.entity.event.BeforeEntityUnloaded;
 import com.gempukku.secsy.entity.game.GameLoop;
 import com.gempukku.secsy.entity.game.GameLoopListener;
+import com.gempukku.secsy.entity.game.ParallelUpdate;
 import com.gempukku.terasology.time.TimeManager;
-import com.google.common.collect.Ordering;
-import com.google.common.collect.SortedSetMultimap;
-import com.google.common.collect.TreeMultimap;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * Actions of all the loaded entities are scheduled in one timing wheel, keyed by entity id and actionId, so
+ * scheduling, rescheduling and cancelling an action does not depend on the number of scheduled actions. All the
+ * actions due in a tick are fired together, once per entity.
+ * <p>
+ * Components are the persistent copy of the schedule. Adding and cancelling actions, and firing delayed actions
+ * update them right away. Rescheduling of periodic actions after they fire is only written to the components
+ * every persistInterval milliseconds, so an entity stored in the meantime might fire its periodic actions
+ * earlier, after it's loaded again.
+ * <p>
+ * Only the timing wheel is advanced in the update, the due actions are fired after the parallel update, one entity
+ * after another, as events of one entity might cancel or reschedule actions of another one due in the same tick.
+ */
 @RegisterSystem(
         profiles = NetProfiles.AUTHORITY, shared = DelayManager.class)
+@ParallelUpdate(
+        writes = {DelayedActionComponent.class, PeriodicActionComponent.class})
 public class DelayedActionSystem implements GameLoopListener, LifeCycleSystem, DelayManager {
     @In
     private TimeManager timeManager;
     @In
     private GameLoop gameLoop;
+    @In
+    private InternalEntityManager internalEntityManager;
+
+    private final long persistInterval = Long.getLong("terasology.delay.persistInterval", 10000);
+
+    private TimingWheel<ScheduledAction> timingWheel;
+    private final Map<Integer, ScheduledActions> delayedActions = new HashMap<>();
+    private final Map<Integer, ScheduledActions> periodicActions = new HashMap<>();
+    private final Set<Integer> periodicActionsToPersist = new HashSet<>();
+    private long lastPersistTime;
 
-    private SortedSetMultimap<Long, EntityRef> delayedOperationsSortedByTime = TreeMultimap.create(Ordering.natural(), Ordering.arbitrary());
-    private SortedSetMultimap<Long, EntityRef> periodicOperationsSortedByTime = TreeMultimap.create(Ordering.natural(), Ordering.arbitrary());
+    private final List<ScheduledAction> firedActions = new ArrayList<>();
+    private final List<ScheduledActions> firedEntities = new ArrayList<>();
 
     @Override
     public void initialize() {
@@ -42,88 +65,126 @@ public class DelayedActionSystem implements GameLoopListener, LifeCycleSystem, D
     @Override
     public void update() {
         final long currentWorldTime = timeManager.getMultiverseTime();
-        invokeDelayedOperations(currentWorldTime);
-        invokePeriodicOperations(currentWorldTime);
+        getTimingWheel().advance(currentWorldTime, firedActions);
+
+        for (ScheduledAction firedAction : firedActions) {
+            ScheduledActions entityActions = firedAction.entityActions;
+            if (entityActions.firedActionIds.isEmpty())
+                firedEntities.add(entityActions);
+            entityActions.firedActionIds.add(firedAction.actionId);
+        }
+        firedActions.clear();
+
+        if (!firedEntities.isEmpty() || currentWorldTime - lastPersistTime >= persistInterval)
+            gameLoop.executeAfterParallelUpdate(() -> fireActions(currentWorldTime));
     }
 
-    private void invokeDelayedOperations(long currentWorldTime) {
-        List<EntityRef> operationsToInvoke = new LinkedList<>();
-        Iterator<Long> scheduledOperationsIterator = delayedOperationsSortedByTime.keySet().iterator();
-        long processedTime;
-        while (scheduledOperationsIterator.hasNext()) {
-            processedTime = scheduledOperationsIterator.next();
-            if (processedTime > currentWorldTime) {
-                break;
-            }
-            operationsToInvoke.addAll(delayedOperationsSortedByTime.get(processedTime));
-            scheduledOperationsIterator.remove();
+    private void fireActions(long currentWorldTime) {
+        for (ScheduledActions entityActions : firedEntities) {
+            // Actions cancelled or scheduled again by events sent earlier in this tick are not fired
+            entityActions.firedActionIds.removeIf(
+                    actionId -> {
+                        ScheduledAction action = entityActions.actions.get(actionId);
+                        return action == null || action.isScheduled();
+                    });
+            if (entityActions.firedActionIds.isEmpty())
+                continue;
+            if (entityActions.periodic)
+                invokePeriodicOperations(entityActions, currentWorldTime);
+            else
+                invokeDelayedOperations(entityActions);
         }
+        for (ScheduledActions entityActions : firedEntities)
+            entityActions.firedActionIds.clear();
+        firedEntities.clear();
 
-        operationsToInvoke.stream().filter(EntityRef::exists).forEach(delayedEntity -> {
-            final DelayedActionComponent delayedActions = delayedEntity.getComponent(DelayedActionComponent.class);
+        if (currentWorldTime - lastPersistTime >= persistInterval) {
+            persistPeriodicActions();
+            lastPersistTime = currentWorldTime;
+        }
+    }
 
-            final Set<String> actionIds = removeActionsUpTo(delayedActions, currentWorldTime);
-            saveOrRemoveComponent(delayedEntity, delayedActions);
-            delayedEntity.saveChanges();
+    private void invokeDelayedOperations(ScheduledActions entityActions) {
+        EntityRef delayedEntity = entityActions.entity;
+        if (!delayedEntity.exists()) {
+            removeScheduledActions(delayedActions, entityActions);
+            return;
+        }
 
-            if (!delayedActions.getActionIdWakeUp().isEmpty()) {
-                delayedOperationsSortedByTime.put(findSmallestWakeUp(delayedActions.getActionIdWakeUp()), delayedEntity);
-            }
+        for (String actionId : entityActions.firedActionIds)
+            entityActions.actions.remove(actionId);
+        if (entityActions.actions.isEmpty())
+            delayedActions.remove(entityActions.entityId, entityActions);
 
-            for (String actionId : actionIds) {
-                delayedEntity.send(new DelayedActionTriggeredEvent(actionId));
-            }
-        });
-    }
+        DelayedActionComponent delayedActionComponent = delayedEntity.getComponent(DelayedActionComponent.class);
+        if (delayedActionComponent != null) {
+            delayedActionComponent.getActionIdWakeUp().keySet().removeAll(entityActions.firedActionIds);
+            saveOrRemoveComponent(delayedEntity, delayedActionComponent);
+            delayedEntity.saveChanges();
+        }
 
-    private void invokePeriodicOperations(long currentWorldTime) {
-        List<EntityRef> operationsToInvoke = new LinkedList<>();
-        Iterator<Long> scheduledOperationsIterator = periodicOperationsSortedByTime.keySet().iterator();
-        long processedTime;
-        while (scheduledOperationsIterator.hasNext()) {
-            processedTime = scheduledOperationsIterator.next();
-            if (processedTime > currentWorldTime) {
-                break;
-            }
-            operationsToInvoke.addAll(periodicOperationsSortedByTime.get(processedTime));
-            scheduledOperationsIterator.remove();
+        for (String actionId : entityActions.firedActionIds) {
+            delayedEntity.send(new DelayedActionTriggeredEvent(actionId));
         }
+    }
 
-        operationsToInvoke.stream().filter(EntityRef::exists).forEach(periodicEntity -> {
-            final PeriodicActionComponent periodicActionComponent = periodicEntity.getComponent(PeriodicActionComponent.class);
+    private void invokePeriodicOperations(ScheduledActions entityActions, long currentWorldTime) {
+        EntityRef periodicEntity = entityActions.entity;
+        if (!periodicEntity.exists()) {
+            removeScheduledActions(periodicActions, entityActions);
+            return;
+        }
 
-            final Set<String> actionIds = getTriggeredActionsAndReschedule(periodicActionComponent, currentWorldTime);
-            saveOrRemoveComponent(periodicEntity, periodicActionComponent);
-            periodicEntity.saveChanges();
+        for (String actionId : entityActions.firedActionIds) {
+            ScheduledAction action = entityActions.actions.get(actionId);
+            getTimingWheel().schedule(action, currentWorldTime + action.period);
+        }
+        periodicActionsToPersist.add(entityActions.entityId);
 
-            if (!periodicActionComponent.getActionIdWakeUp().isEmpty()) {
-                periodicOperationsSortedByTime.put(findSmallestWakeUp(periodicActionComponent.getActionIdWakeUp()), periodicEntity);
-            }
+        for (String actionId : entityActions.firedActionIds) {
+            periodicEntity.send(new PeriodicActionTriggeredEvent(actionId));
+        }
+    }
 
-            for (String actionId : actionIds) {
-                periodicEntity.send(new PeriodicActionTriggeredEvent(actionId));
+    private void persistPeriodicActions() {
+        for (int entityId : periodicActionsToPersist) {
+            ScheduledActions entityActions = periodicActions.get(entityId);
+            if (entityActions != null && entityActions.entity.exists()) {
+                PeriodicActionComponent periodicActionComponent = entityActions.entity.getComponent(PeriodicActionComponent.class);
+                if (periodicActionComponent != null) {
+                    periodicActionComponent.setActionIdWakeUp(getWakeUps(entityActions));
+                    entityActions.entity.saveChanges();
+                }
             }
-        });
+        }
+        periodicActionsToPersist.clear();
     }
 
     @ReceiveEvent
     public void delayedComponentActivated(AfterEntityLoaded event, EntityRef entity, DelayedActionComponent delayedActionComponent) {
-        delayedOperationsSortedByTime.put(findSmallestWakeUp(delayedActionComponent.getActionIdWakeUp()), entity);
+        ScheduledActions entityActions = getScheduledActions(delayedActions, entity, false);
+        for (Map.Entry<String, Long> actionWakeUp : delayedActionComponent.getActionIdWakeUp().entrySet())
+            scheduleAction(entityActions, actionWakeUp.getKey(), actionWakeUp.getValue(), 0);
     }
 
     @ReceiveEvent
     public void periodicComponentActivated(AfterEntityLoaded event, EntityRef entity, PeriodicActionComponent periodicActionComponent) {
-        periodicOperationsSortedByTime.put(findSmallestWakeUp(periodicActionComponent.getActionIdWakeUp()), entity);
+        ScheduledActions entityActions = getScheduledActions(periodicActions, entity, true);
+        Map<String, Long> actionIdPeriod = periodicActionComponent.getActionIdPeriod();
+        for (Map.Entry<String, Long> actionWakeUp : periodicActionComponent.getActionIdWakeUp().entrySet())
+            scheduleAction(entityActions, actionWakeUp.getKey(), actionWakeUp.getValue(), actionIdPeriod.get(actionWakeUp.getKey()));
     }
 
     @ReceiveEvent
     public void delayedComponentDeactivated(BeforeEntityUnloaded event, EntityRef entity, DelayedActionComponent delayedActionComponent) {
-        delayedOperationsSortedByTime.remove(findSmallestWakeUp(delayedActionComponent.getActionIdWakeUp()), entity);
+        removeScheduledActions(delayedActions, internalEntityManager.getEntityId(entity));
     }
 
     @ReceiveEvent
     public void periodicComponentDeactivated(BeforeEntityUnloaded event, EntityRef entity, PeriodicActionComponent periodicActionComponent) {
-        delayedOperationsSortedByTime.remove(findSmallestWakeUp(periodicActionComponent.getActionIdWakeUp()), entity);
+        int entityId = internalEntityManager.getEntityId(entity);
+        removeScheduledActions(periodicActions, entityId);
+        periodicActionsToPersist.remove(entityId);
     }
 
     @Override
@@ -132,95 +193,146 @@ public class DelayedActionSystem implements GameLoopListener, LifeCycleSystem, D
 
         DelayedActionComponent delayedActionComponent = entity.getComponent(DelayedActionComponent.class);
         if (delayedActionComponent != null) {
-            final long oldWakeUp = findSmallestWakeUp(delayedActionComponent.getActionIdWakeUp());
             delayedActionComponent.getActionIdWakeUp().put(actionId, scheduleTime);
-            entity.saveChanges();
-            final long newWakeUp = findSmallestWakeUp(delayedActionComponent.getActionIdWakeUp());
-            if (oldWakeUp < newWakeUp) {
-                delayedOperationsSortedByTime.remove(oldWakeUp, entity);
-                delayedOperationsSortedByTime.put(newWakeUp, entity);
-            }
         } else {
             delayedActionComponent = entity.createComponent(DelayedActionComponent.class);
             Map<String, Long> wakeUps = new HashMap<>();
             wakeUps.put(actionId, scheduleTime);
             delayedActionComponent.setActionIdWakeUp(wakeUps);
-            entity.saveChanges();
-            delayedOperationsSortedByTime.put(scheduleTime, entity);
         }
+        entity.saveChanges();
+
+        scheduleAction(getScheduledActions(delayedActions, entity, false), actionId, scheduleTime, 0);
     }
 
     @Override
     public void addPeriodicAction(EntityRef entity, String actionId, long initialDelay, long period) {
         long scheduleTime = timeManager.getMultiverseTime() + initialDelay;
 
+        ScheduledActions entityActions = getScheduledActions(periodicActions, entity, true);
+        scheduleAction(entityActions, actionId, scheduleTime, period);
+
         PeriodicActionComponent periodicActionComponent = entity.getComponent(PeriodicActionComponent.class);
         if (periodicActionComponent != null) {
-            final long oldWakeUp = findSmallestWakeUp(periodicActionComponent.getActionIdWakeUp());
-            periodicActionComponent.getActionIdWakeUp().put(actionId, scheduleTime);
             periodicActionComponent.getActionIdPeriod().put(actionId, period);
-            entity.saveChanges();
-            final long newWakeUp = findSmallestWakeUp(periodicActionComponent.getActionIdWakeUp());
-            if (oldWakeUp < newWakeUp) {
-                periodicOperationsSortedByTime.remove(oldWakeUp, entity);
-                periodicOperationsSortedByTime.put(newWakeUp, entity);
-            }
         } else {
             periodicActionComponent = entity.createComponent(PeriodicActionComponent.class);
-            Map<String, Long> wakeUps = new HashMap<>();
-            wakeUps.put(actionId, scheduleTime);
             Map<String, Long> periods = new HashMap<>();
             periods.put(actionId, period);
-            periodicActionComponent.setActionIdWakeUp(wakeUps);
             periodicActionComponent.setActionIdPeriod(periods);
-            entity.saveChanges();
-            periodicOperationsSortedByTime.put(scheduleTime, entity);
         }
+        periodicActionComponent.setActionIdWakeUp(getWakeUps(entityActions));
+        entity.saveChanges();
+        periodicActionsToPersist.remove(entityActions.entityId);
     }
 
     @Override
     public void cancelDelayedAction(EntityRef entity, String actionId) {
+        cancelScheduledAction(delayedActions, entity, actionId);
+
         DelayedActionComponent delayedComponent = entity.getComponent(DelayedActionComponent.class);
-        long oldWakeUp = findSmallestWakeUp(delayedComponent.getActionIdWakeUp());
-        delayedComponent.getActionIdWakeUp().remove(actionId);
-        long newWakeUp = findSmallestWakeUp(delayedComponent.getActionIdWakeUp());
-        if (!delayedComponent.getActionIdWakeUp().isEmpty() && oldWakeUp < newWakeUp) {
-            delayedOperationsSortedByTime.remove(oldWakeUp, entity);
-            delayedOperationsSortedByTime.put(newWakeUp, entity);
-        } else if (delayedComponent.getActionIdWakeUp().isEmpty()) {
-            delayedOperationsSortedByTime.remove(oldWakeUp, entity);
+        if (delayedComponent != null) {
+            delayedComponent.getActionIdWakeUp().remove(actionId);
+            saveOrRemoveComponent(entity, delayedComponent);
+            entity.saveChanges();
         }
-        saveOrRemoveComponent(entity, delayedComponent);
-        entity.saveChanges();
     }
 
     @Override
     public void cancelPeriodicAction(EntityRef entity, String actionId) {
+        ScheduledActions entityActions = cancelScheduledAction(periodicActions, entity, actionId);
+
         PeriodicActionComponent periodicActionComponent = entity.getComponent(PeriodicActionComponent.class);
-        long oldWakeUp = findSmallestWakeUp(periodicActionComponent.getActionIdWakeUp());
-        periodicActionComponent.getActionIdWakeUp().remove(actionId);
-        periodicActionComponent.getActionIdPeriod().remove(actionId);
-        long newWakeUp = findSmallestWakeUp(periodicActionComponent.getActionIdWakeUp());
-        if (!periodicActionComponent.getActionIdWakeUp().isEmpty() && oldWakeUp < newWakeUp) {
-            periodicOperationsSortedByTime.remove(oldWakeUp, entity);
-            periodicOperationsSortedByTime.put(newWakeUp, entity);
-        } else if (periodicActionComponent.getActionIdWakeUp().isEmpty()) {
-            periodicOperationsSortedByTime.remove(oldWakeUp, entity);
+        if (periodicActionComponent != null) {
+            periodicActionComponent.getActionIdPeriod().remove(actionId);
+            if (entityActions != null) {
+                periodicActionComponent.setActionIdWakeUp(getWakeUps(entityActions));
+                periodicActionsToPersist.remove(entityActions.entityId);
+            } else {
+                periodicActionComponent.getActionIdWakeUp().remove(actionId);
+            }
+            saveOrRemoveComponent(entity, periodicActionComponent);
+            entity.saveChanges();
         }
-        saveOrRemoveComponent(entity, periodicActionComponent);
-        entity.saveChanges();
     }
 
     @Override
     public boolean hasDelayedAction(EntityRef entity, String actionId) {
-        DelayedActionComponent delayedComponent = entity.getComponent(DelayedActionComponent.class);
-        return delayedComponent != null && delayedComponent.getActionIdWakeUp().containsKey(actionId);
+        return hasScheduledAction(delayedActions, entity, actionId);
     }
 
     @Override
     public boolean hasPeriodicAction(EntityRef entity, String actionId) {
-        PeriodicActionComponent periodicActionComponent = entity.getComponent(PeriodicActionComponent.class);
-        return periodicActionComponent != null && periodicActionComponent.getActionIdWakeUp().containsKey(actionId);
+        return hasScheduledAction(periodicActions, entity, actionId);
+    }
+
+    private TimingWheel<ScheduledAction> getTimingWheel() {
+        if (timingWheel == null) {
+            long currentWorldTime = timeManager.getMultiverseTime();
+            timingWheel = new TimingWheel<>(currentWorldTime);
+            lastPersistTime = currentWorldTime;
+        }
+        return timingWheel;
+    }
+
+    private ScheduledActions getScheduledActions(Map<Integer, ScheduledActions> scheduledActions, EntityRef entity, boolean periodic) {
+        int entityId = internalEntityManager.getEntityId(entity);
+        ScheduledActions entityActions = scheduledActions.get(entityId);
+        if (entityActions == null) {
+            entityActions = new ScheduledActions(entityId, periodic);
+            scheduledActions.put(entityId, entityActions);
+        }
+        entityActions.entity = entity;
+        return entityActions;
+    }
+
+    private void scheduleAction(ScheduledActions entityActions, String actionId, long wakeUp, long period) {
+        ScheduledAction action = entityActions.actions.get(actionId);
+        if (action == null) {
+            action = new ScheduledAction(entityActions, actionId);
+            entityActions.actions.put(actionId, action);
+        }
+        action.period = period;
+        getTimingWheel().schedule(action, wakeUp);
+    }
+
+    private ScheduledActions cancelScheduledAction(Map<Integer, ScheduledActions> scheduledActions, EntityRef entity, String actionId) {
+        int entityId = internalEntityManager.getEntityId(entity);
+        ScheduledActions entityActions = scheduledActions.get(entityId);
+        if (entityActions == null)
+            return null;
+
+        ScheduledAction action = entityActions.actions.remove(actionId);
+        if (action != null)
+            getTimingWheel().cancel(action);
+        if (entityActions.actions.isEmpty())
+            scheduledActions.remove(entityId);
+        return entityActions;
+    }
+
+    private boolean hasScheduledAction(Map<Integer, ScheduledActions> scheduledActions, EntityRef entity, String actionId) {
+        ScheduledActions entityActions = scheduledActions.get(internalEntityManager.getEntityId(entity));
+        return entityActions != null && entityActions.actions.containsKey(actionId);
+    }
+
+    private void removeScheduledActions(Map<Integer, ScheduledActions> scheduledActions, int entityId) {
+        ScheduledActions entityActions = scheduledActions.get(entityId);
+        if (entityActions != null)
+            removeScheduledActions(scheduledActions, entityActions);
+    }
+
+    private void removeScheduledActions(Map<Integer, ScheduledActions> scheduledActions, ScheduledActions entityActions) {
+        scheduledActions.remove(entityActions.entityId, entityActions);
+        for (ScheduledAction action : entityActions.actions.values())
+            getTimingWheel().cancel(action);
+        entityActions.actions.clear();
+    }
+
+    private Map<String, Long> getWakeUps(ScheduledActions entityActions) {
+        Map<String, Long> wakeUps = new HashMap<>();
+        for (ScheduledAction action : entityActions.actions.values())
+            wakeUps.put(action.actionId, action.getDeadline());
+        return wakeUps;
     }
 
     private void saveOrRemoveComponent(EntityRef delayedEntity, DelayedActionComponent delayedActionComponent) {
@@ -235,47 +347,27 @@ public class DelayedActionSystem implements GameLoopListener, LifeCycleSystem, D
         }
     }
 
-    private Set<String> removeActionsUpTo(DelayedActionComponent delayedActionComponent, final long worldTime) {
-        Map<String, Long> actionIdWakeUp = delayedActionComponent.getActionIdWakeUp();
+    private static class ScheduledActions {
+        private final int entityId;
+        private final boolean periodic;
+        private final Map<String, ScheduledAction> actions = new HashMap<>();
+        private final List<String> firedActionIds = new ArrayList<>();
+        private EntityRef entity;
 
-        final Set<String> result = new HashSet<>();
-        final Iterator<Map.Entry<String, Long>> entryIterator = actionIdWakeUp.entrySet().iterator();
-        while (entryIterator.hasNext()) {
-            final Map.Entry<String, Long> entry = entryIterator.next();
-            if (entry.getValue() <= worldTime) {
-                result.add(entry.getKey());
-                entryIterator.remove();
-            }
+        private ScheduledActions(int entityId, boolean periodic) {
+            this.entityId = entityId;
+            this.periodic = periodic;
         }
-
-        return result;
     }
 
-    private long findSmallestWakeUp(Map<String, Long> actionIdsWakeUp) {
-        long result = Long.MAX_VALUE;
-        for (long value : actionIdsWakeUp.values()) {
-            result = Math.min(result, value);
-        }
-        return result;
-    }
+    private static class ScheduledAction extends TimingWheel.Timer {
+        private final ScheduledActions entityActions;
+        private final String actionId;
+        private long period;
 
-    private Set<String> getTriggeredActionsAndReschedule(PeriodicActionComponent periodicActionComponent, final long worldTime) {
-        final Set<String> result = new HashSet<>();
-        Map<String, Long> actionIdWakeUp = periodicActionComponent.getActionIdWakeUp();
-        final Iterator<Map.Entry<String, Long>> entryIterator = actionIdWakeUp.entrySet().iterator();
-        while (entryIterator.hasNext()) {
-            final Map.Entry<String, Long> entry = entryIterator.next();
-            if (entry.getValue() <= worldTime) {
-                result.add(entry.getKey());
-                entryIterator.remove();
-            }
-        }
-
-        // Rescheduling
-        for (String actionId : result) {
-            actionIdWakeUp.put(actionId, worldTime + periodicActionComponent.getActionIdPeriod().get(actionId));
+        private ScheduledAction(ScheduledActions entityActions, String actionId) {
+            this.entityActions = entityActions;
+            this.actionId = actionId;
         }
-
-        return result;
     }
 }
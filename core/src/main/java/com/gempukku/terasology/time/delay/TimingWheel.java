@@ -0,0 +1,189 @@
+package com.gempukku.terasology.time.delay;
+
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel with a resolution of one millisecond. Timers are kept in doubly linked lists, one for
+ * each slot of each level, so scheduling and cancelling a timer does not depend on the number of timers. Timers
+ * on higher levels are moved to lower levels, as the time of their slot comes.
+ * <p>
+ * Timers due at a time earlier than the time wheel is at, are fired with the next advance.
+ */
+class TimingWheel<T extends TimingWheel.Timer> {
+    private static final int firstLevelBits = 8;
+    private static final int levelBits = 6;
+    private static final int levelCount = 5;
+
+    private static final int notScheduled = -2;
+    private static final int dueLevel = -1;
+
+    private final Timer[][] slots = new Timer[levelCount][];
+    private final int[] timersInLevel = new int[levelCount];
+    private final Timer due = createSentinel();
+
+    private long currentTime;
+
+    TimingWheel(long startTime) {
+        currentTime = startTime;
+        for (int level = 0; level < levelCount; level++) {
+            int slotCount = 1 << getLevelBits(level);
+            slots[level] = new Timer[slotCount];
+            for (int slot = 0; slot < slotCount; slot++)
+                slots[level][slot] = createSentinel();
+        }
+    }
+
+    /**
+     * Schedules the timer to fire at the deadline, if it's already scheduled, it's rescheduled.
+     */
+    void schedule(T timer, long deadline) {
+        cancel(timer);
+        ((Timer) timer).deadline = deadline;
+        insert(timer);
+    }
+
+    void cancel(T timer) {
+        int level = ((Timer) timer).level;
+        if (level == notScheduled)
+            return;
+        if (level != dueLevel)
+            timersInLevel[level]--;
+        unlink(timer);
+    }
+
+    /**
+     * Advances the wheel to the specified time, adds all the timers due by then to the list, earlier deadlines
+     * first. Fired timers are no longer scheduled.
+     */
+    @SuppressWarnings("unchecked")
+    void advance(long time, List<T> fired) {
+        moveTimers(due, (List<Timer>) fired);
+        while (currentTime < time) {
+            int emptyLevel = getHighestEmptyLevel();
+            if (emptyLevel == levelCount - 1) {
+                currentTime = time;
+                break;
+            }
+            if (emptyLevel >= 0) {
+                // Nothing happens until the next level is moved down, so skip right before that
+                int shift = getLevelShift(emptyLevel + 1);
+                long skipTo = Math.min(time, (((currentTime >> shift) + 1) << shift) - 1);
+                if (skipTo > currentTime) {
+                    currentTime = skipTo;
+                    continue;
+                }
+            }
+
+            currentTime++;
+            for (int level = 1; level < levelCount; level++) {
+                int shift = getLevelShift(level);
+                if ((currentTime & ((1L << shift) - 1)) != 0)
+                    break;
+                cascade(level, (int) ((currentTime >> shift) & ((1 << levelBits) - 1)));
+            }
+            moveTimers(due, (List<Timer>) fired);
+            moveTimers(slots[0][(int) (currentTime & ((1 << firstLevelBits) - 1))], (List<Timer>) fired);
+        }
+    }
+
+    private int getHighestEmptyLevel() {
+        int level = -1;
+        while (level + 1 < levelCount && timersInLevel[level + 1] == 0)
+            level++;
+        return level;
+    }
+
+    private void cascade(int level, int slot) {
+        Timer sentinel = slots[level][slot];
+        Timer timer = sentinel.next;
+        while (timer != sentinel) {
+            Timer next = timer.next;
+            timersInLevel[level]--;
+            unlink(timer);
+            insert(timer);
+            timer = next;
+        }
+    }
+
+    private void moveTimers(Timer sentinel, List<Timer> fired) {
+        Timer timer = sentinel.next;
+        while (timer != sentinel) {
+            Timer next = timer.next;
+            if (timer.level != dueLevel)
+                timersInLevel[timer.level]--;
+            unlink(timer);
+            fired.add(timer);
+            timer = next;
+        }
+    }
+
+    private void insert(Timer timer) {
+        long delta = timer.deadline - currentTime;
+        if (delta <= 0) {
+            link(due, timer, dueLevel);
+            return;
+        }
+
+        for (int level = 0; level < levelCount; level++) {
+            int shift = getLevelShift(level);
+            if (delta < (1L << (shift + getLevelBits(level)))) {
+                link(slots[level][(int) ((timer.deadline >> shift) & ((1 << getLevelBits(level)) - 1))], timer, level);
+                return;
+            }
+        }
+
+        // Too far in the future, placed in the last slot it can reach, and placed again from there
+        int lastLevel = levelCount - 1;
+        int shift = getLevelShift(lastLevel);
+        long latestTime = currentTime + (1L << (shift + levelBits)) - 1;
+        link(slots[lastLevel][(int) ((latestTime >> shift) & ((1 << levelBits) - 1))], timer, lastLevel);
+    }
+
+    private void link(Timer sentinel, Timer timer, int level) {
+        timer.level = level;
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+        if (level >= 0)
+            timersInLevel[level]++;
+    }
+
+    private static void unlink(Timer timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+        timer.level = notScheduled;
+    }
+
+    private static int getLevelBits(int level) {
+        return level == 0 ? firstLevelBits : levelBits;
+    }
+
+    private static int getLevelShift(int level) {
+        return level == 0 ? 0 : firstLevelBits + (level - 1) * levelBits;
+    }
+
+    private static Timer createSentinel() {
+        Timer sentinel = new Timer();
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+
+    static class Timer {
+        private Timer prev;
+        private Timer next;
+        private int level = notScheduled;
+        private long deadline;
+
+        long getDeadline() {
+            return deadline;
+        }
+
+        boolean isScheduled() {
+            return level != notScheduled;
+        }
+    }
+}
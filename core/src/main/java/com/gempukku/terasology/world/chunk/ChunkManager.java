@@ -1,6 +1,5 @@
 package com.gempukku.terasology.world.chunk;
 
-import com.badlogic.gdx.Gdx;
 import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
@@ -9,19 +8,24 @@ import com.gempukku.secsy.entity.EntityManager;
 import com.gempukku.secsy.entity.EntityRef;
 import com.gempukku.secsy.entity.index.EntityIndex;
 import com.gempukku.secsy.entity.index.EntityIndexManager;
+import com.gempukku.secsy.entity.io.ComponentData;
 import com.gempukku.secsy.entity.io.StoredEntityData;
 import com.gempukku.secsy.entity.relevance.EntityRelevanceRule;
 import com.gempukku.secsy.entity.relevance.EntityRelevanceRuleRegistry;
+import com.gempukku.terasology.log.Log;
 import com.gempukku.terasology.world.CommonBlockManager;
 import com.gempukku.terasology.world.MultiverseManager;
 import com.gempukku.terasology.world.WorldBlock;
 import com.gempukku.terasology.world.WorldStorage;
 import com.gempukku.terasology.world.chunk.event.AfterChunkLoadedEvent;
 import com.gempukku.terasology.world.chunk.event.BeforeChunkUnloadedEvent;
+import com.gempukku.terasology.world.chunk.io.ChunkEntityData;
+import com.gempukku.terasology.world.chunk.io.ChunkStore;
 import com.gempukku.terasology.world.component.BlockComponent;
 import com.gempukku.terasology.world.component.LocationComponent;
 import com.google.common.collect.Iterables;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -49,6 +53,8 @@ public class ChunkManager implements EntityRelevanceRule, ChunkBlocksProvider, C
     private WorldGenerator worldGenerator;
     @In
     private CommonBlockManager commonBlockManager;
+    @In(optional = true)
+    private ChunkStore chunkStore;
 
     private List<ChunkRelevanceRule> chunkRelevanceRules = new LinkedList<>();
 
@@ -100,7 +106,7 @@ public class ChunkManager implements EntityRelevanceRule, ChunkBlocksProvider, C
 
         // Bring in all the offThread values into main thread
         synchronized (copyLockObject) {
-            Gdx.app.debug("ChunkManager", "To merge: " + finishedBlocksOffMainThread.size() + " chunks.");
+            Log.debug("ChunkManager", "To merge: " + finishedBlocksOffMainThread.size() + " chunks.");
 
             Iterator<Map.Entry<ChunkBlocks, Iterable<StoredEntityData>>> iterator = finishedBlocksOffMainThread.entrySet().iterator();
             int count = 0;
@@ -110,7 +116,7 @@ public class ChunkManager implements EntityRelevanceRule, ChunkBlocksProvider, C
                 ChunkBlocks chunkBlocks = entry.getKey();
                 entitiesToAdd.add(entry.getValue());
                 chunksToNotify.add(chunkBlocks);
-                Gdx.app.debug("ChunkManager", "Merged chunk: " + chunkBlocks.x + "," + chunkBlocks.y + "," + chunkBlocks.z);
+                Log.debug("ChunkManager", "Merged chunk: " + chunkBlocks.x + "," + chunkBlocks.y + "," + chunkBlocks.z);
                 iterator.remove();
                 count++;
             }
@@ -120,7 +126,7 @@ public class ChunkManager implements EntityRelevanceRule, ChunkBlocksProvider, C
         Set<ChunkBlocks> toRemove = new HashSet<>();
         for (ChunkBlocks blocks : chunkBlocks.values()) {
             if (!isChunkRelevant(blocks)) {
-                Gdx.app.debug("ChunkManager", "Unloading chunk: " + blocks.x + "," + blocks.y + "," + blocks.z);
+                Log.debug("ChunkManager", "Unloading chunk: " + blocks.x + "," + blocks.y + "," + blocks.z);
 
                 if (blocks.getStatus() == ChunkBlocks.Status.READY) {
                     multiverseManager.getWorldEntity(blocks.worldId).send(
@@ -186,7 +192,48 @@ public class ChunkManager implements EntityRelevanceRule, ChunkBlocksProvider, C
 
     @Override
     public void storeEntities(Iterable<? extends StoredEntityData> iterable) {
-        // TODO store entities in storage
+        if (chunkStore == null)
+            return;
+
+        Map<IntLocationKey, List<StoredEntityData>> entitiesByChunk = new HashMap<>();
+        for (StoredEntityData entity : iterable) {
+            IntLocationKey chunkKey = getOwningChunk(entity);
+            if (chunkKey != null) {
+                List<StoredEntityData> chunkEntities = entitiesByChunk.get(chunkKey);
+                if (chunkEntities == null) {
+                    chunkEntities = new LinkedList<>();
+                    entitiesByChunk.put(chunkKey, chunkEntities);
+                }
+                chunkEntities.add(entity);
+            }
+        }
+
+        // Snapshot is taken here, compression and writing happens in the chunk store off the main thread
+        for (Map.Entry<IntLocationKey, List<StoredEntityData>> chunkEntities : entitiesByChunk.entrySet()) {
+            IntLocationKey chunkKey = chunkEntities.getKey();
+            try {
+                chunkStore.storeChunk(chunkKey.getWorldId(), chunkKey.getX(), chunkKey.getY(), chunkKey.getZ(),
+                        new ChunkEntityData(chunkEntities.getValue()));
+            } catch (IOException exp) {
+                Log.error("ChunkManager", "Unable to store chunk: " + chunkKey.getX() + "," + chunkKey.getY() + "," + chunkKey.getZ(), exp);
+            }
+        }
+    }
+
+    private IntLocationKey getOwningChunk(StoredEntityData entity) {
+        ComponentData chunk = entity.getComponent(ChunkComponent.class);
+        if (chunk != null) {
+            Map<String, Object> fields = chunk.getFields();
+            return new IntLocationKey((String) fields.get("worldId"),
+                    ((Number) fields.get("x")).intValue(), ((Number) fields.get("y")).intValue(), ((Number) fields.get("z")).intValue());
+        }
+        ComponentData location = entity.getComponent(LocationComponent.class);
+        if (location != null) {
+            Map<String, Object> fields = location.getFields();
+            tempBlock.set(((Number) fields.get("x")).floatValue(), ((Number) fields.get("y")).floatValue(), ((Number) fields.get("z")).floatValue());
+            return new IntLocationKey((String) fields.get("worldId"), tempBlock.getChunkX(), tempBlock.getChunkY(), tempBlock.getChunkZ());
+        }
+        return null;
     }
 
     @Override
@@ -197,7 +244,7 @@ public class ChunkManager implements EntityRelevanceRule, ChunkBlocksProvider, C
             chunkBlocks.setBlocks(chunkEntity.getComponent(ChunkComponent.class).getBlockIds());
             chunkBlocks.setStatus(ChunkBlocks.Status.READY);
 
-            Gdx.app.debug("ChunkManager", "Notifying on: " + chunkBlocks.getX() + "," + chunkBlocks.getY() + "," + chunkBlocks.getZ());
+            Log.debug("ChunkManager", "Notifying on: " + chunkBlocks.getX() + "," + chunkBlocks.getY() + "," + chunkBlocks.getZ());
             multiverseManager.getWorldEntity(chunkBlocks.getWorldId()).send(
                     new AfterChunkLoadedEvent(chunkBlocks.getX(), chunkBlocks.getY(), chunkBlocks.getZ()));
         }
@@ -276,13 +323,28 @@ public class ChunkManager implements EntityRelevanceRule, ChunkBlocksProvider, C
         }
 
         private void generateChunk(ChunkBlocks chunkBlocks) {
-            Iterable<StoredEntityData> chunkData = worldGenerator.generateChunk(chunkBlocks.worldId, chunkBlocks.x, chunkBlocks.y, chunkBlocks.z);
+            Iterable<StoredEntityData> chunkData = loadChunk(chunkBlocks);
+            if (chunkData == null)
+                chunkData = worldGenerator.generateChunk(chunkBlocks.worldId, chunkBlocks.x, chunkBlocks.y, chunkBlocks.z);
 
             synchronized (copyLockObject) {
                 finishedBlocksOffMainThread.put(chunkBlocks, chunkData);
             }
         }
 
+        private Iterable<StoredEntityData> loadChunk(ChunkBlocks chunkBlocks) {
+            if (chunkStore == null)
+                return null;
+            try {
+                ChunkEntityData chunkEntityData = chunkStore.loadChunk(chunkBlocks.worldId, chunkBlocks.x, chunkBlocks.y, chunkBlocks.z);
+                if (chunkEntityData != null)
+                    return chunkEntityData.getEntities();
+            } catch (IOException exp) {
+                Log.error("ChunkManager", "Unable to load chunk, generating it instead: " + chunkBlocks.x + "," + chunkBlocks.y + "," + chunkBlocks.z, exp);
+            }
+            return null;
+        }
+
         private ChunkBlocks selectChunkBlocksToGenerate() {
             synchronized (chunkBlocks) {
                 for (ChunkBlocks blocks : chunkBlocks.values()) {
@@ -0,0 +1,54 @@
+package com.gempukku.terasology.world.chunk;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the most recently used heightmaps of chunk columns, so that all the vertical chunks of the same column
+ * share the ground levels computed once. Arrays returned from this cache must not be modified.
+ */
+public class ColumnHeightmapCache {
+    private final ColumnHeightmapGenerator columnHeightmapGenerator;
+    private final Map<IntLocationKey, int[]> heightmaps;
+
+    public ColumnHeightmapCache(int maximumColumns, ColumnHeightmapGenerator columnHeightmapGenerator) {
+        if (maximumColumns < 1)
+            throw new IllegalArgumentException("Cache has to be able to hold at least one column");
+        this.columnHeightmapGenerator = columnHeightmapGenerator;
+        this.heightmaps = new LinkedHashMap<IntLocationKey, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<IntLocationKey, int[]> eldest) {
+                return size() > maximumColumns;
+            }
+        };
+    }
+
+    public static int getIndex(int dx, int dz) {
+        return dx * ChunkSize.Z + dz;
+    }
+
+    public int[] getHeightmap(String worldId, int chunkX, int chunkZ) {
+        IntLocationKey key = new IntLocationKey(worldId, chunkX, 0, chunkZ);
+        synchronized (heightmaps) {
+            int[] heightmap = heightmaps.get(key);
+            if (heightmap != null)
+                return heightmap;
+        }
+
+        // Generate outside of the lock, so that chunk generating threads do not wait for each other,
+        // in the rare case two threads compute the same column, the result is the same anyway
+        int[] heightmap = new int[ChunkSize.X * ChunkSize.Z];
+        columnHeightmapGenerator.generateColumnHeights(worldId, chunkX, chunkZ, heightmap);
+
+        synchronized (heightmaps) {
+            heightmaps.put(key, heightmap);
+        }
+        return heightmap;
+    }
+
+    public void clear() {
+        synchronized (heightmaps) {
+            heightmaps.clear();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.gempukku.terasology.world.chunk;
+
+public interface ColumnHeightmapGenerator {
+    /**
+     * Fills the passed array with ground levels of all the block columns in the chunk column. The array has
+     * ChunkSize.X * ChunkSize.Z elements, indexed as defined by ColumnHeightmapCache.getIndex(dx, dz).
+     * This method is called off the main thread.
+     *
+     * @param worldId
+     * @param chunkX
+     * @param chunkZ
+     * @param heights
+     */
+    void generateColumnHeights(String worldId, int chunkX, int chunkZ, int[] heights);
+}
@@ -1,6 +1,6 @@
 package com.gempukku.terasology.world.chunk;
 
-public class IntLocationKey {
+public class IntLocationKey implements ChunkLocation {
     private final String worldId;
     private final int x;
     private final int y;
@@ -17,6 +17,26 @@ public class IntLocationKey {
         this(chunkLocation.getWorldId(), chunkLocation.getX(), chunkLocation.getY(), chunkLocation.getZ());
     }
 
+    @Override
+    public String getWorldId() {
+        return worldId;
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getY() {
+        return y;
+    }
+
+    @Override
+    public int getZ() {
+        return z;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -1,6 +1,5 @@
 package com.gempukku.terasology.world.chunk;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Vector3;
 import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.NetProfiles;
@@ -13,6 +12,7 @@ import com.gempukku.secsy.entity.index.EntityIndex;
 import com.gempukku.secsy.entity.index.EntityIndexManager;
 import com.gempukku.terasology.communication.RemoveOldChunk;
 import com.gempukku.terasology.communication.StoreNewChunk;
+import com.gempukku.terasology.log.Log;
 import com.gempukku.terasology.world.WorldBlock;
 import com.gempukku.terasology.world.chunk.event.AfterChunkLoadedEvent;
 import com.gempukku.terasology.world.chunk.event.BeforeChunkUnloadedEvent;
@@ -51,13 +51,13 @@ public class RemoteChunkBlocksProvider implements ChunkBlocksProvider, LifeCycle
         }
         chunksInWorld.put(new Vector3(chunk.x, chunk.y, chunk.z), chunkDataHolder);
 
-        Gdx.app.debug(RemoteChunkBlocksProvider.class.getSimpleName(), "Chunk loaded: " + chunk.x + "," + chunk.y + "," + chunk.z);
+        Log.debug(RemoteChunkBlocksProvider.class.getSimpleName(), "Chunk loaded: " + chunk.x + "," + chunk.y + "," + chunk.z);
         getWorldEntity(worldId).send(new AfterChunkLoadedEvent(chunk.x, chunk.y, chunk.z));
     }
 
     @ReceiveEvent
     public void unloadChunk(RemoveOldChunk chunk, EntityRef clientEntity, ClientComponent client) {
-        Gdx.app.debug(RemoteChunkBlocksProvider.class.getSimpleName(), "Chunk unloaded: " + chunk.x + "," + chunk.y + "," + chunk.z);
+        Log.debug(RemoteChunkBlocksProvider.class.getSimpleName(), "Chunk unloaded: " + chunk.x + "," + chunk.y + "," + chunk.z);
         getWorldEntity(chunk.worldId).send(new BeforeChunkUnloadedEvent(chunk.x, chunk.y, chunk.z));
         chunkBlocks.remove(chunk.worldId, new Vector3(chunk.x, chunk.y, chunk.z));
     }
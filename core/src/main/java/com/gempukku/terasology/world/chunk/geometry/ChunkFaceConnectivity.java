@@ -0,0 +1,136 @@
+package com.gempukku.terasology.world.chunk.geometry;
+
+import com.gempukku.terasology.graphics.shape.BlockSide;
+import com.gempukku.terasology.world.chunk.ChunkBlocks;
+import com.gempukku.terasology.world.chunk.ChunkSize;
+
+/**
+ * Tells which faces of a chunk can be seen through from which other faces. Faces are indexed by ordinal of
+ * BlockSide, and each of the 15 pairs of different faces takes one bit of the connectivity value. Two faces are
+ * connected, if a flood fill through blocks that do not occlude can get from one to the other inside the chunk.
+ */
+public final class ChunkFaceConnectivity {
+    public static final int FACE_COUNT = 6;
+    public static final int ALL_CONNECTED = (1 << 15) - 1;
+    public static final int NONE_CONNECTED = 0;
+
+    private static final int[][] pairBits = new int[FACE_COUNT][FACE_COUNT];
+
+    static {
+        int bit = 0;
+        for (int faceA = 0; faceA < FACE_COUNT; faceA++) {
+            for (int faceB = faceA + 1; faceB < FACE_COUNT; faceB++) {
+                pairBits[faceA][faceB] = 1 << bit;
+                pairBits[faceB][faceA] = 1 << bit;
+                bit++;
+            }
+        }
+    }
+
+    private static final int blockCount = ChunkSize.X * ChunkSize.Y * ChunkSize.Z;
+    private static final int strideX = ChunkSize.Y * ChunkSize.Z;
+    private static final int strideY = ChunkSize.Z;
+
+    private static final int top = BlockSide.top.ordinal();
+    private static final int bottom = BlockSide.bottom.ordinal();
+    private static final int back = BlockSide.back.ordinal();
+    private static final int front = BlockSide.front.ordinal();
+    private static final int left = BlockSide.left.ordinal();
+    private static final int right = BlockSide.right.ordinal();
+
+    private ChunkFaceConnectivity() {
+    }
+
+    public static boolean isConnected(int connectivity, int faceA, int faceB) {
+        return faceA == faceB || (connectivity & pairBits[faceA][faceB]) != 0;
+    }
+
+    /**
+     * Computes connectivity of faces of the chunk, blocks which id is marked in occludingByBlockId can not be seen
+     * through, all the others can.
+     *
+     * @param chunkBlocks
+     * @param occludingByBlockId
+     * @return
+     */
+    public static int computeConnectivity(ChunkBlocks chunkBlocks, boolean[] occludingByBlockId) {
+        short[] blocks = chunkBlocks.getBlocks();
+
+        boolean[] visited = new boolean[blockCount];
+        int[] queue = null;
+        int connectivity = NONE_CONNECTED;
+
+        for (int start = 0; start < blockCount; start++) {
+            if (visited[start] || occludingByBlockId[blocks[start]])
+                continue;
+
+            if (queue == null)
+                queue = new int[blockCount];
+
+            int faces = 0;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            visited[start] = true;
+
+            while (head < tail) {
+                int index = queue[head++];
+                int x = index / strideX;
+                int y = (index / strideY) % ChunkSize.Y;
+                int z = index % ChunkSize.Z;
+
+                if (x == 0)
+                    faces |= 1 << right;
+                else
+                    tail = visit(blocks, occludingByBlockId, visited, queue, tail, index - strideX);
+                if (x == ChunkSize.X - 1)
+                    faces |= 1 << left;
+                else
+                    tail = visit(blocks, occludingByBlockId, visited, queue, tail, index + strideX);
+                if (y == 0)
+                    faces |= 1 << bottom;
+                else
+                    tail = visit(blocks, occludingByBlockId, visited, queue, tail, index - strideY);
+                if (y == ChunkSize.Y - 1)
+                    faces |= 1 << top;
+                else
+                    tail = visit(blocks, occludingByBlockId, visited, queue, tail, index + strideY);
+                if (z == 0)
+                    faces |= 1 << back;
+                else
+                    tail = visit(blocks, occludingByBlockId, visited, queue, tail, index - 1);
+                if (z == ChunkSize.Z - 1)
+                    faces |= 1 << front;
+                else
+                    tail = visit(blocks, occludingByBlockId, visited, queue, tail, index + 1);
+            }
+
+            connectivity |= connectFaces(faces);
+            if (connectivity == ALL_CONNECTED)
+                break;
+        }
+
+        return connectivity;
+    }
+
+    private static int visit(short[] blocks, boolean[] occludingByBlockId, boolean[] visited, int[] queue, int tail, int index) {
+        if (!visited[index] && !occludingByBlockId[blocks[index]]) {
+            visited[index] = true;
+            queue[tail++] = index;
+        }
+        return tail;
+    }
+
+    private static int connectFaces(int faces) {
+        int result = 0;
+        for (int faceA = 0; faceA < FACE_COUNT; faceA++) {
+            if ((faces & (1 << faceA)) != 0) {
+                for (int faceB = faceA + 1; faceB < FACE_COUNT; faceB++) {
+                    if ((faces & (1 << faceB)) != 0)
+                        result |= pairBits[faceA][faceB];
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -1,5 +1,29 @@
 package com.gempukku.terasology.world.chunk.geometry;
 
+import com.badlogic.gdx.math.collision.BoundingBox;
+
 public interface ChunkGeometry {
     Iterable<Triangle> getTriangles();
+
+    /**
+     * Returns the hierarchy of triangles of this geometry, that should be used for collisions. Triangles that
+     * do not produce geometry (i.e. leaves) are not included.
+     *
+     * @return
+     */
+    TriangleBVH getTriangleBVH();
+
+    /**
+     * Returns the box enclosing all vertices of this geometry, it is not valid if the geometry is empty.
+     *
+     * @return
+     */
+    BoundingBox getBoundingBox();
+
+    /**
+     * Returns which faces of the chunk can be seen from which other faces, see ChunkFaceConnectivity.
+     *
+     * @return
+     */
+    int getFaceConnectivity();
 }
@@ -1,5 +1,7 @@
 package com.gempukku.terasology.world.chunk.geometry;
 
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.BoundingBox;
 import com.google.common.collect.Iterables;
 
 import java.util.ArrayList;
@@ -11,12 +13,94 @@ public class ListsChunkGeometry implements ChunkGeometry {
     public final short[][] indicesPerTexture;
 
     private int[][] blocksPerTexture;
+    private TriangleBVH triangleBVH;
+    private BoundingBox boundingBox;
+    private int faceConnectivity;
 
-    public ListsChunkGeometry(int floatsPerVertex, float[][] verticesPerTexture, int[][] blocksPerTexture, short[][] indicesPerTexture) {
+    public ListsChunkGeometry(int floatsPerVertex, float[][] verticesPerTexture, int[][] blocksPerTexture, short[][] indicesPerTexture,
+                              int faceConnectivity) {
         this.floatsPerVertex = floatsPerVertex;
         this.verticesPerTexture = verticesPerTexture;
         this.blocksPerTexture = blocksPerTexture;
         this.indicesPerTexture = indicesPerTexture;
+        this.faceConnectivity = faceConnectivity;
+        this.triangleBVH = createTriangleBVH();
+        this.boundingBox = createBoundingBox();
+    }
+
+    @Override
+    public TriangleBVH getTriangleBVH() {
+        return triangleBVH;
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
+    @Override
+    public int getFaceConnectivity() {
+        return faceConnectivity;
+    }
+
+    private BoundingBox createBoundingBox() {
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float minZ = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        float maxZ = Float.NEGATIVE_INFINITY;
+        for (float[] vertices : verticesPerTexture) {
+            for (int i = 0; i < vertices.length; i += floatsPerVertex) {
+                minX = Math.min(minX, vertices[i]);
+                minY = Math.min(minY, vertices[i + 1]);
+                minZ = Math.min(minZ, vertices[i + 2]);
+                maxX = Math.max(maxX, vertices[i]);
+                maxY = Math.max(maxY, vertices[i + 1]);
+                maxZ = Math.max(maxZ, vertices[i + 2]);
+            }
+        }
+
+        BoundingBox result = new BoundingBox();
+        if (minX <= maxX)
+            result.set(new Vector3(minX, minY, minZ), new Vector3(maxX, maxY, maxZ));
+        else
+            result.inf();
+        return result;
+    }
+
+    // Geometry is created off the main thread, so is the hierarchy for collisions with it
+    private TriangleBVH createTriangleBVH() {
+        int triangleCount = 0;
+        for (short[] indices : indicesPerTexture)
+            triangleCount += indices.length / 3;
+
+        float[] triangleVertices = new float[triangleCount * 9];
+        float[] triangleNormals = new float[triangleCount * 3];
+        int[] triangleBlocks = new int[triangleCount * 3];
+
+        int triangle = 0;
+        for (int textureIndex = 0; textureIndex < indicesPerTexture.length; textureIndex++) {
+            short[] indices = indicesPerTexture[textureIndex];
+            float[] vertices = verticesPerTexture[textureIndex];
+            int[] blocks = blocksPerTexture[textureIndex];
+            for (int i = 0; i < indices.length; i += 3) {
+                int index1 = floatsPerVertex * indices[i];
+                if (floatsPerVertex > 8
+                        && ((int) vertices[index1 + 8] & BlockGeometryGenerator.DOES_NOT_PRODUCE_GEOMETRY) != 0)
+                    continue;
+
+                for (int vertex = 0; vertex < 3; vertex++) {
+                    int index = floatsPerVertex * indices[i + vertex];
+                    System.arraycopy(vertices, index, triangleVertices, triangle * 9 + vertex * 3, 3);
+                }
+                System.arraycopy(vertices, index1 + 3, triangleNormals, triangle * 3, 3);
+                System.arraycopy(blocks, i * 3, triangleBlocks, triangle * 3, 3);
+                triangle++;
+            }
+        }
+
+        return new TriangleBVH(triangle, triangleVertices, triangleNormals, triangleBlocks);
     }
 
     @Override
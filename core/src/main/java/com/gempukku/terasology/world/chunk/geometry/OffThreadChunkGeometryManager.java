@@ -1,6 +1,5 @@
 package com.gempukku.terasology.world.chunk.geometry;
 
-import com.badlogic.gdx.Gdx;
 import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
 import com.gempukku.secsy.context.system.LifeCycleSystem;
@@ -9,10 +8,12 @@ import com.gempukku.secsy.entity.EntityRef;
 import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
 import com.gempukku.secsy.entity.game.GameLoop;
 import com.gempukku.secsy.entity.game.GameLoopListener;
+import com.gempukku.secsy.entity.game.ParallelUpdate;
 import com.gempukku.terasology.component.TerasologyComponentManager;
 import com.gempukku.terasology.graphics.environment.event.AfterChunkGeometryCreated;
 import com.gempukku.terasology.graphics.environment.event.BeforeChunkGeometryRemoved;
 import com.gempukku.terasology.graphics.shape.ShapeProvider;
+import com.gempukku.terasology.log.Log;
 import com.gempukku.terasology.world.CommonBlockManager;
 import com.gempukku.terasology.world.chunk.ChunkBlocksProvider;
 import com.gempukku.terasology.world.chunk.IntLocationKey;
@@ -26,6 +27,7 @@ import java.util.Map;
 @RegisterSystem(
         profiles = "generateChunkGeometry",
         shared = ChunkGeometryManager.class)
+@ParallelUpdate(reads = WorldComponent.class)
 public class OffThreadChunkGeometryManager implements ChunkGeometryManager, LifeCycleSystem, GameLoopListener {
     @In
     private ChunkBlocksProvider chunkBlocksProvider;
@@ -80,9 +82,10 @@ public class OffThreadChunkGeometryManager implements ChunkGeometryManager, Life
             if (status == ChunkGeometryContainer.Status.GENERATED) {
                 chunkGeometryContainer.setStatus(ChunkGeometryContainer.Status.READY);
                 EntityRef worldEntity = findWorldEntity(chunkGeometryContainer.worldId);
-                Gdx.app.debug(OffThreadChunkGeometryManager.class.getSimpleName(), "Chunk mesh created: " + chunkGeometryContainer.x + "," + chunkGeometryContainer.y + "," + chunkGeometryContainer.z);
-                worldEntity.send(new AfterChunkGeometryCreated(
-                        chunkGeometryContainer.worldId, chunkGeometryContainer.x, chunkGeometryContainer.y, chunkGeometryContainer.z));
+                Log.debug(OffThreadChunkGeometryManager.class.getSimpleName(), "Chunk mesh created: " + chunkGeometryContainer.x + "," + chunkGeometryContainer.y + "," + chunkGeometryContainer.z);
+                AfterChunkGeometryCreated event = new AfterChunkGeometryCreated(
+                        chunkGeometryContainer.worldId, chunkGeometryContainer.x, chunkGeometryContainer.y, chunkGeometryContainer.z);
+                gameLoop.executeAfterParallelUpdate(() -> worldEntity.send(event));
             }
         }
     }
@@ -118,7 +121,7 @@ public class OffThreadChunkGeometryManager implements ChunkGeometryManager, Life
         synchronized (chunkMeshesInWorld) {
             ChunkGeometryContainer chunkGeometryContainer = getChunkGeometry(worldId, x, y, z);
             if (chunkGeometryContainer.getChunkGeometry() != null) {
-                Gdx.app.debug(OffThreadChunkGeometryManager.class.getSimpleName(), "Chunk mesh disposed: " + chunkGeometryContainer.x + "," + chunkGeometryContainer.y + "," + chunkGeometryContainer.z);
+                Log.debug(OffThreadChunkGeometryManager.class.getSimpleName(), "Chunk mesh disposed: " + chunkGeometryContainer.x + "," + chunkGeometryContainer.y + "," + chunkGeometryContainer.z);
                 worldEntity.send(new BeforeChunkGeometryRemoved(worldId, x, y, z));
             }
             chunkMeshesInWorld.remove(new IntLocationKey(chunkGeometryContainer));
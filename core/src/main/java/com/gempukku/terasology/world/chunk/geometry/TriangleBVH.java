@@ -0,0 +1,388 @@
+package com.gempukku.terasology.world.chunk.geometry;
+
+/**
+ * Bounding volume hierarchy over triangles, stored in flat arrays. Nodes are split at the median of triangle
+ * centroids along the longest axis, children of a node are always stored next to each other.
+ * Once built, the hierarchy is immutable and can be queried from any thread, queries do not allocate - all the
+ * query state is kept in the Hit object passed in, so each thread should use its own.
+ */
+public class TriangleBVH {
+    private static final int MAX_TRIANGLES_IN_LEAF = 4;
+    private static final int CYLINDER_RADIUS_CONTROL_POINTS = 8;
+    private static final int CYLINDER_HEIGHT_CONTROL_POINTS = 3;
+
+    private static final float[] cylinderSin = new float[CYLINDER_RADIUS_CONTROL_POINTS];
+    private static final float[] cylinderCos = new float[CYLINDER_RADIUS_CONTROL_POINTS];
+
+    static {
+        for (int i = 0; i < CYLINDER_RADIUS_CONTROL_POINTS; i++) {
+            cylinderSin[i] = (float) Math.sin(i * 2 * Math.PI / CYLINDER_RADIUS_CONTROL_POINTS);
+            cylinderCos[i] = (float) Math.cos(i * 2 * Math.PI / CYLINDER_RADIUS_CONTROL_POINTS);
+        }
+    }
+
+    private final int triangleCount;
+    // 9 floats per triangle - three vertices
+    private final float[] vertices;
+    // 3 floats per triangle
+    private final float[] normals;
+    // 3 ints per triangle - location of the block the triangle belongs to
+    private final int[] blocks;
+
+    // 6 floats per node - minimum and maximum of the bounding box
+    private final float[] nodeBounds;
+    // For a leaf - index of first triangle, for an inner node - index of first child node
+    private final int[] nodeStart;
+    // For a leaf - number of triangles, for an inner node - 0
+    private final int[] nodeTriangleCount;
+    private int nodeCount;
+
+    /**
+     * Creates a hierarchy from the passed triangle data, the arrays are taken over by the hierarchy (triangles
+     * are reordered in place).
+     *
+     * @param triangleCount
+     * @param vertices      9 floats per triangle
+     * @param normals       3 floats per triangle
+     * @param blocks        3 ints per triangle
+     */
+    public TriangleBVH(int triangleCount, float[] vertices, float[] normals, int[] blocks) {
+        this.triangleCount = triangleCount;
+        this.vertices = vertices;
+        this.normals = normals;
+        this.blocks = blocks;
+
+        int maxNodes = Math.max(1, 2 * triangleCount - 1);
+        nodeBounds = new float[maxNodes * 6];
+        nodeStart = new int[maxNodes];
+        nodeTriangleCount = new int[maxNodes];
+
+        float[] centroids = new float[triangleCount * 3];
+        for (int i = 0; i < triangleCount; i++) {
+            for (int axis = 0; axis < 3; axis++)
+                centroids[i * 3 + axis] = (vertices[i * 9 + axis] + vertices[i * 9 + 3 + axis] + vertices[i * 9 + 6 + axis]) / 3;
+        }
+
+        nodeCount = 1;
+        if (triangleCount > 0)
+            buildNode(0, 0, triangleCount, centroids);
+    }
+
+    public int getTriangleCount() {
+        return triangleCount;
+    }
+
+    /**
+     * Finds the closest triangle hit by the ray, that is closer than hit.distance. Triangles facing away from
+     * the ray are ignored.
+     *
+     * @return If a closer hit was found (and stored in hit).
+     */
+    public boolean intersectRay(float originX, float originY, float originZ,
+                                float directionX, float directionY, float directionZ, Hit hit) {
+        return intersectExpandedRay(originX, originY, originZ, directionX, directionY, directionZ,
+                0, 0, 0, 0, 0, 0, hit, false, 0, 0);
+    }
+
+    /**
+     * Finds the closest triangle hit by the segment, that is closer to the start of the segment than hit.distance.
+     * Triangles facing away from the segment direction are ignored.
+     *
+     * @return If a closer hit was found (and stored in hit).
+     */
+    public boolean intersectSegment(float fromX, float fromY, float fromZ, float toX, float toY, float toZ, Hit hit) {
+        float dx = toX - fromX;
+        float dy = toY - fromY;
+        float dz = toZ - fromZ;
+        float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (length == 0)
+            return false;
+
+        float previousDistance = hit.distance;
+        if (length < hit.distance)
+            hit.distance = length;
+        if (intersectRay(fromX, fromY, fromZ, dx / length, dy / length, dz / length, hit)) {
+            return true;
+        } else {
+            hit.distance = previousDistance;
+            return false;
+        }
+    }
+
+    /**
+     * Moves an upright cylinder (base center at the passed point) along the normalized direction, and finds the
+     * first triangle it hits, as long as the base travels less than hit.distance. The cylinder is approximated
+     * with rays from control points on its surface. When found, hit.distance is the distance travelled by the
+     * base of the cylinder, and the hit location is the point of contact.
+     *
+     * @return If a closer hit was found (and stored in hit).
+     */
+    public boolean intersectSweptCylinder(float baseX, float baseY, float baseZ, float radius, float height,
+                                          float directionX, float directionY, float directionZ, Hit hit) {
+        return intersectExpandedRay(baseX, baseY, baseZ, directionX, directionY, directionZ,
+                -radius, 0, -radius, radius, height, radius, hit, true, radius, height);
+    }
+
+    private boolean intersectExpandedRay(float originX, float originY, float originZ,
+                                         float directionX, float directionY, float directionZ,
+                                         float offsetMinX, float offsetMinY, float offsetMinZ,
+                                         float offsetMaxX, float offsetMaxY, float offsetMaxZ,
+                                         Hit hit, boolean cylinder, float radius, float height) {
+        if (triangleCount == 0)
+            return false;
+
+        boolean found = false;
+        int[] stack = hit.stack;
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            // Rays are cast from points offset from the origin, so the node bounds are grown by these offsets
+            int boundsIndex = node * 6;
+            if (!intersectsBox(originX, originY, originZ, directionX, directionY, directionZ, hit.distance,
+                    nodeBounds[boundsIndex] - offsetMaxX, nodeBounds[boundsIndex + 1] - offsetMaxY, nodeBounds[boundsIndex + 2] - offsetMaxZ,
+                    nodeBounds[boundsIndex + 3] - offsetMinX, nodeBounds[boundsIndex + 4] - offsetMinY, nodeBounds[boundsIndex + 5] - offsetMinZ))
+                continue;
+
+            int count = nodeTriangleCount[node];
+            if (count == 0) {
+                if (stackSize + 2 > stack.length)
+                    throw new IllegalStateException("Bounding volume hierarchy is too deep");
+                stack[stackSize++] = nodeStart[node] + 1;
+                stack[stackSize++] = nodeStart[node];
+            } else {
+                int first = nodeStart[node];
+                for (int triangle = first; triangle < first + count; triangle++) {
+                    if (cylinder) {
+                        for (int i = 0; i < CYLINDER_HEIGHT_CONTROL_POINTS; i++) {
+                            float dy = i * height / (CYLINDER_HEIGHT_CONTROL_POINTS - 1);
+                            for (int j = 0; j < CYLINDER_RADIUS_CONTROL_POINTS; j++) {
+                                found |= intersectTriangle(triangle,
+                                        originX + radius * cylinderSin[j], originY + dy, originZ + radius * cylinderCos[j],
+                                        directionX, directionY, directionZ, hit);
+                            }
+                        }
+                        found |= intersectTriangle(triangle, originX, originY, originZ, directionX, directionY, directionZ, hit);
+                        found |= intersectTriangle(triangle, originX, originY + height, originZ, directionX, directionY, directionZ, hit);
+                    } else {
+                        found |= intersectTriangle(triangle, originX, originY, originZ, directionX, directionY, directionZ, hit);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean intersectTriangle(int triangle, float originX, float originY, float originZ,
+                                      float directionX, float directionY, float directionZ, Hit hit) {
+        int normalIndex = triangle * 3;
+        float normalX = normals[normalIndex];
+        float normalY = normals[normalIndex + 1];
+        float normalZ = normals[normalIndex + 2];
+        if (normalX * directionX + normalY * directionY + normalZ * directionZ > 0)
+            return false;
+
+        // Moller-Trumbore
+        int index = triangle * 9;
+        float v0x = vertices[index];
+        float v0y = vertices[index + 1];
+        float v0z = vertices[index + 2];
+        float edge1x = vertices[index + 3] - v0x;
+        float edge1y = vertices[index + 4] - v0y;
+        float edge1z = vertices[index + 5] - v0z;
+        float edge2x = vertices[index + 6] - v0x;
+        float edge2y = vertices[index + 7] - v0y;
+        float edge2z = vertices[index + 8] - v0z;
+
+        float px = directionY * edge2z - directionZ * edge2y;
+        float py = directionZ * edge2x - directionX * edge2z;
+        float pz = directionX * edge2y - directionY * edge2x;
+        float determinant = edge1x * px + edge1y * py + edge1z * pz;
+        if (Math.abs(determinant) < 1e-9f)
+            return false;
+        float inverseDeterminant = 1f / determinant;
+
+        float tx = originX - v0x;
+        float ty = originY - v0y;
+        float tz = originZ - v0z;
+        float u = (tx * px + ty * py + tz * pz) * inverseDeterminant;
+        if (u < 0 || u > 1)
+            return false;
+
+        float qx = ty * edge1z - tz * edge1y;
+        float qy = tz * edge1x - tx * edge1z;
+        float qz = tx * edge1y - ty * edge1x;
+        float v = (directionX * qx + directionY * qy + directionZ * qz) * inverseDeterminant;
+        if (v < 0 || u + v > 1)
+            return false;
+
+        float distance = (edge2x * qx + edge2y * qy + edge2z * qz) * inverseDeterminant;
+        if (distance < 0 || distance >= hit.distance)
+            return false;
+
+        hit.distance = distance;
+        hit.x = originX + directionX * distance;
+        hit.y = originY + directionY * distance;
+        hit.z = originZ + directionZ * distance;
+        hit.normalX = normalX;
+        hit.normalY = normalY;
+        hit.normalZ = normalZ;
+        hit.blockX = blocks[normalIndex];
+        hit.blockY = blocks[normalIndex + 1];
+        hit.blockZ = blocks[normalIndex + 2];
+        return true;
+    }
+
+    private static boolean intersectsBox(float originX, float originY, float originZ,
+                                         float directionX, float directionY, float directionZ, float maxDistance,
+                                         float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        float near = 0;
+        float far = maxDistance;
+
+        if (directionX == 0) {
+            if (originX < minX || originX > maxX)
+                return false;
+        } else {
+            float t1 = (minX - originX) / directionX;
+            float t2 = (maxX - originX) / directionX;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+
+        if (directionY == 0) {
+            if (originY < minY || originY > maxY)
+                return false;
+        } else {
+            float t1 = (minY - originY) / directionY;
+            float t2 = (maxY - originY) / directionY;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+
+        if (directionZ == 0) {
+            if (originZ < minZ || originZ > maxZ)
+                return false;
+        } else {
+            float t1 = (minZ - originZ) / directionZ;
+            float t2 = (maxZ - originZ) / directionZ;
+            near = Math.max(near, Math.min(t1, t2));
+            far = Math.min(far, Math.max(t1, t2));
+        }
+
+        return near <= far;
+    }
+
+    private void buildNode(int node, int start, int end, float[] centroids) {
+        int boundsIndex = node * 6;
+        nodeBounds[boundsIndex] = nodeBounds[boundsIndex + 1] = nodeBounds[boundsIndex + 2] = Float.POSITIVE_INFINITY;
+        nodeBounds[boundsIndex + 3] = nodeBounds[boundsIndex + 4] = nodeBounds[boundsIndex + 5] = Float.NEGATIVE_INFINITY;
+        float centroidMinX = Float.POSITIVE_INFINITY, centroidMinY = Float.POSITIVE_INFINITY, centroidMinZ = Float.POSITIVE_INFINITY;
+        float centroidMaxX = Float.NEGATIVE_INFINITY, centroidMaxY = Float.NEGATIVE_INFINITY, centroidMaxZ = Float.NEGATIVE_INFINITY;
+        for (int triangle = start; triangle < end; triangle++) {
+            for (int vertex = 0; vertex < 3; vertex++) {
+                int index = triangle * 9 + vertex * 3;
+                for (int axis = 0; axis < 3; axis++) {
+                    nodeBounds[boundsIndex + axis] = Math.min(nodeBounds[boundsIndex + axis], vertices[index + axis]);
+                    nodeBounds[boundsIndex + 3 + axis] = Math.max(nodeBounds[boundsIndex + 3 + axis], vertices[index + axis]);
+                }
+            }
+            centroidMinX = Math.min(centroidMinX, centroids[triangle * 3]);
+            centroidMinY = Math.min(centroidMinY, centroids[triangle * 3 + 1]);
+            centroidMinZ = Math.min(centroidMinZ, centroids[triangle * 3 + 2]);
+            centroidMaxX = Math.max(centroidMaxX, centroids[triangle * 3]);
+            centroidMaxY = Math.max(centroidMaxY, centroids[triangle * 3 + 1]);
+            centroidMaxZ = Math.max(centroidMaxZ, centroids[triangle * 3 + 2]);
+        }
+
+        int count = end - start;
+        if (count <= MAX_TRIANGLES_IN_LEAF) {
+            nodeStart[node] = start;
+            nodeTriangleCount[node] = count;
+            return;
+        }
+
+        float extentX = centroidMaxX - centroidMinX;
+        float extentY = centroidMaxY - centroidMinY;
+        float extentZ = centroidMaxZ - centroidMinZ;
+        int axis = (extentX >= extentY && extentX >= extentZ) ? 0 : ((extentY >= extentZ) ? 1 : 2);
+
+        int middle = (start + end) >>> 1;
+        selectMedian(start, end - 1, middle, axis, centroids);
+
+        int leftChild = nodeCount;
+        nodeCount += 2;
+        nodeStart[node] = leftChild;
+        nodeTriangleCount[node] = 0;
+        buildNode(leftChild, start, middle, centroids);
+        buildNode(leftChild + 1, middle, end, centroids);
+    }
+
+    // Quickselect - after this, triangle at "nth" has the centroid it would have if sorted along axis
+    private void selectMedian(int left, int right, int nth, int axis, float[] centroids) {
+        while (left < right) {
+            float pivot = centroids[((left + right) >>> 1) * 3 + axis];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (centroids[i * 3 + axis] < pivot)
+                    i++;
+                while (centroids[j * 3 + axis] > pivot)
+                    j--;
+                if (i <= j) {
+                    swapTriangles(i, j, centroids);
+                    i++;
+                    j--;
+                }
+            }
+            if (nth <= j)
+                right = j;
+            else if (nth >= i)
+                left = i;
+            else
+                return;
+        }
+    }
+
+    private void swapTriangles(int first, int second, float[] centroids) {
+        swap(vertices, first * 9, second * 9, 9);
+        swap(normals, first * 3, second * 3, 3);
+        swap(centroids, first * 3, second * 3, 3);
+        for (int i = 0; i < 3; i++) {
+            int temp = blocks[first * 3 + i];
+            blocks[first * 3 + i] = blocks[second * 3 + i];
+            blocks[second * 3 + i] = temp;
+        }
+    }
+
+    private static void swap(float[] array, int first, int second, int length) {
+        for (int i = 0; i < length; i++) {
+            float temp = array[first + i];
+            array[first + i] = array[second + i];
+            array[second + i] = temp;
+        }
+    }
+
+    /**
+     * Result of a query, as well as the scratch space used while querying. Before a query, set the maximum
+     * distance with reset(), several queries (i.e. against neighbouring chunks) can then share the same hit,
+     * to find the closest one.
+     */
+    public static class Hit {
+        private final int[] stack = new int[64];
+
+        public float distance;
+        public float x;
+        public float y;
+        public float z;
+        public float normalX;
+        public float normalY;
+        public float normalZ;
+        public int blockX;
+        public int blockY;
+        public int blockZ;
+
+        public void reset(float maxDistance) {
+            distance = maxDistance;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.gempukku.terasology.world.chunk.io;
+
+import com.gempukku.terasology.world.chunk.IntLocationKey;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Passes chunks to the underlying store from a separate writer thread, so that storing a chunk does not block
+ * the caller on compression and disk I/O. Chunks waiting to be written are served from memory when loaded.
+ */
+public class AsyncChunkStore implements ChunkStore {
+    private final ChunkStore chunkStore;
+
+    // Guarded by itself, a chunk stays in here until it's written, so loading it in the meantime does not miss it
+    private final Map<IntLocationKey, PendingWrite> pendingWrites = new LinkedHashMap<>();
+    private final Thread writerThread;
+
+    private volatile boolean running = true;
+    private volatile IOException writeFailure;
+
+    public AsyncChunkStore(ChunkStore chunkStore) {
+        this.chunkStore = chunkStore;
+
+        writerThread = new Thread(new ChunkWriter());
+        writerThread.setName("Chunk-store-writer");
+        writerThread.start();
+    }
+
+    @Override
+    public ChunkEntityData loadChunk(String worldId, int x, int y, int z) throws IOException {
+        synchronized (pendingWrites) {
+            PendingWrite pendingWrite = pendingWrites.get(new IntLocationKey(worldId, x, y, z));
+            // Copy, as the writer thread might be still reading the data
+            if (pendingWrite != null)
+                return new ChunkEntityData(pendingWrite.chunkEntityData.getEntities());
+        }
+        return chunkStore.loadChunk(worldId, x, y, z);
+    }
+
+    @Override
+    public void storeChunk(String worldId, int x, int y, int z, ChunkEntityData chunkEntityData) throws IOException {
+        checkWriteFailure();
+        if (!running)
+            throw new IOException("Chunk store is closed");
+
+        synchronized (pendingWrites) {
+            pendingWrites.put(new IntLocationKey(worldId, x, y, z), new PendingWrite(worldId, x, y, z, chunkEntityData));
+            pendingWrites.notifyAll();
+        }
+    }
+
+    public int getPendingWriteCount() {
+        synchronized (pendingWrites) {
+            return pendingWrites.size();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        synchronized (pendingWrites) {
+            pendingWrites.notifyAll();
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+        }
+        chunkStore.close();
+        checkWriteFailure();
+    }
+
+    private void checkWriteFailure() throws IOException {
+        IOException failure = writeFailure;
+        if (failure != null)
+            throw new IOException("Unable to write chunk", failure);
+    }
+
+    private class ChunkWriter implements Runnable {
+        @Override
+        public void run() {
+            while (true) {
+                PendingWrite pendingWrite = getNextWrite();
+                if (pendingWrite == null)
+                    return;
+
+                try {
+                    chunkStore.storeChunk(pendingWrite.worldId, pendingWrite.x, pendingWrite.y, pendingWrite.z, pendingWrite.chunkEntityData);
+                } catch (IOException exp) {
+                    writeFailure = exp;
+                }
+
+                synchronized (pendingWrites) {
+                    // The chunk might have been stored again while we were writing, in that case it has to be written again
+                    IntLocationKey key = new IntLocationKey(pendingWrite.worldId, pendingWrite.x, pendingWrite.y, pendingWrite.z);
+                    if (pendingWrites.get(key) == pendingWrite)
+                        pendingWrites.remove(key);
+                }
+            }
+        }
+
+        private PendingWrite getNextWrite() {
+            synchronized (pendingWrites) {
+                while (pendingWrites.isEmpty()) {
+                    if (!running)
+                        return null;
+                    try {
+                        pendingWrites.wait();
+                    } catch (InterruptedException exp) {
+                        // Ignore
+                    }
+                }
+                Iterator<PendingWrite> iterator = pendingWrites.values().iterator();
+                return iterator.next();
+            }
+        }
+    }
+
+    private static class PendingWrite {
+        private final String worldId;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final ChunkEntityData chunkEntityData;
+
+        private PendingWrite(String worldId, int x, int y, int z, ChunkEntityData chunkEntityData) {
+            this.worldId = worldId;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.chunkEntityData = chunkEntityData;
+        }
+    }
+}
@@ -1,4 +1,311 @@
 package com.gempukku.terasology.world.chunk.io;
 
+import com.gempukku.secsy.entity.Component;
+import com.gempukku.secsy.entity.io.ComponentData;
+import com.gempukku.secsy.entity.io.EntityData;
+import com.gempukku.secsy.entity.io.StoredEntityData;
+import com.gempukku.secsy.network.serialize.ComponentInformation;
+import com.gempukku.secsy.network.serialize.EntityInformation;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * All the entities stored with a chunk (the chunk entity itself, as well as block entities in it), in a form
+ * that can be written to and read from a binary stream. Fields are written in a stable order, so the same
+ * entities always produce the same bytes.
+ */
 public class ChunkEntityData {
+    private static final int VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte SHORT = 3;
+    private static final byte INTEGER = 4;
+    private static final byte LONG = 5;
+    private static final byte FLOAT = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte SHORT_ARRAY = 8;
+    private static final byte INT_ARRAY = 9;
+    private static final byte FLOAT_ARRAY = 10;
+    private static final byte STRING_ARRAY = 11;
+    private static final byte MAP = 12;
+    private static final byte SET = 13;
+    private static final byte LIST = 14;
+
+    private final List<EntityInformation> entities = new ArrayList<>();
+
+    /**
+     * Creates a snapshot of the passed entities, field values are copied, so that the snapshot can be safely
+     * written from another thread. Entity ids are not kept, entities get new ids once they are loaded again.
+     *
+     * @param entities
+     */
+    public ChunkEntityData(Iterable<? extends EntityData> entities) {
+        for (EntityData entity : entities) {
+            EntityInformation entityInformation = new EntityInformation();
+            for (ComponentData componentData : entity.getComponents()) {
+                ComponentInformation componentInformation = new ComponentInformation(componentData.getComponentClass());
+                for (Map.Entry<String, Object> field : componentData.getFields().entrySet())
+                    componentInformation.addField(field.getKey(), copyValue(field.getValue()));
+                entityInformation.addComponent(componentInformation);
+            }
+            this.entities.add(entityInformation);
+        }
+    }
+
+    private ChunkEntityData() {
+    }
+
+    public Iterable<StoredEntityData> getEntities() {
+        return new ArrayList<>(entities);
+    }
+
+    public void write(DataOutput output) throws IOException {
+        output.writeByte(VERSION);
+        output.writeInt(entities.size());
+        for (EntityInformation entity : entities) {
+            List<ComponentInformation> components = new ArrayList<>();
+            for (ComponentInformation component : entity.getComponents())
+                components.add(component);
+
+            output.writeInt(components.size());
+            for (ComponentInformation component : components) {
+                output.writeUTF(component.getComponentClass().getName());
+                Map<String, Object> fields = new TreeMap<>(component.getFields());
+                output.writeInt(fields.size());
+                for (Map.Entry<String, Object> field : fields.entrySet()) {
+                    output.writeUTF(field.getKey());
+                    writeValue(output, field.getValue());
+                }
+            }
+        }
+    }
+
+    public static ChunkEntityData read(DataInput input) throws IOException {
+        int version = input.readByte();
+        if (version != VERSION)
+            throw new IOException("Unsupported chunk data version: " + version);
+
+        ChunkEntityData result = new ChunkEntityData();
+        int entityCount = input.readInt();
+        for (int i = 0; i < entityCount; i++) {
+            EntityInformation entity = new EntityInformation();
+            int componentCount = input.readInt();
+            for (int j = 0; j < componentCount; j++) {
+                ComponentInformation component = new ComponentInformation(readComponentClass(input.readUTF()));
+                int fieldCount = input.readInt();
+                for (int k = 0; k < fieldCount; k++) {
+                    String fieldName = input.readUTF();
+                    component.addField(fieldName, readValue(input));
+                }
+                entity.addComponent(component);
+            }
+            result.entities.add(entity);
+        }
+        return result;
+    }
+
+    private static Class<? extends Component> readComponentClass(String className) throws IOException {
+        try {
+            return Class.forName(className).asSubclass(Component.class);
+        } catch (ClassNotFoundException | ClassCastException exp) {
+            throw new IOException("Unable to find component class: " + className, exp);
+        }
+    }
+
+    private static Object copyValue(Object value) {
+        if (value instanceof short[])
+            return ((short[]) value).clone();
+        if (value instanceof int[])
+            return ((int[]) value).clone();
+        if (value instanceof float[])
+            return ((float[]) value).clone();
+        if (value instanceof String[])
+            return ((String[]) value).clone();
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new HashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                copy.put(entry.getKey(), copyValue(entry.getValue()));
+            return copy;
+        }
+        if (value instanceof Set) {
+            Set<Object> copy = new HashSet<>();
+            for (Object element : (Set<?>) value)
+                copy.add(copyValue(element));
+            return copy;
+        }
+        if (value instanceof Collection) {
+            List<Object> copy = new ArrayList<>();
+            for (Object element : (Collection<?>) value)
+                copy.add(copyValue(element));
+            return copy;
+        }
+        return value;
+    }
+
+    private static void writeValue(DataOutput output, Object value) throws IOException {
+        if (value == null) {
+            output.writeByte(NULL);
+        } else if (value instanceof String) {
+            output.writeByte(STRING);
+            output.writeUTF((String) value);
+        } else if (value instanceof Boolean) {
+            output.writeByte(BOOLEAN);
+            output.writeBoolean((Boolean) value);
+        } else if (value instanceof Short) {
+            output.writeByte(SHORT);
+            output.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            output.writeByte(INTEGER);
+            output.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            output.writeByte(LONG);
+            output.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            output.writeByte(FLOAT);
+            output.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            output.writeByte(DOUBLE);
+            output.writeDouble((Double) value);
+        } else if (value instanceof short[]) {
+            short[] array = (short[]) value;
+            output.writeByte(SHORT_ARRAY);
+            output.writeInt(array.length);
+            for (short element : array)
+                output.writeShort(element);
+        } else if (value instanceof int[]) {
+            int[] array = (int[]) value;
+            output.writeByte(INT_ARRAY);
+            output.writeInt(array.length);
+            for (int element : array)
+                output.writeInt(element);
+        } else if (value instanceof float[]) {
+            float[] array = (float[]) value;
+            output.writeByte(FLOAT_ARRAY);
+            output.writeInt(array.length);
+            for (float element : array)
+                output.writeFloat(element);
+        } else if (value instanceof String[]) {
+            String[] array = (String[]) value;
+            output.writeByte(STRING_ARRAY);
+            output.writeInt(array.length);
+            for (String element : array)
+                output.writeUTF(element);
+        } else if (value instanceof Map) {
+            Map<String, Object> map = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+                map.put((String) entry.getKey(), entry.getValue());
+            output.writeByte(MAP);
+            output.writeInt(map.size());
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                output.writeUTF(entry.getKey());
+                writeValue(output, entry.getValue());
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> collection = (Collection<?>) value;
+            output.writeByte((value instanceof Set) ? SET : LIST);
+            output.writeInt(collection.size());
+            for (Object element : sortIfPossible(collection, value instanceof Set))
+                writeValue(output, element);
+        } else {
+            throw new IOException("Unsupported field value type: " + value.getClass().getName());
+        }
+    }
+
+    private static Iterable<?> sortIfPossible(Collection<?> collection, boolean unordered) {
+        if (!unordered)
+            return collection;
+        // Sets have no order of their own, to produce the same bytes for the same content - we sort String sets
+        for (Object element : collection) {
+            if (!(element instanceof String))
+                return collection;
+        }
+        List<String> sorted = new ArrayList<>();
+        for (Object element : collection)
+            sorted.add((String) element);
+        sorted.sort(null);
+        return sorted;
+    }
+
+    private static Object readValue(DataInput input) throws IOException {
+        byte type = input.readByte();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return input.readUTF();
+            case BOOLEAN:
+                return input.readBoolean();
+            case SHORT:
+                return input.readShort();
+            case INTEGER:
+                return input.readInt();
+            case LONG:
+                return input.readLong();
+            case FLOAT:
+                return input.readFloat();
+            case DOUBLE:
+                return input.readDouble();
+            case SHORT_ARRAY: {
+                short[] array = new short[input.readInt()];
+                for (int i = 0; i < array.length; i++)
+                    array[i] = input.readShort();
+                return array;
+            }
+            case INT_ARRAY: {
+                int[] array = new int[input.readInt()];
+                for (int i = 0; i < array.length; i++)
+                    array[i] = input.readInt();
+                return array;
+            }
+            case FLOAT_ARRAY: {
+                float[] array = new float[input.readInt()];
+                for (int i = 0; i < array.length; i++)
+                    array[i] = input.readFloat();
+                return array;
+            }
+            case STRING_ARRAY: {
+                String[] array = new String[input.readInt()];
+                for (int i = 0; i < array.length; i++)
+                    array[i] = input.readUTF();
+                return array;
+            }
+            case MAP: {
+                int size = input.readInt();
+                Map<String, Object> map = new HashMap<>();
+                for (int i = 0; i < size; i++) {
+                    String key = input.readUTF();
+                    map.put(key, readValue(input));
+                }
+                return map;
+            }
+            case SET: {
+                int size = input.readInt();
+                Set<Object> set = new HashSet<>();
+                for (int i = 0; i < size; i++)
+                    set.add(readValue(input));
+                return set;
+            }
+            case LIST: {
+                int size = input.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++)
+                    list.add(readValue(input));
+                return list;
+            }
+            default:
+                throw new IOException("Unknown field value type: " + type);
+        }
+    }
 }
@@ -0,0 +1,21 @@
+package com.gempukku.terasology.world.chunk.io;
+
+import java.io.IOException;
+
+public interface ChunkStore {
+    /**
+     * Loads previously stored chunk.
+     *
+     * @param worldId
+     * @param x
+     * @param y
+     * @param z
+     * @return Stored chunk data, or null if this chunk has not been stored.
+     * @throws IOException
+     */
+    ChunkEntityData loadChunk(String worldId, int x, int y, int z) throws IOException;
+
+    void storeChunk(String worldId, int x, int y, int z, ChunkEntityData chunkEntityData) throws IOException;
+
+    void close() throws IOException;
+}
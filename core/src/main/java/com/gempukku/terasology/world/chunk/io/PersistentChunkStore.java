@@ -0,0 +1,44 @@
+package com.gempukku.terasology.world.chunk.io;
+
+import com.gempukku.secsy.context.annotation.NetProfiles;
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.context.system.LifeCycleSystem;
+
+import java.io.File;
+import java.io.IOException;
+
+@RegisterSystem(
+        profiles = {NetProfiles.AUTHORITY, "persistChunks"}, shared = ChunkStore.class)
+public class PersistentChunkStore implements ChunkStore, LifeCycleSystem {
+    private ChunkStore chunkStore;
+
+    @Override
+    public void initialize() {
+        File directory = new File(System.getProperty("terasology.chunkStore", "chunks"));
+        chunkStore = new AsyncChunkStore(new RegionFileChunkStore(directory));
+    }
+
+    @Override
+    public ChunkEntityData loadChunk(String worldId, int x, int y, int z) throws IOException {
+        return chunkStore.loadChunk(worldId, x, y, z);
+    }
+
+    @Override
+    public void storeChunk(String worldId, int x, int y, int z, ChunkEntityData chunkEntityData) throws IOException {
+        chunkStore.storeChunk(worldId, x, y, z, chunkEntityData);
+    }
+
+    @Override
+    public void close() throws IOException {
+        chunkStore.close();
+    }
+
+    @Override
+    public void postDestroy() {
+        try {
+            close();
+        } catch (IOException exp) {
+            throw new RuntimeException("Unable to store chunks", exp);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.gempukku.terasology.world.chunk.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stores chunks grouped into region files, each file holding REGION_X * REGION_Y * REGION_Z chunks.
+ * A region file starts with a header, containing for each chunk slot the offset and length of its compressed
+ * data (both 0, if the chunk was not stored). Chunk data takes whole sectors of SECTOR_SIZE bytes. When a chunk is
+ * stored again, its data is overwritten in place if it fits into the sectors it already has, otherwise the old
+ * sectors are freed, and the data goes to the first run of free sectors that is long enough (or to the end of the
+ * file). This way repeatedly stored chunks do not grow the file.
+ */
+public class RegionFileChunkStore implements ChunkStore {
+    public static final int REGION_X = 16;
+    public static final int REGION_Y = 8;
+    public static final int REGION_Z = 16;
+
+    public static final int SECTOR_SIZE = 4096;
+
+    private static final int SLOT_COUNT = REGION_X * REGION_Y * REGION_Z;
+    private static final int SLOT_SIZE = 8;
+    private static final int HEADER_SIZE = SLOT_COUNT * SLOT_SIZE;
+    private static final int HEADER_SECTORS = getSectorCount(HEADER_SIZE);
+
+    private final File directory;
+    private final Map<String, Region> openRegions = new HashMap<>();
+
+    public RegionFileChunkStore(File directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public synchronized ChunkEntityData loadChunk(String worldId, int x, int y, int z) throws IOException {
+        Region region = getRegion(worldId, x, y, z, false);
+        if (region == null)
+            return null;
+
+        int slot = getSlot(x, y, z);
+        int length = region.lengths[slot];
+        if (length == 0)
+            return null;
+
+        ByteBuffer data = ByteBuffer.allocate(length);
+        readFully(region.channel, data, region.offsets[slot]);
+
+        try (DataInputStream input = new DataInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(data.array())))) {
+            return ChunkEntityData.read(input);
+        }
+    }
+
+    @Override
+    public synchronized void storeChunk(String worldId, int x, int y, int z, ChunkEntityData chunkEntityData) throws IOException {
+        byte[] data = compress(chunkEntityData);
+
+        Region region = getRegion(worldId, x, y, z, true);
+        int slot = getSlot(x, y, z);
+        int sectorCount = getSectorCount(data.length);
+
+        long offset;
+        if (region.lengths[slot] > 0 && sectorCount <= getSectorCount(region.lengths[slot])) {
+            // Fits into the sectors the chunk already has, sectors not needed anymore are freed
+            offset = region.offsets[slot];
+            int firstSector = (int) (offset / SECTOR_SIZE);
+            region.usedSectors.clear(firstSector + sectorCount, firstSector + getSectorCount(region.lengths[slot]));
+        } else {
+            region.freeSectors(region.offsets[slot], region.lengths[slot]);
+            int firstSector = region.findFreeSectors(sectorCount);
+            offset = (long) firstSector * SECTOR_SIZE;
+            if (offset + data.length > 0xffffffffL) {
+                region.useSectors(region.offsets[slot], region.lengths[slot]);
+                throw new IOException("Region file too large");
+            }
+            region.usedSectors.set(firstSector, firstSector + sectorCount);
+        }
+        writeFully(region.channel, ByteBuffer.wrap(data), offset);
+
+        ByteBuffer slotData = ByteBuffer.allocate(SLOT_SIZE);
+        slotData.putInt((int) offset);
+        slotData.putInt(data.length);
+        slotData.flip();
+        writeFully(region.channel, slotData, (long) slot * SLOT_SIZE);
+
+        region.offsets[slot] = offset;
+        region.lengths[slot] = data.length;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (Region region : openRegions.values()) {
+            try {
+                region.channel.close();
+            } catch (IOException exp) {
+                failure = exp;
+            }
+        }
+        openRegions.clear();
+        if (failure != null)
+            throw failure;
+    }
+
+    private static byte[] compress(ChunkEntityData chunkEntityData) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(result, deflater));
+            chunkEntityData.write(output);
+            output.close();
+        } finally {
+            deflater.end();
+        }
+        return result.toByteArray();
+    }
+
+    private Region getRegion(String worldId, int x, int y, int z, boolean create) throws IOException {
+        File regionFile = new File(new File(directory, worldId),
+                "r." + Math.floorDiv(x, REGION_X) + "." + Math.floorDiv(y, REGION_Y) + "." + Math.floorDiv(z, REGION_Z) + ".region");
+        String key = regionFile.getPath();
+
+        Region region = openRegions.get(key);
+        if (region == null) {
+            if (!regionFile.exists()) {
+                if (!create)
+                    return null;
+                File worldDirectory = regionFile.getParentFile();
+                if (!worldDirectory.isDirectory() && !worldDirectory.mkdirs())
+                    throw new IOException("Unable to create directory: " + worldDirectory);
+            }
+            FileChannel channel = FileChannel.open(regionFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                if (channel.size() < HEADER_SIZE)
+                    writeFully(channel, ByteBuffer.allocate(HEADER_SIZE), 0);
+                region = new Region(channel);
+            } catch (IOException exp) {
+                channel.close();
+                throw exp;
+            }
+            openRegions.put(key, region);
+        }
+        return region;
+    }
+
+    private static int getSlot(int x, int y, int z) {
+        int inRegionX = Math.floorMod(x, REGION_X);
+        int inRegionY = Math.floorMod(y, REGION_Y);
+        int inRegionZ = Math.floorMod(z, REGION_Z);
+        return inRegionZ + REGION_Z * inRegionY + REGION_Z * REGION_Y * inRegionX;
+    }
+
+    private static int getSectorCount(long length) {
+        return (int) ((length + SECTOR_SIZE - 1) / SECTOR_SIZE);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new IOException("Unexpected end of region file");
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static class Region {
+        private final FileChannel channel;
+        private final long[] offsets = new long[SLOT_COUNT];
+        private final int[] lengths = new int[SLOT_COUNT];
+        private final BitSet usedSectors = new BitSet();
+
+        private Region(FileChannel channel) throws IOException {
+            this.channel = channel;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            header.flip();
+
+            usedSectors.set(0, HEADER_SECTORS);
+            for (int slot = 0; slot < SLOT_COUNT; slot++) {
+                offsets[slot] = header.getInt() & 0xffffffffL;
+                lengths[slot] = header.getInt();
+                useSectors(offsets[slot], lengths[slot]);
+            }
+        }
+
+        private void useSectors(long offset, int length) {
+            if (length > 0) {
+                int firstSector = (int) (offset / SECTOR_SIZE);
+                usedSectors.set(firstSector, firstSector + getSectorCount(length));
+            }
+        }
+
+        private void freeSectors(long offset, int length) {
+            if (length > 0) {
+                int firstSector = (int) (offset / SECTOR_SIZE);
+                usedSectors.clear(firstSector, firstSector + getSectorCount(length));
+            }
+        }
+
+        private int findFreeSectors(int sectorCount) {
+            int start = usedSectors.nextClearBit(HEADER_SECTORS);
+            while (true) {
+                int end = usedSectors.nextSetBit(start);
+                // Past the last used sector, everything is free (end of the file)
+                if (end == -1 || end - start >= sectorCount)
+                    return start;
+                start = usedSectors.nextClearBit(end);
+            }
+        }
+    }
+}
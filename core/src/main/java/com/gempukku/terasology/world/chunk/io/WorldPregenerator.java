@@ -0,0 +1,102 @@
+package com.gempukku.terasology.world.chunk.io;
+
+import com.gempukku.terasology.world.chunk.WorldGenerator;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates all the chunks in a region up front and writes them into a ChunkStore. Chunks are generated in
+ * parallel, but always written in the same order, so the store contents do not depend on the number of threads.
+ */
+public class WorldPregenerator {
+    private final WorldGenerator worldGenerator;
+    private final ChunkStore chunkStore;
+    private final int threadCount;
+
+    public WorldPregenerator(WorldGenerator worldGenerator, ChunkStore chunkStore, int threadCount) {
+        if (threadCount < 1)
+            throw new IllegalArgumentException("At least one thread is required");
+        this.worldGenerator = worldGenerator;
+        this.chunkStore = chunkStore;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Generates and stores all the chunks between minimum and maximum coordinates (inclusive).
+     *
+     * @return Number of chunks stored.
+     */
+    public int pregenerate(String worldId, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) throws IOException {
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount,
+                runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setName("World-pregeneration-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            // Keep only a limited number of generated chunks waiting to be written
+            int maxPending = threadCount * 4;
+            LinkedList<PendingChunk> pendingChunks = new LinkedList<>();
+            int stored = 0;
+            for (int x = minX; x <= maxX; x++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    for (int y = minY; y <= maxY; y++) {
+                        final int chunkX = x;
+                        final int chunkY = y;
+                        final int chunkZ = z;
+                        Future<ChunkEntityData> future = executorService.submit(
+                                () -> new ChunkEntityData(worldGenerator.generateChunk(worldId, chunkX, chunkY, chunkZ)));
+                        pendingChunks.add(new PendingChunk(x, y, z, future));
+
+                        if (pendingChunks.size() >= maxPending) {
+                            storeChunk(worldId, pendingChunks.removeFirst());
+                            stored++;
+                        }
+                    }
+                }
+            }
+            while (!pendingChunks.isEmpty()) {
+                storeChunk(worldId, pendingChunks.removeFirst());
+                stored++;
+            }
+            return stored;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void storeChunk(String worldId, PendingChunk pendingChunk) throws IOException {
+        ChunkEntityData chunkEntityData;
+        try {
+            chunkEntityData = pendingChunk.future.get();
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating chunks", exp);
+        } catch (ExecutionException exp) {
+            throw new RuntimeException("Unable to generate chunk: " + pendingChunk.x + "," + pendingChunk.y + "," + pendingChunk.z, exp.getCause());
+        }
+        chunkStore.storeChunk(worldId, pendingChunk.x, pendingChunk.y, pendingChunk.z, chunkEntityData);
+    }
+
+    private static class PendingChunk {
+        private final int x;
+        private final int y;
+        private final int z;
+        private final Future<ChunkEntityData> future;
+
+        private PendingChunk(int x, int y, int z, Future<ChunkEntityData> future) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.gempukku.terasology.graphics.environment.renderer;
+
+import com.gempukku.terasology.graphics.shape.BlockSide;
+import com.gempukku.terasology.world.chunk.geometry.ChunkFaceConnectivity;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkOcclusionCullerTest {
+    private static final int worldSize = 4;
+
+    @Test
+    public void openWorldIsAllVisible() {
+        TestChunkGrid chunkGrid = new TestChunkGrid();
+
+        Set<String> visible = visit(chunkGrid, 0, 0, 0);
+        assertEquals((2 * worldSize + 1) * (2 * worldSize + 1) * (2 * worldSize + 1), visible.size());
+    }
+
+    @Test
+    public void undergroundChunksAreSkipped() {
+        TestChunkGrid chunkGrid = new TestChunkGrid();
+        // Ground surface at y=0, below it solid rock
+        for (int x = -worldSize; x <= worldSize; x++) {
+            for (int z = -worldSize; z <= worldSize; z++) {
+                chunkGrid.connectivity.put(key(x, 0, z), groundSurfaceConnectivity());
+                for (int y = -worldSize; y < 0; y++)
+                    chunkGrid.connectivity.put(key(x, y, z), ChunkFaceConnectivity.NONE_CONNECTED);
+            }
+        }
+
+        Set<String> visible = visit(chunkGrid, 0, 1, 0);
+        assertTrue(visible.contains(key(3, 0, -2)));
+        assertTrue(visible.contains(key(3, 4, -2)));
+        assertFalse(visible.contains(key(0, -1, 0)));
+        assertFalse(visible.contains(key(0, -2, 0)));
+        assertFalse(visible.contains(key(3, -3, 1)));
+    }
+
+    @Test
+    public void cameraInsideSolidChunkSeesItsNeighbours() {
+        TestChunkGrid chunkGrid = new TestChunkGrid();
+        for (int x = -worldSize; x <= worldSize; x++)
+            for (int y = -worldSize; y <= worldSize; y++)
+                for (int z = -worldSize; z <= worldSize; z++)
+                    chunkGrid.connectivity.put(key(x, y, z), ChunkFaceConnectivity.NONE_CONNECTED);
+
+        Set<String> visible = visit(chunkGrid, 0, 0, 0);
+        assertEquals(7, visible.size());
+    }
+
+    @Test
+    public void walkStopsOutsideOfView() {
+        TestChunkGrid chunkGrid = new TestChunkGrid();
+        chunkGrid.minViewX = 0;
+
+        Set<String> visible = visit(chunkGrid, 0, 0, 0);
+        for (String chunk : visible)
+            assertFalse(chunk.startsWith("-"));
+        assertTrue(visible.contains(key(4, 4, 4)));
+    }
+
+    @Test
+    public void cullerCanBeReused() {
+        TestChunkGrid chunkGrid = new TestChunkGrid();
+        ChunkOcclusionCuller culler = new ChunkOcclusionCuller();
+
+        Set<String> first = new HashSet<>();
+        culler.visitVisibleChunks(0, 0, 0, worldSize, chunkGrid, (x, y, z) -> first.add(key(x, y, z)));
+        Set<String> second = new HashSet<>();
+        culler.visitVisibleChunks(0, 0, 0, worldSize, chunkGrid, (x, y, z) -> second.add(key(x, y, z)));
+
+        assertEquals(first, second);
+    }
+
+    private Set<String> visit(TestChunkGrid chunkGrid, int cameraX, int cameraY, int cameraZ) {
+        Set<String> result = new HashSet<>();
+        new ChunkOcclusionCuller().visitVisibleChunks(cameraX, cameraY, cameraZ, worldSize, chunkGrid,
+                (x, y, z) -> assertTrue(result.add(key(x, y, z))));
+        return result;
+    }
+
+    private static int groundSurfaceConnectivity() {
+        // Everything connected, except the bottom face, which is covered by the ground
+        int connectivity = ChunkFaceConnectivity.ALL_CONNECTED;
+        int bottom = BlockSide.bottom.ordinal();
+        for (int face = 0; face < ChunkFaceConnectivity.FACE_COUNT; face++) {
+            if (face != bottom)
+                connectivity &= ~pairBit(face, bottom);
+        }
+        return connectivity;
+    }
+
+    private static int pairBit(int faceA, int faceB) {
+        for (int bit = 0; bit < 15; bit++) {
+            if (ChunkFaceConnectivity.isConnected(1 << bit, faceA, faceB))
+                return 1 << bit;
+        }
+        throw new IllegalArgumentException();
+    }
+
+    private static String key(int x, int y, int z) {
+        return x + "," + y + "," + z;
+    }
+
+    private static class TestChunkGrid implements ChunkOcclusionCuller.ChunkGrid {
+        private Map<String, Integer> connectivity = new HashMap<>();
+        private int minViewX = Integer.MIN_VALUE;
+
+        @Override
+        public int getFaceConnectivity(int x, int y, int z) {
+            Integer result = connectivity.get(key(x, y, z));
+            return result != null ? result : ChunkFaceConnectivity.ALL_CONNECTED;
+        }
+
+        @Override
+        public boolean isInView(int x, int y, int z) {
+            return x >= minViewX;
+        }
+    }
+}
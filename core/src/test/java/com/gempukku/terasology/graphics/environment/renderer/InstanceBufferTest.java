@@ -0,0 +1,94 @@
+package com.gempukku.terasology.graphics.environment.renderer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class InstanceBufferTest {
+    // Two vertices, with position and one more float each
+    private static final float[] modelVertices = new float[]{0, 0, 0, 7, 1, 2, 3, 8};
+    private static final int floatsPerVertex = 4;
+
+    @Test
+    public void instancesAreTranslated() {
+        InstanceBuffer buffer = new InstanceBuffer(modelVertices, floatsPerVertex, 4);
+        assertEquals(0, buffer.add("a", 10, 20, 30));
+        assertEquals(1, buffer.add("b", -1, -1, -1));
+
+        float[] vertices = buffer.getVertices();
+        assertArrayEquals(new float[]{10, 20, 30, 7, 11, 22, 33, 8, -1, -1, -1, 7, 0, 1, 2, 8},
+                copy(vertices, 0, 16), 0);
+        assertEquals(2, buffer.getInstanceCount());
+    }
+
+    @Test
+    public void onlyMovedInstancesAreDirty() {
+        InstanceBuffer buffer = new InstanceBuffer(modelVertices, floatsPerVertex, 4);
+        buffer.add("a", 0, 0, 0);
+        buffer.add("b", 1, 1, 1);
+        buffer.add("c", 2, 2, 2);
+        buffer.clearDirty();
+
+        assertFalse(buffer.setPosition(1, 1, 1, 1));
+        assertFalse(buffer.isDirty());
+
+        assertTrue(buffer.setPosition(1, 5, 1, 1));
+        assertTrue(buffer.isDirty());
+        assertEquals(8, buffer.getDirtyFrom());
+        assertEquals(16, buffer.getDirtyTo());
+        assertEquals(5, buffer.getVertices()[8], 0);
+        assertEquals(6, buffer.getVertices()[12], 0);
+    }
+
+    @Test
+    public void removeMovesLastInstance() {
+        InstanceBuffer buffer = new InstanceBuffer(modelVertices, floatsPerVertex, 4);
+        buffer.add("a", 0, 0, 0);
+        buffer.add("b", 1, 1, 1);
+        buffer.add("c", 2, 2, 2);
+        buffer.clearDirty();
+
+        assertEquals("c", buffer.remove(0));
+        assertEquals(2, buffer.getInstanceCount());
+        assertEquals("c", buffer.getInstanceId(0));
+        assertArrayEquals(new float[]{2, 2, 2, 7, 3, 4, 5, 8}, copy(buffer.getVertices(), 0, 8), 0);
+        assertEquals(0, buffer.getDirtyFrom());
+        assertEquals(8, buffer.getDirtyTo());
+
+        // Moved instance keeps its position
+        assertFalse(buffer.setPosition(0, 2, 2, 2));
+
+        assertNull(buffer.remove(1));
+        assertEquals(1, buffer.getInstanceCount());
+    }
+
+    @Test
+    public void fullBuffer() {
+        InstanceBuffer buffer = new InstanceBuffer(modelVertices, floatsPerVertex, 2);
+        buffer.add("a", 0, 0, 0);
+        assertFalse(buffer.isFull());
+        buffer.add("b", 0, 0, 0);
+        assertTrue(buffer.isFull());
+    }
+
+    @Test
+    public void indicesForInstances() {
+        short[] indices = InstanceBuffer.createIndices(new short[]{0, 1, 2}, 3, 2);
+        assertArrayEquals(new short[]{0, 1, 2, 3, 4, 5}, indices);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyVerticesForShortIndices() {
+        InstanceBuffer.createIndices(new short[]{0, 1, 2}, 24, 3000);
+    }
+
+    private static float[] copy(float[] source, int from, int count) {
+        float[] result = new float[count];
+        System.arraycopy(source, from, result, 0, count);
+        return result;
+    }
+}
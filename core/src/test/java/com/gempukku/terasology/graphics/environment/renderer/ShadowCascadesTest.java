@@ -0,0 +1,95 @@
+package com.gempukku.terasology.graphics.environment.renderer;
+
+import com.badlogic.gdx.math.Vector3;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShadowCascadesTest {
+    private static final float fieldOfView = 75;
+    private static final float aspectRatio = 16f / 9f;
+    private static final float far = 256;
+
+    private final Vector3 cameraDirection = new Vector3(0, 0, 1);
+    private final Vector3 sunDirection = new Vector3(0, -1, 0);
+
+    @Test
+    public void firstUpdateFitsAllCascades() {
+        ShadowCascades shadowCascades = createShadowCascades();
+
+        assertEquals(7, update(shadowCascades, new Vector3(), sunDirection));
+        assertEquals(0, update(shadowCascades, new Vector3(), sunDirection));
+    }
+
+    @Test
+    public void cascadesCoverTheirPartOfView() {
+        ShadowCascades shadowCascades = createShadowCascades();
+        Vector3 cameraPosition = new Vector3(10, 20, 30);
+        update(shadowCascades, cameraPosition, sunDirection);
+
+        float tan = (float) Math.tan(Math.toRadians(fieldOfView / 2));
+        for (int i = 0; i < shadowCascades.getCascadeCount(); i++) {
+            ShadowCascade cascade = shadowCascades.getCascade(i);
+            for (float distance : new float[]{cascade.getNearDistance(), cascade.getFarDistance()}) {
+                float halfHeight = distance * tan;
+                float halfWidth = halfHeight * aspectRatio;
+                for (int corner = 0; corner < 4; corner++) {
+                    Vector3 point = new Vector3(
+                            cameraPosition.x + ((corner & 1) == 0 ? -halfWidth : halfWidth),
+                            cameraPosition.y + ((corner & 2) == 0 ? -halfHeight : halfHeight),
+                            cameraPosition.z + distance);
+                    assertTrue(point.dst(cascade.getCenter()) <= cascade.getRadius());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void smallCameraMovementKeepsLightViews() {
+        ShadowCascades shadowCascades = createShadowCascades();
+        update(shadowCascades, new Vector3(), sunDirection);
+
+        assertEquals(0, update(shadowCascades, new Vector3(0.5f, 0, 0.5f), sunDirection));
+        // Near cascade is the smallest one, so it is the first that has to follow the camera
+        assertEquals(1, update(shadowCascades, new Vector3(10, 0, 0), sunDirection));
+        assertEquals(7, update(shadowCascades, new Vector3(100, 0, 0), sunDirection));
+    }
+
+    @Test
+    public void sunFollowedOnlyAfterThreshold() {
+        ShadowCascades shadowCascades = createShadowCascades();
+        update(shadowCascades, new Vector3(), sunDirection);
+
+        Vector3 slightlyMoved = direction(0.2f);
+        assertEquals(0, update(shadowCascades, new Vector3(), slightlyMoved));
+        assertEquals(sunDirection, shadowCascades.getSunDirection());
+
+        Vector3 moved = direction(1f);
+        assertEquals(7, update(shadowCascades, new Vector3(), moved));
+        assertEquals(moved, shadowCascades.getSunDirection());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyCascades() {
+        new ShadowCascades(new int[]{1024, 1024, 1024, 1024}, new float[]{0.1f, 0.2f, 0.5f, 1f}, 0.5f, 0.15f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void splitsNotIncreasing() {
+        new ShadowCascades(new int[]{1024, 1024}, new float[]{0.5f, 0.2f}, 0.5f, 0.15f);
+    }
+
+    private Vector3 direction(float degreesFromDown) {
+        double radians = Math.toRadians(degreesFromDown);
+        return new Vector3((float) Math.sin(radians), (float) -Math.cos(radians), 0);
+    }
+
+    private int update(ShadowCascades shadowCascades, Vector3 cameraPosition, Vector3 sunDirection) {
+        return shadowCascades.update(cameraPosition, cameraDirection, fieldOfView, aspectRatio, far, sunDirection, far);
+    }
+
+    private ShadowCascades createShadowCascades() {
+        return new ShadowCascades(new int[]{2048, 2048, 1024}, new float[]{0.1f, 0.35f, 1f}, 0.5f, 0.15f);
+    }
+}
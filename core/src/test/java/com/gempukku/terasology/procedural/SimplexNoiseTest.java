@@ -0,0 +1,63 @@
+package com.gempukku.terasology.procedural;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimplexNoiseTest {
+    private SimplexNoise noise = new SimplexNoise(42);
+
+    @Test
+    public void bulk2DMatchesScalar() {
+        float[] out = new float[7 * 5];
+        noise.fill2D(out, -3.3f, 1.7f, 0.37f, 0.61f, 7, 5);
+
+        for (int i = 0; i < 7; i++) {
+            for (int j = 0; j < 5; j++) {
+                assertEquals(noise.noise(-3.3f + i * 0.37f, 1.7f + j * 0.61f), out[i * 5 + j], 0f);
+            }
+        }
+    }
+
+    @Test
+    public void bulk3DMatchesScalar() {
+        float[] out = new float[6 * 5 * 4];
+        noise.fill3D(out, -2.1f, 0.4f, 5.9f, 0.43f, 0.29f, 0.71f, 6, 5, 4);
+
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 5; j++) {
+                for (int k = 0; k < 4; k++) {
+                    assertEquals(noise.noise(-2.1f + i * 0.43f, 0.4f + j * 0.29f, 5.9f + k * 0.71f), out[(i * 5 + j) * 4 + k], 0f);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void singleOctaveFractalMatchesBulk() {
+        float[] bulk = new float[16];
+        float[] fractal = new float[16];
+        noise.fill2D(bulk, 0.5f, 0.5f, 0.1f, 0.1f, 4, 4);
+        noise.fillFractal2D(fractal, 0.5f, 0.5f, 0.1f, 0.1f, 4, 4, 1, 2f, 0.5f);
+
+        for (int i = 0; i < 16; i++) {
+            assertEquals(bulk[i], fractal[i], 0f);
+        }
+    }
+
+    @Test
+    public void fractalStaysInRange() {
+        float[] out = new float[8 * 8 * 8];
+        noise.fillFractal3D(out, 0f, 0f, 0f, 0.13f, 0.13f, 0.13f, 8, 8, 8, 5, 2f, 0.5f);
+
+        for (float value : out) {
+            assertTrue(value >= -1f && value <= 1f);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bufferTooSmall() {
+        noise.fill2D(new float[3], 0f, 0f, 1f, 1f, 2, 2);
+    }
+}
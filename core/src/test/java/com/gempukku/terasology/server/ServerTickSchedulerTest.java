@@ -0,0 +1,146 @@
+package com.gempukku.terasology.server;
+
+import com.gempukku.secsy.entity.game.InternalGameLoop;
+import com.gempukku.secsy.entity.game.InternalGameLoopListener;
+import com.gempukku.terasology.time.InternalTimeManager;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ServerTickSchedulerTest {
+    private static final long MILLIS = 1000000;
+
+    private final List<String> calls = new ArrayList<>();
+    private final List<Long> timeDiffs = new ArrayList<>();
+
+    private final InternalGameLoop gameLoop = new MockInternalGameLoop();
+    private final InternalTimeManager timeManager = timeDiff -> {
+        calls.add("time");
+        timeDiffs.add(timeDiff);
+    };
+
+    @Test
+    public void invalidTicksPerSecondRejected() {
+        for (int tps : new int[]{0, -20}) {
+            try {
+                new ServerTickScheduler(gameLoop, timeManager, tps, ServerTickScheduler.OverrunPolicy.CATCH_UP, 5);
+                fail("Expected IllegalArgumentException");
+            } catch (IllegalArgumentException exp) {
+                assertTrue(exp.getMessage().startsWith("terasology.server.tps"));
+            }
+        }
+    }
+
+    @Test
+    public void negativeMaxCatchUpTicksRejected() {
+        try {
+            new ServerTickScheduler(gameLoop, timeManager, 20, ServerTickScheduler.OverrunPolicy.CATCH_UP, -1);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException exp) {
+            assertTrue(exp.getMessage().startsWith("terasology.server.maxCatchUpTicks"));
+        }
+    }
+
+    @Test
+    public void onTimeTick() {
+        ServerTickScheduler scheduler = new ServerTickScheduler(gameLoop, timeManager, 20, ServerTickScheduler.OverrunPolicy.CATCH_UP, 5);
+
+        assertEquals(50 * MILLIS, scheduler.runTick(0, 0));
+        assertEquals(100 * MILLIS, scheduler.runTick(52 * MILLIS, 50 * MILLIS));
+
+        assertEquals(Arrays.asList(50L, 50L), timeDiffs);
+        assertEquals(0, scheduler.getTickMetrics().getSkippedTicks());
+    }
+
+    @Test
+    public void catchUpWithinLimit() {
+        ServerTickScheduler scheduler = new ServerTickScheduler(gameLoop, timeManager, 20, ServerTickScheduler.OverrunPolicy.CATCH_UP, 5);
+
+        // 4 ticks late, all of them are run right after each other
+        long nextTickTime = 0;
+        for (int i = 0; i < 5; i++)
+            nextTickTime = scheduler.runTick(200 * MILLIS, nextTickTime);
+
+        assertEquals(250 * MILLIS, nextTickTime);
+        assertEquals(5, timeDiffs.size());
+        assertEquals(0, scheduler.getTickMetrics().getSkippedTicks());
+    }
+
+    @Test
+    public void catchUpSkipsOverLimit() {
+        ServerTickScheduler scheduler = new ServerTickScheduler(gameLoop, timeManager, 20, ServerTickScheduler.OverrunPolicy.CATCH_UP, 5);
+
+        // 7 ticks late, only 5 are caught up
+        long nextTickTime = scheduler.runTick(350 * MILLIS, 0);
+
+        assertEquals(150 * MILLIS, nextTickTime);
+        assertEquals(2, scheduler.getTickMetrics().getSkippedTicks());
+        // Skipped ticks do not advance the time
+        assertEquals(Arrays.asList(50L), timeDiffs);
+    }
+
+    @Test
+    public void skipPolicyDropsLateTicks() {
+        ServerTickScheduler scheduler = new ServerTickScheduler(gameLoop, timeManager, 20, ServerTickScheduler.OverrunPolicy.SKIP, 5);
+
+        long nextTickTime = scheduler.runTick(370 * MILLIS, 0);
+
+        assertEquals(400 * MILLIS, nextTickTime);
+        assertEquals(7, scheduler.getTickMetrics().getSkippedTicks());
+        assertEquals(Arrays.asList(50L), timeDiffs);
+    }
+
+    @Test
+    public void tasksExecutedAtStartOfTick() {
+        ServerTickScheduler scheduler = new ServerTickScheduler(gameLoop, timeManager, 20, ServerTickScheduler.OverrunPolicy.CATCH_UP, 5);
+
+        scheduler.executeInServerThread(() -> calls.add("task1"));
+        scheduler.executeInServerThread(() -> calls.add("task2"));
+        long nextTickTime = scheduler.runTick(0, 0);
+
+        assertEquals(Arrays.asList("task1", "task2", "time", "update"), calls);
+
+        calls.clear();
+        scheduler.runTick(nextTickTime, nextTickTime);
+
+        assertEquals(Arrays.asList("time", "update"), calls);
+    }
+
+    @Test
+    public void nonWholeMillisecondTicksDoNotDrift() {
+        ServerTickScheduler scheduler = new ServerTickScheduler(gameLoop, timeManager, 30, ServerTickScheduler.OverrunPolicy.CATCH_UP, 5);
+
+        long nextTickTime = 0;
+        for (int i = 0; i < 3000; i++)
+            nextTickTime = scheduler.runTick(nextTickTime, nextTickTime);
+
+        long total = 0;
+        for (long timeDiff : timeDiffs) {
+            assertTrue(timeDiff == 33 || timeDiff == 34);
+            total += timeDiff;
+        }
+        // 3000 ticks of 33333333ns each, rather than 3000 ticks of 33ms
+        assertEquals(99999, total);
+    }
+
+    private class MockInternalGameLoop implements InternalGameLoop {
+        @Override
+        public void addInternalGameLoopListener(InternalGameLoopListener internalGameLoopListener) {
+        }
+
+        @Override
+        public void removeInternalGameLooplListener(InternalGameLoopListener internalGameLoopListener) {
+        }
+
+        @Override
+        public void processUpdate() {
+            calls.add("update");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.gempukku.terasology.server;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TickHistogramTest {
+    @Test
+    public void emptyHistogram() {
+        TickHistogram histogram = new TickHistogram("test");
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMeanNanos());
+        assertEquals(0, histogram.getPercentileNanos(99));
+    }
+
+    @Test
+    public void percentilesRoundedUpToBucket() {
+        TickHistogram histogram = new TickHistogram("test");
+        for (int i = 0; i < 99; i++)
+            histogram.record(3000000);
+        histogram.record(40000000);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(40000000, histogram.getMaxNanos());
+        // 3ms falls into bucket ending at 4096 microseconds
+        assertEquals(4096000, histogram.getPercentileNanos(50));
+        assertEquals(4096000, histogram.getPercentileNanos(99));
+        assertEquals(40000000, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void reset() {
+        TickHistogram histogram = new TickHistogram("test");
+        histogram.record(1000);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+    }
+}
@@ -0,0 +1,196 @@
+package com.gempukku.terasology.time;
+
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.context.system.ClassSystemProducer;
+import com.gempukku.secsy.context.system.ShareSystemInitializer;
+import com.gempukku.secsy.context.system.SimpleContext;
+import com.gempukku.secsy.entity.Component;
+import com.gempukku.secsy.entity.EntityManager;
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.game.InternalGameLoop;
+import com.gempukku.secsy.entity.game.InternalGameLoopListener;
+import com.gempukku.secsy.entity.io.EntityData;
+import com.gempukku.terasology.world.component.MultiverseComponent;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+public class ClientTimeManagerTest {
+    private MockClientTimeManager clientTimeManager;
+    private MockEntityManager mockEntityManager;
+
+    @Before
+    public void setup() {
+        ClassSystemProducer classSystemProducer = new ClassSystemProducer();
+        classSystemProducer.addClass(MockClientTimeManager.class);
+        classSystemProducer.addClass(MockInternalGameLoop.class);
+        classSystemProducer.addClass(MockEntityManager.class);
+
+        SimpleContext<Object> simpleContext = new SimpleContext<>();
+        simpleContext.setSystemProducer(classSystemProducer);
+        simpleContext.setSystemInitializer(new ShareSystemInitializer<>());
+
+        simpleContext.startup();
+
+        clientTimeManager = (MockClientTimeManager) simpleContext.getSystem(TimeManager.class);
+        mockEntityManager = (MockEntityManager) simpleContext.getSystem(EntityManager.class);
+    }
+
+    @Test
+    public void timeReadFromMultiverseIfNotReceived() {
+        mockEntityManager.multiverse.setTime(5000);
+
+        assertEquals(5000, clientTimeManager.getMultiverseTime());
+    }
+
+    @Test
+    public void timeExtrapolatedBetweenReceivedTimes() {
+        clientTimeManager.currentTime = 10000;
+        clientTimeManager.preUpdate();
+        receiveTime(1000);
+        assertEquals(1000, clientTimeManager.getMultiverseTime());
+
+        clientTimeManager.currentTime = 10030;
+        clientTimeManager.preUpdate();
+        assertEquals(1030, clientTimeManager.getMultiverseTime());
+        assertEquals(30, clientTimeManager.getTimeSinceLastUpdate());
+
+        clientTimeManager.currentTime = 10050;
+        clientTimeManager.preUpdate();
+        assertEquals(1050, clientTimeManager.getMultiverseTime());
+        assertEquals(20, clientTimeManager.getTimeSinceLastUpdate());
+    }
+
+    @Test
+    public void timeSinceLastUpdateCapped() {
+        clientTimeManager.currentTime = 10000;
+        clientTimeManager.preUpdate();
+        assertEquals(0, clientTimeManager.getTimeSinceLastUpdate());
+
+        clientTimeManager.currentTime = 15000;
+        clientTimeManager.preUpdate();
+        assertEquals(1000, clientTimeManager.getTimeSinceLastUpdate());
+    }
+
+    @Test
+    public void timeDoesNotGoBackwards() {
+        clientTimeManager.currentTime = 10000;
+        clientTimeManager.preUpdate();
+        receiveTime(1000);
+
+        clientTimeManager.currentTime = 10150;
+        clientTimeManager.preUpdate();
+        assertEquals(1150, clientTimeManager.getMultiverseTime());
+
+        // Server time is behind the extrapolated one
+        receiveTime(1100);
+        assertEquals(1150, clientTimeManager.getMultiverseTime());
+
+        clientTimeManager.currentTime = 10200;
+        clientTimeManager.preUpdate();
+        assertEquals(1150, clientTimeManager.getMultiverseTime());
+
+        clientTimeManager.currentTime = 10250;
+        clientTimeManager.preUpdate();
+        assertEquals(1200, clientTimeManager.getMultiverseTime());
+    }
+
+    @Test
+    public void timeJumpsForwardToServerTime() {
+        clientTimeManager.currentTime = 10000;
+        clientTimeManager.preUpdate();
+        receiveTime(1000);
+
+        receiveTime(2000);
+        assertEquals(2000, clientTimeManager.getMultiverseTime());
+
+        clientTimeManager.currentTime = 10050;
+        clientTimeManager.preUpdate();
+        assertEquals(2050, clientTimeManager.getMultiverseTime());
+    }
+
+    private void receiveTime(long time) {
+        mockEntityManager.multiverse.setTime(time);
+        clientTimeManager.multiverseUpdated(null, mockEntityManager.multiverseEntity, mockEntityManager.multiverse);
+    }
+
+    @RegisterSystem(
+            shared = TimeManager.class)
+    public static class MockClientTimeManager extends ClientTimeManager {
+        private long currentTime;
+
+        @Override
+        long getCurrentTime() {
+            return currentTime;
+        }
+    }
+
+    @RegisterSystem(
+            shared = InternalGameLoop.class)
+    public static class MockInternalGameLoop implements InternalGameLoop {
+        @Override
+        public void addInternalGameLoopListener(InternalGameLoopListener internalGameLoopListener) {
+        }
+
+        @Override
+        public void removeInternalGameLooplListener(InternalGameLoopListener internalGameLoopListener) {
+        }
+
+        @Override
+        public void processUpdate() {
+        }
+    }
+
+    @RegisterSystem(
+            shared = EntityManager.class)
+    public static class MockEntityManager implements EntityManager {
+        private final ServerTimeManagerTest.MockMultiverseComponent multiverse = new ServerTimeManagerTest.MockMultiverseComponent();
+        private final EntityRef multiverseEntity = Mockito.mock(EntityRef.class);
+
+        public MockEntityManager() {
+            Mockito.when(multiverseEntity.getComponent(MultiverseComponent.class)).thenReturn(multiverse);
+        }
+
+        @Override
+        public EntityRef createEntity() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public EntityRef createEntity(EntityData entityData) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public EntityRef createNewEntityRef(EntityRef entityRef) {
+            return entityRef;
+        }
+
+        @Override
+        public boolean isSameEntity(EntityRef ref1, EntityRef ref2) {
+            return ref1 == ref2;
+        }
+
+        @Override
+        public void destroyEntity(EntityRef entityRef) {
+            throw new UnsupportedOperationException();
+        }
+
+        @SafeVarargs
+        @Override
+        public final Iterable<EntityRef> getEntitiesWithComponents(Class<? extends Component> component, Class<? extends Component>... additionalComponents) {
+            if (component == MultiverseComponent.class)
+                return Collections.singletonList(multiverseEntity);
+            return Collections.emptyList();
+        }
+
+        @Override
+        public String getEntityUniqueIdentifier(EntityRef entityRef) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.gempukku.terasology.time;
+
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.context.system.ClassSystemProducer;
+import com.gempukku.secsy.context.system.ShareSystemInitializer;
+import com.gempukku.secsy.context.system.SimpleContext;
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.terasology.world.MultiverseManager;
+import com.gempukku.terasology.world.component.MultiverseComponent;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+
+public class ServerTimeManagerTest {
+    private SimpleContext<Object> simpleContext;
+    private ServerTimeManager serverTimeManager;
+    private MockMultiverseManager mockMultiverseManager;
+
+    private void startup() {
+        ClassSystemProducer classSystemProducer = new ClassSystemProducer();
+        classSystemProducer.addClass(ServerTimeManager.class);
+        classSystemProducer.addClass(MockMultiverseManager.class);
+
+        simpleContext = new SimpleContext<>();
+        simpleContext.setSystemProducer(classSystemProducer);
+        simpleContext.setSystemInitializer(new ShareSystemInitializer<>());
+
+        simpleContext.startup();
+
+        serverTimeManager = (ServerTimeManager) simpleContext.getSystem(InternalTimeManager.class);
+        mockMultiverseManager = (MockMultiverseManager) simpleContext.getSystem(MultiverseManager.class);
+    }
+
+    @After
+    public void cleanup() {
+        System.clearProperty("terasology.time.persistInterval");
+    }
+
+    @Test
+    public void timeLoadedFromMultiverse() {
+        startup();
+        mockMultiverseManager.multiverse.setTime(5000);
+
+        assertEquals(5000, serverTimeManager.getMultiverseTime());
+
+        serverTimeManager.updateMultiverseTime(50);
+        assertEquals(5050, serverTimeManager.getMultiverseTime());
+        assertEquals(50, serverTimeManager.getTimeSinceLastUpdate());
+    }
+
+    @Test
+    public void timePersistedOncePerInterval() {
+        startup();
+
+        for (int i = 0; i < 19; i++)
+            serverTimeManager.updateMultiverseTime(50);
+
+        assertEquals(0, mockMultiverseManager.multiverse.getTime());
+        Mockito.verify(mockMultiverseManager.multiverseEntity, Mockito.never()).saveChanges();
+
+        serverTimeManager.updateMultiverseTime(50);
+
+        assertEquals(1000, mockMultiverseManager.multiverse.getTime());
+        Mockito.verify(mockMultiverseManager.multiverseEntity).saveChanges();
+
+        for (int i = 0; i < 20; i++)
+            serverTimeManager.updateMultiverseTime(50);
+
+        assertEquals(2000, mockMultiverseManager.multiverse.getTime());
+        Mockito.verify(mockMultiverseManager.multiverseEntity, Mockito.times(2)).saveChanges();
+    }
+
+    @Test
+    public void persistIntervalFromProperty() {
+        System.setProperty("terasology.time.persistInterval", "200");
+        startup();
+
+        for (int i = 0; i < 8; i++)
+            serverTimeManager.updateMultiverseTime(50);
+
+        assertEquals(400, mockMultiverseManager.multiverse.getTime());
+        Mockito.verify(mockMultiverseManager.multiverseEntity, Mockito.times(2)).saveChanges();
+    }
+
+    @Test
+    public void timeChangedBySomeoneElseReloaded() {
+        startup();
+        serverTimeManager.updateMultiverseTime(50);
+
+        mockMultiverseManager.multiverse.setTime(3000);
+        serverTimeManager.multiverseUpdated(null, mockMultiverseManager.multiverseEntity, mockMultiverseManager.multiverse);
+
+        assertEquals(3000, serverTimeManager.getMultiverseTime());
+    }
+
+    @Test
+    public void timeFlushedOnShutdown() {
+        startup();
+        for (int i = 0; i < 5; i++)
+            serverTimeManager.updateMultiverseTime(50);
+        assertEquals(0, mockMultiverseManager.multiverse.getTime());
+
+        simpleContext.shutdown();
+
+        assertEquals(250, mockMultiverseManager.multiverse.getTime());
+        Mockito.verify(mockMultiverseManager.multiverseEntity).saveChanges();
+    }
+
+    @Test
+    public void notLoadedTimeNotFlushedOnShutdown() {
+        startup();
+
+        simpleContext.shutdown();
+
+        Mockito.verify(mockMultiverseManager.multiverseEntity, Mockito.never()).saveChanges();
+    }
+
+    @RegisterSystem(
+            shared = MultiverseManager.class)
+    public static class MockMultiverseManager implements MultiverseManager {
+        private final MockMultiverseComponent multiverse = new MockMultiverseComponent();
+        private final EntityRef multiverseEntity = Mockito.mock(EntityRef.class);
+
+        public MockMultiverseManager() {
+            Mockito.when(multiverseEntity.getComponent(MultiverseComponent.class)).thenReturn(multiverse);
+        }
+
+        @Override
+        public EntityRef createWorld(String worldId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public EntityRef getWorldEntity(String worldId) {
+            return null;
+        }
+
+        @Override
+        public EntityRef getMultiverseEntity() {
+            return multiverseEntity;
+        }
+
+        @Override
+        public boolean hasWorld(String worldId) {
+            return false;
+        }
+    }
+
+    public static class MockMultiverseComponent implements MultiverseComponent {
+        private long time;
+
+        @Override
+        public void setTime(long time) {
+            this.time = time;
+        }
+
+        @Override
+        public long getTime() {
+            return time;
+        }
+    }
+}
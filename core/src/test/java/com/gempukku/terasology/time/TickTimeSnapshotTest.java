@@ -0,0 +1,79 @@
+package com.gempukku.terasology.time;
+
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.terasology.world.component.WorldComponent;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class TickTimeSnapshotTest {
+    private static final float DELTA = 0.0001f;
+
+    private final Map<String, EntityRef> worldEntities = new HashMap<>();
+    private final Map<String, Integer> worldLookups = new HashMap<>();
+    private TickTimeSnapshot tickTime;
+
+    @Before
+    public void setup() {
+        tickTime = new TickTimeSnapshot(worldId -> {
+            worldLookups.merge(worldId, 1, Integer::sum);
+            return worldEntities.get(worldId);
+        });
+    }
+
+    @Test
+    public void multiverseTime() {
+        assertEquals(0, tickTime.getMultiverseTime());
+
+        tickTime.setMultiverseTime(12345);
+        assertEquals(12345, tickTime.getMultiverseTime());
+    }
+
+    @Test
+    public void worldDayTime() {
+        addWorld("world", 1000, 0);
+        addWorld("shifted", 1000, 250);
+
+        tickTime.setMultiverseTime(2100);
+        assertEquals(0.1f, tickTime.getWorldDayTime("world"), DELTA);
+        assertEquals(0.35f, tickTime.getWorldDayTime("shifted"), DELTA);
+
+        tickTime.setMultiverseTime(2900);
+        assertEquals(0.9f, tickTime.getWorldDayTime("world"), DELTA);
+        assertEquals(0.15f, tickTime.getWorldDayTime("shifted"), DELTA);
+    }
+
+    @Test
+    public void worldSettingsReadOnceUntilInvalidated() {
+        addWorld("world", 1000, 0);
+
+        tickTime.setMultiverseTime(500);
+        tickTime.getWorldDayTime("world");
+        tickTime.getWorldDayTime("world");
+        assertEquals(1, (int) worldLookups.get("world"));
+
+        // Day length changed, but is not visible until invalidated
+        addWorld("world", 2000, 0);
+        assertEquals(0.5f, tickTime.getWorldDayTime("world"), DELTA);
+
+        tickTime.invalidateWorlds();
+        assertEquals(0.25f, tickTime.getWorldDayTime("world"), DELTA);
+        assertEquals(2, (int) worldLookups.get("world"));
+    }
+
+    private void addWorld(String worldId, int dayLength, int dayStartDifferenceFromMultiverse) {
+        WorldComponent world = Mockito.mock(WorldComponent.class);
+        Mockito.when(world.getWorldId()).thenReturn(worldId);
+        Mockito.when(world.getDayLength()).thenReturn(dayLength);
+        Mockito.when(world.getDayStartDifferenceFromMultiverse()).thenReturn(dayStartDifferenceFromMultiverse);
+
+        EntityRef worldEntity = Mockito.mock(EntityRef.class);
+        Mockito.when(worldEntity.getComponent(WorldComponent.class)).thenReturn(world);
+        worldEntities.put(worldId, worldEntity);
+    }
+}
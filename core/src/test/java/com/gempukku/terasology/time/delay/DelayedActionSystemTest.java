@@ -4,7 +4,11 @@ import com.gempukku.secsy.context.annotation.RegisterSystem;
 import com.gempukku.secsy.context.system.ClassSystemProducer;
 import com.gempukku.secsy.context.system.ShareSystemInitializer;
 import com.gempukku.secsy.context.system.SimpleContext;
+import com.gempukku.secsy.entity.EntityEventListener;
+import com.gempukku.secsy.entity.EntityListener;
 import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.InternalEntityManager;
+import com.gempukku.secsy.entity.SimpleEntity;
 import com.gempukku.secsy.entity.event.Event;
 import com.gempukku.secsy.entity.game.GameLoop;
 import com.gempukku.secsy.entity.game.GameLoopListener;
@@ -16,9 +20,13 @@ import org.junit.Test;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 
 public class DelayedActionSystemTest {
     private DelayedActionSystem delayedActionSystem;
@@ -31,6 +39,7 @@ public class DelayedActionSystemTest {
         classSystemProducer.addClass(DelayedActionSystem.class);
         classSystemProducer.addClass(MockTimeManager.class);
         classSystemProducer.addClass(MockGameLoop.class);
+        classSystemProducer.addClass(MockInternalEntityManager.class);
 
         SimpleContext<Object> simpleContext = new SimpleContext<>();
         simpleContext.setSystemProducer(classSystemProducer);
@@ -233,10 +242,65 @@ public class DelayedActionSystemTest {
         Mockito.verifyNoMoreInteractions(entity);
     }
 
+    @Test
+    public void firedAfterParallelUpdate() {
+        EntityRef entity = Mockito.mock(EntityRef.class);
+        MockDelayedActionComponent dac = new MockDelayedActionComponent();
+        Mockito.when(entity.getComponent(DelayedActionComponent.class)).thenReturn(null);
+        Mockito.when(entity.createComponent(DelayedActionComponent.class)).thenReturn(dac);
+        Mockito.when(entity.exists()).thenReturn(true);
+        delayedActionSystem.addDelayedAction(entity, "actionId", 1000);
+        Mockito.when(entity.getComponent(DelayedActionComponent.class)).thenReturn(dac);
+
+        mockGameLoop.setDeferTasks(true);
+        mockTimeManager.setMultiverseTime(1000);
+        mockGameLoop.callUpdate();
+
+        Mockito.verify(entity, Mockito.never()).send(Matchers.any(Event.class));
+
+        mockGameLoop.runDeferredTasks();
+
+        Mockito.verify(entity).send(Matchers.any(DelayedActionTriggeredEvent.class));
+    }
+
+    @Test
+    public void cancelledAfterParallelUpdateNotFired() {
+        EntityRef entity = Mockito.mock(EntityRef.class);
+        MockDelayedActionComponent dac = new MockDelayedActionComponent();
+        Mockito.when(entity.getComponent(DelayedActionComponent.class)).thenReturn(null);
+        Mockito.when(entity.createComponent(DelayedActionComponent.class)).thenReturn(dac);
+        Mockito.when(entity.exists()).thenReturn(true);
+        delayedActionSystem.addDelayedAction(entity, "actionId", 1000);
+        Mockito.when(entity.getComponent(DelayedActionComponent.class)).thenReturn(dac);
+
+        mockGameLoop.setDeferTasks(true);
+        mockTimeManager.setMultiverseTime(1000);
+        mockGameLoop.callUpdate();
+
+        // Cancelled by an event sent by a listener updated in parallel
+        delayedActionSystem.cancelDelayedAction(entity, "actionId");
+        mockGameLoop.runDeferredTasks();
+
+        Mockito.verify(entity, Mockito.never()).send(Matchers.any(Event.class));
+        assertFalse(delayedActionSystem.hasDelayedAction(entity, "actionId"));
+    }
+
     @RegisterSystem(
             shared = GameLoop.class)
     public static class MockGameLoop implements GameLoop {
         private GameLoopListener gameLoopListener;
+        private boolean deferTasks;
+        private List<Runnable> deferredTasks = new ArrayList<>();
+
+        public void setDeferTasks(boolean deferTasks) {
+            this.deferTasks = deferTasks;
+        }
+
+        public void runDeferredTasks() {
+            for (Runnable deferredTask : deferredTasks)
+                deferredTask.run();
+            deferredTasks.clear();
+        }
 
         @Override
         public void addGameLoopListener(GameLoopListener gameLoopListener) {
@@ -248,6 +312,14 @@ public class DelayedActionSystemTest {
             gameLoopListener = null;
         }
 
+        @Override
+        public void executeAfterParallelUpdate(Runnable task) {
+            if (deferTasks)
+                deferredTasks.add(task);
+            else
+                task.run();
+        }
+
         public void callUpdate() {
             gameLoopListener.update();
         }
@@ -278,6 +350,42 @@ public class DelayedActionSystemTest {
         }
     }
 
+    @RegisterSystem(
+            shared = InternalEntityManager.class)
+    public static class MockInternalEntityManager implements InternalEntityManager {
+        private Map<EntityRef, Integer> entityIds = new HashMap<>();
+
+        @Override
+        public void addEntityEventListener(EntityEventListener entityEventListener) {
+
+        }
+
+        @Override
+        public void removeEntityEventListener(EntityEventListener entityEventListener) {
+
+        }
+
+        @Override
+        public void addEntityListener(EntityListener entityListener) {
+
+        }
+
+        @Override
+        public void removeEntityListener(EntityListener entityListener) {
+
+        }
+
+        @Override
+        public EntityRef wrapEntity(SimpleEntity entity) {
+            return null;
+        }
+
+        @Override
+        public int getEntityId(EntityRef entityRef) {
+            return entityIds.computeIfAbsent(entityRef, entity -> entityIds.size());
+        }
+    }
+
     private static class MockDelayedActionComponent implements DelayedActionComponent {
         private Map<String, Long> actionIdWakeUp;
 
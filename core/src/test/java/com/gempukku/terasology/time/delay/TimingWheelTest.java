@@ -0,0 +1,101 @@
+package com.gempukku.terasology.time.delay;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+    @Test
+    public void fireAtDeadline() {
+        TimingWheel<TimingWheel.Timer> timingWheel = new TimingWheel<>(0);
+        TimingWheel.Timer timer = new TimingWheel.Timer();
+        timingWheel.schedule(timer, 1000);
+
+        List<TimingWheel.Timer> fired = new ArrayList<>();
+        timingWheel.advance(999, fired);
+        assertTrue(fired.isEmpty());
+        assertTrue(timer.isScheduled());
+
+        timingWheel.advance(1000, fired);
+        assertEquals(1, fired.size());
+        assertSame(timer, fired.get(0));
+        assertFalse(timer.isScheduled());
+    }
+
+    @Test
+    public void fireAlreadyDue() {
+        TimingWheel<TimingWheel.Timer> timingWheel = new TimingWheel<>(1000);
+        TimingWheel.Timer timer = new TimingWheel.Timer();
+        timingWheel.schedule(timer, 500);
+
+        List<TimingWheel.Timer> fired = new ArrayList<>();
+        timingWheel.advance(1000, fired);
+        assertEquals(1, fired.size());
+    }
+
+    @Test
+    public void cancelAndReschedule() {
+        TimingWheel<TimingWheel.Timer> timingWheel = new TimingWheel<>(0);
+        TimingWheel.Timer cancelled = new TimingWheel.Timer();
+        TimingWheel.Timer rescheduled = new TimingWheel.Timer();
+        timingWheel.schedule(cancelled, 100000);
+        timingWheel.schedule(rescheduled, 100000);
+        timingWheel.cancel(cancelled);
+        timingWheel.schedule(rescheduled, 50);
+
+        List<TimingWheel.Timer> fired = new ArrayList<>();
+        timingWheel.advance(200000, fired);
+        assertEquals(1, fired.size());
+        assertSame(rescheduled, fired.get(0));
+    }
+
+    @Test
+    public void farFutureTimer() {
+        TimingWheel<TimingWheel.Timer> timingWheel = new TimingWheel<>(0);
+        TimingWheel.Timer timer = new TimingWheel.Timer();
+        long deadline = 1L << 40;
+        timingWheel.schedule(timer, deadline);
+
+        List<TimingWheel.Timer> fired = new ArrayList<>();
+        timingWheel.advance(deadline - 1, fired);
+        assertTrue(fired.isEmpty());
+        timingWheel.advance(deadline, fired);
+        assertEquals(1, fired.size());
+    }
+
+    @Test
+    public void sameAsSortingDeadlines() {
+        Random random = new Random(1234);
+        TimingWheel<TimingWheel.Timer> timingWheel = new TimingWheel<>(0);
+        List<TimingWheel.Timer> timers = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            TimingWheel.Timer timer = new TimingWheel.Timer();
+            timingWheel.schedule(timer, random.nextInt(1 << 24));
+            timers.add(timer);
+        }
+
+        List<TimingWheel.Timer> fired = new ArrayList<>();
+        long time = 0;
+        while (time < (1 << 24)) {
+            time += random.nextInt(100000);
+            int firedBefore = fired.size();
+            timingWheel.advance(time, fired);
+            for (int i = firedBefore; i < fired.size(); i++) {
+                long deadline = fired.get(i).getDeadline();
+                assertTrue(deadline <= time);
+                if (i > firedBefore)
+                    assertTrue(fired.get(i - 1).getDeadline() <= deadline);
+            }
+            for (TimingWheel.Timer timer : timers)
+                assertEquals(timer.getDeadline() > time, timer.isScheduled());
+        }
+        assertEquals(timers.size(), fired.size());
+    }
+}
@@ -0,0 +1,53 @@
+package com.gempukku.terasology.world.chunk;
+
+import org.junit.Test;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ColumnHeightmapCacheTest {
+    private List<String> generatedColumns = new LinkedList<>();
+    private ColumnHeightmapCache cache = new ColumnHeightmapCache(2,
+            (worldId, chunkX, chunkZ, heights) -> {
+                generatedColumns.add(worldId + ":" + chunkX + "," + chunkZ);
+                for (int i = 0; i < heights.length; i++)
+                    heights[i] = chunkX + chunkZ;
+            });
+
+    @Test
+    public void generatesColumnOnce() {
+        int[] first = cache.getHeightmap("world", 1, 2);
+        int[] second = cache.getHeightmap("world", 1, 2);
+
+        assertSame(first, second);
+        assertEquals(ChunkSize.X * ChunkSize.Z, first.length);
+        assertEquals(3, first[ColumnHeightmapCache.getIndex(ChunkSize.X - 1, ChunkSize.Z - 1)]);
+        assertEquals(1, generatedColumns.size());
+    }
+
+    @Test
+    public void differentWorldsAreSeparate() {
+        cache.getHeightmap("world", 1, 2);
+        cache.getHeightmap("other", 1, 2);
+
+        assertEquals(2, generatedColumns.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        cache.getHeightmap("world", 0, 0);
+        cache.getHeightmap("world", 0, 1);
+        cache.getHeightmap("world", 0, 0);
+        cache.getHeightmap("world", 0, 2);
+
+        // 0,1 was least recently used, so it had to be evicted
+        cache.getHeightmap("world", 0, 0);
+        cache.getHeightmap("world", 0, 1);
+
+        assertEquals(4, generatedColumns.size());
+        assertEquals("world:0,1", generatedColumns.get(3));
+    }
+}
@@ -0,0 +1,83 @@
+package com.gempukku.terasology.world.chunk.geometry;
+
+import com.gempukku.terasology.graphics.shape.BlockSide;
+import com.gempukku.terasology.world.chunk.ChunkBlocks;
+import com.gempukku.terasology.world.chunk.ChunkSize;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkFaceConnectivityTest {
+    private static final short air = 0;
+    private static final short stone = 1;
+    private static final boolean[] occludingByBlockId = new boolean[]{false, true};
+
+    @Test
+    public void emptyChunkConnectsAllFaces() {
+        ChunkBlocks chunkBlocks = createChunk(air);
+
+        assertEquals(ChunkFaceConnectivity.ALL_CONNECTED, ChunkFaceConnectivity.computeConnectivity(chunkBlocks, occludingByBlockId));
+    }
+
+    @Test
+    public void solidChunkConnectsNoFaces() {
+        ChunkBlocks chunkBlocks = createChunk(stone);
+
+        assertEquals(ChunkFaceConnectivity.NONE_CONNECTED, ChunkFaceConnectivity.computeConnectivity(chunkBlocks, occludingByBlockId));
+    }
+
+    @Test
+    public void caveInsideSolidChunkConnectsNoFaces() {
+        ChunkBlocks chunkBlocks = createChunk(stone);
+        for (int x = 1; x < ChunkSize.X - 1; x++)
+            setBlock(chunkBlocks, x, 10, 10, air);
+
+        assertEquals(ChunkFaceConnectivity.NONE_CONNECTED, ChunkFaceConnectivity.computeConnectivity(chunkBlocks, occludingByBlockId));
+    }
+
+    @Test
+    public void tunnelConnectsOnlyItsEnds() {
+        ChunkBlocks chunkBlocks = createChunk(stone);
+        for (int x = 0; x < ChunkSize.X; x++)
+            setBlock(chunkBlocks, x, 10, 10, air);
+
+        int connectivity = ChunkFaceConnectivity.computeConnectivity(chunkBlocks, occludingByBlockId);
+        assertTrue(isConnected(connectivity, BlockSide.left, BlockSide.right));
+        assertFalse(isConnected(connectivity, BlockSide.left, BlockSide.top));
+        assertFalse(isConnected(connectivity, BlockSide.front, BlockSide.back));
+        assertFalse(isConnected(connectivity, BlockSide.top, BlockSide.bottom));
+    }
+
+    @Test
+    public void groundSplitsChunkHorizontally() {
+        ChunkBlocks chunkBlocks = createChunk(air);
+        for (int x = 0; x < ChunkSize.X; x++)
+            for (int z = 0; z < ChunkSize.Z; z++)
+                setBlock(chunkBlocks, x, 20, z, stone);
+
+        int connectivity = ChunkFaceConnectivity.computeConnectivity(chunkBlocks, occludingByBlockId);
+        assertFalse(isConnected(connectivity, BlockSide.top, BlockSide.bottom));
+        assertTrue(isConnected(connectivity, BlockSide.top, BlockSide.left));
+        assertTrue(isConnected(connectivity, BlockSide.bottom, BlockSide.front));
+        assertTrue(isConnected(connectivity, BlockSide.left, BlockSide.right));
+    }
+
+    private boolean isConnected(int connectivity, BlockSide faceA, BlockSide faceB) {
+        return ChunkFaceConnectivity.isConnected(connectivity, faceA.ordinal(), faceB.ordinal());
+    }
+
+    private ChunkBlocks createChunk(short block) {
+        short[] blocks = new short[ChunkSize.X * ChunkSize.Y * ChunkSize.Z];
+        for (int i = 0; i < blocks.length; i++)
+            blocks[i] = block;
+        ChunkBlocks chunkBlocks = new ChunkBlocks(ChunkBlocks.Status.READY, "world", 0, 0, 0);
+        chunkBlocks.setBlocks(blocks);
+        return chunkBlocks;
+    }
+
+    private void setBlock(ChunkBlocks chunkBlocks, int x, int y, int z, short block) {
+        chunkBlocks.getBlocks()[z + ChunkSize.Z * y + ChunkSize.Z * ChunkSize.Y * x] = block;
+    }
+}
@@ -0,0 +1,157 @@
+package com.gempukku.terasology.world.chunk.geometry;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TriangleBVHTest {
+    @Test
+    public void rayHitsFloor() {
+        TriangleBVH floor = createFloorWithWall();
+        TriangleBVH.Hit hit = new TriangleBVH.Hit();
+        hit.reset(10);
+
+        assertTrue(floor.intersectRay(5.5f, 3, 7.25f, 0, -1, 0, hit));
+        assertEquals(3, hit.distance, 0.0001f);
+        assertEquals(0, hit.y, 0.0001f);
+        assertEquals(1, hit.normalY, 0.0001f);
+        assertEquals(5, hit.blockX);
+        assertEquals(-1, hit.blockY);
+        assertEquals(7, hit.blockZ);
+    }
+
+    @Test
+    public void rayFromBehindIsIgnored() {
+        TriangleBVH floor = createFloorWithWall();
+        TriangleBVH.Hit hit = new TriangleBVH.Hit();
+        hit.reset(10);
+
+        assertFalse(floor.intersectRay(5.5f, -3, 7.25f, 0, 1, 0, hit));
+    }
+
+    @Test
+    public void segmentTooShort() {
+        TriangleBVH floor = createFloorWithWall();
+        TriangleBVH.Hit hit = new TriangleBVH.Hit();
+        hit.reset(10);
+
+        assertFalse(floor.intersectSegment(5.5f, 3, 7.25f, 5.5f, 0.5f, 7.25f, hit));
+        assertEquals(10, hit.distance, 0.0001f);
+        assertTrue(floor.intersectSegment(5.5f, 3, 7.25f, 5.5f, -0.5f, 7.25f, hit));
+        assertEquals(3, hit.distance, 0.0001f);
+    }
+
+    @Test
+    public void sweptCylinderHitsWall() {
+        TriangleBVH floor = createFloorWithWall();
+        TriangleBVH.Hit hit = new TriangleBVH.Hit();
+        hit.reset(20);
+
+        assertTrue(floor.intersectSweptCylinder(5, 0.5f, 3.5f, 0.4f, 1.8f, 1, 0, 0, hit));
+        assertEquals(4.6f, hit.distance, 0.0001f);
+        assertEquals(10, hit.x, 0.0001f);
+        assertEquals(-1, hit.normalX, 0.0001f);
+    }
+
+    @Test
+    public void sameAsTestingAllTriangles() {
+        Random random = new Random(1234);
+        int triangleCount = 500;
+        float[] vertices = new float[triangleCount * 9];
+        float[] normals = new float[triangleCount * 3];
+        int[] blocks = new int[triangleCount * 3];
+        TriangleBVH[] singleTriangles = new TriangleBVH[triangleCount];
+        for (int i = 0; i < triangleCount; i++) {
+            float x = random.nextFloat() * 32;
+            float y = random.nextFloat() * 32;
+            float z = random.nextFloat() * 32;
+            for (int j = 0; j < 9; j += 3) {
+                vertices[i * 9 + j] = x + random.nextFloat() * 2;
+                vertices[i * 9 + j + 1] = y + random.nextFloat() * 2;
+                vertices[i * 9 + j + 2] = z + random.nextFloat() * 2;
+            }
+            // Facing random directions
+            normals[i * 3] = random.nextFloat() - 0.5f;
+            normals[i * 3 + 1] = random.nextFloat() - 0.5f;
+            normals[i * 3 + 2] = random.nextFloat() - 0.5f;
+            blocks[i * 3] = i;
+
+            float[] singleVertices = new float[9];
+            System.arraycopy(vertices, i * 9, singleVertices, 0, 9);
+            float[] singleNormal = new float[3];
+            System.arraycopy(normals, i * 3, singleNormal, 0, 3);
+            singleTriangles[i] = new TriangleBVH(1, singleVertices, singleNormal, new int[]{i, 0, 0});
+        }
+
+        TriangleBVH triangleBVH = new TriangleBVH(triangleCount, vertices, normals, blocks);
+
+        TriangleBVH.Hit hit = new TriangleBVH.Hit();
+        TriangleBVH.Hit expectedHit = new TriangleBVH.Hit();
+        for (int i = 0; i < 1000; i++) {
+            float x = random.nextFloat() * 32;
+            float y = random.nextFloat() * 32;
+            float z = random.nextFloat() * 32;
+            float dx = random.nextFloat() - 0.5f;
+            float dy = random.nextFloat() - 0.5f;
+            float dz = random.nextFloat() - 0.5f;
+            float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+            dx /= length;
+            dy /= length;
+            dz /= length;
+
+            hit.reset(40);
+            boolean found = triangleBVH.intersectRay(x, y, z, dx, dy, dz, hit);
+
+            expectedHit.reset(40);
+            boolean expectedFound = false;
+            for (TriangleBVH singleTriangle : singleTriangles)
+                expectedFound |= singleTriangle.intersectRay(x, y, z, dx, dy, dz, expectedHit);
+
+            assertEquals(expectedFound, found);
+            if (found) {
+                assertEquals(expectedHit.distance, hit.distance, 0.0001f);
+                assertEquals(expectedHit.blockX, hit.blockX);
+            }
+        }
+    }
+
+    private TriangleBVH createFloorWithWall() {
+        int triangleCount = 32 * 32 * 2 + 2;
+        float[] vertices = new float[triangleCount * 9];
+        float[] normals = new float[triangleCount * 3];
+        int[] blocks = new int[triangleCount * 3];
+
+        int triangle = 0;
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                addTriangle(vertices, normals, blocks, triangle++, x, -1, z, 0, 1, 0,
+                        x, 0, z, x + 1, 0, z, x + 1, 0, z + 1);
+                addTriangle(vertices, normals, blocks, triangle++, x, -1, z, 0, 1, 0,
+                        x, 0, z, x + 1, 0, z + 1, x, 0, z + 1);
+            }
+        }
+        // Wall at x=10, facing negative X
+        addTriangle(vertices, normals, blocks, triangle++, 10, 0, 0, -1, 0, 0,
+                10, 0, 0, 10, 3, 0, 10, 3, 32);
+        addTriangle(vertices, normals, blocks, triangle, 10, 0, 0, -1, 0, 0,
+                10, 0, 0, 10, 3, 32, 10, 0, 32);
+
+        return new TriangleBVH(triangleCount, vertices, normals, blocks);
+    }
+
+    private void addTriangle(float[] vertices, float[] normals, int[] blocks, int triangle,
+                             int blockX, int blockY, int blockZ, float normalX, float normalY, float normalZ,
+                             float... triangleVertices) {
+        System.arraycopy(triangleVertices, 0, vertices, triangle * 9, 9);
+        normals[triangle * 3] = normalX;
+        normals[triangle * 3 + 1] = normalY;
+        normals[triangle * 3 + 2] = normalZ;
+        blocks[triangle * 3] = blockX;
+        blocks[triangle * 3 + 1] = blockY;
+        blocks[triangle * 3 + 2] = blockZ;
+    }
+}
@@ -0,0 +1,95 @@
+package com.gempukku.terasology.world.chunk.io;
+
+import com.gempukku.secsy.network.serialize.ComponentInformation;
+import com.gempukku.secsy.network.serialize.EntityInformation;
+import com.gempukku.terasology.world.chunk.ChunkComponent;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncChunkStoreTest {
+    @Test
+    public void pendingChunkIsLoadedFromMemory() throws IOException {
+        CountDownLatch writeAllowed = new CountDownLatch(1);
+        MemoryChunkStore memoryStore = new MemoryChunkStore(writeAllowed);
+        AsyncChunkStore asyncStore = new AsyncChunkStore(memoryStore);
+
+        asyncStore.storeChunk("world", 1, 2, 3, createChunk(new short[]{1, 2, 3}));
+
+        ChunkEntityData loaded = asyncStore.loadChunk("world", 1, 2, 3);
+        assertNotNull(loaded);
+        assertArrayEquals(new short[]{1, 2, 3},
+                (short[]) loaded.getEntities().iterator().next().getComponent(ChunkComponent.class).getFields().get("blockIds"));
+        assertEquals(0, memoryStore.chunks.size());
+
+        writeAllowed.countDown();
+        asyncStore.close();
+
+        assertEquals(1, memoryStore.chunks.size());
+        assertEquals(0, asyncStore.getPendingWriteCount());
+        assertTrue(memoryStore.closed);
+    }
+
+    @Test
+    public void snapshotIsNotAffectedByLaterChanges() throws IOException {
+        MemoryChunkStore memoryStore = new MemoryChunkStore(new CountDownLatch(0));
+        AsyncChunkStore asyncStore = new AsyncChunkStore(memoryStore);
+
+        short[] blockIds = {1, 2, 3};
+        asyncStore.storeChunk("world", 0, 0, 0, createChunk(blockIds));
+        blockIds[0] = 5;
+        asyncStore.close();
+
+        assertArrayEquals(new short[]{1, 2, 3},
+                (short[]) memoryStore.chunks.get("world:0,0,0").getEntities().iterator().next().getComponent(ChunkComponent.class).getFields().get("blockIds"));
+    }
+
+    private ChunkEntityData createChunk(short[] blockIds) {
+        EntityInformation chunkEntity = new EntityInformation();
+        ComponentInformation chunk = new ComponentInformation(ChunkComponent.class);
+        chunk.addField("blockIds", blockIds);
+        chunkEntity.addComponent(chunk);
+        return new ChunkEntityData(Collections.singleton(chunkEntity));
+    }
+
+    private static class MemoryChunkStore implements ChunkStore {
+        private final CountDownLatch writeAllowed;
+        private final Map<String, ChunkEntityData> chunks = new HashMap<>();
+        private volatile boolean closed;
+
+        private MemoryChunkStore(CountDownLatch writeAllowed) {
+            this.writeAllowed = writeAllowed;
+        }
+
+        @Override
+        public synchronized ChunkEntityData loadChunk(String worldId, int x, int y, int z) {
+            return chunks.get(worldId + ":" + x + "," + y + "," + z);
+        }
+
+        @Override
+        public void storeChunk(String worldId, int x, int y, int z, ChunkEntityData chunkEntityData) throws IOException {
+            try {
+                writeAllowed.await();
+            } catch (InterruptedException exp) {
+                throw new IOException(exp);
+            }
+            synchronized (this) {
+                chunks.put(worldId + ":" + x + "," + y + "," + z, chunkEntityData);
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
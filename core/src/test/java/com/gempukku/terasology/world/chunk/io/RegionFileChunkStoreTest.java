@@ -0,0 +1,104 @@
+package com.gempukku.terasology.world.chunk.io;
+
+import com.gempukku.secsy.network.serialize.ComponentInformation;
+import com.gempukku.secsy.network.serialize.EntityInformation;
+import com.gempukku.terasology.world.chunk.ChunkComponent;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RegionFileChunkStoreTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static final long HEADER_SIZE = RegionFileChunkStore.REGION_X * RegionFileChunkStore.REGION_Y * RegionFileChunkStore.REGION_Z * 8;
+
+    @Test
+    public void storingSameChunkRepeatedlyDoesNotGrowFile() throws IOException {
+        File directory = temporaryFolder.newFolder();
+        RegionFileChunkStore chunkStore = new RegionFileChunkStore(directory);
+
+        short[] small = createBlocks(100, 0);
+        short[] large = createBlocks(8000, 1);
+        for (int i = 0; i < 100; i++)
+            chunkStore.storeChunk("world", 1, 2, 3, createChunk(i % 2 == 0 ? small : large));
+
+        assertArrayEquals(large, getBlocks(chunkStore.loadChunk("world", 1, 2, 3)));
+        chunkStore.close();
+
+        // Large chunk takes 4 sectors (16000 bytes that do not compress)
+        assertTrue(getRegionFile(directory).length() <= HEADER_SIZE + 4 * RegionFileChunkStore.SECTOR_SIZE);
+    }
+
+    @Test
+    public void freedSectorsAreReused() throws IOException {
+        File directory = temporaryFolder.newFolder();
+        RegionFileChunkStore chunkStore = new RegionFileChunkStore(directory);
+
+        short[] chunkA = createBlocks(3000, 1);
+        short[] chunkB = createBlocks(3000, 2);
+        chunkStore.storeChunk("world", 0, 0, 0, createChunk(chunkA));
+        chunkStore.storeChunk("world", 0, 0, 1, createChunk(chunkB));
+        long sizeWithTwoChunks = getRegionFile(directory).length();
+
+        // Chunk A no longer fits into its sectors, so it moves to the end of the file
+        short[] biggerChunkA = createBlocks(6000, 3);
+        chunkStore.storeChunk("world", 0, 0, 0, createChunk(biggerChunkA));
+        long sizeAfterMove = getRegionFile(directory).length();
+        assertTrue(sizeAfterMove > sizeWithTwoChunks);
+
+        // Chunk C fits into the sectors freed by chunk A
+        short[] chunkC = createBlocks(3000, 4);
+        chunkStore.storeChunk("world", 0, 0, 2, createChunk(chunkC));
+        assertEquals(sizeAfterMove, getRegionFile(directory).length());
+
+        chunkStore.close();
+
+        RegionFileChunkStore reopened = new RegionFileChunkStore(directory);
+        assertArrayEquals(biggerChunkA, getBlocks(reopened.loadChunk("world", 0, 0, 0)));
+        assertArrayEquals(chunkB, getBlocks(reopened.loadChunk("world", 0, 0, 1)));
+        assertArrayEquals(chunkC, getBlocks(reopened.loadChunk("world", 0, 0, 2)));
+
+        // Chunk A shrinks in place, and the sector it no longer needs is found after reopening
+        reopened.storeChunk("world", 0, 0, 0, createChunk(chunkA));
+        reopened.storeChunk("world", 0, 0, 3, createChunk(createBlocks(1000, 5)));
+        assertEquals(sizeAfterMove, getRegionFile(directory).length());
+        reopened.close();
+    }
+
+    private File getRegionFile(File directory) {
+        File[] files = new File(directory, "world").listFiles();
+        assertEquals(1, files.length);
+        return files[0];
+    }
+
+    private short[] createBlocks(int count, long seed) {
+        // Random blocks, so that the compressed size is predictable
+        Random random = new Random(seed);
+        short[] result = new short[count];
+        for (int i = 0; i < count; i++)
+            result[i] = (short) random.nextInt();
+        return result;
+    }
+
+    private short[] getBlocks(ChunkEntityData chunkEntityData) {
+        return (short[]) chunkEntityData.getEntities().iterator().next().getComponent(ChunkComponent.class).getFields().get("blockIds");
+    }
+
+    private ChunkEntityData createChunk(short[] blockIds) {
+        EntityInformation chunkEntity = new EntityInformation();
+        ComponentInformation chunk = new ComponentInformation(ChunkComponent.class);
+        chunk.addField("blockIds", blockIds);
+        chunkEntity.addComponent(chunk);
+        return new ChunkEntityData(Collections.singleton(chunkEntity));
+    }
+}
@@ -0,0 +1,104 @@
+package com.gempukku.terasology.world.chunk.io;
+
+import com.gempukku.secsy.entity.io.EntityData;
+import com.gempukku.secsy.entity.io.StoredEntityData;
+import com.gempukku.secsy.network.serialize.ComponentInformation;
+import com.gempukku.secsy.network.serialize.EntityInformation;
+import com.gempukku.terasology.world.chunk.ChunkComponent;
+import com.gempukku.terasology.world.chunk.WorldGenerator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class WorldPregeneratorTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void storedChunksCanBeLoaded() throws IOException {
+        File directory = temporaryFolder.newFolder();
+        RegionFileChunkStore chunkStore = new RegionFileChunkStore(directory);
+        new WorldPregenerator(new TestWorldGenerator(), chunkStore, 3).pregenerate("world", -2, -1, -2, 1, 0, 1);
+        chunkStore.close();
+
+        RegionFileChunkStore reopened = new RegionFileChunkStore(directory);
+        Iterator<StoredEntityData> entities = reopened.loadChunk("world", -1, -1, 1).getEntities().iterator();
+        Map<String, Object> fields = entities.next().getComponent(ChunkComponent.class).getFields();
+        assertFalse(entities.hasNext());
+        assertEquals("world", fields.get("worldId"));
+        assertEquals(-1, fields.get("x"));
+        assertEquals(-1, fields.get("y"));
+        assertEquals(1, fields.get("z"));
+        assertArrayEquals(new short[]{-1, -1, 1}, (short[]) fields.get("blockIds"));
+
+        assertNull(reopened.loadChunk("world", 2, 0, 0));
+        assertNull(reopened.loadChunk("otherWorld", 0, 0, 0));
+        reopened.close();
+    }
+
+    @Test
+    public void outputDoesNotDependOnThreadCount() throws IOException {
+        File singleThreaded = temporaryFolder.newFolder();
+        File multiThreaded = temporaryFolder.newFolder();
+
+        pregenerate(singleThreaded, 1);
+        pregenerate(multiThreaded, 4);
+
+        File[] regions = new File(singleThreaded, "world").listFiles();
+        Arrays.sort(regions);
+        assertEquals(4, regions.length);
+        for (File region : regions) {
+            assertArrayEquals(Files.readAllBytes(region.toPath()),
+                    Files.readAllBytes(new File(new File(multiThreaded, "world"), region.getName()).toPath()));
+        }
+    }
+
+    private void pregenerate(File directory, int threads) throws IOException {
+        RegionFileChunkStore chunkStore = new RegionFileChunkStore(directory);
+        new WorldPregenerator(new TestWorldGenerator(), chunkStore, threads).pregenerate("world", -3, 0, -3, 3, 1, 3);
+        chunkStore.close();
+    }
+
+    private static class TestWorldGenerator implements WorldGenerator {
+        @Override
+        public EntityData createMultiverseEntity() {
+            return null;
+        }
+
+        @Override
+        public Iterable<EntityData> createStartingEntities() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public EntityData createWorldEntity(String worldId) {
+            return null;
+        }
+
+        @Override
+        public Iterable<StoredEntityData> generateChunk(String worldId, int x, int y, int z) {
+            EntityInformation chunkEntity = new EntityInformation();
+            ComponentInformation chunk = new ComponentInformation(ChunkComponent.class);
+            chunk.addField("worldId", worldId);
+            chunk.addField("x", x);
+            chunk.addField("y", y);
+            chunk.addField("z", z);
+            chunk.addField("blockIds", new short[]{(short) x, (short) y, (short) z});
+            chunkEntity.addComponent(chunk);
+            return Collections.singleton(chunkEntity);
+        }
+    }
+}
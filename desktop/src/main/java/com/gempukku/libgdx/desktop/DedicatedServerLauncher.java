@@ -0,0 +1,21 @@
+package com.gempukku.libgdx.desktop;
+
+import com.gempukku.terasology.server.DedicatedServer;
+
+import java.io.IOException;
+
+/**
+ * Starts the server without a window, usage:
+ * DedicatedServerLauncher [port]
+ * Port defaults to "terasology.server.port" system property, or 25777 if not set.
+ */
+public class DedicatedServerLauncher {
+    public static void main(String[] arg) throws IOException {
+        int port = (arg.length > 0) ? Integer.parseInt(arg[0]) : Integer.getInteger("terasology.server.port", 25777);
+
+        DedicatedServer dedicatedServer = new DedicatedServer(port);
+        dedicatedServer.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(dedicatedServer::stop, "Terasology-server-shutdown"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.gempukku.libgdx.desktop;
+
+import com.gempukku.secsy.context.SECSyContext;
+import com.gempukku.secsy.context.annotation.NetProfiles;
+import com.gempukku.terasology.world.MultiverseManager;
+import com.gempukku.terasology.world.chunk.WorldGenerator;
+import com.gempukku.terasology.world.chunk.io.RegionFileChunkStore;
+import com.gempukku.terasology.world.chunk.io.WorldPregenerator;
+import org.reflections.Configuration;
+import org.reflections.Reflections;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Generates chunks of a world without starting the game, usage:
+ * WorldPregenerationLauncher outputDirectory worldGeneratorProfile worldId minX minY minZ maxX maxY maxZ [threads]
+ */
+public class WorldPregenerationLauncher {
+    public static void main(String[] arg) throws IOException {
+        if (arg.length != 9 && arg.length != 10) {
+            System.out.println("Usage: WorldPregenerationLauncher outputDirectory worldGeneratorProfile worldId minX minY minZ maxX maxY maxZ [threads]");
+            System.exit(1);
+        }
+
+        File outputDirectory = new File(arg[0]);
+        String worldGeneratorProfile = arg[1];
+        String worldId = arg[2];
+        int minX = Integer.parseInt(arg[3]);
+        int minY = Integer.parseInt(arg[4]);
+        int minZ = Integer.parseInt(arg[5]);
+        int maxX = Integer.parseInt(arg[6]);
+        int maxY = Integer.parseInt(arg[7]);
+        int maxZ = Integer.parseInt(arg[8]);
+        int threads = (arg.length == 10) ? Integer.parseInt(arg[9]) : Runtime.getRuntime().availableProcessors();
+
+        Configuration scanBasedOnAnnotations = new ConfigurationBuilder()
+                .setScanners(new TypeAnnotationsScanner())
+                .setUrls(ClasspathHelper.forJavaClassPath());
+
+        Set<String> profiles = new HashSet<>();
+        profiles.add(NetProfiles.AUTHORITY);
+        profiles.add("nameConventionComponents");
+        profiles.add(worldGeneratorProfile);
+
+        SECSyContext context = new SECSyContext(profiles, new Reflections(scanBasedOnAnnotations));
+        context.startup();
+
+        // Creating the world also assigns ids to common blocks, that the generator uses
+        context.getSystem(MultiverseManager.class).createWorld(worldId);
+
+        RegionFileChunkStore chunkStore = new RegionFileChunkStore(outputDirectory);
+        try {
+            long start = System.currentTimeMillis();
+            WorldPregenerator pregenerator = new WorldPregenerator(context.getSystem(WorldGenerator.class), chunkStore, threads);
+            int chunkCount = pregenerator.pregenerate(worldId, minX, minY, minZ, maxX, maxY, maxZ);
+            System.out.println("Generated " + chunkCount + " chunks in " + (System.currentTimeMillis() - start) + "ms");
+        } finally {
+            chunkStore.close();
+        }
+
+        context.shutdown();
+        // Some of the systems start their own threads
+        System.exit(0);
+    }
+}
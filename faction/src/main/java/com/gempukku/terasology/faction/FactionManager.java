@@ -3,6 +3,22 @@ package com.gempukku.terasology.faction;
 import com.badlogic.gdx.math.Vector3;
 import com.gempukku.secsy.entity.EntityRef;
 
+import java.util.Collection;
+
 public interface FactionManager {
-    Iterable<EntityRef> findClosestEnemies(String faction, Vector3 position, float distance);
+    Collection<String> getEnemyFactions(String faction);
+
+    /**
+     * Finds members of the factions in the world, within the distance, closest first. Unlike other methods, it
+     * can be called from multiple threads at the same time, as long as no faction member is added, moved or
+     * removed meanwhile.
+     *
+     * @param factions
+     * @param worldId
+     * @param position
+     * @param distance
+     * @param maxCount Maximum number of members returned.
+     * @return
+     */
+    Iterable<EntityRef> findClosestMembers(Collection<String> factions, String worldId, Vector3 position, float distance, int maxCount);
 }
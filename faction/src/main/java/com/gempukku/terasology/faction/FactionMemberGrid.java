@@ -0,0 +1,168 @@
+package com.gempukku.terasology.faction;
+
+import com.gempukku.secsy.entity.EntityRef;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Faction members of each world and faction, stored in cells of a uniform grid. Members are identified by entity
+ * id, so moving a member within its cell only updates its position, and moving it to another cell only touches
+ * these two cells.
+ */
+class FactionMemberGrid {
+    private final float cellSize;
+
+    private final Map<Integer, Member> members = new HashMap<>();
+    private final Map<String, Map<String, Map<Long, List<Member>>>> worldFactionCells = new HashMap<>();
+
+    FactionMemberGrid(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    void update(int entityId, EntityRef entity, String worldId, String factionId, float x, float y, float z) {
+        long cell = getCellKey(getCell(x), getCell(y), getCell(z));
+
+        Member member = members.get(entityId);
+        if (member != null && member.cell == cell && member.worldId.equals(worldId) && member.factionId.equals(factionId)) {
+            member.entity = entity;
+            member.setPosition(x, y, z);
+            return;
+        }
+
+        if (member != null) {
+            removeFromCell(member);
+        } else {
+            member = new Member();
+            members.put(entityId, member);
+        }
+
+        member.entity = entity;
+        member.worldId = worldId;
+        member.factionId = factionId;
+        member.cell = cell;
+        member.setPosition(x, y, z);
+
+        List<Member> cellMembers = worldFactionCells.computeIfAbsent(worldId, world -> new HashMap<>())
+                .computeIfAbsent(factionId, faction -> new HashMap<>())
+                .computeIfAbsent(cell, key -> new ArrayList<>());
+        member.indexInCell = cellMembers.size();
+        cellMembers.add(member);
+    }
+
+    void remove(int entityId) {
+        Member member = members.remove(entityId);
+        if (member != null)
+            removeFromCell(member);
+    }
+
+    /**
+     * Finds members of the factions that are within range, closest first. It does not modify the grid, so it can
+     * be called from multiple threads at the same time, while the grid is not updated.
+     *
+     * @param maxCount Maximum number of members returned.
+     */
+    List<EntityRef> findNearest(String worldId, Collection<String> factionIds, float x, float y, float z, float range, int maxCount) {
+        Map<String, Map<Long, List<Member>>> factionCells = worldFactionCells.get(worldId);
+        if (factionCells == null || maxCount <= 0)
+            return Collections.emptyList();
+
+        int minCellX = getCell(x - range);
+        int minCellY = getCell(y - range);
+        int minCellZ = getCell(z - range);
+        int maxCellX = getCell(x + range);
+        int maxCellY = getCell(y + range);
+        int maxCellZ = getCell(z + range);
+        float rangeSquared = range * range;
+
+        // Farthest of the closest members found so far is at the head, so it can be replaced with a closer one
+        PriorityQueue<Candidate> closest = new PriorityQueue<>(maxCount + 1,
+                (o1, o2) -> Float.compare(o2.distanceSquared, o1.distanceSquared));
+        for (String factionId : factionIds) {
+            Map<Long, List<Member>> cells = factionCells.get(factionId);
+            if (cells == null)
+                continue;
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                    for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                        List<Member> cellMembers = cells.get(getCellKey(cellX, cellY, cellZ));
+                        if (cellMembers == null)
+                            continue;
+                        for (Member member : cellMembers) {
+                            float dx = member.x - x;
+                            float dy = member.y - y;
+                            float dz = member.z - z;
+                            float distanceSquared = dx * dx + dy * dy + dz * dz;
+                            if (distanceSquared <= rangeSquared
+                                    && (closest.size() < maxCount || distanceSquared < closest.peek().distanceSquared)) {
+                                closest.add(new Candidate(member.entity, distanceSquared));
+                                if (closest.size() > maxCount)
+                                    closest.poll();
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        EntityRef[] result = new EntityRef[closest.size()];
+        for (int i = result.length - 1; i >= 0; i--)
+            result[i] = closest.poll().entity;
+        return Arrays.asList(result);
+    }
+
+    private void removeFromCell(Member member) {
+        Map<Long, List<Member>> cells = worldFactionCells.get(member.worldId).get(member.factionId);
+        List<Member> cellMembers = cells.get(member.cell);
+
+        // Swap with the last member in the cell, to remove in constant time
+        Member last = cellMembers.remove(cellMembers.size() - 1);
+        if (last != member) {
+            cellMembers.set(member.indexInCell, last);
+            last.indexInCell = member.indexInCell;
+        }
+        if (cellMembers.isEmpty())
+            cells.remove(member.cell);
+    }
+
+    private int getCell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long getCellKey(int cellX, int cellY, int cellZ) {
+        return ((cellX & 0x1FFFFFL) << 42) | ((cellY & 0x1FFFFFL) << 21) | (cellZ & 0x1FFFFFL);
+    }
+
+    private static class Member {
+        private EntityRef entity;
+        private String worldId;
+        private String factionId;
+        private long cell;
+        private int indexInCell;
+        private float x;
+        private float y;
+        private float z;
+
+        private void setPosition(float x, float y, float z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+    }
+
+    private static class Candidate {
+        private final EntityRef entity;
+        private final float distanceSquared;
+
+        private Candidate(EntityRef entity, float distanceSquared) {
+            this.entity = entity;
+            this.distanceSquared = distanceSquared;
+        }
+    }
+}
@@ -6,19 +6,21 @@ import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
 import com.gempukku.secsy.context.system.LifeCycleSystem;
 import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.InternalEntityManager;
 import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
 import com.gempukku.secsy.entity.event.AfterComponentAdded;
 import com.gempukku.secsy.entity.event.AfterComponentUpdated;
+import com.gempukku.secsy.entity.event.AfterEntityLoaded;
 import com.gempukku.secsy.entity.event.BeforeComponentRemoved;
+import com.gempukku.secsy.entity.event.BeforeEntityUnloaded;
 import com.gempukku.secsy.entity.index.EntityIndex;
 import com.gempukku.secsy.entity.index.EntityIndexManager;
-import com.gempukku.terasology.utils.tree.DimensionalMap;
-import com.gempukku.terasology.utils.tree.SpaceTree;
 import com.gempukku.terasology.world.component.LocationComponent;
 
+import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 @RegisterSystem(
@@ -26,9 +28,15 @@ import java.util.Set;
 public class FactionSystem implements FactionManager, LifeCycleSystem {
     @In
     private EntityIndexManager entityIndexManager;
+    @In
+    private InternalEntityManager internalEntityManager;
+
+    // Should be about the size of typical query range
+    private static final float gridCellSize = 16f;
 
-    private SpaceTree<EntityRef> factionMembers = new SpaceTree<EntityRef>(3);
+    private FactionMemberGrid factionMembers = new FactionMemberGrid(gridCellSize);
     private EntityIndex factionsIndex;
+    private Map<String, Set<String>> enemyFactions = new HashMap<>();
 
     @Override
     public void initialize() {
@@ -36,50 +44,69 @@ public class FactionSystem implements FactionManager, LifeCycleSystem {
     }
 
     @ReceiveEvent
-    public void factionMemberAdded(AfterComponentAdded componentAdded, EntityRef member, FactionMemberComponent factionMemberComponent, LocationComponent location) {
-        factionMembers.add(new float[]{location.getX(), location.getY(), location.getZ()}, member);
+    public void factionMemberAdded(AfterComponentAdded componentAdded, EntityRef member, FactionMemberComponent factionMember, LocationComponent location) {
+        updateFactionMember(member, factionMember, location);
     }
 
     @ReceiveEvent
-    public void factionMemberMoved(AfterComponentUpdated componentUpdated, EntityRef member, LocationComponent location) {
-        if (member.hasComponent(FactionMemberComponent.class)) {
-            LocationComponent oldLocation = componentUpdated.getOldComponent(LocationComponent.class);
-            LocationComponent newLocation = componentUpdated.getNewComponent(LocationComponent.class);
-            factionMembers.remove(new float[]{oldLocation.getX(), oldLocation.getY(), oldLocation.getZ()});
-            factionMembers.add(new float[]{newLocation.getX(), newLocation.getY(), newLocation.getZ()}, member);
-        }
+    public void factionMemberLoaded(AfterEntityLoaded entityLoaded, EntityRef member, FactionMemberComponent factionMember, LocationComponent location) {
+        updateFactionMember(member, factionMember, location);
     }
 
     @ReceiveEvent
-    public void factionMemberRemoved(BeforeComponentRemoved componentRemoved, EntityRef member, FactionComponent faction, LocationComponent location) {
-        factionMembers.remove(
-                new float[]{location.getX(), location.getY(), location.getZ()});
+    public void factionMemberMoved(AfterComponentUpdated componentUpdated, EntityRef member, FactionMemberComponent factionMember, LocationComponent location) {
+        updateFactionMember(member, factionMember, location);
     }
 
-    @Override
-    public Iterable<EntityRef> findClosestEnemies(String faction, Vector3 position, float distance) {
-        Set<String> enemyFactions = getEnemyFactions(faction);
-        if (enemyFactions == null)
-            return Collections.emptySet();
-
-        List<EntityRef> result = new LinkedList<>();
-        for (DimensionalMap.Entry<EntityRef> entityRefEntry : factionMembers.findNearest(new float[]{position.x, position.y, position.z}, 100, distance)) {
-            EntityRef factionMember = entityRefEntry.value;
-            FactionMemberComponent factionComp = factionMember.getComponent(FactionMemberComponent.class);
-            if (enemyFactions.contains(factionComp.getFactionId()))
-                result.add(factionMember);
-        }
+    @ReceiveEvent
+    public void factionMemberRemoved(BeforeComponentRemoved componentRemoved, EntityRef member, FactionMemberComponent factionMember, LocationComponent location) {
+        factionMembers.remove(internalEntityManager.getEntityId(member));
+    }
 
-        return result;
+    @ReceiveEvent
+    public void factionMemberUnloaded(BeforeEntityUnloaded entityUnloaded, EntityRef member, FactionMemberComponent factionMember, LocationComponent location) {
+        factionMembers.remove(internalEntityManager.getEntityId(member));
+    }
+
+    @ReceiveEvent
+    public void factionAdded(AfterComponentAdded componentAdded, EntityRef entity, FactionComponent faction) {
+        enemyFactions.clear();
     }
 
-    private Set<String> getEnemyFactions(String factionId) {
-        for (EntityRef entityRef : factionsIndex.getEntities()) {
-            FactionComponent faction = entityRef.getComponent(FactionComponent.class);
-            if (faction.getFactionId().equals(factionId)) {
-                return faction.getOpposingFactions();
+    @ReceiveEvent
+    public void factionUpdated(AfterComponentUpdated componentUpdated, EntityRef entity, FactionComponent faction) {
+        enemyFactions.clear();
+    }
+
+    @ReceiveEvent
+    public void factionRemoved(BeforeComponentRemoved componentRemoved, EntityRef entity, FactionComponent faction) {
+        enemyFactions.clear();
+    }
+
+    private void updateFactionMember(EntityRef member, FactionMemberComponent factionMember, LocationComponent location) {
+        factionMembers.update(internalEntityManager.getEntityId(member), member, location.getWorldId(), factionMember.getFactionId(),
+                location.getX(), location.getY(), location.getZ());
+    }
+
+    @Override
+    public Iterable<EntityRef> findClosestMembers(Collection<String> factions, String worldId, Vector3 position, float distance, int maxCount) {
+        return factionMembers.findNearest(worldId, factions, position.x, position.y, position.z, distance, maxCount);
+    }
+
+    @Override
+    public Set<String> getEnemyFactions(String factionId) {
+        Set<String> result = enemyFactions.get(factionId);
+        if (result == null) {
+            result = Collections.emptySet();
+            for (EntityRef entityRef : factionsIndex.getEntities()) {
+                FactionComponent faction = entityRef.getComponent(FactionComponent.class);
+                if (faction.getFactionId().equals(factionId)) {
+                    result = faction.getOpposingFactions();
+                    break;
+                }
             }
+            enemyFactions.put(factionId, result);
         }
-        return null;
+        return result;
     }
 }
@@ -0,0 +1,108 @@
+package com.gempukku.terasology.faction;
+
+import com.gempukku.secsy.entity.EntityRef;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class FactionMemberGridTest {
+    private FactionMemberGrid grid = new FactionMemberGrid(16);
+
+    @Test
+    public void findsInsertedMembersInRange() {
+        EntityRef near = mock(EntityRef.class);
+        EntityRef far = mock(EntityRef.class);
+        EntityRef otherFaction = mock(EntityRef.class);
+        EntityRef otherWorld = mock(EntityRef.class);
+        grid.update(1, near, "world", "red", 5, 0, 5);
+        grid.update(2, far, "world", "red", 50, 0, 5);
+        grid.update(3, otherFaction, "world", "blue", 5, 0, 6);
+        grid.update(4, otherWorld, "otherWorld", "red", 5, 0, 5);
+
+        assertEquals(Collections.singletonList(near), find("red", 0, 0, 0, 20, 10));
+    }
+
+    @Test
+    public void memberMovedToAnotherCell() {
+        EntityRef member = mock(EntityRef.class);
+        grid.update(1, member, "world", "red", 5, 0, 5);
+        grid.update(1, member, "world", "red", 100, 0, 100);
+
+        assertTrue(find("red", 5, 0, 5, 10, 10).isEmpty());
+        assertEquals(Collections.singletonList(member), find("red", 100, 0, 100, 10, 10));
+    }
+
+    @Test
+    public void memberChangedFaction() {
+        EntityRef member = mock(EntityRef.class);
+        grid.update(1, member, "world", "red", 5, 0, 5);
+        grid.update(1, member, "world", "blue", 5, 0, 5);
+
+        assertTrue(find("red", 5, 0, 5, 10, 10).isEmpty());
+        assertEquals(Collections.singletonList(member), find("blue", 5, 0, 5, 10, 10));
+    }
+
+    @Test
+    public void removeSwapsLastMemberOfCell() {
+        EntityRef first = mock(EntityRef.class);
+        EntityRef second = mock(EntityRef.class);
+        EntityRef third = mock(EntityRef.class);
+        grid.update(1, first, "world", "red", 1, 0, 1);
+        grid.update(2, second, "world", "red", 2, 0, 1);
+        grid.update(3, third, "world", "red", 3, 0, 1);
+
+        // Third member takes the place of the first one in the cell
+        grid.remove(1);
+        assertEquals(Arrays.asList(second, third), find("red", 0, 0, 1, 10, 10));
+
+        // Moved member is still removed from the right place
+        grid.remove(3);
+        assertEquals(Collections.singletonList(second), find("red", 0, 0, 1, 10, 10));
+
+        grid.remove(2);
+        assertTrue(find("red", 0, 0, 1, 10, 10).isEmpty());
+
+        // Removing unknown member does nothing
+        grid.remove(2);
+    }
+
+    @Test
+    public void nearestAcrossCellBoundaries() {
+        EntityRef justBelowBoundary = mock(EntityRef.class);
+        EntityRef justAboveBoundary = mock(EntityRef.class);
+        EntityRef negativeCell = mock(EntityRef.class);
+        EntityRef farther = mock(EntityRef.class);
+        grid.update(1, farther, "world", "red", 24, 0, 0);
+        grid.update(2, justBelowBoundary, "world", "red", 15.5f, 0, 0);
+        grid.update(3, negativeCell, "world", "red", -1, 0, 0);
+        grid.update(4, justAboveBoundary, "world", "red", 16.25f, 0, 0);
+
+        assertEquals(Arrays.asList(justAboveBoundary, justBelowBoundary, farther, negativeCell),
+                find("red", 16, 0, 0, 20, 10));
+        assertEquals(Arrays.asList(justAboveBoundary, justBelowBoundary),
+                find("red", 16, 0, 0, 20, 2));
+        assertEquals(Collections.singletonList(negativeCell),
+                find("red", 0, 0, 0, 20, 1));
+    }
+
+    @Test
+    public void nearestOfMultipleFactions() {
+        EntityRef red = mock(EntityRef.class);
+        EntityRef blue = mock(EntityRef.class);
+        grid.update(1, red, "world", "red", 3, 0, 0);
+        grid.update(2, blue, "world", "blue", 2, 0, 0);
+
+        assertEquals(Arrays.asList(blue, red),
+                grid.findNearest("world", Arrays.asList("red", "blue"), 0, 0, 0, 10, 10));
+    }
+
+    private List<EntityRef> find(String factionId, float x, float y, float z, float range, int maxCount) {
+        return grid.findNearest("world", Collections.singleton(factionId), x, y, z, range, maxCount);
+    }
+}
@@ -21,6 +21,7 @@ import com.gempukku.terasology.procedural.SimplexNoise;
 import com.gempukku.terasology.world.CommonBlockManager;
 import com.gempukku.terasology.world.chunk.ChunkComponent;
 import com.gempukku.terasology.world.chunk.ChunkSize;
+import com.gempukku.terasology.world.chunk.ColumnHeightmapCache;
 import com.gempukku.terasology.world.chunk.WorldGenerator;
 import com.gempukku.terasology.world.component.LocationComponent;
 import com.gempukku.terasology.world.component.MultiverseComponent;
@@ -60,6 +61,8 @@ public class LAndDWorldGenerator implements WorldGenerator, LifeCycleSystem {
     private int evenTerrainSoftness = 5 * evenTerrainSize;
     private int mountainAmplitude = 32;
 
+    private ColumnHeightmapCache columnHeightmapCache = new ColumnHeightmapCache(256, this::generateColumnHeights);
+
     @Override
     public void postInitialize() {
         towerPrefab = prefabManager.getPrefabByName("tower");
@@ -171,13 +174,7 @@ public class LAndDWorldGenerator implements WorldGenerator, LifeCycleSystem {
 
     @Override
     public Iterable<StoredEntityData> generateChunk(String worldId, int x, int y, int z) {
-        if (air == -1) {
-            air = commonBlockManager.getCommonBlockId("air");
-            grass = commonBlockManager.getCommonBlockId("grass");
-            dirt = commonBlockManager.getCommonBlockId("dirt");
-            stone = commonBlockManager.getCommonBlockId("stone");
-            tree = commonBlockManager.getCommonBlockId("tree");
-        }
+        initBlockIds();
 
         FastRandom rnd = new FastRandom(x + 153 * y + 3121 * z);
 
@@ -188,6 +185,7 @@ public class LAndDWorldGenerator implements WorldGenerator, LifeCycleSystem {
                 blockIds[i] = air;
             }
         } else {
+            int[] heightmap = columnHeightmapCache.getHeightmap(worldId, x, z);
             int index = 0;
             for (int dx = 0; dx < ChunkSize.X; dx++) {
                 for (int dy = 0; dy < ChunkSize.Y; dy++) {
@@ -196,10 +194,7 @@ public class LAndDWorldGenerator implements WorldGenerator, LifeCycleSystem {
                         int worldX = x * ChunkSize.X + dx;
                         int worldZ = z * ChunkSize.Z + dz;
 
-                        float noiseForColumn = this.noise.noise(noiseScale * worldX, noiseScale * worldZ);
-                        noiseForColumn = (noiseForColumn + 1 / 2);
-                        int groundLevel = getGroundLevel(mountainAmplitude, noiseForColumn,
-                                x * ChunkSize.X + dx, z * ChunkSize.Z + dz);
+                        int groundLevel = heightmap[ColumnHeightmapCache.getIndex(dx, dz)];
 //                        if (blockLevel == groundLevel + 1 && dx % (ChunkSize.X / 2) == 0 && dz % (ChunkSize.Z / 2) == 0) {
 //                            EntityData prefab = (dx == 0) ? oakPrefab : pinePrefab;
 //                            int maxGenerations = ((Number) prefab.getComponent(SimpleTreeDefinitionComponent.class).getFields().get("maxGenerations")).intValue();
@@ -254,6 +249,34 @@ public class LAndDWorldGenerator implements WorldGenerator, LifeCycleSystem {
         return entities;
     }
 
+    // Chunks are generated by multiple threads at once
+    private synchronized void initBlockIds() {
+        if (air == -1) {
+            grass = commonBlockManager.getCommonBlockId("grass");
+            dirt = commonBlockManager.getCommonBlockId("dirt");
+            stone = commonBlockManager.getCommonBlockId("stone");
+            tree = commonBlockManager.getCommonBlockId("tree");
+            air = commonBlockManager.getCommonBlockId("air");
+        }
+    }
+
+    private void generateColumnHeights(String worldId, int chunkX, int chunkZ, int[] heights) {
+        float[] noiseValues = new float[ChunkSize.X * ChunkSize.Z];
+        noise.fill2D(noiseValues, noiseScale * chunkX * ChunkSize.X, noiseScale * chunkZ * ChunkSize.Z,
+                noiseScale, noiseScale, ChunkSize.X, ChunkSize.Z);
+
+        for (int dx = 0; dx < ChunkSize.X; dx++) {
+            for (int dz = 0; dz < ChunkSize.Z; dz++) {
+                int worldX = chunkX * ChunkSize.X + dx;
+                int worldZ = chunkZ * ChunkSize.Z + dz;
+                int index = ColumnHeightmapCache.getIndex(dx, dz);
+
+                float noiseForColumn = (noiseValues[index] + 1 / 2);
+                heights[index] = getGroundLevel(mountainAmplitude, noiseForColumn, worldX, worldZ);
+            }
+        }
+    }
+
     private int getGroundLevel(int mountainAmplitude, float noiseForColumn, int x, int z) {
         int distanceFromEdge =
                 Math.min(Math.min(x, z), Math.min(worldSizeChunks * ChunkSize.X - x, worldSizeChunks * ChunkSize.Z - z));
@@ -6,10 +6,16 @@ import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
 import com.gempukku.secsy.context.system.LifeCycleSystem;
 import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.InternalEntityManager;
+import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
+import com.gempukku.secsy.entity.event.BeforeComponentRemoved;
+import com.gempukku.secsy.entity.event.BeforeEntityUnloaded;
 import com.gempukku.secsy.entity.game.GameLoop;
 import com.gempukku.secsy.entity.game.GameLoopListener;
+import com.gempukku.secsy.entity.game.ParallelUpdate;
 import com.gempukku.secsy.entity.index.EntityIndex;
 import com.gempukku.secsy.entity.index.EntityIndexManager;
+import com.gempukku.terasology.faction.FactionComponent;
 import com.gempukku.terasology.faction.FactionManager;
 import com.gempukku.terasology.faction.FactionMemberComponent;
 import com.gempukku.terasology.landd.component.AiCharacterComponent;
@@ -17,13 +23,28 @@ import com.gempukku.terasology.landd.component.MovingCharacterComponent;
 import com.gempukku.terasology.landd.component.RangedAttackCharacterComponent;
 import com.gempukku.terasology.landd.component.TargetingComponent;
 import com.gempukku.terasology.landd.event.FireMissileEvent;
+import com.gempukku.terasology.movement.MovementComponent;
 import com.gempukku.terasology.time.TimeManager;
 import com.gempukku.terasology.world.component.LocationComponent;
 
-import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Moves AI characters and makes them attack enemies in range. Characters keep their target until it's out of range,
+ * gone or no longer an enemy. Searching for a new target is the expensive part, so only a limited number of
+ * characters search in a tick (see AiTargetSearch).
+ * <p>
+ * Changes are made to the local copies of components during the update, while saving them and sending events is
+ * left for after the parallel update.
+ */
 @RegisterSystem(
         profiles = NetProfiles.AUTHORITY)
+@ParallelUpdate(
+        reads = {AiCharacterComponent.class, RangedAttackCharacterComponent.class, FactionComponent.class, FactionMemberComponent.class,
+                LocationComponent.class, TargetingComponent.class, MovingCharacterComponent.class, MovementComponent.class},
+        writes = {RangedAttackCharacterComponent.class, LocationComponent.class, MovementComponent.class})
 public class AiCharacterSystem implements GameLoopListener, LifeCycleSystem {
     @In
     private GameLoop gameLoop;
@@ -33,8 +54,15 @@ public class AiCharacterSystem implements GameLoopListener, LifeCycleSystem {
     private FactionManager factionManager;
     @In
     private TimeManager timeManager;
+    @In
+    private InternalEntityManager internalEntityManager;
+
+    // Maximum number of target searches in one tick
+    private final int targetSearchesPerTick = Integer.getInteger("terasology.ai.targetSearchesPerTick", 256);
 
     private EntityIndex aiEntitiesIndex;
+    private ExecutorService executorService;
+    private AiTargetSearch aiTargetSearch;
 
     @Override
     public void initialize() {
@@ -42,29 +70,61 @@ public class AiCharacterSystem implements GameLoopListener, LifeCycleSystem {
         aiEntitiesIndex = entityIndexManager.addIndexOnComponents(AiCharacterComponent.class);
     }
 
+    @Override
+    public void postInitialize() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executorService = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+                runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setName("Ai-target-search-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        aiTargetSearch = new AiTargetSearch(factionManager, targetSearchesPerTick, executorService);
+    }
+
+    @Override
+    public void preDestroy() {
+        executorService.shutdownNow();
+    }
+
+    @ReceiveEvent
+    public void aiCharacterRemoved(BeforeComponentRemoved componentRemoved, EntityRef entity, AiCharacterComponent aiCharacter) {
+        removeAiState(entity);
+    }
+
+    @ReceiveEvent
+    public void aiCharacterUnloaded(BeforeEntityUnloaded entityUnloaded, EntityRef entity, AiCharacterComponent aiCharacter) {
+        removeAiState(entity);
+    }
+
+    private void removeAiState(EntityRef entity) {
+        aiTargetSearch.remove(internalEntityManager.getEntityId(entity));
+    }
+
     @Override
     public void update() {
+        aiTargetSearch.runSearches();
+
+        long multiverseTime = timeManager.getMultiverseTime();
         for (EntityRef entityRef : aiEntitiesIndex.getEntities()) {
-            processEntity(entityRef);
+            processEntity(entityRef, multiverseTime);
         }
     }
 
-    private void processEntity(EntityRef entityRef) {
-        long multiverseTime = timeManager.getMultiverseTime();
-
+    private void processEntity(EntityRef entityRef, long multiverseTime) {
         RangedAttackCharacterComponent rangedAttack = entityRef.getComponent(RangedAttackCharacterComponent.class);
         FactionMemberComponent factionMember = entityRef.getComponent(FactionMemberComponent.class);
         LocationComponent location = entityRef.getComponent(LocationComponent.class);
         if (rangedAttack != null && factionMember != null && location != null) {
-            Iterable<EntityRef> closestEnemies = factionManager.findClosestEnemies(factionMember.getFactionId(),
-                    new Vector3(location.getX(), location.getY(), location.getZ()), rangedAttack.getFiringRange());
-            EntityRef closestEnemy = getFirst(closestEnemies);
+            EntityRef closestEnemy = aiTargetSearch.getTarget(internalEntityManager.getEntityId(entityRef),
+                    factionMember.getFactionId(), location, rangedAttack.getFiringRange());
             if (closestEnemy != null) {
                 if (rangedAttack.getLastFired() + rangedAttack.getFiringCooldown() < multiverseTime) {
                     LocationComponent targetLocation = closestEnemy.getComponent(LocationComponent.class);
 
                     rangedAttack.setLastFired(multiverseTime);
-                    entityRef.saveChanges();
+                    gameLoop.executeAfterParallelUpdate(entityRef::saveChanges);
 
                     float missileSpeed = rangedAttack.getMissileSpeed();
                     Vector3 start = new Vector3(location.getX(), location.getY(), location.getZ());
@@ -85,31 +145,41 @@ public class AiCharacterSystem implements GameLoopListener, LifeCycleSystem {
                                 targetTargeting.getTranslateFromLocationY(),
                                 targetTargeting.getTranslateFromLocationZ());
 
-                    entityRef.send(
-                            new FireMissileEvent(
-                                    location.getWorldId(), start.x, start.y, start.z,
-                                    destination.x, destination.y, destination.z,
-                                    multiverseTime, start.dst(destination) / missileSpeed));
+                    FireMissileEvent fireMissile = new FireMissileEvent(
+                            location.getWorldId(), start.x, start.y, start.z,
+                            destination.x, destination.y, destination.z,
+                            multiverseTime, start.dst(destination) / missileSpeed);
+                    gameLoop.executeAfterParallelUpdate(() -> entityRef.send(fireMissile));
                 }
+                // Stands still while fighting
+                setMovement(entityRef, 0, 0);
                 return;
             }
         }
         MovingCharacterComponent movingCharacter = entityRef.getComponent(MovingCharacterComponent.class);
+        if (movingCharacter != null && entityRef.hasComponent(MovementComponent.class)) {
+            // Physics simulation moves the character over the terrain
+            setMovement(entityRef,
+                    (float) Math.atan2(movingCharacter.getSpeedZ(), movingCharacter.getSpeedX()),
+                    (float) Math.hypot(movingCharacter.getSpeedX(), movingCharacter.getSpeedZ()));
+            return;
+        }
         if (movingCharacter != null && location != null) {
             float timeSinceLastUpdateInSeconds = timeManager.getTimeSinceLastUpdate() / 1000f;
             location.setX(location.getX() + movingCharacter.getSpeedX() * timeSinceLastUpdateInSeconds);
             location.setY(location.getY() + movingCharacter.getSpeedY() * timeSinceLastUpdateInSeconds);
             location.setZ(location.getZ() + movingCharacter.getSpeedZ() * timeSinceLastUpdateInSeconds);
-            entityRef.saveChanges();
+            gameLoop.executeAfterParallelUpdate(entityRef::saveChanges);
             return;
         }
     }
 
-    private EntityRef getFirst(Iterable<EntityRef> closestEnemies) {
-        Iterator<EntityRef> iterator = closestEnemies.iterator();
-        if (iterator.hasNext())
-            return iterator.next();
-        else
-            return null;
+    private void setMovement(EntityRef entityRef, float yaw, float speed) {
+        MovementComponent movement = entityRef.getComponent(MovementComponent.class);
+        if (movement != null && (movement.getSpeed() != speed || (speed != 0 && movement.getYaw() != yaw))) {
+            movement.setYaw(yaw);
+            movement.setSpeed(speed);
+            gameLoop.executeAfterParallelUpdate(entityRef::saveChanges);
+        }
     }
 }
@@ -0,0 +1,168 @@
+package com.gempukku.terasology.landd.system;
+
+import com.badlogic.gdx.math.Vector3;
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.terasology.faction.FactionManager;
+import com.gempukku.terasology.faction.FactionMemberComponent;
+import com.gempukku.terasology.world.component.LocationComponent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Targets of AI characters. A character keeps its target as long as it's still an enemy and in range. Characters
+ * without a target are queued for a search, and only searchesPerTick searches run in one tick (the rest wait for
+ * following ticks). Searches of a tick are split between threads of the executor, while the calling thread waits
+ * for them, so faction members do not change meanwhile.
+ * <p>
+ * Apart from the searches, it should be used from the game loop thread only.
+ */
+class AiTargetSearch {
+    // Number of searches done by one task, smaller number of searches is done without other threads
+    private static final int searchesPerTask = 64;
+
+    private final FactionManager factionManager;
+    private final int searchesPerTick;
+    private final ExecutorService executorService;
+
+    private Map<Integer, AiState> aiStates = new HashMap<>();
+    private Deque<AiState> searchQueue = new ArrayDeque<>();
+    private List<AiState> searches = new ArrayList<>();
+    private List<Future<?>> pendingSearches = new ArrayList<>();
+
+    AiTargetSearch(FactionManager factionManager, int searchesPerTick, ExecutorService executorService) {
+        this.factionManager = factionManager;
+        this.searchesPerTick = searchesPerTick;
+        this.executorService = executorService;
+    }
+
+    int getQueuedSearchCount() {
+        return searchQueue.size();
+    }
+
+    /**
+     * Returns target of the character, if it has a valid one (still an enemy, in the same world and in range).
+     * Otherwise the character is queued for a search (with the current parameters), and null is returned.
+     *
+     * @param entityId
+     * @param factionId Faction of the character.
+     * @param location  Location of the character.
+     * @param range
+     * @return
+     */
+    EntityRef getTarget(int entityId, String factionId, LocationComponent location, float range) {
+        AiState aiState = aiStates.get(entityId);
+        if (aiState == null) {
+            aiState = new AiState();
+            aiStates.put(entityId, aiState);
+        }
+
+        Collection<String> enemyFactions = factionManager.getEnemyFactions(factionId);
+        EntityRef target = getValidTarget(aiState, enemyFactions, location, range);
+        if (target == null) {
+            // Search parameters are kept up to date, while the character waits for its search
+            aiState.enemyFactions = enemyFactions;
+            aiState.worldId = location.getWorldId();
+            aiState.position.set(location.getX(), location.getY(), location.getZ());
+            aiState.range = range;
+            if (!aiState.queued) {
+                aiState.queued = true;
+                searchQueue.addLast(aiState);
+            }
+        }
+        return target;
+    }
+
+    void remove(int entityId) {
+        AiState aiState = aiStates.remove(entityId);
+        if (aiState != null)
+            aiState.removed = true;
+    }
+
+    /**
+     * Runs the searches of this tick, found targets are returned by getTarget from now on (if still valid).
+     */
+    void runSearches() {
+        while (searches.size() < searchesPerTick && !searchQueue.isEmpty()) {
+            AiState aiState = searchQueue.removeFirst();
+            aiState.queued = false;
+            if (!aiState.removed)
+                searches.add(aiState);
+        }
+
+        try {
+            if (searches.size() <= searchesPerTask) {
+                searchForTargets(0, searches.size());
+            } else {
+                for (int start = 0; start < searches.size(); start += searchesPerTask) {
+                    final int from = start;
+                    final int to = Math.min(searches.size(), start + searchesPerTask);
+                    pendingSearches.add(executorService.submit(() -> searchForTargets(from, to)));
+                }
+                for (Future<?> pendingSearch : pendingSearches)
+                    pendingSearch.get();
+            }
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while searching for targets", exp);
+        } catch (ExecutionException exp) {
+            throw new RuntimeException("Unable to search for targets", exp.getCause());
+        } finally {
+            pendingSearches.clear();
+            searches.clear();
+        }
+    }
+
+    private void searchForTargets(int from, int to) {
+        for (int i = from; i < to; i++) {
+            AiState aiState = searches.get(i);
+            aiState.target = getFirst(factionManager.findClosestMembers(
+                    aiState.enemyFactions, aiState.worldId, aiState.position, aiState.range, 1));
+        }
+    }
+
+    private EntityRef getValidTarget(AiState aiState, Collection<String> enemyFactions, LocationComponent location, float range) {
+        EntityRef target = aiState.target;
+        if (target != null && target.exists()) {
+            // Target (or the character) might have changed faction since the target was found
+            FactionMemberComponent targetFactionMember = target.getComponent(FactionMemberComponent.class);
+            LocationComponent targetLocation = target.getComponent(LocationComponent.class);
+            if (targetFactionMember != null && enemyFactions.contains(targetFactionMember.getFactionId())
+                    && targetLocation != null && targetLocation.getWorldId().equals(location.getWorldId())
+                    && Vector3.dst2(location.getX(), location.getY(), location.getZ(),
+                    targetLocation.getX(), targetLocation.getY(), targetLocation.getZ()) <= range * range)
+                return target;
+        }
+        aiState.target = null;
+        return null;
+    }
+
+    private static EntityRef getFirst(Iterable<EntityRef> closestEnemies) {
+        Iterator<EntityRef> iterator = closestEnemies.iterator();
+        if (iterator.hasNext())
+            return iterator.next();
+        else
+            return null;
+    }
+
+    private static class AiState {
+        private EntityRef target;
+        private boolean queued;
+        private boolean removed;
+
+        // Parameters of the queued target search
+        private Collection<String> enemyFactions;
+        private String worldId;
+        private final Vector3 position = new Vector3();
+        private float range;
+    }
+}
@@ -1,18 +1,6 @@
 package com.gempukku.terasology.landd.system;
 
-import com.badlogic.gdx.graphics.Camera;
-import com.badlogic.gdx.graphics.GL20;
-import com.badlogic.gdx.graphics.Mesh;
-import com.badlogic.gdx.graphics.VertexAttribute;
-import com.badlogic.gdx.graphics.VertexAttributes;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.graphics.g3d.Material;
-import com.badlogic.gdx.graphics.g3d.Model;
-import com.badlogic.gdx.graphics.g3d.ModelBatch;
-import com.badlogic.gdx.graphics.g3d.ModelInstance;
-import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
-import com.badlogic.gdx.graphics.g3d.model.MeshPart;
-import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
 import com.badlogic.gdx.utils.FloatArray;
 import com.badlogic.gdx.utils.ShortArray;
 import com.gempukku.secsy.context.annotation.In;
@@ -20,14 +8,14 @@ import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
 import com.gempukku.secsy.context.system.LifeCycleSystem;
 import com.gempukku.secsy.entity.EntityRef;
-import com.gempukku.secsy.entity.index.EntityIndex;
-import com.gempukku.secsy.entity.index.EntityIndexManager;
+import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
+import com.gempukku.secsy.entity.event.AfterComponentAdded;
+import com.gempukku.secsy.entity.event.BeforeComponentRemoved;
 import com.gempukku.terasology.graphics.TextureAtlasProvider;
 import com.gempukku.terasology.graphics.TextureAtlasRegistry;
 import com.gempukku.terasology.graphics.environment.mesh.ArrayVertexOutput;
 import com.gempukku.terasology.graphics.environment.mesh.ChunkMeshGenerator;
-import com.gempukku.terasology.graphics.environment.renderer.EnvironmentRenderer;
-import com.gempukku.terasology.graphics.environment.renderer.EnvironmentRendererRegistry;
+import com.gempukku.terasology.graphics.environment.renderer.InstancedModelRenderer;
 import com.gempukku.terasology.graphics.shape.ShapeDef;
 import com.gempukku.terasology.graphics.shape.ShapePartDef;
 import com.gempukku.terasology.graphics.shape.ShapeProvider;
@@ -38,9 +26,9 @@ import org.terasology.math.geom.Vector3f;
 import java.util.Arrays;
 
 @RegisterSystem(profiles = NetProfiles.CLIENT)
-public class FactionObjectRenderer implements EnvironmentRenderer, LifeCycleSystem {
-    @In
-    private EnvironmentRendererRegistry environmentRendererRegistry;
+public class FactionObjectRenderer implements LifeCycleSystem {
+    private static final String MODEL_ID = "factionObject";
+
     @In
     private ShapeProvider shapeProvider;
     @In
@@ -48,40 +36,26 @@ public class FactionObjectRenderer implements EnvironmentRenderer, LifeCycleSyst
     @In
     private TextureAtlasRegistry textureAtlasRegistry;
     @In
-    private EntityIndexManager entityIndexManager;
-
-    private Model model;
-    private EntityIndex factionObjectIndex;
+    private InstancedModelRenderer instancedModelRenderer;
 
     @Override
     public void initialize() {
-        environmentRendererRegistry.registerEnvironmentRendered(this);
         textureAtlasRegistry.registerTextures(ChunkMeshGenerator.CHUNK_ATLAS_NAME, Arrays.asList("blockTiles/bars/GoldBar.png"));
-        factionObjectIndex = entityIndexManager.addIndexOnComponents(LocationComponent.class, RenderedObjectComponent.class);
     }
 
-    @Override
-    public void destroy() {
-        if (model != null)
-            model.dispose();
-    }
-
-    @Override
-    public void renderEnvironment(Camera camera, String worldId, ModelBatch modelBatch) {
+    @ReceiveEvent
+    public void factionObjectAdded(AfterComponentAdded event, EntityRef entity, LocationComponent location, RenderedObjectComponent renderedObject) {
         initModel();
+        instancedModelRenderer.addInstance(entity, MODEL_ID);
+    }
 
-        for (EntityRef entityRef : factionObjectIndex.getEntities()) {
-            LocationComponent location = entityRef.getComponent(LocationComponent.class);
-            if (location.getWorldId().equals(worldId)) {
-                ModelInstance modelInstance = new ModelInstance(model);
-                modelInstance.transform.translate(location.getX(), location.getY(), location.getZ());
-                modelBatch.render(modelInstance);
-            }
-        }
+    @ReceiveEvent
+    public void factionObjectRemoved(BeforeComponentRemoved event, EntityRef entity, LocationComponent location, RenderedObjectComponent renderedObject) {
+        instancedModelRenderer.removeInstance(entity);
     }
 
     private void initModel() {
-        if (model == null) {
+        if (!instancedModelRenderer.hasModel(MODEL_ID)) {
             Vector3f tempVector = new Vector3f();
 
             FloatArray vertices = new FloatArray();
@@ -119,20 +93,7 @@ public class FactionObjectRenderer implements EnvironmentRenderer, LifeCycleSyst
                 }
             }
 
-            VertexAttribute customVertexInformation = new VertexAttribute(VertexAttributes.Usage.Generic, 1, "a_flag");
-
-            Mesh mesh = new Mesh(true, vertices.size / 9, indices.size,
-                    VertexAttribute.Position(), VertexAttribute.Normal(), VertexAttribute.TexCoords(0),
-                    customVertexInformation);
-            mesh.setIndices(indices.toArray());
-            mesh.setVertices(vertices.toArray());
-
-            ModelBuilder modelBuilder = new ModelBuilder();
-            modelBuilder.begin();
-
-            MeshPart meshPart = new MeshPart("object", mesh, 0, indices.size, GL20.GL_TRIANGLES);
-            modelBuilder.part(meshPart, new Material(TextureAttribute.createDiffuse(texture.getTexture())));
-            model = modelBuilder.end();
+            instancedModelRenderer.registerModel(MODEL_ID, vertices.toArray(), indices.toArray(), texture.getTexture());
         }
     }
 }
@@ -1,7 +1,6 @@
 package com.gempukku.terasology.landd.system;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.math.Vector3;
 import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
@@ -10,15 +9,15 @@ import com.gempukku.secsy.entity.EntityRef;
 import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
 import com.gempukku.secsy.entity.game.GameLoop;
 import com.gempukku.secsy.entity.game.GameLoopListener;
+import com.gempukku.secsy.entity.game.ParallelUpdate;
 import com.gempukku.secsy.entity.io.EntityData;
 import com.gempukku.terasology.graphics.TextureAtlasProvider;
 import com.gempukku.terasology.graphics.TextureAtlasRegistry;
 import com.gempukku.terasology.landd.component.FiresMissileParticleComponent;
 import com.gempukku.terasology.landd.event.FireMissileEvent;
+import com.gempukku.terasology.particle.ParticleAppearance;
 import com.gempukku.terasology.particle.ParticleEmitter;
-import com.gempukku.terasology.particle.impl.SimpleParticle;
-import com.gempukku.terasology.particle.impl.selector.color.FadeParticleColorSelector;
-import com.gempukku.terasology.particle.impl.selector.texture.ParticleAgeCombinedTextureSelector;
+import com.gempukku.terasology.particle.ParticleSpawns;
 import com.gempukku.terasology.prefab.PrefabManager;
 import com.gempukku.terasology.time.TimeManager;
 
@@ -28,8 +27,12 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * Emits particles of missile trails, from the missile component captured when the missile was fired.
+ */
 @RegisterSystem(
         profiles = NetProfiles.CLIENT)
+@ParallelUpdate(reads = FiresMissileParticleComponent.class)
 public class MissileClientSystem implements GameLoopListener, LifeCycleSystem {
     @In
     private ParticleEmitter particleEmitter;
@@ -44,7 +47,8 @@ public class MissileClientSystem implements GameLoopListener, LifeCycleSystem {
     @In
     private PrefabManager prefabManager;
 
-    private Map<FireMissileEvent, FiresMissileParticleComponent> missileEvents = new HashMap<>();
+    private Map<FireMissileEvent, MissileTrail> missileEvents = new HashMap<>();
+    private ParticleSpawns particleSpawns = new ParticleSpawns();
 
     @Override
     public void initialize() {
@@ -61,33 +65,45 @@ public class MissileClientSystem implements GameLoopListener, LifeCycleSystem {
     @Override
     public void update() {
         long multiverseTime = timeManager.getMultiverseTime();
-        Iterator<Map.Entry<FireMissileEvent, FiresMissileParticleComponent>> iterator = missileEvents.entrySet().iterator();
+        Iterator<Map.Entry<FireMissileEvent, MissileTrail>> iterator = missileEvents.entrySet().iterator();
         while (iterator.hasNext()) {
-            Map.Entry<FireMissileEvent, FiresMissileParticleComponent> entry = iterator.next();
+            Map.Entry<FireMissileEvent, MissileTrail> entry = iterator.next();
             FireMissileEvent event = entry.getKey();
-            FiresMissileParticleComponent missile = entry.getValue();
+            MissileTrail missileTrail = entry.getValue();
+            FiresMissileParticleComponent missile = missileTrail.missile;
             if (event.fireTime + event.duration * 1000f < multiverseTime)
                 iterator.remove();
             else {
                 float diff = (multiverseTime - event.fireTime) / 1000f / event.duration;
-                Vector3 location = new Vector3(
+                particleSpawns.clear();
+                particleSpawns.add(
                         event.startX + diff * (event.endX - event.startX),
                         event.startY + diff * (event.endY - event.startY),
-                        event.startZ + diff * (event.endZ - event.startZ));
-                particleEmitter.emitParticle(
-                        new SimpleParticle(event.worldId, location, new Vector3(), missile.getGravityInfluence(),
-                                missile.getRotation(), missile.getRotationVelocity(), missile.getScale(), missile.getScaleDiff(),
-                                missile.getParticleLifeLength(),
-                                new ParticleAgeCombinedTextureSelector(
-                                        textureAtlasProvider.getTexture(ParticleEmitter.PARTICLES_ATLAS_NAME, missile.getMissileTexture()), missile.getRowCount(), missile.getColumnCount()),
-                                new FadeParticleColorSelector(
-                                        new Color(missile.getColorR(), missile.getColorG(), missile.getColorB(), 1f))));
+                        event.startZ + diff * (event.endZ - event.startZ),
+                        0, 0, 0, missile.getGravityInfluence(),
+                        missile.getRotation(), missile.getRotationVelocity(), missile.getScale(), missile.getScaleDiff(),
+                        missile.getParticleLifeLength());
+                particleEmitter.emitParticles(event.worldId, missileTrail.appearance, particleSpawns);
             }
         }
     }
 
     @ReceiveEvent
     public void missileFired(FireMissileEvent event, EntityRef firingEntity, FiresMissileParticleComponent firesMissile) {
-        missileEvents.put(event, firesMissile);
+        ParticleAppearance appearance = new ParticleAppearance(
+                textureAtlasProvider.getTexture(ParticleEmitter.PARTICLES_ATLAS_NAME, firesMissile.getMissileTexture()),
+                firesMissile.getRowCount(), firesMissile.getColumnCount(),
+                new Color(firesMissile.getColorR(), firesMissile.getColorG(), firesMissile.getColorB(), 1f), true);
+        missileEvents.put(event, new MissileTrail(firesMissile, appearance));
+    }
+
+    private static class MissileTrail {
+        private final FiresMissileParticleComponent missile;
+        private final ParticleAppearance appearance;
+
+        private MissileTrail(FiresMissileParticleComponent missile, ParticleAppearance appearance) {
+            this.missile = missile;
+            this.appearance = appearance;
+        }
     }
 }
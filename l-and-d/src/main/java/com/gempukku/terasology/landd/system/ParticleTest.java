@@ -1,7 +1,6 @@
 package com.gempukku.terasology.landd.system;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.math.Vector3;
 import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
@@ -10,11 +9,9 @@ import com.gempukku.secsy.entity.game.GameLoop;
 import com.gempukku.secsy.entity.game.GameLoopListener;
 import com.gempukku.terasology.graphics.TextureAtlasProvider;
 import com.gempukku.terasology.graphics.TextureAtlasRegistry;
+import com.gempukku.terasology.particle.ParticleAppearance;
 import com.gempukku.terasology.particle.ParticleEmitter;
-import com.gempukku.terasology.particle.impl.SimpleParticle;
-import com.gempukku.terasology.particle.impl.selector.color.ConstantParticleColorSelector;
-import com.gempukku.terasology.particle.impl.selector.texture.ParticleAgeCombinedTextureSelector;
-import com.gempukku.terasology.particle.impl.selector.texture.ParticleTextureSelector;
+import com.gempukku.terasology.particle.ParticleSpawns;
 import com.gempukku.terasology.time.TimeManager;
 
 import java.util.Arrays;
@@ -36,7 +33,8 @@ public class ParticleTest implements GameLoopListener, LifeCycleSystem {
     private Random rnd = new Random(0);
     private float timeSinceLastEmit;
 
-    private ParticleTextureSelector explosionTexture;
+    private ParticleAppearance explosion;
+    private ParticleSpawns particleSpawns = new ParticleSpawns();
 
     @Override
     public void initialize() {
@@ -46,9 +44,10 @@ public class ParticleTest implements GameLoopListener, LifeCycleSystem {
 
     @Override
     public void update() {
-        if (explosionTexture == null) {
-            explosionTexture = new ParticleAgeCombinedTextureSelector(
-                    textureAtlasProvider.getTexture(ParticleEmitter.PARTICLES_ATLAS_NAME, "particle/explosion.png"), 5, 5);
+        if (explosion == null) {
+            explosion = new ParticleAppearance(
+                    textureAtlasProvider.getTexture(ParticleEmitter.PARTICLES_ATLAS_NAME, "particle/explosion.png"), 5, 5,
+                    Color.GREEN, false);
         }
 
         timeSinceLastEmit += timeManager.getTimeSinceLastUpdate() / 1000f;
@@ -57,9 +56,9 @@ public class ParticleTest implements GameLoopListener, LifeCycleSystem {
             float angle = rnd.nextFloat() * 2 * (float) Math.PI;
             float x = (float) Math.cos(angle);
             float z = (float) Math.sin(angle);
-            particleEmitter.emitParticle(
-                    new SimpleParticle("world", new Vector3(5, 2, 5), new Vector3(0.1f * x, 2, 0.1f * z), 0.05f, 0, 0, 1, 0, 10,
-                            explosionTexture, new ConstantParticleColorSelector(Color.GREEN)));
+            particleSpawns.clear();
+            particleSpawns.add(5, 2, 5, 0.1f * x, 2, 0.1f * z, 0.05f, 0, 0, 1, 0, 10);
+            particleEmitter.emitParticles("world", explosion, particleSpawns);
         }
     }
 }
@@ -0,0 +1,200 @@
+package com.gempukku.terasology.landd.system;
+
+import com.badlogic.gdx.math.Vector3;
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.terasology.faction.FactionManager;
+import com.gempukku.terasology.faction.FactionMemberComponent;
+import com.gempukku.terasology.world.component.LocationComponent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class AiTargetSearchTest {
+    private FactionManager factionManager;
+    private ExecutorService executorService;
+    private EntityRef enemy;
+    private FactionMemberComponent enemyFactionMember;
+    private LocationComponent enemyLocation;
+
+    @Before
+    public void setup() {
+        factionManager = Mockito.mock(FactionManager.class);
+        executorService = Executors.newFixedThreadPool(2);
+
+        Mockito.when(factionManager.getEnemyFactions("red")).thenReturn(Collections.singleton("blue"));
+        Mockito.when(factionManager.getEnemyFactions("blue")).thenReturn(Collections.singleton("red"));
+
+        enemyFactionMember = Mockito.mock(FactionMemberComponent.class);
+        Mockito.when(enemyFactionMember.getFactionId()).thenReturn("blue");
+        enemyLocation = createLocation(5, 0, 0);
+
+        enemy = Mockito.mock(EntityRef.class);
+        Mockito.when(enemy.exists()).thenReturn(true);
+        Mockito.when(enemy.getComponent(FactionMemberComponent.class)).thenReturn(enemyFactionMember);
+        Mockito.when(enemy.getComponent(LocationComponent.class)).thenReturn(enemyLocation);
+
+        Mockito.when(factionManager.findClosestMembers(Matchers.<Collection<String>>any(), Matchers.anyString(),
+                Matchers.any(Vector3.class), Matchers.anyFloat(), Matchers.anyInt()))
+                .thenReturn(Collections.singletonList(enemy));
+    }
+
+    @After
+    public void cleanup() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void noTargetBeforeSearch() {
+        AiTargetSearch aiTargetSearch = new AiTargetSearch(factionManager, 10, executorService);
+
+        assertNull(aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10));
+        assertEquals(1, aiTargetSearch.getQueuedSearchCount());
+
+        // Waiting character is queued only once
+        assertNull(aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10));
+        assertEquals(1, aiTargetSearch.getQueuedSearchCount());
+
+        aiTargetSearch.runSearches();
+        assertEquals(0, aiTargetSearch.getQueuedSearchCount());
+        assertSame(enemy, aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10));
+    }
+
+    @Test
+    public void searchesSlicedBetweenTicks() {
+        AiTargetSearch aiTargetSearch = new AiTargetSearch(factionManager, 3, executorService);
+
+        for (int i = 0; i < 8; i++)
+            aiTargetSearch.getTarget(i, "red", createLocation(0, 0, 0), 10);
+        assertEquals(8, aiTargetSearch.getQueuedSearchCount());
+
+        aiTargetSearch.runSearches();
+        assertEquals(5, aiTargetSearch.getQueuedSearchCount());
+        verifySearchCount(3);
+
+        // Characters found in first tick have their targets, others still wait (and are not queued again)
+        for (int i = 0; i < 3; i++)
+            assertSame(enemy, aiTargetSearch.getTarget(i, "red", createLocation(0, 0, 0), 10));
+        for (int i = 3; i < 8; i++)
+            assertNull(aiTargetSearch.getTarget(i, "red", createLocation(0, 0, 0), 10));
+        assertEquals(5, aiTargetSearch.getQueuedSearchCount());
+
+        aiTargetSearch.runSearches();
+        assertEquals(2, aiTargetSearch.getQueuedSearchCount());
+        verifySearchCount(6);
+
+        aiTargetSearch.runSearches();
+        assertEquals(0, aiTargetSearch.getQueuedSearchCount());
+        verifySearchCount(8);
+    }
+
+    @Test
+    public void searchesSplitBetweenThreads() {
+        AiTargetSearch aiTargetSearch = new AiTargetSearch(factionManager, 1000, executorService);
+
+        for (int i = 0; i < 500; i++)
+            aiTargetSearch.getTarget(i, "red", createLocation(0, 0, 0), 10);
+
+        aiTargetSearch.runSearches();
+        verifySearchCount(500);
+        for (int i = 0; i < 500; i++)
+            assertSame(enemy, aiTargetSearch.getTarget(i, "red", createLocation(0, 0, 0), 10));
+    }
+
+    @Test
+    public void cachedTargetNotSearchedAgain() {
+        AiTargetSearch aiTargetSearch = new AiTargetSearch(factionManager, 10, executorService);
+
+        aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10);
+        aiTargetSearch.runSearches();
+
+        for (int i = 0; i < 5; i++) {
+            assertSame(enemy, aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10));
+            aiTargetSearch.runSearches();
+        }
+        assertEquals(0, aiTargetSearch.getQueuedSearchCount());
+        verifySearchCount(1);
+    }
+
+    @Test
+    public void targetInvalidatedWhenOutOfRange() {
+        AiTargetSearch aiTargetSearch = new AiTargetSearch(factionManager, 10, executorService);
+
+        aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10);
+        aiTargetSearch.runSearches();
+
+        Mockito.when(enemyLocation.getX()).thenReturn(20f);
+        assertNull(aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10));
+        assertEquals(1, aiTargetSearch.getQueuedSearchCount());
+    }
+
+    @Test
+    public void targetInvalidatedWhenGone() {
+        AiTargetSearch aiTargetSearch = new AiTargetSearch(factionManager, 10, executorService);
+
+        aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10);
+        aiTargetSearch.runSearches();
+
+        Mockito.when(enemy.exists()).thenReturn(false);
+        assertNull(aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10));
+        assertEquals(1, aiTargetSearch.getQueuedSearchCount());
+    }
+
+    @Test
+    public void targetInvalidatedWhenTargetChangesFaction() {
+        AiTargetSearch aiTargetSearch = new AiTargetSearch(factionManager, 10, executorService);
+
+        aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10);
+        aiTargetSearch.runSearches();
+
+        Mockito.when(enemyFactionMember.getFactionId()).thenReturn("red");
+        assertNull(aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10));
+        assertEquals(1, aiTargetSearch.getQueuedSearchCount());
+    }
+
+    @Test
+    public void targetInvalidatedWhenCharacterChangesFaction() {
+        AiTargetSearch aiTargetSearch = new AiTargetSearch(factionManager, 10, executorService);
+
+        aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10);
+        aiTargetSearch.runSearches();
+
+        assertNull(aiTargetSearch.getTarget(0, "blue", createLocation(0, 0, 0), 10));
+        assertEquals(1, aiTargetSearch.getQueuedSearchCount());
+    }
+
+    @Test
+    public void removedCharacterNotSearched() {
+        AiTargetSearch aiTargetSearch = new AiTargetSearch(factionManager, 10, executorService);
+
+        aiTargetSearch.getTarget(0, "red", createLocation(0, 0, 0), 10);
+        aiTargetSearch.remove(0);
+        aiTargetSearch.runSearches();
+
+        verifySearchCount(0);
+    }
+
+    private void verifySearchCount(int count) {
+        Mockito.verify(factionManager, Mockito.times(count)).findClosestMembers(Matchers.<Collection<String>>any(),
+                Matchers.anyString(), Matchers.any(Vector3.class), Matchers.anyFloat(), Matchers.anyInt());
+    }
+
+    private static LocationComponent createLocation(float x, float y, float z) {
+        LocationComponent location = Mockito.mock(LocationComponent.class);
+        Mockito.when(location.getWorldId()).thenReturn("world");
+        Mockito.when(location.getX()).thenReturn(x);
+        Mockito.when(location.getY()).thenReturn(y);
+        Mockito.when(location.getZ()).thenReturn(z);
+        return location;
+    }
+}
@@ -0,0 +1,84 @@
+attribute vec3 a_position;
+attribute vec3 a_normal;
+attribute vec4 a_spawn;
+attribute vec4 a_transform;
+attribute vec4 a_region;
+attribute vec3 a_animation;
+attribute vec4 a_color;
+
+uniform mat4 u_projViewTrans;
+uniform float u_viewportWidth;
+uniform float u_viewportHeight;
+uniform float u_time;
+
+varying float v_exists;
+varying vec2 v_texCoord0;
+varying vec4 v_color;
+varying float v_visibility;
+
+const float fogDensity = 0.005;
+const float fogGradient = 5.0;
+
+void main() {
+    float spawnTime = a_spawn.x;
+    float lifeLength = a_spawn.y;
+    float acceleration = a_spawn.z;
+    float corner = a_spawn.w;
+
+    float age = u_time - spawnTime;
+    if (age < 0.0 || age >= lifeLength) {
+        // All corners end up in the same place outside of the view, so nothing is drawn
+        v_exists = 0.0;
+        v_texCoord0 = vec2(0.0);
+        v_color = vec4(0.0);
+        v_visibility = 0.0;
+        gl_Position = vec4(0.0, 0.0, -2.0, 1.0);
+        return;
+    }
+    v_exists = 1.0;
+
+    float lifeRatio = age / lifeLength;
+
+    vec3 location = a_position + a_normal * age + vec3(0.0, 0.5 * acceleration * age * age, 0.0);
+    float rotation = a_transform.x + a_transform.y * age;
+    float scale = a_transform.z + a_transform.w * age;
+
+    float rows = a_animation.x;
+    float columns = a_animation.y;
+    float frame = min(floor(lifeRatio * rows * columns), rows * columns - 1.0);
+    float row = floor(frame / columns);
+    float column = frame - row * columns;
+    vec2 frameSize = vec2((a_region.z - a_region.x) / columns, (a_region.w - a_region.y) / rows);
+    vec2 frameStart = a_region.xy + frameSize * vec2(column, row);
+
+    vec2 diff;
+    if (corner == 1.0) {
+        diff = vec2(-0.5, -0.5);
+        v_texCoord0 = frameStart + frameSize * vec2(0.0, 1.0);
+    } else if (corner == 2.0) {
+        diff = vec2(0.5, -0.5);
+        v_texCoord0 = frameStart + frameSize * vec2(1.0, 1.0);
+    } else if (corner == 3.0) {
+        diff = vec2(0.5, 0.5);
+        v_texCoord0 = frameStart + frameSize * vec2(1.0, 0.0);
+    } else {
+        diff = vec2(-0.5, 0.5);
+        v_texCoord0 = frameStart;
+    }
+
+    v_color = a_color;
+    if (a_animation.z > 0.0)
+        v_color.a *= 1.0 - lifeRatio;
+
+    vec4 particleScreenCoords = u_projViewTrans * vec4(location, 1.0);
+    float perspective_factor = particleScreenCoords.z * 0.5 + 1.0;
+    diff *= scale;
+
+    diff = vec2(diff.x * cos(rotation) - diff.y * sin(rotation),
+                diff.x * sin(rotation) + diff.y * cos(rotation));
+
+    gl_Position = particleScreenCoords + vec4(diff.x / perspective_factor, diff.y * (u_viewportWidth/u_viewportHeight) / perspective_factor, 0.0, 0.0);
+
+    float distanceFromCamera = length(gl_Position.xyz);
+    v_visibility = clamp(exp(-pow((distanceFromCamera * fogDensity), fogGradient)), 0.0, 1.0);
+}
@@ -0,0 +1,104 @@
+package com.gempukku.terasology.particle;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.gempukku.terasology.procedural.FastMath;
+
+/**
+ * Describes how particles look during their life. Texture region is split into a grid of rows x columns frames,
+ * that are shown one after another (row by row) over the life of a particle. Texture is multiplied by the color,
+ * and if fadeOut is set, alpha of the particle goes linearly down to zero at the end of its life.
+ */
+public class ParticleAppearance {
+    private final float u;
+    private final float v;
+    private final float u2;
+    private final float v2;
+    private final int rows;
+    private final int columns;
+    private final Color color;
+    private final boolean fadeOut;
+
+    public ParticleAppearance(TextureRegion texture, int rows, int columns, Color color, boolean fadeOut) {
+        this.u = texture.getU();
+        this.v = texture.getV();
+        this.u2 = texture.getU2();
+        this.v2 = texture.getV2();
+        this.rows = rows;
+        this.columns = columns;
+        this.color = new Color(color);
+        this.fadeOut = fadeOut;
+    }
+
+    public float getU() {
+        return u;
+    }
+
+    public float getV() {
+        return v;
+    }
+
+    public float getU2() {
+        return u2;
+    }
+
+    public float getV2() {
+        return v2;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public boolean isFadeOut() {
+        return fadeOut;
+    }
+
+    /**
+     * Returns index of the frame to show for a particle, that lived the specified ratio (0-1) of its life.
+     *
+     * @param lifeRatio
+     * @return
+     */
+    public int getFrameIndex(float lifeRatio) {
+        int frameCount = rows * columns;
+        int index = FastMath.floor(lifeRatio * frameCount);
+        return Math.max(0, Math.min(frameCount - 1, index));
+    }
+
+    public float getFrameU(int frame) {
+        return u + (u2 - u) / columns * (frame % columns);
+    }
+
+    public float getFrameU2(int frame) {
+        return u + (u2 - u) / columns * (frame % columns + 1);
+    }
+
+    public float getFrameV(int frame) {
+        return v + (v2 - v) / rows * (frame / columns);
+    }
+
+    public float getFrameV2(int frame) {
+        return v + (v2 - v) / rows * (frame / columns + 1);
+    }
+
+    /**
+     * Returns alpha of a particle, that lived the specified ratio (0-1) of its life.
+     *
+     * @param lifeRatio
+     * @return
+     */
+    public float getAlpha(float lifeRatio) {
+        if (fadeOut)
+            return color.a * (1 - lifeRatio);
+        return color.a;
+    }
+}
@@ -3,5 +3,13 @@ package com.gempukku.terasology.particle;
 public interface ParticleEmitter {
     String PARTICLES_ATLAS_NAME = "particles";
 
-    void emitParticle(Particle particle);
+    /**
+     * Spawns all the particles in spawns, with the same appearance, in the specified world. Particles that do not fit
+     * into the maximum particle count are dropped. Can be called from parallel updates of game loop listeners.
+     *
+     * @param worldId
+     * @param appearance
+     * @param spawns
+     */
+    void emitParticles(String worldId, ParticleAppearance appearance, ParticleSpawns spawns);
 }
@@ -0,0 +1,205 @@
+package com.gempukku.terasology.particle;
+
+import com.badlogic.gdx.math.Frustum;
+
+import java.util.Arrays;
+
+/**
+ * Particles of one world simulated on CPU, kept as a structure of arrays, so that there is no object per particle.
+ * When a particle dies, the last one is moved into its place, so the live particles are always packed at the start
+ * of the arrays. Arrays grow as needed, up to maxCount particles.
+ * <p>
+ * Vertices are written in the format of particle.vert, 4 vertices per particle, 12 floats per vertex:
+ * a_position - position of the particle in 3d space
+ * a_normal - rotation, scale, corner number (1-4)
+ * a_texCoord0 - texture coordinates UV of the corner
+ * a_color - color of the particle
+ */
+public class ParticlePool {
+    public static final int FLOATS_PER_VERTEX = 12;
+    public static final int FLOATS_PER_PARTICLE = 4 * FLOATS_PER_VERTEX;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final int maxCount;
+    private int capacity;
+    private int count;
+
+    private float[] x;
+    private float[] y;
+    private float[] z;
+    private float[] velocityX;
+    private float[] velocityY;
+    private float[] velocityZ;
+    private float[] gravityInfluence;
+    private float[] rotation;
+    private float[] rotationVelocity;
+    private float[] scale;
+    private float[] scaleDiff;
+    private float[] lifeLength;
+    private float[] elapsedTime;
+    private ParticleAppearance[] appearance;
+
+    public ParticlePool(int maxCount) {
+        this.maxCount = maxCount;
+        resize(Math.min(INITIAL_CAPACITY, maxCount));
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds the particles, if there is space for them.
+     *
+     * @param particleAppearance
+     * @param spawns
+     * @return Number of particles added.
+     */
+    public int add(ParticleAppearance particleAppearance, ParticleSpawns spawns) {
+        int spawnCount = Math.min(spawns.getCount(), maxCount - count);
+        if (count + spawnCount > capacity) {
+            int newCapacity = capacity;
+            while (newCapacity < count + spawnCount)
+                newCapacity *= 2;
+            resize(Math.min(newCapacity, maxCount));
+        }
+
+        for (int i = 0; i < spawnCount; i++) {
+            int index = count++;
+            x[index] = spawns.get(i, ParticleSpawns.X);
+            y[index] = spawns.get(i, ParticleSpawns.Y);
+            z[index] = spawns.get(i, ParticleSpawns.Z);
+            velocityX[index] = spawns.get(i, ParticleSpawns.VELOCITY_X);
+            velocityY[index] = spawns.get(i, ParticleSpawns.VELOCITY_Y);
+            velocityZ[index] = spawns.get(i, ParticleSpawns.VELOCITY_Z);
+            gravityInfluence[index] = spawns.get(i, ParticleSpawns.GRAVITY_INFLUENCE);
+            rotation[index] = spawns.get(i, ParticleSpawns.ROTATION);
+            rotationVelocity[index] = spawns.get(i, ParticleSpawns.ROTATION_VELOCITY);
+            scale[index] = spawns.get(i, ParticleSpawns.SCALE);
+            scaleDiff[index] = spawns.get(i, ParticleSpawns.SCALE_DIFF);
+            lifeLength[index] = spawns.get(i, ParticleSpawns.LIFE_LENGTH);
+            elapsedTime[index] = 0;
+            appearance[index] = particleAppearance;
+        }
+        return spawnCount;
+    }
+
+    /**
+     * Moves all the particles, and removes the ones that reached the end of their life.
+     *
+     * @param gravity
+     * @param timeSinceLastUpdateInSeconds
+     */
+    public void update(float gravity, float timeSinceLastUpdateInSeconds) {
+        int index = 0;
+        while (index < count) {
+            elapsedTime[index] += timeSinceLastUpdateInSeconds;
+            if (elapsedTime[index] >= lifeLength[index]) {
+                removeParticle(index);
+            } else {
+                velocityY[index] += gravityInfluence[index] * gravity * timeSinceLastUpdateInSeconds;
+                x[index] += velocityX[index] * timeSinceLastUpdateInSeconds;
+                y[index] += velocityY[index] * timeSinceLastUpdateInSeconds;
+                z[index] += velocityZ[index] * timeSinceLastUpdateInSeconds;
+                rotation[index] += rotationVelocity[index] * timeSinceLastUpdateInSeconds;
+                scale[index] += scaleDiff[index] * timeSinceLastUpdateInSeconds;
+                index++;
+            }
+        }
+    }
+
+    /**
+     * Writes vertices of particles in the frustum to the array, which has to have space for vertices of all the
+     * particles (getCount() * FLOATS_PER_PARTICLE).
+     *
+     * @param frustum
+     * @param vertices
+     * @return Number of particles written.
+     */
+    public int writeVertices(Frustum frustum, float[] vertices) {
+        int written = 0;
+        for (int index = 0; index < count; index++) {
+            if (!frustum.pointInFrustum(x[index], y[index], z[index]))
+                continue;
+
+            ParticleAppearance particleAppearance = appearance[index];
+            float lifeRatio = elapsedTime[index] / lifeLength[index];
+            int frame = particleAppearance.getFrameIndex(lifeRatio);
+            float u = particleAppearance.getFrameU(frame);
+            float u2 = particleAppearance.getFrameU2(frame);
+            float v = particleAppearance.getFrameV(frame);
+            float v2 = particleAppearance.getFrameV2(frame);
+            float alpha = particleAppearance.getAlpha(lifeRatio);
+
+            int offset = written * FLOATS_PER_PARTICLE;
+            writeVertex(vertices, offset, index, 1, u, v2, particleAppearance, alpha);
+            writeVertex(vertices, offset + FLOATS_PER_VERTEX, index, 2, u2, v2, particleAppearance, alpha);
+            writeVertex(vertices, offset + 2 * FLOATS_PER_VERTEX, index, 3, u2, v, particleAppearance, alpha);
+            writeVertex(vertices, offset + 3 * FLOATS_PER_VERTEX, index, 4, u, v, particleAppearance, alpha);
+            written++;
+        }
+        return written;
+    }
+
+    private void writeVertex(float[] vertices, int offset, int index, int corner, float u, float v,
+                             ParticleAppearance particleAppearance, float alpha) {
+        vertices[offset] = x[index];
+        vertices[offset + 1] = y[index];
+        vertices[offset + 2] = z[index];
+        vertices[offset + 3] = rotation[index];
+        vertices[offset + 4] = scale[index];
+        vertices[offset + 5] = corner;
+        vertices[offset + 6] = u;
+        vertices[offset + 7] = v;
+        vertices[offset + 8] = particleAppearance.getColor().r;
+        vertices[offset + 9] = particleAppearance.getColor().g;
+        vertices[offset + 10] = particleAppearance.getColor().b;
+        vertices[offset + 11] = alpha;
+    }
+
+    private void removeParticle(int index) {
+        int last = --count;
+        x[index] = x[last];
+        y[index] = y[last];
+        z[index] = z[last];
+        velocityX[index] = velocityX[last];
+        velocityY[index] = velocityY[last];
+        velocityZ[index] = velocityZ[last];
+        gravityInfluence[index] = gravityInfluence[last];
+        rotation[index] = rotation[last];
+        rotationVelocity[index] = rotationVelocity[last];
+        scale[index] = scale[last];
+        scaleDiff[index] = scaleDiff[last];
+        lifeLength[index] = lifeLength[last];
+        elapsedTime[index] = elapsedTime[last];
+        appearance[index] = appearance[last];
+        appearance[last] = null;
+    }
+
+    private void resize(int newCapacity) {
+        capacity = newCapacity;
+        x = resize(x, newCapacity);
+        y = resize(y, newCapacity);
+        z = resize(z, newCapacity);
+        velocityX = resize(velocityX, newCapacity);
+        velocityY = resize(velocityY, newCapacity);
+        velocityZ = resize(velocityZ, newCapacity);
+        gravityInfluence = resize(gravityInfluence, newCapacity);
+        rotation = resize(rotation, newCapacity);
+        rotationVelocity = resize(rotationVelocity, newCapacity);
+        scale = resize(scale, newCapacity);
+        scaleDiff = resize(scaleDiff, newCapacity);
+        lifeLength = resize(lifeLength, newCapacity);
+        elapsedTime = resize(elapsedTime, newCapacity);
+        appearance = appearance == null ? new ParticleAppearance[newCapacity] : Arrays.copyOf(appearance, newCapacity);
+    }
+
+    private static float[] resize(float[] array, int newCapacity) {
+        return array == null ? new float[newCapacity] : Arrays.copyOf(array, newCapacity);
+    }
+}
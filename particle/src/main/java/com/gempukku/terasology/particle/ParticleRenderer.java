@@ -1,23 +1,18 @@
 package com.gempukku.terasology.particle;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Camera;
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.Mesh;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.VertexAttribute;
 import com.badlogic.gdx.graphics.VertexAttributes;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.g3d.Material;
-import com.badlogic.gdx.graphics.g3d.Model;
 import com.badlogic.gdx.graphics.g3d.ModelBatch;
-import com.badlogic.gdx.graphics.g3d.ModelInstance;
+import com.badlogic.gdx.graphics.g3d.Renderable;
 import com.badlogic.gdx.graphics.g3d.attributes.BlendingAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.DepthTestAttribute;
 import com.badlogic.gdx.graphics.g3d.attributes.TextureAttribute;
-import com.badlogic.gdx.graphics.g3d.model.MeshPart;
-import com.badlogic.gdx.graphics.g3d.utils.ModelBuilder;
-import com.badlogic.gdx.math.Vector3;
 import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
@@ -28,17 +23,18 @@ import com.gempukku.terasology.graphics.SkyColorProvider;
 import com.gempukku.terasology.graphics.TextureAtlasProvider;
 import com.gempukku.terasology.time.TimeManager;
 
-import java.util.Arrays;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Particle renderer uses a Mesh with a limit of 4000 vertices (1000 particles).
- * It packs the information the following way:
- * a_position - position of the particle in 3d space
- * a_normal - used to store the following information: rotation, scale, cornerNo
- * a_texCoord0 - stores texture coordinates UV for that vertex
+ * Particle renderer keeps particles of each world in a pool, and draws them with as many Meshes of up to 16384
+ * particles (65536 vertices, as indices are shorts) as needed, up to terasology.particles.maxCount particles per world.
+ * <p>
+ * By default particles are simulated on CPU (see ParticlePool), and vertices of the ones in the view are uploaded
+ * each frame. With terasology.particles.simulateInShader set, particles are simulated in the vertex shader from their
+ * spawn parameters (see SimulatedParticlePool), and vertices are uploaded only when particles spawn.
  */
 @RegisterSystem(
         profiles = NetProfiles.CLIENT, shared = ParticleEmitter.class)
@@ -52,26 +48,27 @@ public class ParticleRenderer implements PostEnvironmentRenderer, ParticleEmitte
     @In
     private SkyColorProvider skyColorProvider;
 
-    private static final int MAX_PARTICLE_COUNT = 1000;
+    private static final int PARTICLES_PER_MESH = 65536 / 4;
     private static final float GRAVITY = -9.81f;
 
+    private final int maxParticleCount = Integer.getInteger("terasology.particles.maxCount", 4 * PARTICLES_PER_MESH);
+    private final boolean simulateInShader = Boolean.getBoolean("terasology.particles.simulateInShader");
+
     private ParticleShaderProvider particleShaderProvider;
     private ModelBatch modelBatch;
 
-    private Mesh mesh;
-
-    private Model model;
-    private ModelInstance modelInstance;
+    private Material material;
+    private short[] indices;
 
-    private LinkedList<Particle> particles = new LinkedList<>();
+    private Map<String, WorldParticles> worldParticles = new HashMap<>();
 
-    // 4 vertices per particle, 12 floats per vertex
-    private float[] vertices = new float[4 * MAX_PARTICLE_COUNT * 12];
-    private int lastUsedParticleCount = 0;
+    // Vertices of particles simulated on CPU, for the world being rendered
+    private float[] vertices = new float[0];
+    private long updatedFrame = -1;
 
     @Override
     public void preInitialize() {
-        particleShaderProvider = new ParticleShaderProvider();
+        particleShaderProvider = new ParticleShaderProvider(simulateInShader ? "particleSimulated.vert" : "particle.vert");
 
         modelBatch = new ModelBatch(particleShaderProvider);
     }
@@ -83,37 +80,59 @@ public class ParticleRenderer implements PostEnvironmentRenderer, ParticleEmitte
 
     @Override
     public void destroy() {
-        if (model != null)
-            model.dispose();
+        for (WorldParticles particles : worldParticles.values()) {
+            for (Renderable renderable : particles.renderables)
+                renderable.meshPart.mesh.dispose();
+        }
+        worldParticles.clear();
     }
 
+    // Synchronized for emitters updated in parallel, rendering happens outside of the game loop update
     @Override
-    public void emitParticle(Particle particle) {
-        particles.add(particle);
+    public synchronized void emitParticles(String worldId, ParticleAppearance appearance, ParticleSpawns spawns) {
+        WorldParticles particles = worldParticles.get(worldId);
+        if (particles == null) {
+            particles = new WorldParticles();
+            worldParticles.put(worldId, particles);
+        }
+        if (simulateInShader)
+            particles.simulatedPool.add(appearance, spawns);
+        else
+            particles.pool.add(appearance, spawns);
     }
 
     @Override
     public void renderPostEnvironment(Camera camera, String worldId) {
-        initModel();
+        initMaterial();
         updateParticles();
-        updateModel(camera, worldId);
+
+        WorldParticles particles = worldParticles.get(worldId);
+        if (particles == null)
+            return;
+
+        if (simulateInShader) {
+            updateSimulatedMeshes(particles);
+            particleShaderProvider.setTime(particles.simulatedPool.getTime());
+        } else {
+            updateMeshes(particles, camera);
+        }
 
         particleShaderProvider.setFogColor(skyColorProvider.getSkyColor(
                 worldId, camera.position.x, camera.position.y, camera.position.z));
 
         modelBatch.begin(camera);
-        modelBatch.render(modelInstance);
+        for (Renderable renderable : particles.renderables) {
+            if (renderable.meshPart.size > 0)
+                modelBatch.render(renderable);
+        }
         modelBatch.end();
     }
 
-    private void initModel() {
-        if (model == null) {
+    private void initMaterial() {
+        if (material == null) {
             // Each particle takes 4 vertices (corners) and 6 indices (two triangles)
-            mesh = new Mesh(false, true, 4 * MAX_PARTICLE_COUNT, 6 * MAX_PARTICLE_COUNT, new VertexAttributes(
-                    VertexAttribute.Position(), VertexAttribute.Normal(), VertexAttribute.TexCoords(0), VertexAttribute.ColorUnpacked()));
-
-            short[] indices = new short[6 * MAX_PARTICLE_COUNT];
-            for (int i = 0; i < MAX_PARTICLE_COUNT; i++) {
+            indices = new short[6 * PARTICLES_PER_MESH];
+            for (int i = 0; i < PARTICLES_PER_MESH; i++) {
                 indices[6 * i] = (short) (i * 4);
                 indices[6 * i + 1] = (short) (i * 4 + 1);
                 indices[6 * i + 2] = (short) (i * 4 + 2);
@@ -121,86 +140,105 @@ public class ParticleRenderer implements PostEnvironmentRenderer, ParticleEmitte
                 indices[6 * i + 4] = (short) (i * 4 + 3);
                 indices[6 * i + 5] = (short) (i * 4);
             }
-            mesh.setIndices(indices);
-            mesh.setVertices(vertices);
 
             List<Texture> particles = textureAtlasProvider.getTextures(PARTICLES_ATLAS_NAME);
             if (particles.size() > 1)
                 throw new RuntimeException("At the moment particles have to be on one underlying texture");
 
-            ModelBuilder modelBuilder = new ModelBuilder();
-            modelBuilder.begin();
-
-            MeshPart meshPart = new MeshPart("particles", mesh, 0, 6 * MAX_PARTICLE_COUNT, GL20.GL_TRIANGLES);
-            modelBuilder.part(meshPart, new Material(TextureAttribute.createDiffuse(particles.get(0)),
-                    new BlendingAttribute(GL20.GL_SRC_ALPHA, GL20.GL_ONE), new DepthTestAttribute(false)));
-            model = modelBuilder.end();
-            modelInstance = new ModelInstance(model);
+            material = new Material(TextureAttribute.createDiffuse(particles.get(0)),
+                    new BlendingAttribute(GL20.GL_SRC_ALPHA, GL20.GL_ONE), new DepthTestAttribute(false));
         }
     }
 
     private void updateParticles() {
+        // Particles of all worlds move once per frame, no matter how many worlds are rendered
+        long frameId = Gdx.graphics.getFrameId();
+        if (updatedFrame == frameId)
+            return;
+        updatedFrame = frameId;
+
         float timeSinceLastUpdateInSeconds = timeManager.getTimeSinceLastUpdate() / 1000f;
+        for (WorldParticles particles : worldParticles.values()) {
+            if (simulateInShader)
+                particles.simulatedPool.advance(timeSinceLastUpdateInSeconds);
+            else
+                particles.pool.update(GRAVITY, timeSinceLastUpdateInSeconds);
+        }
+    }
 
-        Iterator<Particle> iterator = particles.iterator();
-        while (iterator.hasNext()) {
-            Particle particle = iterator.next();
-            if (!particle.updateParticle(GRAVITY, timeSinceLastUpdateInSeconds))
-                iterator.remove();
+    private void updateMeshes(WorldParticles particles, Camera camera) {
+        ParticlePool pool = particles.pool;
+        if (vertices.length < pool.getCount() * ParticlePool.FLOATS_PER_PARTICLE)
+            vertices = new float[pool.getCapacity() * ParticlePool.FLOATS_PER_PARTICLE];
+
+        int visibleCount = pool.writeVertices(camera.frustum, vertices);
+        ensureMeshCount(particles, visibleCount, ParticlePool.FLOATS_PER_VERTEX);
+
+        for (int i = 0; i < particles.renderables.size(); i++) {
+            Renderable renderable = particles.renderables.get(i);
+            int meshParticleCount = getMeshParticleCount(i, visibleCount);
+            if (meshParticleCount > 0)
+                renderable.meshPart.mesh.updateVertices(0, vertices, i * PARTICLES_PER_MESH * ParticlePool.FLOATS_PER_PARTICLE,
+                        meshParticleCount * ParticlePool.FLOATS_PER_PARTICLE);
+            renderable.meshPart.size = 6 * meshParticleCount;
         }
     }
 
-    private void updateModel(Camera camera, String worldId) {
-        int particleCount = 0;
-        Iterator<Particle> particleIterator = particles.descendingIterator();
-        for (int i = 0; i < MAX_PARTICLE_COUNT; i++) {
-            Particle particle = null;
-            while (particleIterator.hasNext()) {
-                Particle untestedParticle = particleIterator.next();
-                if (untestedParticle.getWorldId().equals(worldId)
-                        && camera.frustum.pointInFrustum(untestedParticle.getLocation())) {
-                    particle = untestedParticle;
-                    break;
-                }
+    private void updateSimulatedMeshes(WorldParticles particles) {
+        SimulatedParticlePool pool = particles.simulatedPool;
+        int slotCount = pool.getSlotCount();
+        ensureMeshCount(particles, slotCount, SimulatedParticlePool.FLOATS_PER_VERTEX);
+
+        for (int i = 0; i < particles.renderables.size(); i++) {
+            Renderable renderable = particles.renderables.get(i);
+            if (pool.isDirty()) {
+                int meshFrom = i * PARTICLES_PER_MESH * SimulatedParticlePool.FLOATS_PER_PARTICLE;
+                int meshTo = meshFrom + PARTICLES_PER_MESH * SimulatedParticlePool.FLOATS_PER_PARTICLE;
+                int from = Math.max(meshFrom, pool.getDirtyFrom());
+                int to = Math.min(meshTo, pool.getDirtyTo());
+                if (from < to)
+                    renderable.meshPart.mesh.updateVertices(from - meshFrom, pool.getVertices(), from, to - from);
             }
+            renderable.meshPart.size = 6 * getMeshParticleCount(i, slotCount);
+        }
+        pool.clearDirty();
+    }
 
-            if (particle != null) {
-                TextureRegion textureRegion = particle.getTexture();
-                Vector3 location = particle.getLocation();
-                Color color = particle.getColor();
-                for (int corner = 0; corner < 4; corner++) {
-                    vertices[i * 12 * 4 + corner * 12] = location.x;
-                    vertices[i * 12 * 4 + corner * 12 + 1] = location.y;
-                    vertices[i * 12 * 4 + corner * 12 + 2] = location.z;
-                    vertices[i * 12 * 4 + corner * 12 + 3] = particle.getRotation();
-                    vertices[i * 12 * 4 + corner * 12 + 4] = particle.getScale();
-                    vertices[i * 12 * 4 + corner * 12 + 5] = corner + 1;
-                    if (corner == 0) {
-                        vertices[i * 12 * 4 + corner * 12 + 6] = textureRegion.getU();
-                        vertices[i * 12 * 4 + corner * 12 + 7] = textureRegion.getV2();
-                    } else if (corner == 1) {
-                        vertices[i * 12 * 4 + corner * 12 + 6] = textureRegion.getU2();
-                        vertices[i * 12 * 4 + corner * 12 + 7] = textureRegion.getV2();
-                    } else if (corner == 2) {
-                        vertices[i * 12 * 4 + corner * 12 + 6] = textureRegion.getU2();
-                        vertices[i * 12 * 4 + corner * 12 + 7] = textureRegion.getV();
-                    } else {
-                        vertices[i * 12 * 4 + corner * 12 + 6] = textureRegion.getU();
-                        vertices[i * 12 * 4 + corner * 12 + 7] = textureRegion.getV();
-                    }
-                    vertices[i * 12 * 4 + corner * 12 + 8] = color.r;
-                    vertices[i * 12 * 4 + corner * 12 + 9] = color.g;
-                    vertices[i * 12 * 4 + corner * 12 + 10] = color.b;
-                    vertices[i * 12 * 4 + corner * 12 + 11] = color.a;
-                }
-                particleCount++;
-            } else if (i < lastUsedParticleCount) {
-                // This is to write over any old particles in the array
-                Arrays.fill(vertices, i * 12 * 4, (i + 1) * 12 * 4, 0);
-            }
+    private static int getMeshParticleCount(int meshIndex, int particleCount) {
+        return Math.max(0, Math.min(PARTICLES_PER_MESH, particleCount - meshIndex * PARTICLES_PER_MESH));
+    }
+
+    private void ensureMeshCount(WorldParticles particles, int particleCount, int floatsPerVertex) {
+        int meshCount = (particleCount + PARTICLES_PER_MESH - 1) / PARTICLES_PER_MESH;
+        while (particles.renderables.size() < meshCount) {
+            Mesh mesh = new Mesh(false, true, 4 * PARTICLES_PER_MESH, 6 * PARTICLES_PER_MESH, createVertexAttributes());
+            mesh.setIndices(indices);
+            mesh.setVertices(new float[4 * PARTICLES_PER_MESH * floatsPerVertex]);
+
+            Renderable renderable = new Renderable();
+            renderable.meshPart.set("particles", mesh, 0, 0, GL20.GL_TRIANGLES);
+            renderable.material = material;
+            particles.renderables.add(renderable);
         }
+    }
+
+    private VertexAttributes createVertexAttributes() {
+        if (simulateInShader)
+            return new VertexAttributes(
+                    VertexAttribute.Position(), VertexAttribute.Normal(),
+                    new VertexAttribute(VertexAttributes.Usage.Generic, 4, "a_spawn"),
+                    new VertexAttribute(VertexAttributes.Usage.Generic, 4, "a_transform"),
+                    new VertexAttribute(VertexAttributes.Usage.Generic, 4, "a_region"),
+                    new VertexAttribute(VertexAttributes.Usage.Generic, 3, "a_animation"),
+                    VertexAttribute.ColorUnpacked());
+        else
+            return new VertexAttributes(
+                    VertexAttribute.Position(), VertexAttribute.Normal(), VertexAttribute.TexCoords(0), VertexAttribute.ColorUnpacked());
+    }
 
-        mesh.updateVertices(0, vertices, 0, 4 * lastUsedParticleCount * 12);
-        lastUsedParticleCount = particleCount;
+    private class WorldParticles {
+        private final ParticlePool pool = simulateInShader ? null : new ParticlePool(maxParticleCount);
+        private final SimulatedParticlePool simulatedPool = simulateInShader ? new SimulatedParticlePool(maxParticleCount, GRAVITY) : null;
+        private final List<Renderable> renderables = new ArrayList<>();
     }
 }
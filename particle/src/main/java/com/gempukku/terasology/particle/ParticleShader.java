@@ -10,8 +10,10 @@ public class ParticleShader extends DefaultShader {
     private int u_viewportWidth = register("u_viewportWidth");
     private int u_viewportHeight = register("u_viewportHeight");
     private final int u_fogColor = register("u_fogColor");
+    private final int u_time = register("u_time");
 
     private Vector3 fogColor;
+    private float time;
 
     public ParticleShader(Renderable renderable, Config config) {
         super(renderable, config);
@@ -21,6 +23,10 @@ public class ParticleShader extends DefaultShader {
         this.fogColor = fogColor;
     }
 
+    public void setTime(float time) {
+        this.time = time;
+    }
+
     @Override
     public void begin(Camera camera, RenderContext context) {
         super.begin(camera, context);
@@ -28,5 +34,6 @@ public class ParticleShader extends DefaultShader {
         set(u_viewportWidth, camera.viewportWidth);
         set(u_viewportHeight, camera.viewportHeight);
         set(u_fogColor, fogColor);
+        set(u_time, time);
     }
 }
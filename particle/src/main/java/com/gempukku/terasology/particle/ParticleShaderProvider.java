@@ -8,24 +8,38 @@ import com.badlogic.gdx.graphics.g3d.utils.ShaderProvider;
 import com.badlogic.gdx.math.Vector3;
 
 public class ParticleShaderProvider implements ShaderProvider {
+    private final String vertexShader;
     private ParticleShader particleShader;
 
     private Vector3 fogColor;
+    private float time;
+
+    /**
+     * @param vertexShader Vertex shader to use with particle.frag, either particle.vert or particleSimulated.vert.
+     */
+    public ParticleShaderProvider(String vertexShader) {
+        this.vertexShader = vertexShader;
+    }
 
     public void setFogColor(Vector3 fogColor) {
         this.fogColor = fogColor;
     }
 
+    public void setTime(float time) {
+        this.time = time;
+    }
+
     @Override
     public Shader getShader(Renderable renderable) {
         if (particleShader == null) {
             DefaultShader.Config config = new DefaultShader.Config(
-                    Gdx.files.internal("shader/particle.vert").readString(),
+                    Gdx.files.internal("shader/" + vertexShader).readString(),
                     Gdx.files.internal("shader/particle.frag").readString());
             particleShader = new ParticleShader(renderable, config);
             particleShader.init();
         }
         particleShader.setFogColor(fogColor);
+        particleShader.setTime(time);
         return particleShader;
     }
 
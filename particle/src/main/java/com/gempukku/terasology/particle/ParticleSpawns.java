@@ -0,0 +1,75 @@
+package com.gempukku.terasology.particle;
+
+import java.util.Arrays;
+
+/**
+ * Parameters of particles to spawn with one call to ParticleEmitter. It is meant to be kept by the emitting system and
+ * cleared and refilled each time, so that spawning particles does not create any objects.
+ */
+public class ParticleSpawns {
+    static final int X = 0;
+    static final int Y = 1;
+    static final int Z = 2;
+    static final int VELOCITY_X = 3;
+    static final int VELOCITY_Y = 4;
+    static final int VELOCITY_Z = 5;
+    static final int GRAVITY_INFLUENCE = 6;
+    static final int ROTATION = 7;
+    static final int ROTATION_VELOCITY = 8;
+    static final int SCALE = 9;
+    static final int SCALE_DIFF = 10;
+    static final int LIFE_LENGTH = 11;
+    static final int FLOATS_PER_SPAWN = 12;
+
+    private float[] data = new float[16 * FLOATS_PER_SPAWN];
+    private int count;
+
+    public void clear() {
+        count = 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Adds a particle to spawn.
+     *
+     * @param x
+     * @param y
+     * @param z
+     * @param velocityX
+     * @param velocityY
+     * @param velocityZ
+     * @param gravityInfluence Multiplier of the gravity acting on the particle.
+     * @param rotation         Initial rotation (in radians) of the particle on the screen.
+     * @param rotationVelocity Change of rotation per second.
+     * @param scale            Initial size of the particle.
+     * @param scaleDiff        Change of size per second.
+     * @param lifeLength       How long (in seconds) the particle lives.
+     */
+    public void add(float x, float y, float z, float velocityX, float velocityY, float velocityZ, float gravityInfluence,
+                    float rotation, float rotationVelocity, float scale, float scaleDiff, float lifeLength) {
+        int offset = count * FLOATS_PER_SPAWN;
+        if (offset + FLOATS_PER_SPAWN > data.length)
+            data = Arrays.copyOf(data, data.length * 2);
+
+        data[offset + X] = x;
+        data[offset + Y] = y;
+        data[offset + Z] = z;
+        data[offset + VELOCITY_X] = velocityX;
+        data[offset + VELOCITY_Y] = velocityY;
+        data[offset + VELOCITY_Z] = velocityZ;
+        data[offset + GRAVITY_INFLUENCE] = gravityInfluence;
+        data[offset + ROTATION] = rotation;
+        data[offset + ROTATION_VELOCITY] = rotationVelocity;
+        data[offset + SCALE] = scale;
+        data[offset + SCALE_DIFF] = scaleDiff;
+        data[offset + LIFE_LENGTH] = lifeLength;
+        count++;
+    }
+
+    float get(int spawn, int field) {
+        return data[spawn * FLOATS_PER_SPAWN + field];
+    }
+}
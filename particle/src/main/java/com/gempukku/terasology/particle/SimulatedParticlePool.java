@@ -0,0 +1,193 @@
+package com.gempukku.terasology.particle;
+
+import java.util.Arrays;
+
+/**
+ * Particles of one world simulated in the vertex shader (particleSimulated.vert). Vertices of a particle hold only
+ * its spawn parameters and are written once, when it spawns, the shader computes where the particle is and how it
+ * looks from the time elapsed since. Pool keeps track only of when each slot frees up, so it can be reused, and of
+ * the range of vertices changed since the last upload.
+ * <p>
+ * Time of the pool goes back to zero, whenever it is empty, so that the float time in the shader keeps its precision.
+ * <p>
+ * Vertices are written 4 per particle, 25 floats per vertex:
+ * a_position - spawn position
+ * a_normal - initial velocity
+ * a_spawn - spawn time, life length, vertical acceleration, corner number (1-4)
+ * a_transform - rotation, rotation velocity, scale, scale diff
+ * a_region - U, V, U2, V2 of the texture region
+ * a_animation - rows, columns of frames in the texture region, 1 if the particle fades out (0 otherwise)
+ * a_color - color of the particle
+ */
+public class SimulatedParticlePool {
+    public static final int FLOATS_PER_VERTEX = 25;
+    public static final int FLOATS_PER_PARTICLE = 4 * FLOATS_PER_VERTEX;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final int maxCount;
+    private final float gravity;
+    private int capacity;
+
+    private float[] vertices;
+    private float[] deathTimes;
+    private int[] freeSlots;
+    private int freeSlotCount;
+    // Slots from this one on are all free
+    private int slotCount;
+
+    private float time;
+
+    private int dirtyFrom = Integer.MAX_VALUE;
+    private int dirtyTo = 0;
+
+    public SimulatedParticlePool(int maxCount, float gravity) {
+        this.maxCount = maxCount;
+        this.gravity = gravity;
+        resize(Math.min(INITIAL_CAPACITY, maxCount));
+    }
+
+    public float getTime() {
+        return time;
+    }
+
+    /**
+     * Returns number of slots, that have to be drawn, some of them might hold dead particles, which the shader
+     * does not draw.
+     *
+     * @return
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Moves time of the pool forward and finds slots of particles, that died.
+     *
+     * @param timeSinceLastUpdateInSeconds
+     */
+    public void advance(float timeSinceLastUpdateInSeconds) {
+        time += timeSinceLastUpdateInSeconds;
+
+        while (slotCount > 0 && deathTimes[slotCount - 1] <= time)
+            slotCount--;
+
+        if (slotCount == 0) {
+            time = 0;
+            freeSlotCount = 0;
+        } else {
+            // Lowest free slots are used first, to keep the particles packed
+            freeSlotCount = 0;
+            for (int slot = slotCount - 1; slot >= 0; slot--) {
+                if (deathTimes[slot] <= time)
+                    freeSlots[freeSlotCount++] = slot;
+            }
+        }
+    }
+
+    /**
+     * Adds the particles, if there is space for them.
+     *
+     * @param appearance
+     * @param spawns
+     * @return Number of particles added.
+     */
+    public int add(ParticleAppearance appearance, ParticleSpawns spawns) {
+        int spawnCount = spawns.getCount();
+        for (int i = 0; i < spawnCount; i++) {
+            int slot = allocateSlot();
+            if (slot == -1)
+                return i;
+
+            deathTimes[slot] = time + spawns.get(i, ParticleSpawns.LIFE_LENGTH);
+            int offset = slot * FLOATS_PER_PARTICLE;
+            for (int corner = 1; corner <= 4; corner++) {
+                writeVertex(offset, i, corner, appearance, spawns);
+                offset += FLOATS_PER_VERTEX;
+            }
+            dirtyFrom = Math.min(dirtyFrom, slot * FLOATS_PER_PARTICLE);
+            dirtyTo = Math.max(dirtyTo, (slot + 1) * FLOATS_PER_PARTICLE);
+        }
+        return spawnCount;
+    }
+
+    public boolean isDirty() {
+        return dirtyFrom < dirtyTo;
+    }
+
+    /**
+     * Returns index of the first float in vertices changed since clearDirty was called.
+     *
+     * @return
+     */
+    public int getDirtyFrom() {
+        return dirtyFrom;
+    }
+
+    /**
+     * Returns index after the last float in vertices changed since clearDirty was called.
+     *
+     * @return
+     */
+    public int getDirtyTo() {
+        return dirtyTo;
+    }
+
+    public void clearDirty() {
+        dirtyFrom = Integer.MAX_VALUE;
+        dirtyTo = 0;
+    }
+
+    private int allocateSlot() {
+        if (freeSlotCount > 0)
+            return freeSlots[--freeSlotCount];
+        if (slotCount == maxCount)
+            return -1;
+        if (slotCount == capacity)
+            resize(Math.min(capacity * 2, maxCount));
+        return slotCount++;
+    }
+
+    private void writeVertex(int offset, int spawn, int corner, ParticleAppearance appearance, ParticleSpawns spawns) {
+        vertices[offset] = spawns.get(spawn, ParticleSpawns.X);
+        vertices[offset + 1] = spawns.get(spawn, ParticleSpawns.Y);
+        vertices[offset + 2] = spawns.get(spawn, ParticleSpawns.Z);
+        vertices[offset + 3] = spawns.get(spawn, ParticleSpawns.VELOCITY_X);
+        vertices[offset + 4] = spawns.get(spawn, ParticleSpawns.VELOCITY_Y);
+        vertices[offset + 5] = spawns.get(spawn, ParticleSpawns.VELOCITY_Z);
+        vertices[offset + 6] = time;
+        vertices[offset + 7] = spawns.get(spawn, ParticleSpawns.LIFE_LENGTH);
+        vertices[offset + 8] = spawns.get(spawn, ParticleSpawns.GRAVITY_INFLUENCE) * gravity;
+        vertices[offset + 9] = corner;
+        vertices[offset + 10] = spawns.get(spawn, ParticleSpawns.ROTATION);
+        vertices[offset + 11] = spawns.get(spawn, ParticleSpawns.ROTATION_VELOCITY);
+        vertices[offset + 12] = spawns.get(spawn, ParticleSpawns.SCALE);
+        vertices[offset + 13] = spawns.get(spawn, ParticleSpawns.SCALE_DIFF);
+        vertices[offset + 14] = appearance.getU();
+        vertices[offset + 15] = appearance.getV();
+        vertices[offset + 16] = appearance.getU2();
+        vertices[offset + 17] = appearance.getV2();
+        vertices[offset + 18] = appearance.getRows();
+        vertices[offset + 19] = appearance.getColumns();
+        vertices[offset + 20] = appearance.isFadeOut() ? 1 : 0;
+        vertices[offset + 21] = appearance.getColor().r;
+        vertices[offset + 22] = appearance.getColor().g;
+        vertices[offset + 23] = appearance.getColor().b;
+        vertices[offset + 24] = appearance.getColor().a;
+    }
+
+    private void resize(int newCapacity) {
+        capacity = newCapacity;
+        vertices = vertices == null ? new float[newCapacity * FLOATS_PER_PARTICLE] : Arrays.copyOf(vertices, newCapacity * FLOATS_PER_PARTICLE);
+        deathTimes = deathTimes == null ? new float[newCapacity] : Arrays.copyOf(deathTimes, newCapacity);
+        freeSlots = freeSlots == null ? new int[newCapacity] : Arrays.copyOf(freeSlots, newCapacity);
+    }
+}
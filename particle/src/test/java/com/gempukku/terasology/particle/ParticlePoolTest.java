@@ -0,0 +1,122 @@
+package com.gempukku.terasology.particle;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Frustum;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParticlePoolTest {
+    // Frustum with all planes zeroed contains every point
+    private static final Frustum everything = new Frustum();
+
+    @Test
+    public void verticesWritten() {
+        ParticlePool pool = new ParticlePool(16);
+        pool.add(createAppearance(), createSpawns(3, 5));
+
+        float[] vertices = new float[ParticlePool.FLOATS_PER_PARTICLE];
+        assertEquals(1, pool.writeVertices(everything, vertices));
+        for (int corner = 0; corner < 4; corner++) {
+            int offset = corner * ParticlePool.FLOATS_PER_VERTEX;
+            assertEquals(3, vertices[offset], 0);
+            assertEquals(corner + 1, vertices[offset + 5], 0);
+            assertEquals(1, vertices[offset + 11], 0);
+        }
+        // First corner is at U, V2, third at U2, V
+        assertEquals(0.25f, vertices[6], 0);
+        assertEquals(0.75f, vertices[7], 0);
+        assertEquals(0.75f, vertices[2 * ParticlePool.FLOATS_PER_VERTEX + 6], 0);
+        assertEquals(0.25f, vertices[2 * ParticlePool.FLOATS_PER_VERTEX + 7], 0);
+    }
+
+    @Test
+    public void particlesMoved() {
+        ParticlePool pool = new ParticlePool(16);
+        pool.add(createAppearance(), createSpawns(3, 5));
+
+        pool.update(-10, 0.5f);
+
+        float[] vertices = new float[ParticlePool.FLOATS_PER_PARTICLE];
+        pool.writeVertices(everything, vertices);
+        // Velocity 1 (up), changed by half of the gravity for half a second
+        assertEquals(3, vertices[0], 0);
+        assertEquals(-0.75f, vertices[1], 0.0001f);
+    }
+
+    @Test
+    public void deadParticleReplacedByLast() {
+        ParticlePool pool = new ParticlePool(16);
+        pool.add(createAppearance(), createSpawns(0, 1, 1, 5, 2, 5));
+
+        pool.update(-10, 2);
+        assertEquals(2, pool.getCount());
+
+        float[] vertices = new float[2 * ParticlePool.FLOATS_PER_PARTICLE];
+        assertEquals(2, pool.writeVertices(everything, vertices));
+        assertEquals(2, vertices[0], 0);
+        assertEquals(1, vertices[ParticlePool.FLOATS_PER_PARTICLE], 0);
+
+        pool.update(-10, 4);
+        assertEquals(0, pool.getCount());
+    }
+
+    @Test
+    public void particlesDroppedAtMaxCount() {
+        ParticlePool pool = new ParticlePool(2);
+        assertEquals(2, pool.add(createAppearance(), createSpawns(0, 1, 1, 1, 2, 1)));
+        assertEquals(2, pool.getCount());
+        assertEquals(0, pool.add(createAppearance(), createSpawns(3, 1)));
+
+        pool.update(-10, 2);
+        assertEquals(1, pool.add(createAppearance(), createSpawns(3, 1)));
+    }
+
+    @Test
+    public void capacityGrowsUpToMaxCount() {
+        ParticlePool pool = new ParticlePool(300);
+        float[] spawns = new float[2 * 400];
+        for (int i = 0; i < 400; i++) {
+            spawns[2 * i] = i;
+            spawns[2 * i + 1] = 5;
+        }
+        assertEquals(300, pool.add(createAppearance(), createSpawns(spawns)));
+        assertEquals(300, pool.getCapacity());
+        assertEquals(300, pool.getCount());
+    }
+
+    // Pairs of x and life length
+    private static ParticleSpawns createSpawns(float... xAndLifeLength) {
+        ParticleSpawns spawns = new ParticleSpawns();
+        for (int i = 0; i < xAndLifeLength.length; i += 2)
+            spawns.add(xAndLifeLength[i], 0, 0, 0, 1, 0, 0.5f, 0, 0, 1, 0, xAndLifeLength[i + 1]);
+        return spawns;
+    }
+
+    private static ParticleAppearance createAppearance() {
+        // Region without a texture
+        TextureRegion region = new TextureRegion() {
+            @Override
+            public float getU() {
+                return 0.25f;
+            }
+
+            @Override
+            public float getV() {
+                return 0.25f;
+            }
+
+            @Override
+            public float getU2() {
+                return 0.75f;
+            }
+
+            @Override
+            public float getV2() {
+                return 0.75f;
+            }
+        };
+        return new ParticleAppearance(region, 1, 1, Color.WHITE, false);
+    }
+}
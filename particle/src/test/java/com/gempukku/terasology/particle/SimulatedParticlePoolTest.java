@@ -0,0 +1,160 @@
+package com.gempukku.terasology.particle;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SimulatedParticlePoolTest {
+    private static final int spawnTimeOffset = 6;
+
+    @Test
+    public void spawnParametersWritten() {
+        SimulatedParticlePool pool = new SimulatedParticlePool(16, -10);
+        pool.add(createAppearance(), createSpawns(3, 5));
+
+        assertEquals(1, pool.getSlotCount());
+        float[] vertices = pool.getVertices();
+        for (int corner = 0; corner < 4; corner++) {
+            int offset = corner * SimulatedParticlePool.FLOATS_PER_VERTEX;
+            assertEquals(3, vertices[offset], 0);
+            assertEquals(0, vertices[offset + spawnTimeOffset], 0);
+            assertEquals(5, vertices[offset + 7], 0);
+            // Gravity influence multiplied by gravity
+            assertEquals(-5, vertices[offset + 8], 0);
+            assertEquals(corner + 1, vertices[offset + 9], 0);
+            assertEquals(0.25f, vertices[offset + 14], 0);
+            assertEquals(0.75f, vertices[offset + 17], 0);
+        }
+    }
+
+    @Test
+    public void deadSlotReused() {
+        SimulatedParticlePool pool = new SimulatedParticlePool(16, -10);
+        pool.add(createAppearance(), createSpawns(0, 1, 1, 5, 2, 5));
+
+        pool.advance(2);
+        // Last slot is still alive, so slots of dead particles are still drawn
+        assertEquals(3, pool.getSlotCount());
+
+        assertEquals(1, pool.add(createAppearance(), createSpawns(7, 5)));
+        assertEquals(3, pool.getSlotCount());
+        assertEquals(7, pool.getVertices()[0], 0);
+        assertEquals(2, pool.getVertices()[spawnTimeOffset], 0);
+    }
+
+    @Test
+    public void lowestDeadSlotReusedFirst() {
+        SimulatedParticlePool pool = new SimulatedParticlePool(16, -10);
+        pool.add(createAppearance(), createSpawns(0, 5, 1, 1, 2, 1, 3, 5));
+
+        pool.advance(2);
+        pool.add(createAppearance(), createSpawns(7, 5));
+        assertEquals(7, pool.getVertices()[SimulatedParticlePool.FLOATS_PER_PARTICLE], 0);
+        pool.add(createAppearance(), createSpawns(8, 5));
+        assertEquals(8, pool.getVertices()[2 * SimulatedParticlePool.FLOATS_PER_PARTICLE], 0);
+        assertEquals(4, pool.getSlotCount());
+    }
+
+    @Test
+    public void slotCountShrinksWhenLastParticlesDie() {
+        SimulatedParticlePool pool = new SimulatedParticlePool(16, -10);
+        pool.add(createAppearance(), createSpawns(0, 5, 1, 1, 2, 1));
+
+        pool.advance(2);
+        assertEquals(1, pool.getSlotCount());
+        assertEquals(2, pool.getTime(), 0);
+
+        // Time goes back to zero, once the pool is empty
+        pool.advance(4);
+        assertEquals(0, pool.getSlotCount());
+        assertEquals(0, pool.getTime(), 0);
+
+        pool.add(createAppearance(), createSpawns(7, 5));
+        assertEquals(1, pool.getSlotCount());
+        assertEquals(0, pool.getVertices()[spawnTimeOffset], 0);
+    }
+
+    @Test
+    public void particlesDroppedAtMaxCount() {
+        SimulatedParticlePool pool = new SimulatedParticlePool(2, -10);
+        assertEquals(2, pool.add(createAppearance(), createSpawns(0, 1, 1, 1, 2, 1)));
+        assertEquals(2, pool.getSlotCount());
+        assertEquals(0, pool.add(createAppearance(), createSpawns(3, 1)));
+
+        pool.advance(2);
+        assertEquals(1, pool.add(createAppearance(), createSpawns(3, 1)));
+    }
+
+    @Test
+    public void capacityGrowsUpToMaxCount() {
+        SimulatedParticlePool pool = new SimulatedParticlePool(300, -10);
+        float[] spawns = new float[2 * 400];
+        for (int i = 0; i < 400; i++) {
+            spawns[2 * i] = i;
+            spawns[2 * i + 1] = 5;
+        }
+        assertEquals(300, pool.add(createAppearance(), createSpawns(spawns)));
+        assertEquals(300, pool.getCapacity());
+        assertEquals(300, pool.getSlotCount());
+        assertEquals(299, pool.getVertices()[299 * SimulatedParticlePool.FLOATS_PER_PARTICLE], 0);
+    }
+
+    @Test
+    public void dirtyRangeCoversSpawnedSlots() {
+        SimulatedParticlePool pool = new SimulatedParticlePool(16, -10);
+        assertFalse(pool.isDirty());
+
+        pool.add(createAppearance(), createSpawns(0, 5, 1, 1, 2, 1, 3, 5));
+        assertTrue(pool.isDirty());
+        assertEquals(0, pool.getDirtyFrom());
+        assertEquals(4 * SimulatedParticlePool.FLOATS_PER_PARTICLE, pool.getDirtyTo());
+
+        pool.clearDirty();
+        assertFalse(pool.isDirty());
+
+        // Only the reused slot is changed
+        pool.advance(2);
+        pool.add(createAppearance(), createSpawns(7, 5));
+        assertTrue(pool.isDirty());
+        assertEquals(SimulatedParticlePool.FLOATS_PER_PARTICLE, pool.getDirtyFrom());
+        assertEquals(2 * SimulatedParticlePool.FLOATS_PER_PARTICLE, pool.getDirtyTo());
+    }
+
+    // Pairs of x and life length
+    private static ParticleSpawns createSpawns(float... xAndLifeLength) {
+        ParticleSpawns spawns = new ParticleSpawns();
+        for (int i = 0; i < xAndLifeLength.length; i += 2)
+            spawns.add(xAndLifeLength[i], 0, 0, 0, 1, 0, 0.5f, 0, 0, 1, 0, xAndLifeLength[i + 1]);
+        return spawns;
+    }
+
+    private static ParticleAppearance createAppearance() {
+        // Region without a texture
+        TextureRegion region = new TextureRegion() {
+            @Override
+            public float getU() {
+                return 0.25f;
+            }
+
+            @Override
+            public float getV() {
+                return 0.25f;
+            }
+
+            @Override
+            public float getU2() {
+                return 0.75f;
+            }
+
+            @Override
+            public float getV2() {
+                return 0.75f;
+            }
+        };
+        return new ParticleAppearance(region, 1, 1, Color.WHITE, false);
+    }
+}
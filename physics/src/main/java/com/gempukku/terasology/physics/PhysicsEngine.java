@@ -8,6 +8,25 @@ import com.gempukku.secsy.entity.io.EntityData;
 public interface PhysicsEngine {
     Collision getFirstCollision(String worldId, Ray ray, float distance, Predicate<EntityData> entityDataPredicate);
 
+    /**
+     * Finds the same collision as getFirstCollision, but only stores the collision point in the passed vector.
+     * Implementations may override it to find collisions without creating any objects, for use in simulation steps.
+     *
+     * @param worldId
+     * @param ray
+     * @param distance
+     * @param entityDataPredicate
+     * @param collisionPoint      Vector to store collision point in, not modified if there is no collision.
+     * @return If a collision was found.
+     */
+    default boolean findFirstCollisionPoint(String worldId, Ray ray, float distance, Predicate<EntityData> entityDataPredicate, Vector3 collisionPoint) {
+        Collision collision = getFirstCollision(worldId, ray, distance, entityDataPredicate);
+        if (collision == null)
+            return false;
+        collision.getCollision(collisionPoint);
+        return true;
+    }
+
     interface Collision {
         void getBlock(Vector3 vector);
 
@@ -1,36 +1,127 @@
 package com.gempukku.terasology.physics.basic;
 
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.Ray;
+import com.badlogic.gdx.utils.Predicate;
+import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
 import com.gempukku.secsy.entity.EntityRef;
 import com.gempukku.secsy.entity.dispatch.ReceiveEvent;
+import com.gempukku.secsy.entity.io.EntityData;
 import com.gempukku.terasology.movement.MovementComponent;
+import com.gempukku.terasology.movement.MovementCorrectionEvent;
 import com.gempukku.terasology.movement.MovementRequestEvent;
+import com.gempukku.terasology.physics.PhysicsEngine;
 import com.gempukku.terasology.physics.component.BasicCylinderPhysicsObjectComponent;
+import com.gempukku.terasology.physics.component.MovementValidationComponent;
+import com.gempukku.terasology.time.TimeManager;
 import com.gempukku.terasology.world.component.LocationComponent;
 import com.gempukku.terasology.world.event.AfterPlayerCreatedEvent;
 
 @RegisterSystem(
         profiles = {"basicPhysics", NetProfiles.AUTHORITY})
 public class AuthorityBasicPhysicsEngine {
+    @In
+    private TimeManager timeManager;
+    // When present, reported movement is also checked against blocks
+    @In(optional = true)
+    private PhysicsEngine physicsEngine;
+
+    // Allows for network jitter and rounding, reported movement is compared to what's possible in that time
+    private static final float speedTolerance = 1.2f;
+    private static final float maxAllowanceInSeconds = 1f;
+    private static final float walkPadding = 0.01f;
+
+    private Predicate<EntityData> collisionPredicate = new ObstructsMovementPredicate();
+    private Ray ray = new Ray(new Vector3(), new Vector3());
+    private Vector3 collisionPoint = new Vector3();
+
     @ReceiveEvent
     public void movementRequestProcess(MovementRequestEvent event, EntityRef client, LocationComponent location, MovementComponent movement) {
-        movement.setSpeed(event.horizontalSpeed);
-        movement.setVerticalSpeed(event.verticalSpeed);
+        long multiverseTime = timeManager.getMultiverseTime();
+
+        MovementValidationComponent validation = client.getComponent(MovementValidationComponent.class);
+        if (validation == null) {
+            validation = client.createComponent(MovementValidationComponent.class);
+            validation.setLastMovementTime(multiverseTime - (long) (maxAllowanceInSeconds * 1000));
+            validation.setMovementAllowance(0);
+        }
+        float elapsedInSeconds = (multiverseTime - validation.getLastMovementTime()) / 1000f;
+        float maxDistance = (float) Math.hypot(movement.getMaxSpeed(), movement.getJumpSpeed()) * speedTolerance;
+        validation.setMovementAllowance(
+                Math.min(maxDistance * maxAllowanceInSeconds, validation.getMovementAllowance() + maxDistance * elapsedInSeconds));
+        validation.setLastMovementTime(multiverseTime);
+
+        movement.setSpeed(Math.max(-movement.getMaxSpeed(), Math.min(movement.getMaxSpeed(), event.horizontalSpeed)));
+        movement.setVerticalSpeed(Math.min(movement.getJumpSpeed(), event.verticalSpeed));
         movement.setYaw(event.yaw);
 
-        location.setX(event.positionX);
-        location.setY(event.positionY);
-        location.setZ(event.positionZ);
+        float distance = getValidatedDistance(client, location, event);
+        if (distance >= 0 && distance <= validation.getMovementAllowance()) {
+            validation.setMovementAllowance(validation.getMovementAllowance() - distance);
+
+            location.setX(event.positionX);
+            location.setY(event.positionY);
+            location.setZ(event.positionZ);
+        } else {
+            movement.setVerticalSpeed(0);
+            client.send(new MovementCorrectionEvent(location.getX(), location.getY(), location.getZ()));
+        }
 
         client.saveChanges();
     }
 
+    /**
+     * Returns distance the reported movement counts against the movement allowance (falling down is free),
+     * or -1 if the movement goes through, or ends in blocks.
+     */
+    private float getValidatedDistance(EntityRef client, LocationComponent location, MovementRequestEvent event) {
+        float moveX = event.positionX - location.getX();
+        float moveY = event.positionY - location.getY();
+        float moveZ = event.positionZ - location.getZ();
+
+        float upMove = Math.max(0, moveY);
+        float distance = (float) Math.sqrt(moveX * moveX + upMove * upMove + moveZ * moveZ);
+
+        BasicCylinderPhysicsObjectComponent cylinder = client.getComponent(BasicCylinderPhysicsObjectComponent.class);
+        if (physicsEngine != null && cylinder != null) {
+            String worldId = location.getWorldId();
+            float height = cylinder.getHeight();
+            // The path goes up from the old position, across above the higher of the positions (so that walking up
+            // a step does not hit the step itself) and down to the new position, then the character has to fit there
+            float checkY = Math.max(location.getY(), event.positionY) + height / 2;
+            if (isObstructed(worldId, location.getX(), location.getY() + walkPadding, location.getZ(), location.getX(), checkY, location.getZ())
+                    || isObstructed(worldId, location.getX(), checkY, location.getZ(), event.positionX, checkY, event.positionZ)
+                    || isObstructed(worldId, event.positionX, checkY, event.positionZ,
+                    event.positionX, event.positionY + walkPadding, event.positionZ)
+                    || isObstructed(worldId, event.positionX, event.positionY + walkPadding, event.positionZ,
+                    event.positionX, event.positionY + height, event.positionZ))
+                return -1;
+        }
+
+        return distance;
+    }
+
+    private boolean isObstructed(String worldId, float fromX, float fromY, float fromZ, float toX, float toY, float toZ) {
+        ray.origin.set(fromX, fromY, fromZ);
+        ray.direction.set(toX - fromX, toY - fromY, toZ - fromZ);
+        float length = ray.direction.len();
+        if (length == 0)
+            return false;
+        ray.direction.scl(1 / length);
+        return physicsEngine.findFirstCollisionPoint(worldId, ray, length, collisionPredicate, collisionPoint);
+    }
+
     @ReceiveEvent
     public void afterPlayerCreated(AfterPlayerCreatedEvent event, EntityRef entity) {
         BasicCylinderPhysicsObjectComponent playerPhysicalProperties = entity.createComponent(BasicCylinderPhysicsObjectComponent.class);
         playerPhysicalProperties.setRadius(0.4f);
         playerPhysicalProperties.setHeight(1.9f);
+
+        MovementValidationComponent movementValidation = entity.createComponent(MovementValidationComponent.class);
+        movementValidation.setLastMovementTime(timeManager.getMultiverseTime());
+        movementValidation.setMovementAllowance(0);
         entity.saveChanges();
     }
 }
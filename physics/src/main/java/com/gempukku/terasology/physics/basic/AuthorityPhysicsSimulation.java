@@ -0,0 +1,193 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.gempukku.secsy.context.annotation.In;
+import com.gempukku.secsy.context.annotation.NetProfiles;
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.context.system.LifeCycleSystem;
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.game.GameLoop;
+import com.gempukku.secsy.entity.game.GameLoopListener;
+import com.gempukku.secsy.entity.game.ParallelUpdate;
+import com.gempukku.secsy.entity.index.EntityIndex;
+import com.gempukku.secsy.entity.index.EntityIndexManager;
+import com.gempukku.terasology.movement.MovementComponent;
+import com.gempukku.terasology.physics.PhysicsEngine;
+import com.gempukku.terasology.physics.component.BasicCylinderPhysicsObjectComponent;
+import com.gempukku.terasology.time.TimeManager;
+import com.gempukku.terasology.world.component.ClientComponent;
+import com.gempukku.terasology.world.component.LocationComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simulates movement of all the physics objects that are not controlled by a client, in fixed time steps.
+ * Entities are read in the update and written on the game loop thread after it, while the simulation itself (that
+ * only queries block collisions) is split between a number of threads, as characters do not collide with each other.
+ */
+@RegisterSystem(
+        profiles = {"basicPhysics", "voxelCollision", NetProfiles.AUTHORITY})
+@ParallelUpdate(
+        reads = {BasicCylinderPhysicsObjectComponent.class, LocationComponent.class, MovementComponent.class, ClientComponent.class},
+        writes = {LocationComponent.class, MovementComponent.class})
+public class AuthorityPhysicsSimulation implements LifeCycleSystem, GameLoopListener {
+    @In
+    private GameLoop gameLoop;
+    @In
+    private EntityIndexManager entityIndexManager;
+    @In
+    private TimeManager timeManager;
+    @In
+    private PhysicsEngine physicsEngine;
+
+    private static final float fixedStepInSeconds = 0.05f;
+    // If the game loop falls behind more than that, the simulation is slowed down, rather than catching up
+    private static final int maxStepsPerUpdate = 5;
+    // Number of characters simulated by one task, smaller simulations do not use other threads at all
+    private static final int charactersPerTask = 64;
+
+    private EntityIndex physicsObjectIndex;
+    private ExecutorService executorService;
+    private ThreadLocal<BasicCharacterController> characterController;
+
+    private float accumulatedTimeInSeconds;
+
+    private final List<EntityRef> simulatedEntities = new ArrayList<>();
+    private final List<BasicCharacterController.CharacterState> characterStates = new ArrayList<>();
+    private final List<Future<?>> pendingTasks = new ArrayList<>();
+
+    @Override
+    public void initialize() {
+        gameLoop.addGameLoopListener(this);
+        physicsObjectIndex = entityIndexManager.addIndexOnComponents(BasicCylinderPhysicsObjectComponent.class, LocationComponent.class, MovementComponent.class);
+    }
+
+    @Override
+    public void postInitialize() {
+        ObstructsMovementPredicate collisionPredicate = new ObstructsMovementPredicate();
+        characterController = ThreadLocal.withInitial(() -> new BasicCharacterController(physicsEngine, collisionPredicate));
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        executorService = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1),
+                runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setName("Physics-simulation-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public void preDestroy() {
+        executorService.shutdownNow();
+    }
+
+    @Override
+    public void update() {
+        accumulatedTimeInSeconds += timeManager.getTimeSinceLastUpdate() / 1000f;
+        int steps = (int) (accumulatedTimeInSeconds / fixedStepInSeconds);
+        if (steps == 0)
+            return;
+        if (steps > maxStepsPerUpdate) {
+            steps = maxStepsPerUpdate;
+            accumulatedTimeInSeconds = 0;
+        } else {
+            accumulatedTimeInSeconds -= steps * fixedStepInSeconds;
+        }
+
+        int count = collectCharacterStates();
+        if (count == 0)
+            return;
+
+        simulate(count, steps);
+
+        gameLoop.executeAfterParallelUpdate(() -> applyCharacterStates(count));
+    }
+
+    private void applyCharacterStates(int count) {
+        for (int i = 0; i < count; i++) {
+            BasicCharacterController.CharacterState state = characterStates.get(i);
+            EntityRef entity = simulatedEntities.get(i);
+            MovementComponent movement = entity.getComponent(MovementComponent.class);
+            if (state.moved || state.verticalSpeed != movement.getVerticalSpeed()) {
+                LocationComponent location = entity.getComponent(LocationComponent.class);
+                location.setX(state.positionX);
+                location.setY(state.positionY);
+                location.setZ(state.positionZ);
+                movement.setVerticalSpeed(state.verticalSpeed);
+                entity.saveChanges();
+            }
+        }
+        simulatedEntities.clear();
+    }
+
+    private int collectCharacterStates() {
+        simulatedEntities.clear();
+        int count = 0;
+        for (EntityRef entity : physicsObjectIndex.getEntities()) {
+            // Clients simulate their own characters, authority only validates them
+            if (entity.hasComponent(ClientComponent.class))
+                continue;
+
+            if (count == characterStates.size())
+                characterStates.add(new BasicCharacterController.CharacterState());
+            BasicCharacterController.CharacterState state = characterStates.get(count);
+
+            LocationComponent location = entity.getComponent(LocationComponent.class);
+            MovementComponent movement = entity.getComponent(MovementComponent.class);
+            BasicCylinderPhysicsObjectComponent cylinder = entity.getComponent(BasicCylinderPhysicsObjectComponent.class);
+            state.worldId = location.getWorldId();
+            state.positionX = location.getX();
+            state.positionY = location.getY();
+            state.positionZ = location.getZ();
+            state.yaw = movement.getYaw();
+            state.horizontalSpeed = movement.getSpeed();
+            state.verticalSpeed = movement.getVerticalSpeed();
+            state.radius = cylinder.getRadius();
+            state.height = cylinder.getHeight();
+            state.moved = false;
+
+            simulatedEntities.add(entity);
+            count++;
+        }
+        return count;
+    }
+
+    private void simulate(int count, int steps) {
+        if (count <= charactersPerTask) {
+            simulateCharacters(0, count, steps);
+            return;
+        }
+
+        for (int start = 0; start < count; start += charactersPerTask) {
+            final int from = start;
+            final int to = Math.min(count, start + charactersPerTask);
+            pendingTasks.add(executorService.submit(() -> simulateCharacters(from, to, steps)));
+        }
+        try {
+            for (Future<?> pendingTask : pendingTasks)
+                pendingTask.get();
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while simulating physics", exp);
+        } catch (ExecutionException exp) {
+            throw new RuntimeException("Unable to simulate physics", exp.getCause());
+        } finally {
+            pendingTasks.clear();
+        }
+    }
+
+    private void simulateCharacters(int from, int to, int steps) {
+        BasicCharacterController controller = characterController.get();
+        for (int i = from; i < to; i++) {
+            BasicCharacterController.CharacterState state = characterStates.get(i);
+            for (int step = 0; step < steps; step++)
+                controller.step(state, fixedStepInSeconds);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.Ray;
+import com.badlogic.gdx.utils.Predicate;
+import com.gempukku.secsy.entity.io.EntityData;
+import com.gempukku.terasology.physics.PhysicsEngine;
+
+/**
+ * Moves upright cylinder characters (walking and falling), based on their state only, so that any number of
+ * characters can be moved with one controller. Steps do not create any objects, the controller keeps its own
+ * temporary objects instead, so one instance should not be used by multiple threads at the same time.
+ */
+public class BasicCharacterController {
+    // meters per second squared
+    private static final float gravity = -9.81f;
+
+    private static final float walkPadding = 0.01f;
+    private static final float stepHeight = 1.1f;
+
+    private static final int pointsAround = 8;
+    private static final float[] aroundX = new float[pointsAround];
+    private static final float[] aroundZ = new float[pointsAround];
+
+    static {
+        for (int i = 0; i < pointsAround; i++) {
+            double angle = 2 * Math.PI * i / pointsAround;
+            aroundX[i] = (float) Math.cos(angle);
+            aroundZ[i] = (float) Math.sin(angle);
+        }
+    }
+
+    private final PhysicsEngine physicsEngine;
+    private final Predicate<EntityData> collisionPredicate;
+
+    private final Ray ray = new Ray(new Vector3(), new Vector3());
+    private final Vector3 point = new Vector3();
+    private final Vector3 groundPoint = new Vector3();
+
+    public BasicCharacterController(PhysicsEngine physicsEngine, Predicate<EntityData> collisionPredicate) {
+        this.physicsEngine = physicsEngine;
+        this.collisionPredicate = collisionPredicate;
+    }
+
+    public void step(CharacterState state, float stepLengthInSeconds) {
+        float horizontalDistance = state.horizontalSpeed * stepLengthInSeconds;
+        float moveX = horizontalDistance * (float) Math.cos(state.yaw);
+        float moveZ = horizontalDistance * (float) Math.sin(state.yaw);
+
+        if (state.verticalSpeed <= 0 && isStandingOnGround(state)) {
+            state.verticalSpeed = 0;
+            if (horizontalDistance != 0)
+                walk(state, moveX, moveZ, Math.abs(horizontalDistance));
+        } else {
+            fall(state, moveX, moveZ, stepLengthInSeconds);
+        }
+    }
+
+    private boolean isStandingOnGround(CharacterState state) {
+        if (hasGroundBelow(state, 0, 0))
+            return true;
+        for (int i = 0; i < pointsAround; i++) {
+            if (hasGroundBelow(state, aroundX[i] * state.radius, aroundZ[i] * state.radius))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean hasGroundBelow(CharacterState state, float offsetX, float offsetZ) {
+        ray.origin.set(state.positionX + offsetX, state.positionY + walkPadding, state.positionZ + offsetZ);
+        ray.direction.set(0, -1, 0);
+        // Falling characters stop walkPadding above the ground
+        return physicsEngine.findFirstCollisionPoint(state.worldId, ray, walkPadding * 3, collisionPredicate, point);
+    }
+
+    private void walk(CharacterState state, float moveX, float moveZ, float horizontalDistance) {
+        float x = state.positionX + moveX;
+        float z = state.positionZ + moveZ;
+
+        ray.origin.set(x, state.positionY + stepHeight + walkPadding, z);
+        ray.direction.set(0, -1, 0);
+        if (physicsEngine.findFirstCollisionPoint(state.worldId, ray, stepHeight * 2 + walkPadding, collisionPredicate, groundPoint)) {
+            if (canFitAtPoint(state, groundPoint.x, groundPoint.y, groundPoint.z))
+                state.setPosition(groundPoint.x, groundPoint.y, groundPoint.z);
+        } else {
+            ray.origin.set(state.positionX, state.positionY + walkPadding, state.positionZ);
+            ray.direction.set(moveX, -walkPadding, moveZ).nor();
+            if (!physicsEngine.findFirstCollisionPoint(state.worldId, ray, horizontalDistance, collisionPredicate, point)) {
+                // Walked off the edge, the character starts falling in the next step
+                state.setPosition(x, state.positionY, z);
+            }
+        }
+    }
+
+    private boolean canFitAtPoint(CharacterState state, float x, float y, float z) {
+        if (isObstructedAbove(state, x, y, z))
+            return false;
+        for (int i = 0; i < pointsAround; i++) {
+            if (isObstructedAbove(state, x + aroundX[i] * state.radius, y, z + aroundZ[i] * state.radius))
+                return false;
+        }
+        return true;
+    }
+
+    private boolean isObstructedAbove(CharacterState state, float x, float y, float z) {
+        ray.origin.set(x, y + walkPadding, z);
+        ray.direction.set(0, 1, 0);
+        return physicsEngine.findFirstCollisionPoint(state.worldId, ray, state.height, collisionPredicate, point);
+    }
+
+    private void fall(CharacterState state, float moveX, float moveZ, float stepLengthInSeconds) {
+        state.verticalSpeed += gravity * stepLengthInSeconds;
+        float moveY = state.verticalSpeed * stepLengthInSeconds;
+
+        // Each axis is resolved on its own, so the character slides along walls and keeps falling next to them,
+        // the character is kept walkPadding away from anything it hits
+        if (moveY != 0) {
+            float allowedY = sweep(state, 0, Math.signum(moveY), 0, Math.abs(moveY));
+            state.setPosition(state.positionX, state.positionY + Math.signum(moveY) * allowedY, state.positionZ);
+            // Landed on ground or hit a ceiling
+            if (allowedY < Math.abs(moveY))
+                state.verticalSpeed = 0;
+        }
+        if (moveX != 0) {
+            float allowedX = sweep(state, Math.signum(moveX), 0, 0, Math.abs(moveX));
+            state.setPosition(state.positionX + Math.signum(moveX) * allowedX, state.positionY, state.positionZ);
+        }
+        if (moveZ != 0) {
+            float allowedZ = sweep(state, 0, 0, Math.signum(moveZ), Math.abs(moveZ));
+            state.setPosition(state.positionX, state.positionY, state.positionZ + Math.signum(moveZ) * allowedZ);
+        }
+    }
+
+    /**
+     * Finds how far (up to distance) the character can move along the axis direction, before any of the control
+     * points of its cylinder gets closer than walkPadding to an obstacle.
+     */
+    private float sweep(CharacterState state, float directionX, float directionY, float directionZ, float distance) {
+        float allowed = distance;
+        for (int level = 0; level < 3; level++) {
+            // Moving vertically, only the bottom (falling) or the top (rising) of the cylinder can hit something
+            if (directionY < 0 && level != 0)
+                continue;
+            if (directionY > 0 && level != 2)
+                continue;
+
+            float offsetY;
+            if (directionY != 0)
+                offsetY = state.height * level / 2;
+            else
+                offsetY = walkPadding + (state.height - 2 * walkPadding) * level / 2;
+
+            for (int i = -1; i < pointsAround; i++) {
+                float offsetX = (i == -1) ? 0 : aroundX[i] * state.radius;
+                float offsetZ = (i == -1) ? 0 : aroundZ[i] * state.radius;
+
+                ray.origin.set(state.positionX + offsetX, state.positionY + offsetY, state.positionZ + offsetZ);
+                ray.direction.set(directionX, directionY, directionZ);
+                if (physicsEngine.findFirstCollisionPoint(state.worldId, ray, allowed + walkPadding, collisionPredicate, point)) {
+                    float collisionDistance = point.dst(ray.origin) - walkPadding;
+                    if (collisionDistance < allowed)
+                        allowed = Math.max(0, collisionDistance);
+                }
+            }
+        }
+        return allowed;
+    }
+
+    /**
+     * State of a single character, it's changed by the controller with each simulation step.
+     */
+    public static class CharacterState {
+        public String worldId;
+        public float positionX;
+        public float positionY;
+        public float positionZ;
+        public float yaw;
+        public float horizontalSpeed;
+        public float verticalSpeed;
+        public float radius;
+        public float height;
+        public boolean moved;
+
+        public void setPosition(float x, float y, float z) {
+            if (x != positionX || y != positionY || z != positionZ) {
+                positionX = x;
+                positionY = y;
+                positionZ = z;
+                moved = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.badlogic.gdx.math.Vector3;
+import com.gempukku.terasology.physics.PhysicsEngine;
+
+public class BasicCollision implements PhysicsEngine.Collision {
+    private Vector3 blockLocation;
+    private Vector3 collisionPoint;
+    private Vector3 collisionNormal;
+
+    public BasicCollision(Vector3 blockLocation, Vector3 collisionPoint, Vector3 collisionNormal) {
+        this.blockLocation = blockLocation;
+        this.collisionPoint = collisionPoint;
+        this.collisionNormal = collisionNormal;
+    }
+
+    @Override
+    public void getBlock(Vector3 vector) {
+        vector.set(blockLocation);
+    }
+
+    @Override
+    public void getCollision(Vector3 vector) {
+        vector.set(collisionPoint);
+    }
+
+    @Override
+    public void getCollisionNormal(Vector3 vector) {
+        vector.set(collisionNormal);
+    }
+}
@@ -2,10 +2,13 @@ package com.gempukku.terasology.physics.basic;
 
 import com.badlogic.gdx.math.Vector3;
 
+/**
+ * Control points are shared by all callers and should not be modified.
+ */
 public interface CharacterShape {
-    Iterable<Vector3> getBottomControlPoints();
+    Vector3[] getBottomControlPoints();
 
     float getHeight();
 
-    Iterable<Vector3> getAllControlPoints();
+    Vector3[] getAllControlPoints();
 }
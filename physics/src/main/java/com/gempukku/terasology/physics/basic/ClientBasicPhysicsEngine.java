@@ -1,6 +1,5 @@
 package com.gempukku.terasology.physics.basic;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Intersector;
 import com.badlogic.gdx.math.Vector3;
 import com.badlogic.gdx.math.collision.Ray;
@@ -22,12 +21,13 @@ import com.gempukku.secsy.network.client.ServerEventBus;
 import com.gempukku.terasology.graphics.component.CameraComponent;
 import com.gempukku.terasology.graphics.environment.event.AfterChunkGeometryCreated;
 import com.gempukku.terasology.graphics.environment.event.BeforeChunkGeometryRemoved;
+import com.gempukku.terasology.log.Log;
 import com.gempukku.terasology.movement.MovementComponent;
 import com.gempukku.terasology.movement.MovementController;
+import com.gempukku.terasology.movement.MovementCorrectionEvent;
 import com.gempukku.terasology.movement.MovementRequestEvent;
 import com.gempukku.terasology.physics.PhysicsEngine;
 import com.gempukku.terasology.physics.component.BasicCylinderPhysicsObjectComponent;
-import com.gempukku.terasology.physics.component.DoesNotObstructMovementComponent;
 import com.gempukku.terasology.time.TimeManager;
 import com.gempukku.terasology.utils.tree.DimensionalMap;
 import com.gempukku.terasology.utils.tree.SpaceTree;
@@ -37,6 +37,7 @@ import com.gempukku.terasology.world.chunk.geometry.ChunkGeometry;
 import com.gempukku.terasology.world.chunk.geometry.ChunkGeometryContainer;
 import com.gempukku.terasology.world.chunk.geometry.ChunkGeometryManager;
 import com.gempukku.terasology.world.chunk.geometry.Triangle;
+import com.gempukku.terasology.world.chunk.geometry.TriangleBVH;
 import com.gempukku.terasology.world.component.ClientComponent;
 import com.gempukku.terasology.world.component.LocationComponent;
 
@@ -57,11 +58,21 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
     private TimeManager timeManager;
     @In
     private ServerEventBus serverEventBus;
+    // When present, collisions are found in block data, instead of the chunk geometry triangles
+    @In(optional = true)
+    private PhysicsEngine blockCollisionEngine;
 
     // meters per second squared
     private float gravity = -9.81f;
 
+    // Triangle search structure used, when there is no block collision engine - "bvh" or "spaceTree"
+    private final boolean useTriangleBVH = !"spaceTree".equals(System.getProperty("terasology.physics.triangleSearch", "bvh"));
+
     private Map<IntLocationKey, SpaceTree<Triangle>> chunkTriangles = new HashMap<>();
+    private Map<IntLocationKey, TriangleBVH> chunkTriangleBVHs = new HashMap<>();
+    private TriangleBVH.Hit triangleHit = new TriangleBVH.Hit();
+    private CachedChunkSector<SpaceTree<Triangle>> cachedChunkSector = new CachedChunkSector<>(createSpaceTreeSector());
+    private CachedChunkSector<TriangleBVH> cachedTriangleBVHSector = new CachedChunkSector<>(new TriangleBVH[blockSector.length]);
     private EntityIndex physicsObjectIndex;
 
     private Predicate<EntityData> collisionPredicate = new ObstructsMovementPredicate();
@@ -85,6 +96,13 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
 
     private final static float maxSimulationStep = 0.02f;
 
+    private CylinderCharacterShape characterShape;
+
+    // Used by simulation steps, so that stepping does not create any objects
+    private final Ray stepRay = new Ray(new Vector3(), new Vector3());
+    private final Vector3 stepPoint = new Vector3();
+    private final Vector3 stepCollisionPoint = new Vector3();
+
     @Override
     public void initialize() {
         gameLoop.addGameLoopListener(this);
@@ -124,6 +142,15 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
         }
     }
 
+    @ReceiveEvent
+    public void movementCorrected(MovementCorrectionEvent event, EntityRef entity, ClientComponent client) {
+        positionX = event.positionX;
+        positionY = event.positionY;
+        positionZ = event.positionZ;
+        verticalSpeed = 0;
+        mode = Mode.FREE_FALL;
+    }
+
     @Override
     public float getHorizontalSpeed() {
         return horizontalSpeed;
@@ -168,8 +195,7 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
         for (EntityRef entityRef : physicsObjectIndex.getEntities()) {
             if (entityRef.hasComponent(ClientComponent.class)) {
                 LocationComponent location = entityRef.getComponent(LocationComponent.class);
-                SpaceTree<Triangle>[] chunkSector = getChunkSector(location.getWorldId(), positionX, positionY, positionZ);
-                if (chunkSector != null) {
+                if (areChunksAroundLoaded(location.getWorldId())) {
                     CharacterShape characterShape = getCharacterShape(entityRef);
 
                     while (remainingSimulationTimeInSeconds > 0) {
@@ -197,7 +223,7 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
                     entityRef.saveChanges();
                     serverEventBus.sendEventToServer(new MovementRequestEvent(positionX, positionY, positionZ, movement.getVerticalSpeed(), movement.getSpeed(), movement.getYaw()));
                 } else {
-                    Gdx.app.debug(ClientBasicPhysicsEngine.class.getSimpleName(), "Chunks around are not loaded?");
+                    Log.debug(ClientBasicPhysicsEngine.class.getSimpleName(), "Chunks around are not loaded?");
                 }
             }
         }
@@ -205,6 +231,11 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
 
     @Override
     public Collision getFirstCollision(String worldId, Ray ray, float distance, Predicate<EntityData> entityDataPredicate) {
+        if (blockCollisionEngine != null)
+            return blockCollisionEngine.getFirstCollision(worldId, ray, distance, entityDataPredicate);
+        if (useTriangleBVH)
+            return getFirstTriangleBVHCollision(worldId, ray, distance);
+
         float x1 = ray.origin.x;
         float y1 = ray.origin.y;
         float z1 = ray.origin.z;
@@ -220,17 +251,21 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
         Vector3 resultNormal = new Vector3();
 
         SpaceTree<Triangle>[] chunkSector = getChunkSector(worldId, x1, y1, z1);
+        if (chunkSector == null)
+            return null;
 
         for (SpaceTree<Triangle> trianglesInChunk : chunkSector) {
             Collection<DimensionalMap.Entry<Triangle>> nearest = trianglesInChunk.findNearest(new float[]{x1, y1, z1}, 100, Math.max(distance, 2));
             for (DimensionalMap.Entry<Triangle> triangleEntry : nearest) {
                 triangleEntry.value.getBlockVertices(tempBlockLocation, temp3, temp4, temp5, normal);
 
-                Vector3 result = intersectSegmentTriangle(temp1, temp2, temp3, temp4, temp5);
-                if (result != null && normal.dot(ray.direction.x, ray.direction.y, ray.direction.z) <= 0) {
-                    float dst = result.dst(temp1);
+                if (intersectSegmentTriangle(temp1, temp2, temp3, temp4, temp5, segmentHit)
+                        && normal.dot(ray.direction.x, ray.direction.y, ray.direction.z) <= 0) {
+                    float dst = segmentHit.dst(temp1);
                     if (dst < lowestDistance) {
-                        closestPoint = result;
+                        if (closestPoint == null)
+                            closestPoint = new Vector3();
+                        closestPoint.set(segmentHit);
                         blockLocation.set(tempBlockLocation);
                         lowestDistance = dst;
                         resultNormal.set(normal);
@@ -240,15 +275,64 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
         }
 
         if (closestPoint != null) {
-            return new CollisionImpl(blockLocation, closestPoint, resultNormal);
+            return new BasicCollision(blockLocation, closestPoint, resultNormal);
         } else {
             return null;
         }
     }
 
+    @Override
+    public boolean findFirstCollisionPoint(String worldId, Ray ray, float distance, Predicate<EntityData> entityDataPredicate, Vector3 collisionPoint) {
+        if (blockCollisionEngine != null)
+            return blockCollisionEngine.findFirstCollisionPoint(worldId, ray, distance, entityDataPredicate, collisionPoint);
+        if (useTriangleBVH) {
+            if (!findFirstTriangleBVHHit(worldId, ray, distance))
+                return false;
+            collisionPoint.set(triangleHit.x, triangleHit.y, triangleHit.z);
+            return true;
+        }
+        return PhysicsEngine.super.findFirstCollisionPoint(worldId, ray, distance, entityDataPredicate, collisionPoint);
+    }
+
+    // Stores the closest hit (if any) in triangleHit
+    private boolean findFirstTriangleBVHHit(String worldId, Ray ray, float distance) {
+        TriangleBVH[] chunkSector = getTriangleBVHSector(worldId, ray.origin.x, ray.origin.y, ray.origin.z);
+        if (chunkSector == null)
+            return false;
+
+        triangleHit.reset(distance);
+        boolean found = false;
+        for (TriangleBVH triangleBVH : chunkSector) {
+            found |= triangleBVH.intersectRay(ray.origin.x, ray.origin.y, ray.origin.z,
+                    ray.direction.x, ray.direction.y, ray.direction.z, triangleHit);
+        }
+        return found;
+    }
+
+    private Collision getFirstTriangleBVHCollision(String worldId, Ray ray, float distance) {
+        if (findFirstTriangleBVHHit(worldId, ray, distance)) {
+            return new BasicCollision(
+                    new Vector3(triangleHit.blockX, triangleHit.blockY, triangleHit.blockZ),
+                    new Vector3(triangleHit.x, triangleHit.y, triangleHit.z),
+                    new Vector3(triangleHit.normalX, triangleHit.normalY, triangleHit.normalZ));
+        } else {
+            return null;
+        }
+    }
+
+    private boolean areChunksAroundLoaded(String worldId) {
+        if (blockCollisionEngine != null)
+            return true;
+        if (useTriangleBVH)
+            return getTriangleBVHSector(worldId, positionX, positionY, positionZ) != null;
+        return getChunkSector(worldId, positionX, positionY, positionZ) != null;
+    }
+
     private CharacterShape getCharacterShape(EntityRef entityRef) {
         BasicCylinderPhysicsObjectComponent cylinderObject = entityRef.getComponent(BasicCylinderPhysicsObjectComponent.class);
-        return new CylinderCharacterShape(cylinderObject);
+        if (characterShape == null || !characterShape.hasDimensions(cylinderObject.getRadius(), cylinderObject.getHeight()))
+            characterShape = new CylinderCharacterShape(cylinderObject.getRadius(), cylinderObject.getHeight());
+        return characterShape;
     }
 
     private void processSimulationStep(String worldId, float stepLengthInSeconds, CharacterShape characterShape) {
@@ -268,12 +352,10 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
         float y = positionY + verticalSpeed * stepLengthInSeconds;
         float z = positionZ + timeHorizontalComponent * (float) Math.sin(yaw);
 
-        Vector3 firstCollisionPoint = getFirstCollisionPoint(worldId, characterShape.getAllControlPoints(), positionX, positionY, positionZ, x, y, z);
-
-        if (firstCollisionPoint != null) {
-            positionX = firstCollisionPoint.x;
-            positionY = firstCollisionPoint.y;
-            positionZ = firstCollisionPoint.z;
+        if (findFirstShapeCollision(worldId, characterShape.getAllControlPoints(), positionX, positionY, positionZ, x, y, z, stepPoint)) {
+            positionX = stepPoint.x;
+            positionY = stepPoint.y;
+            positionZ = stepPoint.z;
             verticalSpeed = 0;
             mode = Mode.WALKING;
         } else {
@@ -283,37 +365,36 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
         }
     }
 
-    private Vector3 getFirstCollisionPoint(String worldId, Iterable<Vector3> shapeControlPoints,
-                                           float positionX, float positionY, float positionZ,
-                                           float x, float y, float z) {
+    private boolean findFirstShapeCollision(String worldId, Vector3[] shapeControlPoints,
+                                            float positionX, float positionY, float positionZ,
+                                            float x, float y, float z, Vector3 result) {
         float minDistance = Float.MAX_VALUE;
-        Vector3 result = null;
+        boolean found = false;
 
-        Vector3 direction = new Vector3(x - positionX, y - positionY, z - positionZ);
+        float directionX = x - positionX;
+        float directionY = y - positionY;
+        float directionZ = z - positionZ;
+        float length = (float) Math.sqrt(directionX * directionX + directionY * directionY + directionZ * directionZ);
 
         for (Vector3 shapeControlPoint : shapeControlPoints) {
-            Collision collision = getFirstCollision(worldId,
-                    new Ray(
-                            new Vector3(
-                                    positionX + shapeControlPoint.x,
-                                    positionY + shapeControlPoint.y,
-                                    positionZ + shapeControlPoint.z),
-                            direction), direction.len(),
-                    collisionPredicate);
-
-            if (collision != null) {
-                Vector3 collisionPoint = new Vector3();
-                collision.getCollision(collisionPoint);
-                collisionPoint.sub(shapeControlPoint);
-                float distance = collisionPoint.dst(positionX, positionY, positionZ);
+            stepRay.origin.set(
+                    positionX + shapeControlPoint.x,
+                    positionY + shapeControlPoint.y,
+                    positionZ + shapeControlPoint.z);
+            stepRay.direction.set(directionX, directionY, directionZ).nor();
+
+            if (findFirstCollisionPoint(worldId, stepRay, length, collisionPredicate, stepCollisionPoint)) {
+                stepCollisionPoint.sub(shapeControlPoint);
+                float distance = stepCollisionPoint.dst(positionX, positionY, positionZ);
                 if (distance < minDistance) {
                     minDistance = distance;
-                    result = collisionPoint;
+                    result.set(stepCollisionPoint);
+                    found = true;
                 }
             }
         }
 
-        return result;
+        return found;
     }
 
     private void processSimulationStepForWalking(String worldId, float stepLengthInSeconds, CharacterShape characterShape) {
@@ -324,27 +405,21 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
         float z = positionZ + timeHorizontalComponent * (float) Math.sin(yaw);
 
         if (horizontalSpeed != 0) {
-            Ray ray = new Ray(new Vector3(x, positionY + stepHeight + walkPadding, z), new Vector3(0, -1, 0));
-            Collision collision = getFirstCollision(worldId, ray, stepHeight * 2 + walkPadding,
-                    collisionPredicate);
-
-            if (collision != null) {
-                Vector3 point = new Vector3();
-                collision.getCollision(point);
-                if (canFitShapeAtPoint(worldId, characterShape, point)) {
-                    positionX = point.x;
-                    positionY = point.y;
-                    positionZ = point.z;
+            stepRay.origin.set(x, positionY + stepHeight + walkPadding, z);
+            stepRay.direction.set(0, -1, 0);
+
+            if (findFirstCollisionPoint(worldId, stepRay, stepHeight * 2 + walkPadding, collisionPredicate, stepPoint)) {
+                if (canFitShapeAtPoint(worldId, characterShape, stepPoint)) {
+                    positionX = stepPoint.x;
+                    positionY = stepPoint.y;
+                    positionZ = stepPoint.z;
                 } else {
-                    Gdx.app.debug(ClientBasicPhysicsEngine.class.getSimpleName(), "Can't fit shape");
+                    Log.debug(ClientBasicPhysicsEngine.class.getSimpleName(), "Can't fit shape");
                 }
             } else {
-                ray = new Ray(
-                        new Vector3(positionX, positionY + walkPadding, positionZ),
-                        new Vector3(x - positionX, -walkPadding, z - positionZ));
-                collision = getFirstCollision(worldId, ray, timeHorizontalComponent,
-                        collisionPredicate);
-                if (collision == null) {
+                stepRay.origin.set(positionX, positionY + walkPadding, positionZ);
+                stepRay.direction.set(x - positionX, -walkPadding, z - positionZ).nor();
+                if (!findFirstCollisionPoint(worldId, stepRay, timeHorizontalComponent, collisionPredicate, stepCollisionPoint)) {
                     positionX = x;
                     positionZ = z;
                     mode = Mode.FREE_FALL;
@@ -358,13 +433,9 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
     private boolean canFitShapeAtPoint(String worldId, CharacterShape characterShape, Vector3 point) {
         float height = characterShape.getHeight();
         for (Vector3 vector3 : characterShape.getBottomControlPoints()) {
-            Collision collision = getFirstCollision(worldId, new Ray(
-                            new Vector3(point.x + vector3.x,
-                                    point.y + vector3.y + walkPadding,
-                                    point.z + vector3.z),
-                            new Vector3(0, 1, 0)), height,
-                    collisionPredicate);
-            if (collision != null)
+            stepRay.origin.set(point.x + vector3.x, point.y + vector3.y + walkPadding, point.z + vector3.z);
+            stepRay.direction.set(0, 1, 0);
+            if (findFirstCollisionPoint(worldId, stepRay, height, collisionPredicate, stepCollisionPoint))
                 return false;
         }
 
@@ -375,20 +446,15 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
 
     private SpaceTree<Triangle>[] getChunkSector(String worldId, float x, float y, float z) {
         block.set(x, y, z);
-        SpaceTree<Triangle>[] result = new SpaceTree[blockSector.length];
-        for (int i = 0; i < blockSector.length; i++) {
-            SpaceTree<Triangle> triangles = chunkTriangles.get(new IntLocationKey(worldId,
-                    blockSector[i][0] + block.getChunkX(),
-                    blockSector[i][1] + block.getChunkY(),
-                    blockSector[i][2] + block.getChunkZ()));
-            if (triangles == null)
-                return null;
-            result[i] = triangles;
-        }
-        return result;
+        return cachedChunkSector.getSector(chunkTriangles, worldId, block.getChunkX(), block.getChunkY(), block.getChunkZ());
     }
 
-    private final int[][] blockSector = new int[][]
+    private TriangleBVH[] getTriangleBVHSector(String worldId, float x, float y, float z) {
+        block.set(x, y, z);
+        return cachedTriangleBVHSector.getSector(chunkTriangleBVHs, worldId, block.getChunkX(), block.getChunkY(), block.getChunkZ());
+    }
+
+    private static final int[][] blockSector = new int[][]
             {
                     {-1, -1, -1}, {-1, -1, 0}, {-1, -1, 1},
                     {-1, 0, -1}, {-1, 0, 0}, {-1, 0, 1},
@@ -407,6 +473,8 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
     private Vector3 temp4 = new Vector3();
     private Vector3 temp5 = new Vector3();
     private Vector3 normal = new Vector3();
+    private Vector3 segmentHit = new Vector3();
+    private Ray segmentRay = new Ray(new Vector3(), new Vector3());
 
     private WorldBlock tempWorldBlock = new WorldBlock();
 
@@ -427,11 +495,11 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
             for (DimensionalMap.Entry<Triangle> triangleEntry : nearest) {
                 triangleEntry.value.getBlockVertices(blockLocation, temp3, temp4, temp5, normal);
 
-                Vector3 result = intersectSegmentTriangle(temp1, temp2, temp3, temp4, temp5);
-                if (result != null && normal.dot(x2 - x1, y2 - y1, z2 - z1) <= 0) {
-                    float dst = result.dst(temp1);
+                if (intersectSegmentTriangle(temp1, temp2, temp3, temp4, temp5, segmentHit)
+                        && normal.dot(x2 - x1, y2 - y1, z2 - z1) <= 0) {
+                    float dst = segmentHit.dst(temp1);
                     if (dst < lowestDistance) {
-                        closestPoint = result;
+                        closestPoint = new Vector3(segmentHit);
                         lowestDistance = dst;
                         if (resultNormal != null)
                             resultNormal.set(normal);
@@ -440,17 +508,26 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
             }
         }
 
-        Gdx.app.debug(ClientBasicPhysicsEngine.class.getSimpleName(), "At point: " + x1 + "," + y1 + "," + z1);
+        Log.debug(ClientBasicPhysicsEngine.class.getSimpleName(), "At point: " + x1 + "," + y1 + "," + z1);
 
         return closestPoint;
     }
 
     @ReceiveEvent
     public void chunkGeometryCreated(AfterChunkGeometryCreated chunkGeometryCreated, EntityRef world) {
+        if (blockCollisionEngine != null)
+            return;
+
         ChunkGeometryContainer chunkGeometryContainer = chunkGeometryManager.getChunkGeometry(chunkGeometryCreated.worldId,
                 chunkGeometryCreated.x, chunkGeometryCreated.y, chunkGeometryCreated.z);
 
         ChunkGeometry chunkGeometry = chunkGeometryContainer.getChunkGeometry();
+        if (useTriangleBVH) {
+            chunkTriangleBVHs.put(new IntLocationKey(chunkGeometryContainer), chunkGeometry.getTriangleBVH());
+            cachedTriangleBVHSector.invalidate();
+            return;
+        }
+
         SpaceTree<Triangle> triangles = new SpaceTree<>(3);
 
         for (Triangle triangle : chunkGeometry.getTriangles()) {
@@ -461,6 +538,7 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
                     (temp1.z + temp2.z + temp3.z) / 3}, triangle);
         }
         chunkTriangles.put(new IntLocationKey(chunkGeometryContainer), triangles);
+        cachedChunkSector.invalidate();
     }
 
     @ReceiveEvent
@@ -469,53 +547,65 @@ public class ClientBasicPhysicsEngine implements LifeCycleSystem, GameLoopListen
                 chunkGeometryRemoved.x, chunkGeometryRemoved.y, chunkGeometryRemoved.z);
 
         chunkTriangles.remove(new IntLocationKey(chunkGeometryContainer));
+        chunkTriangleBVHs.remove(new IntLocationKey(chunkGeometryContainer));
+        cachedChunkSector.invalidate();
+        cachedTriangleBVHSector.invalidate();
     }
 
-    private static Vector3 intersectSegmentTriangle(Vector3 from, Vector3 to, Vector3 t0, Vector3 t1, Vector3 t2) {
-        Ray ray = new Ray(from, new Vector3(to).sub(from));
+    private boolean intersectSegmentTriangle(Vector3 from, Vector3 to, Vector3 t0, Vector3 t1, Vector3 t2, Vector3 result) {
+        segmentRay.origin.set(from);
+        segmentRay.direction.set(to).sub(from).nor();
 
-        Vector3 result = new Vector3();
-        boolean intersect = Intersector.intersectRayTriangle(ray, t0, t1, t2, result);
-        if (intersect) {
-            if (result.dst(from) > to.dst(from))
-                return null;
-            else
-                return result;
-        }
-        return null;
+        return Intersector.intersectRayTriangle(segmentRay, t0, t1, t2, result)
+                && result.dst(from) <= to.dst(from);
     }
 
-    private static class ObstructsMovementPredicate implements Predicate<EntityData> {
-        @Override
-        public boolean evaluate(EntityData entityData) {
-            return entityData.getComponent(DoesNotObstructMovementComponent.class) == null;
-        }
+    // Generic arrays can't be created directly
+    @SuppressWarnings("unchecked")
+    private static SpaceTree<Triangle>[] createSpaceTreeSector() {
+        return (SpaceTree<Triangle>[]) new SpaceTree<?>[blockSector.length];
     }
 
-    private static class CollisionImpl implements Collision {
-        private Vector3 blockLocation;
-        private Vector3 collisionPoint;
-        private Vector3 collisionNormal;
-
-        public CollisionImpl(Vector3 blockLocation, Vector3 collisionPoint, Vector3 collisionNormal) {
-            this.blockLocation = blockLocation;
-            this.collisionPoint = collisionPoint;
-            this.collisionNormal = collisionNormal;
+    /**
+     * Chunks around a chunk, they are looked up again only when asked for a different chunk, or after chunks
+     * were added or removed.
+     */
+    private static class CachedChunkSector<T> {
+        private final T[] sector;
+        private boolean valid;
+        private boolean complete;
+        private String worldId;
+        private int chunkX;
+        private int chunkY;
+        private int chunkZ;
+
+        private CachedChunkSector(T[] sector) {
+            this.sector = sector;
         }
 
-        @Override
-        public void getBlock(Vector3 vector) {
-            vector.set(blockLocation);
-        }
-
-        @Override
-        public void getCollision(Vector3 vector) {
-            vector.set(collisionPoint);
+        private T[] getSector(Map<IntLocationKey, T> chunks, String worldId, int chunkX, int chunkY, int chunkZ) {
+            if (!valid || chunkX != this.chunkX || chunkY != this.chunkY || chunkZ != this.chunkZ || !worldId.equals(this.worldId)) {
+                this.worldId = worldId;
+                this.chunkX = chunkX;
+                this.chunkY = chunkY;
+                this.chunkZ = chunkZ;
+                valid = true;
+                complete = true;
+                for (int i = 0; i < blockSector.length; i++) {
+                    T chunk = chunks.get(new IntLocationKey(worldId,
+                            blockSector[i][0] + chunkX, blockSector[i][1] + chunkY, blockSector[i][2] + chunkZ));
+                    if (chunk == null) {
+                        complete = false;
+                        break;
+                    }
+                    sector[i] = chunk;
+                }
+            }
+            return complete ? sector : null;
         }
 
-        @Override
-        public void getCollisionNormal(Vector3 vector) {
-            vector.set(collisionNormal);
+        private void invalidate() {
+            valid = false;
         }
     }
 }
@@ -1,64 +1,58 @@
 package com.gempukku.terasology.physics.basic;
 
 import com.badlogic.gdx.math.Vector3;
-import com.gempukku.terasology.physics.component.BasicCylinderPhysicsObjectComponent;
-
-import java.util.LinkedList;
-import java.util.List;
 
 public class CylinderCharacterShape implements CharacterShape {
-    private BasicCylinderPhysicsObjectComponent cylinderObject;
-
-    public CylinderCharacterShape(BasicCylinderPhysicsObjectComponent cylinderObject) {
-        this.cylinderObject = cylinderObject;
-    }
+    private static final int heightControlPoints = 3;
+    private static final int radiusControlPoints = 8;
 
-    @Override
-    public Iterable<Vector3> getBottomControlPoints() {
-        float cylinderRadius = cylinderObject.getRadius();
+    private final float radius;
+    private final float height;
+    private final Vector3[] bottomControlPoints;
+    private final Vector3[] allControlPoints;
 
-        List<Vector3> result = new LinkedList<>();
+    public CylinderCharacterShape(float radius, float height) {
+        this.radius = radius;
+        this.height = height;
 
-        int radiusControlPoints = 8;
+        bottomControlPoints = new Vector3[radiusControlPoints + 1];
+        for (int j = 0; j < radiusControlPoints; j++)
+            bottomControlPoints[j] = createRadiusControlPoint(j, 0);
+        bottomControlPoints[radiusControlPoints] = new Vector3(0, 0, 0);
 
-        for (int j = 0; j < radiusControlPoints; j++) {
-            float dx = cylinderRadius * (float) Math.sin(j * 2 * Math.PI / radiusControlPoints);
-            float dz = cylinderRadius * (float) Math.cos(j * 2 * Math.PI / radiusControlPoints);
-            result.add(new Vector3(dx, 0, dz));
+        allControlPoints = new Vector3[heightControlPoints * radiusControlPoints + 2];
+        int index = 0;
+        for (int i = 0; i < heightControlPoints; i++) {
+            float dy = i * height / (heightControlPoints - 1);
+            for (int j = 0; j < radiusControlPoints; j++)
+                allControlPoints[index++] = createRadiusControlPoint(j, dy);
         }
+        allControlPoints[index++] = new Vector3(0, 0, 0);
+        allControlPoints[index] = new Vector3(0, height, 0);
+    }
 
-        result.add(new Vector3(0, 0, 0));
+    private Vector3 createRadiusControlPoint(int index, float dy) {
+        float dx = radius * (float) Math.sin(index * 2 * Math.PI / radiusControlPoints);
+        float dz = radius * (float) Math.cos(index * 2 * Math.PI / radiusControlPoints);
+        return new Vector3(dx, dy, dz);
+    }
 
-        return result;
+    public boolean hasDimensions(float radius, float height) {
+        return this.radius == radius && this.height == height;
     }
 
     @Override
-    public Iterable<Vector3> getAllControlPoints() {
-        float cylinderHeight = cylinderObject.getHeight();
-        float cylinderRadius = cylinderObject.getRadius();
-
-        List<Vector3> result = new LinkedList<>();
-
-        int heightControlPoints = 3;
-        int radiusControlPoints = 8;
-
-        for (int i = 0; i < heightControlPoints; i++) {
-            float dy = i * cylinderHeight / (heightControlPoints - 1);
-            for (int j = 0; j < radiusControlPoints; j++) {
-                float dx = cylinderRadius * (float) Math.sin(j * 2 * Math.PI / radiusControlPoints);
-                float dz = cylinderRadius * (float) Math.cos(j * 2 * Math.PI / radiusControlPoints);
-                result.add(new Vector3(dx, dy, dz));
-            }
-        }
-
-        result.add(new Vector3(0, 0, 0));
-        result.add(new Vector3(0, cylinderHeight, 0));
+    public Vector3[] getBottomControlPoints() {
+        return bottomControlPoints;
+    }
 
-        return result;
+    @Override
+    public Vector3[] getAllControlPoints() {
+        return allControlPoints;
     }
 
     @Override
     public float getHeight() {
-        return cylinderObject.getHeight();
+        return height;
     }
 }
@@ -0,0 +1,12 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.badlogic.gdx.utils.Predicate;
+import com.gempukku.secsy.entity.io.EntityData;
+import com.gempukku.terasology.physics.component.DoesNotObstructMovementComponent;
+
+public class ObstructsMovementPredicate implements Predicate<EntityData> {
+    @Override
+    public boolean evaluate(EntityData entityData) {
+        return entityData.getComponent(DoesNotObstructMovementComponent.class) == null;
+    }
+}
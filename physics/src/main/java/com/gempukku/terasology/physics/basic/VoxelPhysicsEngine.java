@@ -0,0 +1,225 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.Ray;
+import com.badlogic.gdx.utils.Predicate;
+import com.gempukku.secsy.context.annotation.In;
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.entity.io.ComponentData;
+import com.gempukku.secsy.entity.io.EntityData;
+import com.gempukku.terasology.graphics.shape.BlockSide;
+import com.gempukku.terasology.graphics.shape.ShapeDef;
+import com.gempukku.terasology.graphics.shape.ShapeProvider;
+import com.gempukku.terasology.physics.PhysicsEngine;
+import com.gempukku.terasology.world.CommonBlockManager;
+import com.gempukku.terasology.world.chunk.ChunkBlocks;
+import com.gempukku.terasology.world.chunk.ChunkBlocksProvider;
+import com.gempukku.terasology.world.chunk.ChunkSize;
+import com.gempukku.terasology.world.component.ShapeAndTextureComponent;
+
+/**
+ * Finds collisions by walking the ray through the block grid (3D-DDA), instead of testing mesh triangles.
+ * A block stops the ray if the side the ray enters it through is one of the full parts of the block's shape,
+ * so it works from block data alone and can be used by both client and authority. Blocks without full parts
+ * (or with a generated mesh) do not obstruct rays. A ray that starts inside a block is stopped right at its
+ * origin only if all sides of that block are full, so that nothing can walk out of a solid block, but rays can
+ * still start in partial blocks (like slabs) the character stands in. Chunks that are not loaded obstruct
+ * everything, so that nothing can fall through the world while it is loading.
+ */
+@RegisterSystem(
+        profiles = {"basicPhysics", "voxelCollision"}, shared = PhysicsEngine.class)
+public class VoxelPhysicsEngine implements PhysicsEngine {
+    @In
+    private ChunkBlocksProvider chunkBlocksProvider;
+    @In
+    private CommonBlockManager commonBlockManager;
+    @In
+    private ShapeProvider shapeProvider;
+
+    private static final int allSidesMask = (1 << BlockSide.values().length) - 1;
+
+    private volatile BlockCollisionData blockCollisionData;
+
+    @Override
+    public Collision getFirstCollision(String worldId, Ray ray, float distance, Predicate<EntityData> entityDataPredicate) {
+        Vector3 blockLocation = new Vector3();
+        Vector3 collisionPoint = new Vector3();
+        BlockSide sideEntered = findFirstObstructingBlock(worldId, ray, distance, entityDataPredicate, blockLocation, collisionPoint);
+        if (sideEntered == null)
+            return null;
+        return new BasicCollision(blockLocation, collisionPoint,
+                new Vector3(sideEntered.getNormalX(), sideEntered.getNormalY(), sideEntered.getNormalZ()));
+    }
+
+    @Override
+    public boolean findFirstCollisionPoint(String worldId, Ray ray, float distance, Predicate<EntityData> entityDataPredicate, Vector3 collisionPoint) {
+        return findFirstObstructingBlock(worldId, ray, distance, entityDataPredicate, null, collisionPoint) != null;
+    }
+
+    /**
+     * Walks the ray through blocks, until it enters an obstructing block.
+     *
+     * @return Side of the block through which the ray entered it, or null if nothing obstructs the ray. If the ray
+     * starts inside a solid block, it's the side the ray would enter that block through along its main axis (top
+     * for a ray without direction).
+     */
+    private BlockSide findFirstObstructingBlock(String worldId, Ray ray, float distance, Predicate<EntityData> entityDataPredicate,
+                                                Vector3 blockLocation, Vector3 collisionPoint) {
+        BlockCollisionData collisionData = getBlockCollisionData();
+
+        float originX = ray.origin.x;
+        float originY = ray.origin.y;
+        float originZ = ray.origin.z;
+        float directionX = ray.direction.x;
+        float directionY = ray.direction.y;
+        float directionZ = ray.direction.z;
+
+        int blockX = (int) Math.floor(originX);
+        int blockY = (int) Math.floor(originY);
+        int blockZ = (int) Math.floor(originZ);
+
+        int stepX = (directionX > 0) ? 1 : ((directionX < 0) ? -1 : 0);
+        int stepY = (directionY > 0) ? 1 : ((directionY < 0) ? -1 : 0);
+        int stepZ = (directionZ > 0) ? 1 : ((directionZ < 0) ? -1 : 0);
+
+        // Distance along the ray to the next block boundary on each axis, and the distance between boundaries
+        float maxX = getFirstBoundaryDistance(originX, blockX, directionX);
+        float maxY = getFirstBoundaryDistance(originY, blockY, directionY);
+        float maxZ = getFirstBoundaryDistance(originZ, blockZ, directionZ);
+        float deltaX = (stepX != 0) ? Math.abs(1f / directionX) : Float.POSITIVE_INFINITY;
+        float deltaY = (stepY != 0) ? Math.abs(1f / directionY) : Float.POSITIVE_INFINITY;
+        float deltaZ = (stepZ != 0) ? Math.abs(1f / directionZ) : Float.POSITIVE_INFINITY;
+
+        BlockSide sideEnteredX = (stepX > 0) ? BlockSide.right : BlockSide.left;
+        BlockSide sideEnteredY = (stepY > 0) ? BlockSide.bottom : BlockSide.top;
+        BlockSide sideEnteredZ = (stepZ > 0) ? BlockSide.back : BlockSide.front;
+
+        ChunkBlocks chunkBlocks = getChunkBlocks(worldId, blockX, blockY, blockZ, null);
+        if (isObstructing(chunkBlocks, blockX, blockY, blockZ, allSidesMask, collisionData, entityDataPredicate)) {
+            if (blockLocation != null)
+                blockLocation.set(blockX, blockY, blockZ);
+            collisionPoint.set(originX, originY, originZ);
+            float absX = Math.abs(directionX);
+            float absY = Math.abs(directionY);
+            float absZ = Math.abs(directionZ);
+            if (absX > absY && absX > absZ)
+                return sideEnteredX;
+            else if (absZ > absY)
+                return sideEnteredZ;
+            else
+                return sideEnteredY;
+        }
+
+        // Without direction, the ray does not leave the block it starts in
+        if (stepX == 0 && stepY == 0 && stepZ == 0)
+            return null;
+
+        while (true) {
+            float travelled;
+            BlockSide sideEntered;
+            if (maxX <= maxY && maxX <= maxZ) {
+                travelled = maxX;
+                maxX += deltaX;
+                blockX += stepX;
+                sideEntered = sideEnteredX;
+            } else if (maxY <= maxZ) {
+                travelled = maxY;
+                maxY += deltaY;
+                blockY += stepY;
+                sideEntered = sideEnteredY;
+            } else {
+                travelled = maxZ;
+                maxZ += deltaZ;
+                blockZ += stepZ;
+                sideEntered = sideEnteredZ;
+            }
+
+            if (travelled > distance)
+                return null;
+
+            chunkBlocks = getChunkBlocks(worldId, blockX, blockY, blockZ, chunkBlocks);
+            if (isObstructing(chunkBlocks, blockX, blockY, blockZ, 1 << sideEntered.ordinal(), collisionData, entityDataPredicate)) {
+                if (blockLocation != null)
+                    blockLocation.set(blockX, blockY, blockZ);
+                collisionPoint.set(originX + directionX * travelled, originY + directionY * travelled, originZ + directionZ * travelled);
+                return sideEntered;
+            }
+        }
+    }
+
+    /**
+     * Returns chunk containing the block, reusing the previously returned chunk, if the block is still in it.
+     * Chunks that are not loaded are returned as null.
+     */
+    private ChunkBlocks getChunkBlocks(String worldId, int blockX, int blockY, int blockZ, ChunkBlocks previousChunkBlocks) {
+        int chunkX = Math.floorDiv(blockX, ChunkSize.X);
+        int chunkY = Math.floorDiv(blockY, ChunkSize.Y);
+        int chunkZ = Math.floorDiv(blockZ, ChunkSize.Z);
+        if (previousChunkBlocks != null && previousChunkBlocks.x == chunkX && previousChunkBlocks.y == chunkY && previousChunkBlocks.z == chunkZ)
+            return previousChunkBlocks;
+        return chunkBlocksProvider.getChunkBlocks(worldId, chunkX, chunkY, chunkZ);
+    }
+
+    private static boolean isObstructing(ChunkBlocks chunkBlocks, int blockX, int blockY, int blockZ, int sidesMask,
+                                         BlockCollisionData collisionData, Predicate<EntityData> entityDataPredicate) {
+        if (chunkBlocks == null || chunkBlocks.getStatus() != ChunkBlocks.Status.READY)
+            return true;
+        short block = chunkBlocks.getCommonBlockAt(
+                blockX - chunkBlocks.x * ChunkSize.X, blockY - chunkBlocks.y * ChunkSize.Y, blockZ - chunkBlocks.z * ChunkSize.Z);
+        return (collisionData.fullSides[block] & sidesMask) == sidesMask
+                && entityDataPredicate.evaluate(collisionData.blockData[block]);
+    }
+
+    private static float getFirstBoundaryDistance(float origin, int block, float direction) {
+        if (direction > 0)
+            return (block + 1 - origin) / direction;
+        else if (direction < 0)
+            return (block - origin) / direction;
+        else
+            return Float.POSITIVE_INFINITY;
+    }
+
+    private BlockCollisionData getBlockCollisionData() {
+        BlockCollisionData result = blockCollisionData;
+        if (result == null) {
+            synchronized (this) {
+                result = blockCollisionData;
+                if (result == null) {
+                    result = createBlockCollisionData();
+                    blockCollisionData = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private BlockCollisionData createBlockCollisionData() {
+        int commonBlockCount = commonBlockManager.getCommonBlockCount();
+        int[] fullSides = new int[commonBlockCount];
+        EntityData[] blockData = new EntityData[commonBlockCount];
+        for (short i = 0; i < commonBlockCount; i++) {
+            EntityData commonBlockData = commonBlockManager.getCommonBlockById(i);
+            blockData[i] = commonBlockData;
+            ComponentData shapeAndTextureComponent = commonBlockData.getComponent(ShapeAndTextureComponent.class);
+            if (shapeAndTextureComponent != null) {
+                ShapeDef shape = shapeProvider.getShapeById((String) shapeAndTextureComponent.getFields().get("shapeId"));
+                if (shape.getFullParts() != null) {
+                    for (BlockSide fullPart : shape.getFullParts())
+                        fullSides[i] |= 1 << fullPart.ordinal();
+                }
+            }
+        }
+        return new BlockCollisionData(fullSides, blockData);
+    }
+
+    private static class BlockCollisionData {
+        // Bit mask of full sides (by BlockSide ordinal) for each common block id
+        private final int[] fullSides;
+        private final EntityData[] blockData;
+
+        private BlockCollisionData(int[] fullSides, EntityData[] blockData) {
+            this.fullSides = fullSides;
+            this.blockData = blockData;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.gempukku.terasology.physics.component;
+
+import com.gempukku.secsy.entity.Component;
+
+/**
+ * Kept by authority for entities that report their own movement, to check the reported movement is possible.
+ */
+public interface MovementValidationComponent extends Component {
+    long getLastMovementTime();
+
+    void setLastMovementTime(long lastMovementTime);
+
+    /**
+     * Distance the entity can still move, it grows with time (up to a limit) and each accepted movement uses it up.
+     *
+     * @return
+     */
+    float getMovementAllowance();
+
+    void setMovementAllowance(float movementAllowance);
+}
@@ -0,0 +1,297 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.context.system.ClassSystemProducer;
+import com.gempukku.secsy.context.system.ShareSystemInitializer;
+import com.gempukku.secsy.context.system.SimpleContext;
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.terasology.movement.MovementCorrectionEvent;
+import com.gempukku.terasology.movement.MovementRequestEvent;
+import com.gempukku.terasology.physics.component.BasicCylinderPhysicsObjectComponent;
+import com.gempukku.terasology.physics.component.MovementValidationComponent;
+import com.gempukku.terasology.time.TimeManager;
+import com.gempukku.terasology.world.chunk.ChunkBlocksProvider;
+import org.hamcrest.BaseMatcher;
+import org.hamcrest.Description;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.assertEquals;
+
+public class AuthorityBasicPhysicsEngineTest {
+    private static final float DELTA = 0.0001f;
+
+    private AuthorityBasicPhysicsEngine authorityBasicPhysicsEngine;
+    private MockTimeManager mockTimeManager;
+    private MockBlockWorld mockBlockWorld;
+
+    private EntityRef client;
+    private MockLocationComponent location;
+    private MockMovementComponent movement;
+    private MockMovementValidationComponent validation;
+    private MockCylinderComponent cylinder;
+
+    @Before
+    public void setup() {
+        ClassSystemProducer classSystemProducer = new ClassSystemProducer();
+        classSystemProducer.addClass(AuthorityBasicPhysicsEngine.class);
+        classSystemProducer.addClass(VoxelPhysicsEngine.class);
+        classSystemProducer.addClass(MockBlockWorld.class);
+        classSystemProducer.addClass(MockTimeManager.class);
+
+        SimpleContext<Object> simpleContext = new SimpleContext<>();
+        simpleContext.setSystemProducer(classSystemProducer);
+        simpleContext.setSystemInitializer(new ShareSystemInitializer<>());
+
+        simpleContext.startup();
+
+        // The system does not share any interface
+        for (Object system : simpleContext.getSystems()) {
+            if (system instanceof AuthorityBasicPhysicsEngine)
+                authorityBasicPhysicsEngine = (AuthorityBasicPhysicsEngine) system;
+        }
+        mockTimeManager = (MockTimeManager) simpleContext.getSystem(TimeManager.class);
+        mockBlockWorld = (MockBlockWorld) simpleContext.getSystem(ChunkBlocksProvider.class);
+
+        // Floor, the top of it is at y=1
+        mockBlockWorld.fill(-8, 0, -8, 8, 0, 8, MockBlockWorld.STONE);
+
+        location = new MockLocationComponent();
+        location.setWorldId("world");
+        location.setX(0.5f);
+        location.setY(1);
+        location.setZ(0.5f);
+
+        movement = new MockMovementComponent();
+        movement.setMaxSpeed(5);
+        movement.setJumpSpeed(0);
+
+        validation = new MockMovementValidationComponent();
+        validation.setLastMovementTime(0);
+        validation.setMovementAllowance(0);
+
+        cylinder = new MockCylinderComponent();
+        cylinder.setRadius(0.4f);
+        cylinder.setHeight(1.9f);
+
+        client = Mockito.mock(EntityRef.class);
+        Mockito.when(client.getComponent(MovementValidationComponent.class)).thenReturn(validation);
+        Mockito.when(client.getComponent(BasicCylinderPhysicsObjectComponent.class)).thenReturn(cylinder);
+    }
+
+    @Test
+    public void firstMovementGetsFullAllowance() {
+        Mockito.when(client.getComponent(MovementValidationComponent.class)).thenReturn(null);
+        Mockito.when(client.createComponent(MovementValidationComponent.class)).thenReturn(validation);
+        mockTimeManager.setMultiverseTime(10000);
+
+        // Allowed distance is maxSpeed * speedTolerance (1.2) per second
+        requestMove(6.4f, 1, 0.5f);
+
+        assertAccepted(6.4f, 1, 0.5f);
+        assertEquals(0.1f, validation.getMovementAllowance(), DELTA);
+        assertEquals(10000, validation.getLastMovementTime());
+    }
+
+    @Test
+    public void allowanceBuildsUpWithTime() {
+        mockTimeManager.setMultiverseTime(500);
+        requestMove(2.5f, 1, 0.5f);
+
+        assertAccepted(2.5f, 1, 0.5f);
+        assertEquals(1f, validation.getMovementAllowance(), DELTA);
+
+        mockTimeManager.setMultiverseTime(600);
+        requestMove(4.5f, 1, 0.5f);
+
+        assertRejected(2.5f, 1, 0.5f);
+        assertEquals(1.6f, validation.getMovementAllowance(), DELTA);
+
+        requestMove(4f, 1, 0.5f);
+
+        assertAccepted(4f, 1, 0.5f);
+        assertEquals(0.1f, validation.getMovementAllowance(), DELTA);
+    }
+
+    @Test
+    public void allowanceIsCapped() {
+        mockTimeManager.setMultiverseTime(100000);
+        requestMove(6.6f, 1, 0.5f);
+
+        assertRejected(0.5f, 1, 0.5f);
+        assertEquals(6f, validation.getMovementAllowance(), DELTA);
+
+        requestMove(6.4f, 1, 0.5f);
+
+        assertAccepted(6.4f, 1, 0.5f);
+    }
+
+    @Test
+    public void moveThroughWallRejected() {
+        mockBlockWorld.fill(2, 1, -8, 2, 3, 8, MockBlockWorld.STONE);
+        mockTimeManager.setMultiverseTime(1000);
+        movement.setVerticalSpeed(3);
+
+        requestMove(3.5f, 1, 0.5f);
+
+        assertRejected(0.5f, 1, 0.5f);
+        assertEquals(0, movement.getVerticalSpeed(), DELTA);
+    }
+
+    @Test
+    public void moveEndingInBlocksRejected() {
+        mockBlockWorld.setBlock(2, 1, 0, MockBlockWorld.STONE);
+        mockTimeManager.setMultiverseTime(1000);
+
+        requestMove(2.5f, 1.2f, 0.5f);
+
+        assertRejected(0.5f, 1, 0.5f);
+    }
+
+    @Test
+    public void moveEndingUnderLowCeilingRejected() {
+        mockBlockWorld.setBlock(2, 2, 0, MockBlockWorld.STONE);
+        mockTimeManager.setMultiverseTime(1000);
+
+        requestMove(2.5f, 1, 0.5f);
+
+        assertRejected(0.5f, 1, 0.5f);
+    }
+
+    @Test
+    public void stepUpAccepted() {
+        mockBlockWorld.setBlock(2, 1, 0, MockBlockWorld.STONE);
+        mockTimeManager.setMultiverseTime(1000);
+
+        requestMove(2.5f, 2, 0.5f);
+
+        assertAccepted(2.5f, 2, 0.5f);
+    }
+
+    @Test
+    public void moveUpThroughCeilingRejected() {
+        mockBlockWorld.fill(-8, 4, -8, 8, 4, 8, MockBlockWorld.STONE);
+        mockTimeManager.setMultiverseTime(1000);
+
+        requestMove(0.5f, 5, 0.5f);
+
+        assertRejected(0.5f, 1, 0.5f);
+    }
+
+    @Test
+    public void fallingDownIsFree() {
+        location.setY(5);
+        mockTimeManager.setMultiverseTime(0);
+
+        requestMove(0.5f, 3, 0.5f);
+
+        assertAccepted(0.5f, 3, 0.5f);
+        assertEquals(0, validation.getMovementAllowance(), DELTA);
+    }
+
+    @Test
+    public void teleportDownThroughFloorRejected() {
+        mockTimeManager.setMultiverseTime(0);
+
+        requestMove(0.5f, -3, 0.5f);
+
+        assertRejected(0.5f, 1, 0.5f);
+    }
+
+    @Test
+    public void nonObstructingBlocksDoNotStopMovement() {
+        mockBlockWorld.fill(2, 1, -8, 2, 3, 8, MockBlockWorld.TALL_GRASS);
+        mockTimeManager.setMultiverseTime(1000);
+
+        requestMove(3.5f, 1, 0.5f);
+
+        assertAccepted(3.5f, 1, 0.5f);
+    }
+
+    private void requestMove(float x, float y, float z) {
+        authorityBasicPhysicsEngine.movementRequestProcess(new MovementRequestEvent(x, y, z, 0, 0, 0), client, location, movement);
+    }
+
+    private void assertAccepted(float x, float y, float z) {
+        assertEquals(x, location.getX(), DELTA);
+        assertEquals(y, location.getY(), DELTA);
+        assertEquals(z, location.getZ(), DELTA);
+        Mockito.verify(client, Mockito.never()).send(Matchers.any(MovementCorrectionEvent.class));
+        Mockito.verify(client, Mockito.atLeastOnce()).saveChanges();
+    }
+
+    private void assertRejected(final float x, final float y, final float z) {
+        assertEquals(x, location.getX(), DELTA);
+        assertEquals(y, location.getY(), DELTA);
+        assertEquals(z, location.getZ(), DELTA);
+        Mockito.verify(client).send(Matchers.argThat(
+                new BaseMatcher<MovementCorrectionEvent>() {
+                    @Override
+                    public boolean matches(Object o) {
+                        MovementCorrectionEvent event = (MovementCorrectionEvent) o;
+                        return event.positionX == x && event.positionY == y && event.positionZ == z;
+                    }
+
+                    @Override
+                    public void describeTo(Description description) {
+                        description.appendText("Correction to " + x + "," + y + "," + z);
+                    }
+                }));
+        Mockito.verify(client, Mockito.atLeastOnce()).saveChanges();
+        Mockito.reset(client);
+        Mockito.when(client.getComponent(MovementValidationComponent.class)).thenReturn(validation);
+        Mockito.when(client.getComponent(BasicCylinderPhysicsObjectComponent.class)).thenReturn(cylinder);
+    }
+
+    @RegisterSystem(
+            shared = TimeManager.class)
+    public static class MockTimeManager implements TimeManager {
+        private long multiverseTime;
+
+        public void setMultiverseTime(long multiverseTime) {
+            this.multiverseTime = multiverseTime;
+        }
+
+        @Override
+        public long getMultiverseTime() {
+            return multiverseTime;
+        }
+
+        @Override
+        public long getTimeSinceLastUpdate() {
+            return 0;
+        }
+
+        @Override
+        public float getWorldDayTime(String worldId) {
+            return 0;
+        }
+    }
+
+    private static class MockMovementValidationComponent implements MovementValidationComponent {
+        private long lastMovementTime;
+        private float movementAllowance;
+
+        @Override
+        public long getLastMovementTime() {
+            return lastMovementTime;
+        }
+
+        @Override
+        public void setLastMovementTime(long lastMovementTime) {
+            this.lastMovementTime = lastMovementTime;
+        }
+
+        @Override
+        public float getMovementAllowance() {
+            return movementAllowance;
+        }
+
+        @Override
+        public void setMovementAllowance(float movementAllowance) {
+            this.movementAllowance = movementAllowance;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.context.system.ClassSystemProducer;
+import com.gempukku.secsy.context.system.ShareSystemInitializer;
+import com.gempukku.secsy.context.system.SimpleContext;
+import com.gempukku.secsy.entity.Component;
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.game.GameLoop;
+import com.gempukku.secsy.entity.game.GameLoopListener;
+import com.gempukku.secsy.entity.index.EntityIndex;
+import com.gempukku.secsy.entity.index.EntityIndexManager;
+import com.gempukku.terasology.movement.MovementComponent;
+import com.gempukku.terasology.physics.component.BasicCylinderPhysicsObjectComponent;
+import com.gempukku.terasology.time.TimeManager;
+import com.gempukku.terasology.world.chunk.ChunkBlocksProvider;
+import com.gempukku.terasology.world.component.ClientComponent;
+import com.gempukku.terasology.world.component.LocationComponent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AuthorityPhysicsSimulationTest {
+    private static final float DELTA = 0.001f;
+
+    private SimpleContext<Object> simpleContext;
+    private MockGameLoop mockGameLoop;
+    private MockTimeManager mockTimeManager;
+    private MockEntityIndexManager mockEntityIndexManager;
+
+    @Before
+    public void setup() {
+        ClassSystemProducer classSystemProducer = new ClassSystemProducer();
+        classSystemProducer.addClass(AuthorityPhysicsSimulation.class);
+        classSystemProducer.addClass(VoxelPhysicsEngine.class);
+        classSystemProducer.addClass(MockBlockWorld.class);
+        classSystemProducer.addClass(MockGameLoop.class);
+        classSystemProducer.addClass(MockTimeManager.class);
+        classSystemProducer.addClass(MockEntityIndexManager.class);
+
+        simpleContext = new SimpleContext<>();
+        simpleContext.setSystemProducer(classSystemProducer);
+        simpleContext.setSystemInitializer(new ShareSystemInitializer<>());
+
+        simpleContext.startup();
+
+        mockGameLoop = (MockGameLoop) simpleContext.getSystem(GameLoop.class);
+        mockTimeManager = (MockTimeManager) simpleContext.getSystem(TimeManager.class);
+        mockEntityIndexManager = (MockEntityIndexManager) simpleContext.getSystem(EntityIndexManager.class);
+
+        MockBlockWorld mockBlockWorld = (MockBlockWorld) simpleContext.getSystem(ChunkBlocksProvider.class);
+        // Floor, the top of it is at y=1
+        mockBlockWorld.fill(-8, 0, -8, 8, 0, 8, MockBlockWorld.STONE);
+    }
+
+    @After
+    public void cleanup() {
+        simpleContext.shutdown();
+    }
+
+    @Test
+    public void changesAppliedAfterParallelUpdate() {
+        EntityRef entity = createCharacter(0.5f, 3, 0.5f, false);
+        LocationComponent location = entity.getComponent(LocationComponent.class);
+
+        mockTimeManager.setTimeSinceLastUpdate(50);
+        mockGameLoop.callUpdate();
+
+        assertEquals(3f, location.getY(), DELTA);
+        Mockito.verify(entity, Mockito.never()).saveChanges();
+
+        mockGameLoop.runDeferredTasks();
+
+        assertTrue(location.getY() < 3f);
+        assertTrue(entity.getComponent(MovementComponent.class).getVerticalSpeed() < 0);
+        Mockito.verify(entity).saveChanges();
+    }
+
+    @Test
+    public void stepsAccumulateTime() {
+        EntityRef entity = createCharacter(0.5f, 3, 0.5f, false);
+
+        mockTimeManager.setTimeSinceLastUpdate(30);
+        mockGameLoop.callUpdate();
+        assertEquals(0, mockGameLoop.getDeferredTaskCount());
+
+        mockGameLoop.callUpdate();
+        assertEquals(1, mockGameLoop.getDeferredTaskCount());
+        mockGameLoop.runDeferredTasks();
+
+        // One fixed step of 0.05s
+        assertEquals(-9.81f * 0.05f, entity.getComponent(MovementComponent.class).getVerticalSpeed(), DELTA);
+    }
+
+    @Test
+    public void fallingCharacterLands() {
+        EntityRef entity = createCharacter(0.5f, 3, 0.5f, false);
+
+        mockTimeManager.setTimeSinceLastUpdate(50);
+        for (int i = 0; i < 20; i++) {
+            mockGameLoop.callUpdate();
+            mockGameLoop.runDeferredTasks();
+        }
+
+        assertEquals(1.01f, entity.getComponent(LocationComponent.class).getY(), DELTA);
+        assertEquals(0, entity.getComponent(MovementComponent.class).getVerticalSpeed(), DELTA);
+
+        // Standing characters are not saved
+        final AtomicInteger saveCount = new AtomicInteger();
+        Mockito.doAnswer(invocation -> saveCount.incrementAndGet()).when(entity).saveChanges();
+        mockGameLoop.callUpdate();
+        mockGameLoop.runDeferredTasks();
+        assertEquals(0, saveCount.get());
+    }
+
+    @Test
+    public void clientCharactersNotSimulated() {
+        EntityRef entity = createCharacter(0.5f, 3, 0.5f, true);
+
+        mockTimeManager.setTimeSinceLastUpdate(50);
+        mockGameLoop.callUpdate();
+
+        assertEquals(0, mockGameLoop.getDeferredTaskCount());
+        assertEquals(3f, entity.getComponent(LocationComponent.class).getY(), DELTA);
+    }
+
+    @Test
+    public void manyCharactersSimulatedInTasks() {
+        List<EntityRef> entities = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+            entities.add(createCharacter(-7.5f + (i % 16), 3, -7.5f + (i / 16), false));
+
+        mockTimeManager.setTimeSinceLastUpdate(50);
+        mockGameLoop.callUpdate();
+        mockGameLoop.runDeferredTasks();
+
+        for (EntityRef entity : entities) {
+            assertTrue(entity.getComponent(LocationComponent.class).getY() < 3f);
+            Mockito.verify(entity).saveChanges();
+        }
+    }
+
+    private EntityRef createCharacter(float x, float y, float z, boolean client) {
+        MockLocationComponent location = new MockLocationComponent();
+        location.setWorldId("world");
+        location.setX(x);
+        location.setY(y);
+        location.setZ(z);
+
+        MockMovementComponent movement = new MockMovementComponent();
+        movement.setMaxSpeed(5);
+
+        MockCylinderComponent cylinder = new MockCylinderComponent();
+        cylinder.setRadius(0.4f);
+        cylinder.setHeight(1.9f);
+
+        EntityRef entity = Mockito.mock(EntityRef.class);
+        Mockito.when(entity.getComponent(LocationComponent.class)).thenReturn(location);
+        Mockito.when(entity.getComponent(MovementComponent.class)).thenReturn(movement);
+        Mockito.when(entity.getComponent(BasicCylinderPhysicsObjectComponent.class)).thenReturn(cylinder);
+        Mockito.when(entity.hasComponent(ClientComponent.class)).thenReturn(client);
+
+        mockEntityIndexManager.entities.add(entity);
+        return entity;
+    }
+
+    @RegisterSystem(
+            shared = GameLoop.class)
+    public static class MockGameLoop implements GameLoop {
+        private GameLoopListener gameLoopListener;
+        private List<Runnable> deferredTasks = new ArrayList<>();
+
+        @Override
+        public void addGameLoopListener(GameLoopListener gameLoopListener) {
+            this.gameLoopListener = gameLoopListener;
+        }
+
+        @Override
+        public void removeGameLoopListener(GameLoopListener gameLoopListener) {
+            this.gameLoopListener = null;
+        }
+
+        @Override
+        public void executeAfterParallelUpdate(Runnable task) {
+            deferredTasks.add(task);
+        }
+
+        public void callUpdate() {
+            gameLoopListener.update();
+        }
+
+        public int getDeferredTaskCount() {
+            return deferredTasks.size();
+        }
+
+        public void runDeferredTasks() {
+            for (Runnable deferredTask : deferredTasks)
+                deferredTask.run();
+            deferredTasks.clear();
+        }
+    }
+
+    @RegisterSystem(
+            shared = TimeManager.class)
+    public static class MockTimeManager implements TimeManager {
+        private long timeSinceLastUpdate;
+
+        public void setTimeSinceLastUpdate(long timeSinceLastUpdate) {
+            this.timeSinceLastUpdate = timeSinceLastUpdate;
+        }
+
+        @Override
+        public long getMultiverseTime() {
+            return 0;
+        }
+
+        @Override
+        public long getTimeSinceLastUpdate() {
+            return timeSinceLastUpdate;
+        }
+
+        @Override
+        public float getWorldDayTime(String worldId) {
+            return 0;
+        }
+    }
+
+    @RegisterSystem(
+            shared = EntityIndexManager.class)
+    public static class MockEntityIndexManager implements EntityIndexManager {
+        private List<EntityRef> entities = new ArrayList<>();
+
+        @SafeVarargs
+        @Override
+        public final EntityIndex addIndexOnComponents(Class<? extends Component>... components) {
+            return () -> entities;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.gempukku.secsy.context.system.ClassSystemProducer;
+import com.gempukku.secsy.context.system.ShareSystemInitializer;
+import com.gempukku.secsy.context.system.SimpleContext;
+import com.gempukku.terasology.physics.PhysicsEngine;
+import com.gempukku.terasology.world.chunk.ChunkBlocksProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BasicCharacterControllerTest {
+    private static final float DELTA = 0.001f;
+
+    private MockBlockWorld mockBlockWorld;
+    private BasicCharacterController characterController;
+    private BasicCharacterController.CharacterState state;
+
+    @Before
+    public void setup() {
+        ClassSystemProducer classSystemProducer = new ClassSystemProducer();
+        classSystemProducer.addClass(VoxelPhysicsEngine.class);
+        classSystemProducer.addClass(MockBlockWorld.class);
+
+        SimpleContext<Object> simpleContext = new SimpleContext<>();
+        simpleContext.setSystemProducer(classSystemProducer);
+        simpleContext.setSystemInitializer(new ShareSystemInitializer<>());
+
+        simpleContext.startup();
+
+        mockBlockWorld = (MockBlockWorld) simpleContext.getSystem(ChunkBlocksProvider.class);
+        characterController = new BasicCharacterController(simpleContext.getSystem(PhysicsEngine.class), new ObstructsMovementPredicate());
+
+        // Floor, the top of it is at y=1
+        mockBlockWorld.fill(-8, 0, -8, 8, 0, 8, MockBlockWorld.STONE);
+
+        state = new BasicCharacterController.CharacterState();
+        state.worldId = "world";
+        state.positionX = 0.5f;
+        state.positionY = 1;
+        state.positionZ = 0.5f;
+        state.radius = 0.4f;
+        state.height = 1.9f;
+    }
+
+    @Test
+    public void standingStill() {
+        characterController.step(state, 0.05f);
+
+        assertFalse(state.moved);
+        assertEquals(0, state.verticalSpeed, DELTA);
+    }
+
+    @Test
+    public void walkOnFlatGround() {
+        state.yaw = 0;
+        state.horizontalSpeed = 4;
+
+        characterController.step(state, 0.1f);
+
+        assertTrue(state.moved);
+        assertEquals(0.9f, state.positionX, DELTA);
+        assertEquals(1f, state.positionY, DELTA);
+        assertEquals(0.5f, state.positionZ, DELTA);
+    }
+
+    @Test
+    public void stepUpOneBlock() {
+        mockBlockWorld.setBlock(1, 1, 0, MockBlockWorld.STONE);
+        state.yaw = 0;
+        state.horizontalSpeed = 5;
+
+        characterController.step(state, 0.2f);
+
+        assertEquals(1.5f, state.positionX, DELTA);
+        assertEquals(2f, state.positionY, DELTA);
+        assertEquals(0.5f, state.positionZ, DELTA);
+    }
+
+    @Test
+    public void blockedByHighWall() {
+        mockBlockWorld.fill(1, 1, 0, 1, 2, 0, MockBlockWorld.STONE);
+        state.yaw = 0;
+        state.horizontalSpeed = 5;
+
+        characterController.step(state, 0.2f);
+
+        assertFalse(state.moved);
+        assertEquals(0.5f, state.positionX, DELTA);
+        assertEquals(1f, state.positionY, DELTA);
+    }
+
+    @Test
+    public void fallAndLandOnGround() {
+        state.positionY = 3;
+
+        for (int i = 0; i < 20; i++)
+            characterController.step(state, 0.05f);
+
+        // Falling characters stop walkPadding above the ground
+        assertEquals(1.01f, state.positionY, DELTA);
+        assertEquals(0, state.verticalSpeed, DELTA);
+
+        state.moved = false;
+        characterController.step(state, 0.05f);
+        assertFalse(state.moved);
+    }
+
+    @Test
+    public void hitCeilingWhenJumping() {
+        mockBlockWorld.fill(-8, 4, -8, 8, 4, 8, MockBlockWorld.STONE);
+        state.verticalSpeed = 10;
+
+        characterController.step(state, 0.1f);
+        assertTrue(state.verticalSpeed > 0);
+
+        characterController.step(state, 0.1f);
+        // Top of the character stops walkPadding below the ceiling
+        assertEquals(4f - 0.01f - 1.9f, state.positionY, DELTA);
+        assertEquals(0, state.verticalSpeed, DELTA);
+    }
+
+    @Test
+    public void slideDownAlongWall() {
+        mockBlockWorld.fill(2, 1, -8, 2, 10, 8, MockBlockWorld.STONE);
+        state.positionX = 1.5f;
+        state.positionY = 5;
+        // Towards the wall (+X) and along it (+Z)
+        state.yaw = (float) Math.PI / 4;
+        state.horizontalSpeed = 5;
+
+        characterController.step(state, 0.1f);
+
+        // Stopped walkPadding from the wall on X axis, but moved freely on Y and Z axes
+        assertEquals(2f - 0.4f - 0.01f, state.positionX, DELTA);
+        assertEquals(5f - 9.81f * 0.1f * 0.1f, state.positionY, DELTA);
+        assertEquals(0.5f + 0.5f * (float) Math.sin(Math.PI / 4), state.positionZ, DELTA);
+        assertTrue(state.verticalSpeed < 0);
+
+        for (int i = 0; i < 5; i++)
+            characterController.step(state, 0.1f);
+
+        assertEquals(2f - 0.4f - 0.01f, state.positionX, DELTA);
+        assertTrue(state.positionY < 4);
+        assertTrue(state.verticalSpeed < 0);
+    }
+}
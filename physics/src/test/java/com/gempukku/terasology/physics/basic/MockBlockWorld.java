@@ -0,0 +1,174 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.entity.Component;
+import com.gempukku.secsy.entity.io.ComponentData;
+import com.gempukku.secsy.entity.io.EntityData;
+import com.gempukku.terasology.graphics.shape.BlockSide;
+import com.gempukku.terasology.graphics.shape.ShapeDef;
+import com.gempukku.terasology.graphics.shape.ShapeProvider;
+import com.gempukku.terasology.physics.component.DoesNotObstructMovementComponent;
+import com.gempukku.terasology.world.CommonBlockManager;
+import com.gempukku.terasology.world.chunk.ChunkBlocks;
+import com.gempukku.terasology.world.chunk.ChunkBlocksProvider;
+import com.gempukku.terasology.world.chunk.ChunkSize;
+import com.gempukku.terasology.world.component.ShapeAndTextureComponent;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * World made of air, with blocks placed by tests. Chunks are loaded (and empty) unless marked as not loaded.
+ */
+@RegisterSystem(
+        shared = {ChunkBlocksProvider.class, CommonBlockManager.class, ShapeProvider.class})
+public class MockBlockWorld implements ChunkBlocksProvider, CommonBlockManager, ShapeProvider {
+    public static final short AIR = 0;
+    public static final short STONE = 1;
+    // Full cube, that does not obstruct movement
+    public static final short TALL_GRASS = 2;
+    // Only the top side is full
+    public static final short PLATFORM = 3;
+
+    private static final String CUBE_SHAPE = "cube";
+    private static final String PLATFORM_SHAPE = "platform";
+
+    private final EntityData[] commonBlocks = new EntityData[]{
+            new MockEntityData(),
+            new MockEntityData(new MockComponentData(ShapeAndTextureComponent.class, Collections.<String, Object>singletonMap("shapeId", CUBE_SHAPE))),
+            new MockEntityData(new MockComponentData(ShapeAndTextureComponent.class, Collections.<String, Object>singletonMap("shapeId", CUBE_SHAPE)),
+                    new MockComponentData(DoesNotObstructMovementComponent.class, Collections.<String, Object>emptyMap())),
+            new MockEntityData(new MockComponentData(ShapeAndTextureComponent.class, Collections.<String, Object>singletonMap("shapeId", PLATFORM_SHAPE)))
+    };
+
+    private final Map<String, ChunkBlocks> chunks = new HashMap<>();
+    private final Set<String> notLoadedChunks = new HashSet<>();
+
+    public void setBlock(int x, int y, int z, short block) {
+        int chunkX = Math.floorDiv(x, ChunkSize.X);
+        int chunkY = Math.floorDiv(y, ChunkSize.Y);
+        int chunkZ = Math.floorDiv(z, ChunkSize.Z);
+        ChunkBlocks chunkBlocks = getOrCreateChunk(chunkX, chunkY, chunkZ);
+        int index = (z - chunkZ * ChunkSize.Z) + ChunkSize.Z * (y - chunkY * ChunkSize.Y)
+                + ChunkSize.Z * ChunkSize.Y * (x - chunkX * ChunkSize.X);
+        chunkBlocks.getBlocks()[index] = block;
+    }
+
+    public void fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, short block) {
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++)
+                    setBlock(x, y, z, block);
+            }
+        }
+    }
+
+    public void setChunkNotLoaded(int chunkX, int chunkY, int chunkZ) {
+        notLoadedChunks.add(getKey(chunkX, chunkY, chunkZ));
+    }
+
+    private ChunkBlocks getOrCreateChunk(int chunkX, int chunkY, int chunkZ) {
+        String key = getKey(chunkX, chunkY, chunkZ);
+        ChunkBlocks chunkBlocks = chunks.get(key);
+        if (chunkBlocks == null) {
+            chunkBlocks = new ChunkBlocks(ChunkBlocks.Status.READY, "world", chunkX, chunkY, chunkZ);
+            chunkBlocks.setBlocks(new short[ChunkSize.X * ChunkSize.Y * ChunkSize.Z]);
+            chunks.put(key, chunkBlocks);
+        }
+        return chunkBlocks;
+    }
+
+    private static String getKey(int chunkX, int chunkY, int chunkZ) {
+        return chunkX + "," + chunkY + "," + chunkZ;
+    }
+
+    @Override
+    public ChunkBlocks getChunkBlocks(String worldId, int x, int y, int z) {
+        if (!worldId.equals("world") || notLoadedChunks.contains(getKey(x, y, z)))
+            return null;
+        return getOrCreateChunk(x, y, z);
+    }
+
+    @Override
+    public boolean isChunkLoaded(String worldId, int x, int y, int z) {
+        return getChunkBlocks(worldId, x, y, z) != null;
+    }
+
+    @Override
+    public short getCommonBlockAt(String worldId, int x, int y, int z) {
+        ChunkBlocks chunkBlocks = getChunkBlocks(worldId, Math.floorDiv(x, ChunkSize.X), Math.floorDiv(y, ChunkSize.Y), Math.floorDiv(z, ChunkSize.Z));
+        return chunkBlocks.getCommonBlockAt(Math.floorMod(x, ChunkSize.X), Math.floorMod(y, ChunkSize.Y), Math.floorMod(z, ChunkSize.Z));
+    }
+
+    @Override
+    public EntityData getCommonBlockById(short id) {
+        return commonBlocks[id];
+    }
+
+    @Override
+    public short getCommonBlockId(String commonBlockId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getCommonBlockCount() {
+        return commonBlocks.length;
+    }
+
+    @Override
+    public ShapeDef getShapeById(String shapeId) {
+        ShapeDef shapeDef = new ShapeDef();
+        if (shapeId.equals(CUBE_SHAPE))
+            shapeDef.setFullParts(Arrays.asList(BlockSide.values()));
+        else if (shapeId.equals(PLATFORM_SHAPE))
+            shapeDef.setFullParts(Collections.singletonList(BlockSide.top));
+        return shapeDef;
+    }
+
+    private static class MockEntityData implements EntityData {
+        private final List<ComponentData> components;
+
+        private MockEntityData(ComponentData... components) {
+            this.components = Arrays.asList(components);
+        }
+
+        @Override
+        public Iterable<? extends ComponentData> getComponents() {
+            return components;
+        }
+
+        @Override
+        public ComponentData getComponent(Class<? extends Component> componentClass) {
+            for (ComponentData component : components) {
+                if (component.getComponentClass() == componentClass)
+                    return component;
+            }
+            return null;
+        }
+    }
+
+    private static class MockComponentData implements ComponentData {
+        private final Class<? extends Component> componentClass;
+        private final Map<String, Object> fields;
+
+        private MockComponentData(Class<? extends Component> componentClass, Map<String, Object> fields) {
+            this.componentClass = componentClass;
+            this.fields = fields;
+        }
+
+        @Override
+        public Class<? extends Component> getComponentClass() {
+            return componentClass;
+        }
+
+        @Override
+        public Map<String, Object> getFields() {
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.gempukku.terasology.physics.component.BasicCylinderPhysicsObjectComponent;
+
+public class MockCylinderComponent implements BasicCylinderPhysicsObjectComponent {
+    private float radius;
+    private float height;
+
+    @Override
+    public float getRadius() {
+        return radius;
+    }
+
+    @Override
+    public void setRadius(float radius) {
+        this.radius = radius;
+    }
+
+    @Override
+    public float getHeight() {
+        return height;
+    }
+
+    @Override
+    public void setHeight(float height) {
+        this.height = height;
+    }
+}
@@ -0,0 +1,50 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.gempukku.terasology.world.component.LocationComponent;
+
+public class MockLocationComponent implements LocationComponent {
+    private String worldId;
+    private float x;
+    private float y;
+    private float z;
+
+    @Override
+    public void setWorldId(String worldId) {
+        this.worldId = worldId;
+    }
+
+    @Override
+    public String getWorldId() {
+        return worldId;
+    }
+
+    @Override
+    public void setX(float x) {
+        this.x = x;
+    }
+
+    @Override
+    public float getX() {
+        return x;
+    }
+
+    @Override
+    public void setY(float y) {
+        this.y = y;
+    }
+
+    @Override
+    public float getY() {
+        return y;
+    }
+
+    @Override
+    public void setZ(float z) {
+        this.z = z;
+    }
+
+    @Override
+    public float getZ() {
+        return z;
+    }
+}
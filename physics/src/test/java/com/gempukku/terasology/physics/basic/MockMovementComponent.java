@@ -0,0 +1,61 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.gempukku.terasology.movement.MovementComponent;
+
+public class MockMovementComponent implements MovementComponent {
+    private float maxSpeed;
+    private float jumpSpeed;
+    private float speed;
+    private float verticalSpeed;
+    private float yaw;
+
+    @Override
+    public float getMaxSpeed() {
+        return maxSpeed;
+    }
+
+    @Override
+    public void setMaxSpeed(float maxSpeed) {
+        this.maxSpeed = maxSpeed;
+    }
+
+    @Override
+    public float getJumpSpeed() {
+        return jumpSpeed;
+    }
+
+    @Override
+    public void setJumpSpeed(float jumpSpeed) {
+        this.jumpSpeed = jumpSpeed;
+    }
+
+    @Override
+    public void setSpeed(float speed) {
+        this.speed = speed;
+    }
+
+    @Override
+    public float getSpeed() {
+        return speed;
+    }
+
+    @Override
+    public void setVerticalSpeed(float verticalSpeed) {
+        this.verticalSpeed = verticalSpeed;
+    }
+
+    @Override
+    public float getVerticalSpeed() {
+        return verticalSpeed;
+    }
+
+    @Override
+    public float getYaw() {
+        return yaw;
+    }
+
+    @Override
+    public void setYaw(float yaw) {
+        this.yaw = yaw;
+    }
+}
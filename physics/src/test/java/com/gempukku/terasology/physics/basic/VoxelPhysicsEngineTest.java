@@ -0,0 +1,216 @@
+package com.gempukku.terasology.physics.basic;
+
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.math.collision.Ray;
+import com.badlogic.gdx.utils.Predicate;
+import com.gempukku.secsy.context.system.ClassSystemProducer;
+import com.gempukku.secsy.context.system.ShareSystemInitializer;
+import com.gempukku.secsy.context.system.SimpleContext;
+import com.gempukku.secsy.entity.io.EntityData;
+import com.gempukku.terasology.physics.PhysicsEngine;
+import com.gempukku.terasology.world.chunk.ChunkBlocksProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class VoxelPhysicsEngineTest {
+    private static final float DELTA = 0.0001f;
+
+    private PhysicsEngine physicsEngine;
+    private MockBlockWorld mockBlockWorld;
+    private Predicate<EntityData> predicate = new ObstructsMovementPredicate();
+
+    @Before
+    public void setup() {
+        ClassSystemProducer classSystemProducer = new ClassSystemProducer();
+        classSystemProducer.addClass(VoxelPhysicsEngine.class);
+        classSystemProducer.addClass(MockBlockWorld.class);
+
+        SimpleContext<Object> simpleContext = new SimpleContext<>();
+        simpleContext.setSystemProducer(classSystemProducer);
+        simpleContext.setSystemInitializer(new ShareSystemInitializer<>());
+
+        simpleContext.startup();
+
+        physicsEngine = simpleContext.getSystem(PhysicsEngine.class);
+        mockBlockWorld = (MockBlockWorld) simpleContext.getSystem(ChunkBlocksProvider.class);
+    }
+
+    @Test
+    public void emptyWorld() {
+        assertNull(physicsEngine.getFirstCollision("world", createRay(0.5f, 10.5f, 0.5f, 1, 0, 0), 10, predicate));
+    }
+
+    @Test
+    public void sideEnteredPositiveSteps() {
+        mockBlockWorld.setBlock(3, 10, 0, MockBlockWorld.STONE);
+        mockBlockWorld.setBlock(0, 13, 0, MockBlockWorld.STONE);
+        mockBlockWorld.setBlock(0, 10, 3, MockBlockWorld.STONE);
+
+        // Enters the right side
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 1, 0, 0), 10, 3, 10, 0, 3, 10.5f, 0.5f, -1, 0, 0);
+        // Enters the bottom side
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 0, 1, 0), 10, 0, 13, 0, 0.5f, 13, 0.5f, 0, -1, 0);
+        // Enters the back side
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 0, 0, 1), 10, 0, 10, 3, 0.5f, 10.5f, 3, 0, 0, -1);
+    }
+
+    @Test
+    public void sideEnteredNegativeSteps() {
+        mockBlockWorld.setBlock(-3, 10, 0, MockBlockWorld.STONE);
+        mockBlockWorld.setBlock(0, 7, 0, MockBlockWorld.STONE);
+        mockBlockWorld.setBlock(0, 10, -3, MockBlockWorld.STONE);
+
+        // Enters the left side
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, -1, 0, 0), 10, -3, 10, 0, -2, 10.5f, 0.5f, 1, 0, 0);
+        // Enters the top side
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 0, -1, 0), 10, 0, 7, 0, 0.5f, 8, 0.5f, 0, 1, 0);
+        // Enters the front side
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 0, 0, -1), 10, 0, 10, -3, 0.5f, 10.5f, -2, 0, 0, 1);
+    }
+
+    @Test
+    public void onlyFullSidesObstruct() {
+        mockBlockWorld.setBlock(0, 7, 0, MockBlockWorld.PLATFORM);
+        mockBlockWorld.setBlock(0, 13, 0, MockBlockWorld.PLATFORM);
+        mockBlockWorld.setBlock(3, 10, 0, MockBlockWorld.PLATFORM);
+
+        // Platform is entered through its (full) top side
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 0, -1, 0), 10, 0, 7, 0, 0.5f, 8, 0.5f, 0, 1, 0);
+        // Bottom and right sides of the platform are not full
+        assertNull(physicsEngine.getFirstCollision("world", createRay(0.5f, 10.5f, 0.5f, 0, 1, 0), 10, predicate));
+        assertNull(physicsEngine.getFirstCollision("world", createRay(0.5f, 10.5f, 0.5f, 1, 0, 0), 10, predicate));
+    }
+
+    @Test
+    public void diagonalRay() {
+        mockBlockWorld.setBlock(2, 11, 0, MockBlockWorld.STONE);
+
+        // Goes through (1,10,0) and (1,11,0), then enters (2,11,0) through the right side at x=2
+        Vector3 collisionPoint = new Vector3();
+        assertTrue(physicsEngine.findFirstCollisionPoint("world", createRay(0.5f, 10.4f, 0.5f, 1, 1, 0), 10, predicate, collisionPoint));
+        assertEquals(2f, collisionPoint.x, DELTA);
+        assertEquals(11.9f, collisionPoint.y, DELTA);
+    }
+
+    @Test
+    public void distanceLimitsRay() {
+        mockBlockWorld.setBlock(3, 10, 0, MockBlockWorld.STONE);
+
+        assertNull(physicsEngine.getFirstCollision("world", createRay(0.5f, 10.5f, 0.5f, 1, 0, 0), 2.4f, predicate));
+        assertNotNull(physicsEngine.getFirstCollision("world", createRay(0.5f, 10.5f, 0.5f, 1, 0, 0), 2.5f, predicate));
+    }
+
+    @Test
+    public void nonObstructingBlockIgnored() {
+        mockBlockWorld.setBlock(2, 10, 0, MockBlockWorld.TALL_GRASS);
+        mockBlockWorld.setBlock(4, 10, 0, MockBlockWorld.STONE);
+
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 1, 0, 0), 10, 4, 10, 0, 4, 10.5f, 0.5f, -1, 0, 0);
+    }
+
+    @Test
+    public void negativeCoordinatesAcrossChunks() {
+        // Chunk -2 on X axis, and chunk -1 on Z axis
+        mockBlockWorld.setBlock(-33, 10, -1, MockBlockWorld.STONE);
+        assertCollision(createRay(0.5f, 10.5f, -0.5f, -1, 0, 0), 40, -33, 10, -1, -32, 10.5f, -0.5f, 1, 0, 0);
+
+        // Chunk -2 on Y axis
+        mockBlockWorld.setBlock(0, -65, 0, MockBlockWorld.STONE);
+        assertCollision(createRay(0.5f, -0.5f, 0.5f, 0, -1, 0), 70, 0, -65, 0, 0.5f, -64, 0.5f, 0, 1, 0);
+
+        // Last block of chunk -1 on Z axis
+        mockBlockWorld.setBlock(0, 10, -32, MockBlockWorld.STONE);
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 0, 0, -1), 40, 0, 10, -32, 0.5f, 10.5f, -31, 0, 0, 1);
+    }
+
+    @Test
+    public void notLoadedChunkObstructs() {
+        mockBlockWorld.setChunkNotLoaded(1, 0, 0);
+
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 1, 0, 0), 100, 32, 10, 0, 32, 10.5f, 0.5f, -1, 0, 0);
+        assertNull(physicsEngine.getFirstCollision("world", createRay(0.5f, 10.5f, 0.5f, 1, 0, 0), 30, predicate));
+    }
+
+    @Test
+    public void notLoadedChunkNegativeCoordinates() {
+        mockBlockWorld.setChunkNotLoaded(0, -1, 0);
+        mockBlockWorld.setChunkNotLoaded(-1, 0, 0);
+
+        assertCollision(createRay(0.5f, 0.5f, 0.5f, 0, -1, 0), 10, 0, -1, 0, 0.5f, 0, 0.5f, 0, 1, 0);
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, -1, 0, 0), 10, -1, 10, 0, 0, 10.5f, 0.5f, 1, 0, 0);
+    }
+
+    @Test
+    public void rayStartingInSolidBlock() {
+        mockBlockWorld.setBlock(0, 10, 0, MockBlockWorld.STONE);
+
+        // Stopped right at the origin, with the side it would enter through along its main axis
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 1, 0.5f, 0), 10, 0, 10, 0, 0.5f, 10.5f, 0.5f, -1, 0, 0);
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 0, -1, 0.5f), 10, 0, 10, 0, 0.5f, 10.5f, 0.5f, 0, 1, 0);
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 0, 0, 0), 10, 0, 10, 0, 0.5f, 10.5f, 0.5f, 0, 1, 0);
+    }
+
+    @Test
+    public void rayStartingInPartialOrNonObstructingBlock() {
+        mockBlockWorld.setBlock(0, 10, 0, MockBlockWorld.PLATFORM);
+        mockBlockWorld.setBlock(0, 11, 0, MockBlockWorld.TALL_GRASS);
+
+        assertNull(physicsEngine.getFirstCollision("world", createRay(0.5f, 10.5f, 0.5f, 0, 1, 0), 10, predicate));
+        assertNull(physicsEngine.getFirstCollision("world", createRay(0.5f, 11.5f, 0.5f, 0, 1, 0), 10, predicate));
+    }
+
+    @Test
+    public void rayStartingInNotLoadedChunk() {
+        mockBlockWorld.setChunkNotLoaded(0, 0, 0);
+
+        assertCollision(createRay(0.5f, 10.5f, 0.5f, 1, 0, 0), 10, 0, 10, 0, 0.5f, 10.5f, 0.5f, -1, 0, 0);
+    }
+
+    @Test
+    public void zeroLengthRay() {
+        mockBlockWorld.setBlock(1, 10, 0, MockBlockWorld.STONE);
+
+        assertNull(physicsEngine.getFirstCollision("world", createRay(0.5f, 10.5f, 0.5f, 1, 0, 0), 0, predicate));
+        // Boundary of the block is exactly at the end of the ray
+        assertNotNull(physicsEngine.getFirstCollision("world", createRay(0.5f, 10.5f, 0.5f, 1, 0, 0), 0.5f, predicate));
+    }
+
+    @Test
+    public void zeroDirectionRay() {
+        Vector3 collisionPoint = new Vector3();
+        assertFalse(physicsEngine.findFirstCollisionPoint("world", createRay(0.5f, 10.5f, 0.5f, 0, 0, 0), 10, predicate, collisionPoint));
+        assertFalse(physicsEngine.findFirstCollisionPoint("world", createRay(0.5f, 10.5f, 0.5f, 0, 0, 0), Float.POSITIVE_INFINITY, predicate, collisionPoint));
+    }
+
+    private Ray createRay(float x, float y, float z, float directionX, float directionY, float directionZ) {
+        return new Ray(new Vector3(x, y, z), new Vector3(directionX, directionY, directionZ));
+    }
+
+    private void assertCollision(Ray ray, float distance, int blockX, int blockY, int blockZ,
+                                 float pointX, float pointY, float pointZ, float normalX, float normalY, float normalZ) {
+        PhysicsEngine.Collision collision = physicsEngine.getFirstCollision("world", ray, distance, predicate);
+        assertNotNull(collision);
+
+        Vector3 vector = new Vector3();
+        collision.getBlock(vector);
+        assertEquals(new Vector3(blockX, blockY, blockZ), vector);
+        collision.getCollision(vector);
+        assertEquals(pointX, vector.x, DELTA);
+        assertEquals(pointY, vector.y, DELTA);
+        assertEquals(pointZ, vector.z, DELTA);
+        collision.getCollisionNormal(vector);
+        assertEquals(new Vector3(normalX, normalY, normalZ), vector);
+
+        Vector3 collisionPoint = new Vector3();
+        assertTrue(physicsEngine.findFirstCollisionPoint("world", ray, distance, predicate, collisionPoint));
+        assertEquals(pointX, collisionPoint.x, DELTA);
+        assertEquals(pointY, collisionPoint.y, DELTA);
+        assertEquals(pointZ, collisionPoint.z, DELTA);
+    }
+}
@@ -14,6 +14,7 @@ import com.gempukku.secsy.entity.event.Event;
 import com.gempukku.secsy.entity.game.InternalGameLoop;
 import com.gempukku.secsy.entity.game.InternalGameLoopListener;
 import com.gempukku.secsy.entity.io.EntityData;
+import com.gempukku.secsy.entity.profiling.SystemProfiler;
 import com.gempukku.secsy.entity.relevance.EntityRelevanceRule;
 import com.gempukku.secsy.entity.relevance.EntityRelevanceRuleRegistry;
 import com.google.common.collect.HashMultimap;
@@ -36,6 +37,8 @@ public class SimpleEntityManager implements EntityManager, InternalEntityManager
     private InternalComponentManager internalComponentManager;
     @In
     private InternalGameLoop internalGameLoop;
+    @In(optional = true)
+    private SystemProfiler systemProfiler;
 
     private PriorityCollection<EntityEventListener> entityEventListeners = new PriorityCollection<>();
     private PriorityCollection<EntityListener> entityListeners = new PriorityCollection<>();
@@ -113,6 +116,8 @@ public class SimpleEntityManager implements EntityManager, InternalEntityManager
 
         // Unload the entities
         unloadTheEntities(entitiesToUnload);
+        if (systemProfiler != null)
+            systemProfiler.entitiesUnloaded(entitiesToUnload.size());
 
         entityListeners.forEach(
                 listener -> listener.entitiesModified(entitiesToUnload));
@@ -121,6 +126,8 @@ public class SimpleEntityManager implements EntityManager, InternalEntityManager
 
         // Load any new entities that became relevant
         Set<SimpleEntity> loadedEntities = loadNewlyRelevantEntities();
+        if (systemProfiler != null)
+            systemProfiler.entitiesLoaded(loadedEntities.size());
 
         entityListeners.forEach(
                 listener -> listener.entitiesModified(loadedEntities));
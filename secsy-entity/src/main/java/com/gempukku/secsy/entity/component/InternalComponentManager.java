@@ -61,5 +61,13 @@ public interface InternalComponentManager {
      */
     <T> T getComponentFieldValue(Component component, String fieldName, Class<T> clazz);
 
+    /**
+     * Returns a new map with the values of all the fields of this component (null for fields without a value).
+     * Later changes of the component are not reflected in it, the values themselves are not copied.
+     * @param component
+     * @return
+     */
+    Map<String, Object> getComponentFieldValues(Component component);
+
     void setComponentFieldValue(Component component, String fieldName, Object fieldValue);
 }
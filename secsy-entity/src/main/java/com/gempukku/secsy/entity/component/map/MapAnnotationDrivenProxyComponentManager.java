@@ -100,6 +100,15 @@ public class MapAnnotationDrivenProxyComponentManager implements ComponentManage
         return (T) extractComponentView(component).storedValues.get(fieldName);
     }
 
+    @Override
+    public Map<String, Object> getComponentFieldValues(Component component) {
+        ComponentView componentView = extractComponentView(component);
+        Map<String, Object> values = new HashMap<>();
+        for (String fieldName : componentDefinitions.get(componentView.clazz).getFieldTypes().keySet())
+            values.put(fieldName, componentView.storedValues.get(fieldName));
+        return values;
+    }
+
     @Override
     public void setComponentFieldValue(Component component, String fieldName, Object fieldValue) {
         extractComponentView(component).storedValues.put(fieldName, fieldValue);
@@ -11,6 +11,7 @@ import com.gempukku.secsy.entity.EntityRef;
 import com.gempukku.secsy.entity.InternalEntityManager;
 import com.gempukku.secsy.entity.event.ComponentEvent;
 import com.gempukku.secsy.entity.event.Event;
+import com.gempukku.secsy.entity.profiling.SystemProfiler;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 
@@ -23,6 +24,8 @@ import java.util.Collection;
 public class AnnotationDrivenEventDispatcher implements ContextAwareSystem<Object>, LifeCycleSystem, EntityEventListener {
     @In
     private InternalEntityManager internalEntityManager;
+    @In(optional = true)
+    private SystemProfiler systemProfiler;
 
     private Multimap<Class<? extends Event>, EventListenerDefinition> eventListenerDefinitions = HashMultimap.create();
     private Iterable<Object> systems;
@@ -80,6 +83,18 @@ public class AnnotationDrivenEventDispatcher implements ContextAwareSystem<Objec
 
     @Override
     public void eventSent(EntityRef entity, Event event) {
+        if (systemProfiler == null) {
+            dispatchEvent(entity, event);
+        } else {
+            long allocatedBefore = systemProfiler.getAllocatedBytes();
+            long start = System.nanoTime();
+            dispatchEvent(entity, event);
+            systemProfiler.eventDispatched(event.getClass(),
+                    System.nanoTime() - start, systemProfiler.getAllocatedBytes() - allocatedBefore);
+        }
+    }
+
+    private void dispatchEvent(EntityRef entity, Event event) {
         for (EventListenerDefinition eventListenerDefinition : eventListenerDefinitions.get(event.getClass())) {
             boolean valid = true;
             for (Class<? extends Component> componentRequired : eventListenerDefinition.getComponentParameters()) {
@@ -115,11 +130,13 @@ public class AnnotationDrivenEventDispatcher implements ContextAwareSystem<Objec
         private Object system;
         private Method method;
         private Class<? extends Component>[] componentParameters;
+        private String receiverName;
 
         private EventListenerDefinition(Object system, Method method, Class<? extends Component>[] componentParameters) {
             this.system = system;
             this.method = method;
             this.componentParameters = componentParameters;
+            receiverName = system.getClass().getSimpleName() + "." + method.getName();
         }
 
         public Class<? extends Component>[] getComponentParameters() {
@@ -136,7 +153,15 @@ public class AnnotationDrivenEventDispatcher implements ContextAwareSystem<Objec
             }
 
             try {
-                method.invoke(system, params);
+                if (systemProfiler == null) {
+                    method.invoke(system, params);
+                } else {
+                    long allocatedBefore = systemProfiler.getAllocatedBytes();
+                    long start = System.nanoTime();
+                    method.invoke(system, params);
+                    systemProfiler.eventReceived(receiverName,
+                            System.nanoTime() - start, systemProfiler.getAllocatedBytes() - allocatedBefore);
+                }
             } catch (IllegalAccessException | InvocationTargetException e) {
                 throw new RuntimeException(e);
             }
@@ -6,4 +6,13 @@ import com.gempukku.secsy.context.annotation.API;
 public interface GameLoop {
     void addGameLoopListener(GameLoopListener gameLoopListener);
     void removeGameLoopListener(GameLoopListener gameLoopListener);
+
+    /**
+     * Executes the task on the game loop thread, once all the listeners updated in parallel with the calling one
+     * are finished. Listeners marked with ParallelUpdate have to make all the changes to entities this way.
+     * If called outside of a parallel update, the task is executed right away.
+     *
+     * @param task Task to execute.
+     */
+    void executeAfterParallelUpdate(Runnable task);
 }
@@ -4,5 +4,17 @@ public interface InternalGameLoop {
     void addInternalGameLoopListener(InternalGameLoopListener internalGameLoopListener);
     void removeInternalGameLooplListener(InternalGameLoopListener internalGameLoopListener);
 
+    /**
+     * Adds a recorder that will receive the timings of the updates. Game loops not able to record the timings
+     * ignore it.
+     *
+     * @param updatePhaseRecorder Recorder of the update timings.
+     */
+    default void addUpdatePhaseRecorder(UpdatePhaseRecorder updatePhaseRecorder) {
+    }
+
+    default void removeUpdatePhaseRecorder(UpdatePhaseRecorder updatePhaseRecorder) {
+    }
+
     void processUpdate();
 }
@@ -0,0 +1,32 @@
+package com.gempukku.secsy.entity.game;
+
+import com.gempukku.secsy.entity.Component;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GameLoopListener, which update can run concurrently with updates of other listeners marked with this
+ * annotation, as long as none of them writes a component the other one reads or writes.
+ * <p>
+ * While running in parallel, the listener can only read entities (and only the components it declares), all the
+ * changes to entities (saving changes, sending events, creating and removing entities) have to be passed to
+ * GameLoop.executeAfterParallelUpdate. Any other systems used in update have to be safe to call from another thread.
+ */
+@Retention(value = RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE})
+public @interface ParallelUpdate {
+    /**
+     * Components the listener reads in update.
+     * @return
+     */
+    Class<? extends Component>[] reads() default {};
+
+    /**
+     * Components the listener changes in tasks it passes to GameLoop.executeAfterParallelUpdate.
+     * @return
+     */
+    Class<? extends Component>[] writes() default {};
+}
@@ -2,20 +2,67 @@ package com.gempukku.secsy.entity.game;
 
 import com.gempukku.secsy.context.annotation.RegisterSystem;
 import com.gempukku.secsy.context.util.PriorityCollection;
+import com.gempukku.secsy.entity.Component;
+import com.gempukku.secsy.entity.profiling.ThreadAllocations;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Updates listeners in the order of their priority. Consecutive listeners marked with ParallelUpdate, that do not
+ * write components the others read or write, are updated together on the common fork-join pool. Changes they pass
+ * to executeAfterParallelUpdate are executed on the game loop thread once all of them are finished (in the order
+ * of the listeners), so the result is the same as if they were updated one after another.
+ * <p>
+ * Parallel updates can be switched off with "secsy.gameLoop.sequential" system property.
+ */
 @RegisterSystem(shared = {GameLoop.class, InternalGameLoop.class})
 public class SimpleGameLoop implements GameLoop, InternalGameLoop {
     private PriorityCollection<GameLoopListener> gameLoopListeners = new PriorityCollection<>();
     private PriorityCollection<InternalGameLoopListener> internalGameLoopListeners = new PriorityCollection<>();
 
+    private final boolean sequential = Boolean.getBoolean("secsy.gameLoop.sequential");
+
+    private final Map<GameLoopListener, ListenerAccess> listenerAccesses = new HashMap<>();
+    // Groups of listeners updated together, rebuilt when listeners change
+    private List<List<ListenerAccess>> updateGroups;
+
+    private final ThreadLocal<List<Runnable>> deferredTasks = new ThreadLocal<>();
+
+    // Replaced on change, so that recorders can be added from other threads, while the game loop is running
+    private volatile UpdatePhaseRecorder[] updatePhaseRecorders = new UpdatePhaseRecorder[0];
+
     @Override
     public void addGameLoopListener(GameLoopListener gameLoopListener) {
         gameLoopListeners.add(gameLoopListener);
+        listenerAccesses.put(gameLoopListener, new ListenerAccess(gameLoopListener));
+        updateGroups = null;
     }
 
     @Override
     public void removeGameLoopListener(GameLoopListener gameLoopListener) {
         gameLoopListeners.remove(gameLoopListener);
+        listenerAccesses.remove(gameLoopListener);
+        updateGroups = null;
+    }
+
+    @Override
+    public void executeAfterParallelUpdate(Runnable task) {
+        List<Runnable> tasks = deferredTasks.get();
+        if (tasks != null)
+            tasks.add(task);
+        else
+            task.run();
     }
 
     @Override
@@ -28,18 +75,168 @@ public class SimpleGameLoop implements GameLoop, InternalGameLoop {
         internalGameLoopListeners.remove(internalGameLoopListener);
     }
 
+    @Override
+    public synchronized void addUpdatePhaseRecorder(UpdatePhaseRecorder updatePhaseRecorder) {
+        UpdatePhaseRecorder[] recorders = Arrays.copyOf(updatePhaseRecorders, updatePhaseRecorders.length + 1);
+        recorders[recorders.length - 1] = updatePhaseRecorder;
+        updatePhaseRecorders = recorders;
+    }
+
+    @Override
+    public synchronized void removeUpdatePhaseRecorder(UpdatePhaseRecorder updatePhaseRecorder) {
+        List<UpdatePhaseRecorder> recorders = new ArrayList<>(Arrays.asList(updatePhaseRecorders));
+        recorders.remove(updatePhaseRecorder);
+        updatePhaseRecorders = recorders.toArray(new UpdatePhaseRecorder[recorders.size()]);
+    }
+
     @Override
     public void processUpdate() {
-        for (InternalGameLoopListener internalGameLoopListener : internalGameLoopListeners) {
+        UpdatePhaseRecorder[] recorders = updatePhaseRecorders;
+
+        for (InternalGameLoopListener internalGameLoopListener : internalGameLoopListeners)
+            preUpdate(internalGameLoopListener, recorders);
+
+        long updateStart = (recorders.length > 0) ? System.nanoTime() : 0;
+        if (updateGroups == null)
+            updateGroups = createUpdateGroups();
+        for (List<ListenerAccess> updateGroup : updateGroups) {
+            if (updateGroup.size() == 1)
+                update(updateGroup.get(0), recorders);
+            else
+                updateInParallel(updateGroup, recorders);
+        }
+        if (recorders.length > 0) {
+            long duration = System.nanoTime() - updateStart;
+            for (UpdatePhaseRecorder recorder : recorders)
+                recorder.updateFinished(duration);
+        }
+
+        for (InternalGameLoopListener internalGameLoopListener : internalGameLoopListeners)
+            postUpdate(internalGameLoopListener, recorders);
+    }
+
+    private void preUpdate(InternalGameLoopListener internalGameLoopListener, UpdatePhaseRecorder[] recorders) {
+        if (recorders.length == 0) {
             internalGameLoopListener.preUpdate();
+        } else {
+            long allocatedBefore = ThreadAllocations.getAllocatedBytes();
+            long start = System.nanoTime();
+            internalGameLoopListener.preUpdate();
+            long duration = System.nanoTime() - start;
+            long allocated = ThreadAllocations.getAllocatedBytes() - allocatedBefore;
+            for (UpdatePhaseRecorder recorder : recorders)
+                recorder.preUpdateFinished(internalGameLoopListener, duration, allocated);
+        }
+    }
+
+    private void update(ListenerAccess listenerAccess, UpdatePhaseRecorder[] recorders) {
+        if (recorders.length == 0) {
+            listenerAccess.listener.update();
+        } else {
+            long allocatedBefore = ThreadAllocations.getAllocatedBytes();
+            long start = System.nanoTime();
+            listenerAccess.listener.update();
+            long duration = System.nanoTime() - start;
+            long allocated = ThreadAllocations.getAllocatedBytes() - allocatedBefore;
+            for (UpdatePhaseRecorder recorder : recorders)
+                recorder.listenerUpdated(listenerAccess.listener, duration, allocated);
+        }
+    }
+
+    private void postUpdate(InternalGameLoopListener internalGameLoopListener, UpdatePhaseRecorder[] recorders) {
+        if (recorders.length == 0) {
+            internalGameLoopListener.postUpdate();
+        } else {
+            long allocatedBefore = ThreadAllocations.getAllocatedBytes();
+            long start = System.nanoTime();
+            internalGameLoopListener.postUpdate();
+            long duration = System.nanoTime() - start;
+            long allocated = ThreadAllocations.getAllocatedBytes() - allocatedBefore;
+            for (UpdatePhaseRecorder recorder : recorders)
+                recorder.postUpdateFinished(internalGameLoopListener, duration, allocated);
         }
+    }
 
+    private List<List<ListenerAccess>> createUpdateGroups() {
+        List<List<ListenerAccess>> result = new ArrayList<>();
+        List<ListenerAccess> updateGroup = null;
         for (GameLoopListener gameLoopListener : gameLoopListeners) {
-            gameLoopListener.update();
+            ListenerAccess listenerAccess = listenerAccesses.get(gameLoopListener);
+            if (updateGroup == null || sequential || !listenerAccess.parallel || conflicts(updateGroup, listenerAccess)) {
+                updateGroup = new ArrayList<>();
+                result.add(updateGroup);
+            }
+            updateGroup.add(listenerAccess);
         }
+        return result;
+    }
 
-        for (InternalGameLoopListener internalGameLoopListener : internalGameLoopListeners) {
-            internalGameLoopListener.postUpdate();
+    private boolean conflicts(List<ListenerAccess> updateGroup, ListenerAccess listenerAccess) {
+        for (ListenerAccess groupListener : updateGroup) {
+            if (!groupListener.parallel || groupListener.conflictsWith(listenerAccess))
+                return true;
+        }
+        return false;
+    }
+
+    private void updateInParallel(List<ListenerAccess> updateGroup, UpdatePhaseRecorder[] recorders) {
+        List<List<Runnable>> listenerTasks = new ArrayList<>(updateGroup.size());
+        List<Callable<Void>> updates = new ArrayList<>(updateGroup.size());
+        for (ListenerAccess listenerAccess : updateGroup) {
+            List<Runnable> tasks = new ArrayList<>();
+            listenerTasks.add(tasks);
+            updates.add(() -> {
+                // Thread might be already updating another listener, if it helps with other tasks while waiting
+                List<Runnable> previousTasks = deferredTasks.get();
+                deferredTasks.set(tasks);
+                try {
+                    update(listenerAccess, recorders);
+                } finally {
+                    deferredTasks.set(previousTasks);
+                }
+                return null;
+            });
+        }
+
+        List<Future<Void>> results = ForkJoinPool.commonPool().invokeAll(updates);
+        try {
+            for (Future<Void> result : results)
+                result.get();
+        } catch (InterruptedException exp) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while updating game loop listeners", exp);
+        } catch (ExecutionException exp) {
+            throw new RuntimeException("Unable to update game loop listener", exp.getCause());
+        }
+
+        for (List<Runnable> tasks : listenerTasks) {
+            for (Runnable task : tasks)
+                task.run();
+        }
+    }
+
+    private static class ListenerAccess {
+        private final GameLoopListener listener;
+        private final boolean parallel;
+        private final Set<Class<? extends Component>> reads;
+        private final Set<Class<? extends Component>> writes;
+
+        private ListenerAccess(GameLoopListener listener) {
+            this.listener = listener;
+            ParallelUpdate parallelUpdate = listener.getClass().getAnnotation(ParallelUpdate.class);
+            parallel = parallelUpdate != null;
+            if (parallel) {
+                reads = new HashSet<>(Arrays.asList(parallelUpdate.reads()));
+                writes = new HashSet<>(Arrays.asList(parallelUpdate.writes()));
+            } else {
+                reads = Collections.emptySet();
+                writes = Collections.emptySet();
+            }
+        }
+
+        private boolean conflictsWith(ListenerAccess other) {
+            return !Collections.disjoint(writes, other.reads) || !Collections.disjoint(writes, other.writes)
+                    || !Collections.disjoint(reads, other.writes);
         }
     }
 }
@@ -0,0 +1,16 @@
+package com.gempukku.secsy.entity.game;
+
+/**
+ * Receives the time each phase of a game loop update took, and the number of bytes allocated by it (0, if the JVM is
+ * unable to measure it, see ThreadAllocations). Called on the game loop thread, except for listenerUpdated of
+ * listeners updated in parallel, which is called on the thread that updated the listener.
+ */
+public interface UpdatePhaseRecorder {
+    void preUpdateFinished(InternalGameLoopListener internalGameLoopListener, long durationNanos, long allocatedBytes);
+
+    void listenerUpdated(GameLoopListener gameLoopListener, long durationNanos, long allocatedBytes);
+
+    void updateFinished(long durationNanos);
+
+    void postUpdateFinished(InternalGameLoopListener internalGameLoopListener, long durationNanos, long allocatedBytes);
+}
@@ -0,0 +1,252 @@
+package com.gempukku.secsy.entity.profiling;
+
+import com.gempukku.secsy.context.annotation.In;
+import com.gempukku.secsy.context.annotation.RegisterSystem;
+import com.gempukku.secsy.context.system.LifeCycleSystem;
+import com.gempukku.secsy.entity.event.Event;
+import com.gempukku.secsy.entity.game.GameLoopListener;
+import com.gempukku.secsy.entity.game.InternalGameLoop;
+import com.gempukku.secsy.entity.game.InternalGameLoopListener;
+import com.gempukku.secsy.entity.game.UpdatePhaseRecorder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the measurements in memory and exposes them through JMX (under "com.gempukku.secsy:type=Profiler").
+ * Game loop updates are recorded through the game loop's UpdatePhaseRecorder, events and entities through
+ * SystemProfiler.
+ * <p>
+ * If "secsy.profiler.csvFile" system property is set, statistics are also appended to that file every
+ * "secsy.profiler.dumpInterval" milliseconds (default 10000, 0 turns it off).
+ */
+@RegisterSystem(
+        profiles = "profileSystems", shared = SystemProfiler.class)
+public class JmxSystemProfiler implements SystemProfiler, UpdatePhaseRecorder, ProfilerMBean, LifeCycleSystem {
+    private static final AtomicInteger profilerIndex = new AtomicInteger();
+    private static final String csvHeader = "timestamp,type,name,count,totalMs,meanMs,maxMs,allocatedBytes\n";
+
+    @In(optional = true)
+    private InternalGameLoop internalGameLoop;
+
+    private final long dumpInterval = Long.getLong("secsy.profiler.dumpInterval", 10000);
+    private final String csvFile = System.getProperty("secsy.profiler.csvFile");
+
+    private final Map<InternalGameLoopListener, ProfilerStatistics> preUpdateStatistics = new ConcurrentHashMap<>();
+    private final Map<GameLoopListener, ProfilerStatistics> updateStatistics = new ConcurrentHashMap<>();
+    private final Map<InternalGameLoopListener, ProfilerStatistics> postUpdateStatistics = new ConcurrentHashMap<>();
+    private final Map<Class<? extends Event>, ProfilerStatistics> eventStatistics = new ConcurrentHashMap<>();
+    private final Map<String, ProfilerStatistics> eventReceiverStatistics = new ConcurrentHashMap<>();
+    private final LongAdder entitiesLoaded = new LongAdder();
+    private final LongAdder entitiesUnloaded = new LongAdder();
+
+    private ObjectName objectName;
+    private ScheduledExecutorService dumpExecutor;
+    private volatile String lastDumpError;
+
+    @Override
+    public void initialize() {
+        if (internalGameLoop != null)
+            internalGameLoop.addUpdatePhaseRecorder(this);
+
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            // There might be multiple contexts (i.e. client and server) in one JVM
+            objectName = new ObjectName("com.gempukku.secsy:type=Profiler,context=" + profilerIndex.getAndIncrement());
+            mBeanServer.registerMBean(new StandardMBean(this, ProfilerMBean.class), objectName);
+        } catch (JMException exp) {
+            throw new RuntimeException("Unable to register profiler in JMX", exp);
+        }
+
+        if (csvFile != null && dumpInterval > 0) {
+            dumpExecutor = Executors.newSingleThreadScheduledExecutor(
+                    runnable -> {
+                        Thread thread = new Thread(runnable);
+                        thread.setName("Profiler-dump-" + objectName.getKeyProperty("context"));
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            dumpExecutor.scheduleAtFixedRate(this::dumpStatistics, dumpInterval, dumpInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void preDestroy() {
+        if (internalGameLoop != null)
+            internalGameLoop.removeUpdatePhaseRecorder(this);
+        if (dumpExecutor != null)
+            dumpExecutor.shutdownNow();
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException exp) {
+            // Ignore, the JVM is shutting down anyway
+        }
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return ThreadAllocations.getAllocatedBytes();
+    }
+
+    @Override
+    public void preUpdateFinished(InternalGameLoopListener internalGameLoopListener, long durationNanos, long allocatedBytes) {
+        getSystemStatistics(preUpdateStatistics, internalGameLoopListener, ".preUpdate").record(durationNanos, allocatedBytes);
+    }
+
+    @Override
+    public void listenerUpdated(GameLoopListener gameLoopListener, long durationNanos, long allocatedBytes) {
+        getSystemStatistics(updateStatistics, gameLoopListener, ".update").record(durationNanos, allocatedBytes);
+    }
+
+    @Override
+    public void updateFinished(long durationNanos) {
+        // Times of the listeners are recorded separately
+    }
+
+    @Override
+    public void postUpdateFinished(InternalGameLoopListener internalGameLoopListener, long durationNanos, long allocatedBytes) {
+        getSystemStatistics(postUpdateStatistics, internalGameLoopListener, ".postUpdate").record(durationNanos, allocatedBytes);
+    }
+
+    @Override
+    public void eventDispatched(Class<? extends Event> eventType, long durationNanos, long allocatedBytes) {
+        getStatistics(eventStatistics, eventType, eventType.getSimpleName()).record(durationNanos, allocatedBytes);
+    }
+
+    @Override
+    public void eventReceived(String receiver, long durationNanos, long allocatedBytes) {
+        getStatistics(eventReceiverStatistics, receiver, receiver).record(durationNanos, allocatedBytes);
+    }
+
+    @Override
+    public void entitiesLoaded(int count) {
+        entitiesLoaded.add(count);
+    }
+
+    @Override
+    public void entitiesUnloaded(int count) {
+        entitiesUnloaded.add(count);
+    }
+
+    @Override
+    public String[] getSystemStatistics() {
+        List<ProfilerStatistics> statistics = new ArrayList<>();
+        statistics.addAll(preUpdateStatistics.values());
+        statistics.addAll(updateStatistics.values());
+        statistics.addAll(postUpdateStatistics.values());
+        return toCsvLines(statistics);
+    }
+
+    @Override
+    public String[] getEventStatistics() {
+        return toCsvLines(eventStatistics.values());
+    }
+
+    @Override
+    public String[] getEventReceiverStatistics() {
+        return toCsvLines(eventReceiverStatistics.values());
+    }
+
+    @Override
+    public long getEntitiesLoaded() {
+        return entitiesLoaded.sum();
+    }
+
+    @Override
+    public long getEntitiesUnloaded() {
+        return entitiesUnloaded.sum();
+    }
+
+    @Override
+    public String dumpCsv() {
+        long timestamp = System.currentTimeMillis();
+        StringBuilder result = new StringBuilder();
+        appendCsv(result, timestamp, "system", getSystemStatistics());
+        appendCsv(result, timestamp, "event", getEventStatistics());
+        appendCsv(result, timestamp, "receiver", getEventReceiverStatistics());
+        result.append(timestamp).append(",entities,loaded,").append(getEntitiesLoaded()).append(",,,,\n");
+        result.append(timestamp).append(",entities,unloaded,").append(getEntitiesUnloaded()).append(",,,,\n");
+        return result.toString();
+    }
+
+    @Override
+    public String getLastDumpError() {
+        return lastDumpError;
+    }
+
+    @Override
+    public void reset() {
+        preUpdateStatistics.values().forEach(ProfilerStatistics::reset);
+        updateStatistics.values().forEach(ProfilerStatistics::reset);
+        postUpdateStatistics.values().forEach(ProfilerStatistics::reset);
+        eventStatistics.values().forEach(ProfilerStatistics::reset);
+        eventReceiverStatistics.values().forEach(ProfilerStatistics::reset);
+        entitiesLoaded.reset();
+        entitiesUnloaded.reset();
+    }
+
+    private void dumpStatistics() {
+        String csv = dumpCsv();
+        boolean newFile = !new File(csvFile).exists();
+        try (Writer writer = new FileWriter(csvFile, true)) {
+            if (newFile)
+                writer.write(csvHeader);
+            writer.write(csv);
+            lastDumpError = null;
+        } catch (IOException exp) {
+            lastDumpError = "Unable to write profiler statistics to " + csvFile + ": " + exp.getMessage();
+        }
+    }
+
+    private static <T> ProfilerStatistics getSystemStatistics(Map<T, ProfilerStatistics> statistics, T system, String operation) {
+        ProfilerStatistics result = statistics.get(system);
+        if (result == null)
+            result = statistics.computeIfAbsent(system, k -> new ProfilerStatistics(getSystemName(system) + operation));
+        return result;
+    }
+
+    private static String getSystemName(Object system) {
+        String simpleName = system.getClass().getSimpleName();
+        return simpleName.isEmpty() ? system.getClass().getName() : simpleName;
+    }
+
+    private static <T> ProfilerStatistics getStatistics(Map<T, ProfilerStatistics> statistics, T key, String name) {
+        ProfilerStatistics result = statistics.get(key);
+        if (result == null)
+            result = statistics.computeIfAbsent(key, k -> new ProfilerStatistics(name));
+        return result;
+    }
+
+    private static String[] toCsvLines(Collection<ProfilerStatistics> statistics) {
+        List<ProfilerStatistics> sorted = new ArrayList<>(statistics);
+        // Most expensive first
+        sorted.sort(Comparator.comparingLong(ProfilerStatistics::getTotalNanos).reversed());
+        String[] result = new String[sorted.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = sorted.get(i).toCsv();
+        return result;
+    }
+
+    private static void appendCsv(StringBuilder result, long timestamp, String type, String[] lines) {
+        for (String line : lines)
+            result.append(timestamp).append(',').append(type).append(',').append(line).append('\n');
+    }
+}
@@ -0,0 +1,28 @@
+package com.gempukku.secsy.entity.profiling;
+
+/**
+ * Management interface of the profiler, statistics are returned as CSV lines:
+ * name, count, total time (ms), mean time (ms), max time (ms), allocated bytes.
+ */
+public interface ProfilerMBean {
+    String[] getSystemStatistics();
+
+    String[] getEventStatistics();
+
+    String[] getEventReceiverStatistics();
+
+    long getEntitiesLoaded();
+
+    long getEntitiesUnloaded();
+
+    String dumpCsv();
+
+    /**
+     * Returns the error of the last periodic dump to the CSV file, or null if it was written.
+     *
+     * @return
+     */
+    String getLastDumpError();
+
+    void reset();
+}
@@ -0,0 +1,43 @@
+package com.gempukku.secsy.entity.profiling;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+class ProfilerStatistics {
+    private final String name;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    ProfilerStatistics(String name) {
+        this.name = name;
+    }
+
+    void record(long durationNanos, long allocated) {
+        count.increment();
+        totalNanos.add(durationNanos);
+        allocatedBytes.add(allocated);
+        maxNanos.accumulateAndGet(durationNanos, Math::max);
+    }
+
+    long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    void reset() {
+        count.reset();
+        totalNanos.reset();
+        allocatedBytes.reset();
+        maxNanos.set(0);
+    }
+
+    String toCsv() {
+        long measurements = count.sum();
+        long total = totalNanos.sum();
+        return String.format(Locale.ROOT, "%s,%d,%.3f,%.3f,%.3f,%d", name, measurements, total / 1000000f,
+                (measurements == 0) ? 0f : total / 1000000f / measurements, maxNanos.get() / 1000000f,
+                allocatedBytes.sum());
+    }
+}
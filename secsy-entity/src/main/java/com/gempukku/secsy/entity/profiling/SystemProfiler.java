@@ -0,0 +1,28 @@
+package com.gempukku.secsy.entity.profiling;
+
+import com.gempukku.secsy.entity.event.Event;
+
+/**
+ * Receives measurements of event processing and entity loading. Systems doing the measurements inject it as
+ * optional, so when no profiler is registered in the context, the only cost is a null check. Game loop updates
+ * are measured by the game loop itself, see UpdatePhaseRecorder.
+ * <p>
+ * Measurements might be reported from multiple threads at the same time. Times and allocations are inclusive,
+ * i.e. time spent processing an event includes processing of all the events sent while processing it.
+ */
+public interface SystemProfiler {
+    /**
+     * Returns the number of bytes allocated by the current thread so far, or 0, if the JVM is unable to provide it.
+     *
+     * @return Number of bytes allocated.
+     */
+    long getAllocatedBytes();
+
+    void eventDispatched(Class<? extends Event> eventType, long durationNanos, long allocatedBytes);
+
+    void eventReceived(String receiver, long durationNanos, long allocatedBytes);
+
+    void entitiesLoaded(int count);
+
+    void entitiesUnloaded(int count);
+}
@@ -0,0 +1,37 @@
+package com.gempukku.secsy.entity.profiling;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures memory allocated by threads, if the JVM supports it (HotSpot does).
+ */
+public final class ThreadAllocations {
+    private static final com.sun.management.ThreadMXBean allocationMXBean = createAllocationMXBean();
+
+    private ThreadAllocations() {
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far, or 0, if the JVM is unable to provide it.
+     *
+     * @return Number of bytes allocated.
+     */
+    public static long getAllocatedBytes() {
+        if (allocationMXBean == null)
+            return 0;
+        return allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean createAllocationMXBean() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (sunThreadMXBean.isThreadAllocatedMemorySupported()) {
+                sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+                return sunThreadMXBean;
+            }
+        }
+        return null;
+    }
+}
@@ -4,6 +4,9 @@ import com.gempukku.secsy.entity.SampleComponent;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -45,6 +48,21 @@ public class MapAnnotationDrivenProxyComponentManagerTest {
         assertNull(factory.getComponentFieldValue(component, "value", String.class));
     }
 
+    @Test
+    public void fieldValuesNotAffectedByLaterChanges() {
+        final SampleComponent component = factory.createComponent(null, SampleComponent.class);
+        assertEquals(Collections.singletonMap("value", null), factory.getComponentFieldValues(component));
+
+        component.setValue("value");
+        factory.saveComponent(component, component);
+        Map<String, Object> values = factory.getComponentFieldValues(component);
+        assertEquals(Collections.singletonMap("value", "value"), values);
+
+        component.setValue("other");
+        factory.saveComponent(component, component);
+        assertEquals("value", values.get("value"));
+    }
+
     @Test
     public void callingUndefinedMethod() {
         final SampleComponent component = factory.createComponent(null, SampleComponent.class);
@@ -0,0 +1,112 @@
+package com.gempukku.secsy.entity.game;
+
+import com.gempukku.secsy.entity.SampleComponent;
+import com.gempukku.secsy.entity.SampleComponent2;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class SimpleGameLoopTest {
+    private SimpleGameLoop gameLoop;
+    private List<String> log;
+
+    @Before
+    public void setup() {
+        gameLoop = new SimpleGameLoop();
+        log = Collections.synchronizedList(new ArrayList<>());
+        gameLoop.addInternalGameLoopListener(
+                new InternalGameLoopListener() {
+                    @Override
+                    public void preUpdate() {
+                        log.add("pre");
+                    }
+
+                    @Override
+                    public void postUpdate() {
+                        log.add("post");
+                    }
+                });
+    }
+
+    @Test
+    public void parallelChangesExecutedInListenerOrderBeforePostUpdate() {
+        gameLoop.addGameLoopListener(new Reader("first"));
+        gameLoop.addGameLoopListener(new Reader("second"));
+        gameLoop.addGameLoopListener(new OtherWriter("third"));
+
+        gameLoop.processUpdate();
+
+        assertEquals(Arrays.asList("pre", "first", "second", "third", "post"), log);
+    }
+
+    @Test
+    public void conflictingListenerSeesChanges() {
+        gameLoop.addGameLoopListener(new Writer("write"));
+        gameLoop.addGameLoopListener(new ImmediateReader("read"));
+
+        gameLoop.processUpdate();
+
+        assertEquals(Arrays.asList("pre", "write", "read", "post"), log);
+    }
+
+    @Test
+    public void notParallelListenerExecutesChangesRightAway() {
+        gameLoop.addGameLoopListener(
+                () -> {
+                    gameLoop.executeAfterParallelUpdate(() -> log.add("change"));
+                    log.add("update");
+                });
+
+        gameLoop.processUpdate();
+
+        assertEquals(Arrays.asList("pre", "change", "update", "post"), log);
+    }
+
+    @ParallelUpdate(reads = SampleComponent.class)
+    private class Reader implements GameLoopListener {
+        private final String name;
+
+        private Reader(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void update() {
+            gameLoop.executeAfterParallelUpdate(() -> log.add(name));
+        }
+    }
+
+    @ParallelUpdate(reads = SampleComponent.class, writes = SampleComponent.class)
+    private class Writer extends Reader {
+        private Writer(String name) {
+            super(name);
+        }
+    }
+
+    @ParallelUpdate(reads = SampleComponent.class)
+    private class ImmediateReader implements GameLoopListener {
+        private final String name;
+
+        private ImmediateReader(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void update() {
+            log.add(name);
+        }
+    }
+
+    @ParallelUpdate(writes = SampleComponent2.class)
+    private class OtherWriter extends Reader {
+        private OtherWriter(String name) {
+            super(name);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.gempukku.secsy.entity.profiling;
+
+import com.gempukku.secsy.entity.SampleEvent;
+import com.gempukku.secsy.entity.game.GameLoopListener;
+import com.gempukku.secsy.entity.game.InternalGameLoopListener;
+import com.gempukku.secsy.entity.game.SimpleGameLoop;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JmxSystemProfilerTest {
+    private JmxSystemProfiler profiler;
+
+    @Before
+    public void setup() {
+        profiler = new JmxSystemProfiler();
+        profiler.initialize();
+    }
+
+    @After
+    public void cleanup() {
+        profiler.preDestroy();
+    }
+
+    @Test
+    public void statisticsSortedByTotalTime() {
+        profiler.listenerUpdated(new Cheap(), 1000000, 10);
+        Expensive expensive = new Expensive();
+        profiler.listenerUpdated(expensive, 2000000, 20);
+        profiler.listenerUpdated(expensive, 4000000, 30);
+        profiler.postUpdateFinished(expensive, 1500000, 0);
+
+        assertArrayEquals(new String[]{"Expensive.update,2,6.000,3.000,4.000,50", "Expensive.postUpdate,1,1.500,1.500,1.500,0",
+                        "Cheap.update,1,1.000,1.000,1.000,10"},
+                profiler.getSystemStatistics());
+    }
+
+    @Test
+    public void recordsGameLoopUpdates() {
+        SimpleGameLoop gameLoop = new SimpleGameLoop();
+        Expensive expensive = new Expensive();
+        gameLoop.addGameLoopListener(expensive);
+        gameLoop.addInternalGameLoopListener(expensive);
+        gameLoop.addUpdatePhaseRecorder(profiler);
+
+        gameLoop.processUpdate();
+        gameLoop.processUpdate();
+
+        String[] statistics = profiler.getSystemStatistics();
+        assertEquals(3, statistics.length);
+        for (String line : statistics)
+            assertTrue(line.startsWith("Expensive.preUpdate,2,") || line.startsWith("Expensive.update,2,")
+                    || line.startsWith("Expensive.postUpdate,2,"));
+
+        gameLoop.removeUpdatePhaseRecorder(profiler);
+        gameLoop.processUpdate();
+
+        assertTrue(profiler.getSystemStatistics()[0].contains(",2,"));
+    }
+
+    @Test
+    public void eventsAndEntities() {
+        profiler.eventDispatched(SampleEvent.class, 1000000, 0);
+        profiler.eventReceived("SampleSystem.eventReceived", 500000, 0);
+        profiler.entitiesLoaded(3);
+        profiler.entitiesUnloaded(2);
+
+        assertArrayEquals(new String[]{"SampleEvent,1,1.000,1.000,1.000,0"}, profiler.getEventStatistics());
+        assertArrayEquals(new String[]{"SampleSystem.eventReceived,1,0.500,0.500,0.500,0"}, profiler.getEventReceiverStatistics());
+        assertEquals(3, profiler.getEntitiesLoaded());
+        assertEquals(2, profiler.getEntitiesUnloaded());
+        assertTrue(profiler.dumpCsv().contains(",event,SampleEvent,1,"));
+    }
+
+    @Test
+    public void reset() {
+        profiler.listenerUpdated(new Cheap(), 1000000, 10);
+        profiler.entitiesLoaded(1);
+        profiler.reset();
+
+        assertArrayEquals(new String[]{"Cheap.update,0,0.000,0.000,0.000,0"}, profiler.getSystemStatistics());
+        assertEquals(0, profiler.getEntitiesLoaded());
+    }
+
+    private static class Cheap implements GameLoopListener {
+        @Override
+        public void update() {
+        }
+    }
+
+    private static class Expensive implements GameLoopListener, InternalGameLoopListener {
+        @Override
+        public void preUpdate() {
+        }
+
+        @Override
+        public void update() {
+        }
+
+        @Override
+        public void postUpdate() {
+        }
+    }
+}
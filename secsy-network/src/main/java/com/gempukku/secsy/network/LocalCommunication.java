@@ -5,25 +5,28 @@ import com.gempukku.secsy.entity.component.InternalComponentManager;
 import com.gempukku.secsy.entity.event.Event;
 import com.gempukku.secsy.entity.io.StoredEntityData;
 import com.gempukku.secsy.network.client.ServerCommunication;
-import com.gempukku.secsy.network.serialize.EntityInformation;
 import com.gempukku.secsy.network.serialize.EntitySerializationUtil;
 import com.gempukku.secsy.network.server.ClientCommunication;
 import com.gempukku.secsy.network.server.EntityComponentFieldFilter;
 
 import java.io.IOException;
-import java.util.Collection;
-import java.util.LinkedList;
-import java.util.List;
 
+/**
+ * Links server and client contexts running in the same JVM. Messages are passed through lock-free channels with
+ * pooled frames, entities are passed as immutable snapshots, rather than being serialized.
+ */
 public class LocalCommunication implements ServerCommunication, ClientCommunication {
-    // The following two fields are shared by both server and client threads, therefore you have
-    // to access them in a thread safe way
-    private final LinkedList<Event> eventsToServer = new LinkedList<>();
-    private final LinkedList<Collection<ClientEvent>> eventsToClientFrames = new LinkedList<>();
+    private static final int ENTITY_CREATE = 0;
+    private static final int ENTITY_UPDATE = 1;
+    private static final int ENTITY_REMOVE = 2;
+    private static final int EVENT = 3;
 
-    // This object is used only by the server thread, as it builds a whole frame of events to be
-    // processed by the client, the whole frame is then added to the eventsToClientFrames list.
-    private List<ClientEvent> clientEventsBuildList = new LinkedList<>();
+    private static final int frameSlots = 16;
+
+    // Server thread is the producer, client thread is the consumer
+    private final SpscFrameChannel framesToClient = new SpscFrameChannel(frameSlots);
+    // Client thread is the producer, server thread is the consumer
+    private final SpscFrameChannel eventsToServer = new SpscFrameChannel(frameSlots);
 
     private InternalComponentManager serversInternalComponentManager;
     private EntityRef serversClientEntity;
@@ -35,109 +38,59 @@ public class LocalCommunication implements ServerCommunication, ClientCommunicat
 
     @Override
     public void visitQueuedEvents(ServerEventVisitor visitor) {
-        Event event;
-        do {
-            synchronized (eventsToServer) {
-                event = eventsToServer.poll();
-            }
-            if (event != null)
-                visitor.visitEventReceived(event);
-        } while (event != null);
+        eventsToServer.visitMessages(
+                (type, entityId, payload) -> visitor.visitEventReceived((Event) payload));
     }
 
     @Override
     public void visitQueuedEvents(ClientEventVisitor visitor) {
-        Collection<ClientEvent> events;
-        do {
-            synchronized (eventsToClientFrames) {
-                events = eventsToClientFrames.poll();
-            }
-            if (events != null) {
-                for (ClientEvent event : events) {
-                    event.processForVisitor(visitor);
-                }
-            }
-        } while (events != null);
+        // Events that could not be published, when they were sent, are published now
+        eventsToServer.commit();
+
+        framesToClient.visitMessages(
+                (type, entityId, payload) -> {
+                    if (type == ENTITY_CREATE)
+                        visitor.visitEntityCreate((StoredEntityData) payload);
+                    else if (type == ENTITY_UPDATE)
+                        visitor.visitEntityUpdate((StoredEntityData) payload);
+                    else if (type == ENTITY_REMOVE)
+                        visitor.visitEntityRemove(entityId);
+                    else if (type == EVENT)
+                        visitor.visitEventReceived(entityId, (Event) payload);
+                });
     }
 
     @Override
     public void sendEventToClient(int entityId, Event event) throws IOException {
-        clientEventsBuildList.add(receiveEventClientEvent(entityId, event));
+        framesToClient.add(EVENT, entityId, event);
     }
 
     @Override
     public void addEntity(int entityId, EntityRef entity, Iterable<? extends EntityComponentFieldFilter> componentFieldFilters) throws IOException {
-        EntityInformation entityInformation = EntitySerializationUtil.serializeEntity(serversInternalComponentManager, serversClientEntity, entityId, entity, componentFieldFilters);
-        clientEventsBuildList.add(createEntityClientEvent(entityInformation));
+        framesToClient.add(ENTITY_CREATE, entityId,
+                EntitySerializationUtil.snapshotEntity(serversInternalComponentManager, serversClientEntity, entityId, entity, componentFieldFilters));
     }
 
     @Override
     public void updateEntity(int entityId, EntityRef entity, Iterable<? extends EntityComponentFieldFilter> componentFieldFilters) throws IOException {
-        EntityInformation entityInformation = EntitySerializationUtil.serializeEntity(serversInternalComponentManager, serversClientEntity, entityId, entity, componentFieldFilters);
-        clientEventsBuildList.add(updateEntityClientEvent(entityInformation));
+        framesToClient.add(ENTITY_UPDATE, entityId,
+                EntitySerializationUtil.snapshotEntity(serversInternalComponentManager, serversClientEntity, entityId, entity, componentFieldFilters));
     }
 
     @Override
     public void removeEntity(int entityId) throws IOException {
-        clientEventsBuildList.add(removeEntityClientEvent(entityId));
+        framesToClient.add(ENTITY_REMOVE, entityId, null);
     }
 
     @Override
     public void commitChanges() throws IOException {
-        if (!clientEventsBuildList.isEmpty()) {
-            synchronized (eventsToClientFrames) {
-                eventsToClientFrames.add(clientEventsBuildList);
-            }
-            clientEventsBuildList = new LinkedList<>();
-        }
+        framesToClient.commit();
     }
 
     @Override
     public void sendEventToServer(Event event) {
         // We do not copy the event object, assume that every data in it is immutable (for now)
-        synchronized (eventsToServer) {
-            eventsToServer.add(event);
-        }
-    }
-
-    private static ClientEvent createEntityClientEvent(StoredEntityData entityData) {
-        return new ClientEvent(0, 0, entityData, null);
-    }
-
-    private static ClientEvent updateEntityClientEvent(StoredEntityData entityData) {
-        return new ClientEvent(1, 0, entityData, null);
-    }
-
-    private static ClientEvent removeEntityClientEvent(int entityId) {
-        return new ClientEvent(2, entityId, null, null);
-    }
-
-    private static ClientEvent receiveEventClientEvent(int entityId, Event event) {
-        return new ClientEvent(3, entityId, null, event);
-    }
-
-    private static class ClientEvent {
-        private int type;
-        private StoredEntityData entityData;
-        private int entityId;
-        private Event event;
-
-        public ClientEvent(int type, int entityId, StoredEntityData entityData, Event event) {
-            this.type = type;
-            this.entityId = entityId;
-            this.entityData = entityData;
-            this.event = event;
-        }
-
-        private void processForVisitor(ClientEventVisitor visitor) {
-            if (type == 0)
-                visitor.visitEntityCreate(entityData);
-            else if (type == 1)
-                visitor.visitEntityUpdate(entityData);
-            else if (type == 2)
-                visitor.visitEntityRemove(entityId);
-            else if (type == 3)
-                visitor.visitEventReceived(entityId, event);
-        }
+        eventsToServer.add(EVENT, 0, event);
+        eventsToServer.commit();
     }
 }
@@ -0,0 +1,110 @@
+package com.gempukku.secsy.network;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Passes frames of messages from a single producer thread to a single consumer thread, without locks. Committed
+ * frames are kept in a ring of slots, each index is written only by its owner thread and published with an ordered
+ * write. Frames are pooled - a committed frame takes the place of the frame in its slot, that the consumer has
+ * already cleared, and the producer builds the next frame in that one.
+ * <p>
+ * If all the slots hold frames the consumer has not processed yet, committing does not publish the frame. Messages
+ * added afterwards go to the same frame, and it is published by a later commit, so the producer never waits.
+ */
+public class SpscFrameChannel {
+    private final Frame[] slots;
+    private final int mask;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    // Used only by the producer thread
+    private Frame buildFrame = new Frame();
+
+    /**
+     * @param slotCount Number of frames that can wait for the consumer, rounded up to a power of two.
+     */
+    public SpscFrameChannel(int slotCount) {
+        int size = Integer.highestOneBit(Math.max(1, slotCount));
+        if (size < slotCount)
+            size <<= 1;
+        slots = new Frame[size];
+        mask = size - 1;
+        for (int i = 0; i < size; i++)
+            slots[i] = new Frame();
+    }
+
+    /**
+     * Called by the producer thread, adds the message to the frame being built.
+     */
+    public void add(int type, int entityId, Object payload) {
+        buildFrame.add(type, entityId, payload);
+    }
+
+    /**
+     * Called by the producer thread, publishes the frame being built to the consumer, if it has any messages.
+     *
+     * @return False, if there was no free slot for the frame, and it will be published by a later commit.
+     */
+    public boolean commit() {
+        if (buildFrame.size == 0)
+            return true;
+
+        long producer = producerIndex.get();
+        if (producer - consumerIndex.get() == slots.length)
+            return false;
+
+        int index = (int) producer & mask;
+        Frame freeFrame = slots[index];
+        slots[index] = buildFrame;
+        buildFrame = freeFrame;
+        producerIndex.lazySet(producer + 1);
+        return true;
+    }
+
+    /**
+     * Called by the consumer thread, passes messages of all the published frames to the visitor, in order.
+     */
+    public void visitMessages(MessageVisitor visitor) {
+        long consumer = consumerIndex.get();
+        long producer = producerIndex.get();
+        while (consumer < producer) {
+            Frame frame = slots[(int) consumer & mask];
+            for (int i = 0; i < frame.size; i++)
+                visitor.visitMessage(frame.types[i], frame.entityIds[i], frame.payloads[i]);
+            frame.clear();
+
+            consumer++;
+            consumerIndex.lazySet(consumer);
+        }
+    }
+
+    public interface MessageVisitor {
+        void visitMessage(int type, int entityId, Object payload);
+    }
+
+    private static class Frame {
+        private int size;
+        private int[] types = new int[16];
+        private int[] entityIds = new int[16];
+        private Object[] payloads = new Object[16];
+
+        private void add(int type, int entityId, Object payload) {
+            if (size == types.length) {
+                types = Arrays.copyOf(types, 2 * size);
+                entityIds = Arrays.copyOf(entityIds, 2 * size);
+                payloads = Arrays.copyOf(payloads, 2 * size);
+            }
+            types[size] = type;
+            entityIds[size] = entityId;
+            payloads[size] = payload;
+            size++;
+        }
+
+        private void clear() {
+            Arrays.fill(payloads, 0, size, null);
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.gempukku.secsy.network.serialize;
+
+import com.gempukku.secsy.entity.Component;
+import com.gempukku.secsy.entity.io.ComponentData;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable values of a component's fields, as they were when the snapshot was taken.
+ */
+public class ComponentSnapshot implements ComponentData {
+    private final Class<? extends Component> clazz;
+    private final Map<String, Object> fields;
+
+    public ComponentSnapshot(Class<? extends Component> clazz, Map<String, Object> fields) {
+        this.clazz = clazz;
+        this.fields = Collections.unmodifiableMap(fields);
+    }
+
+    @Override
+    public Class<? extends Component> getComponentClass() {
+        return clazz;
+    }
+
+    @Override
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+}
@@ -3,14 +3,37 @@ package com.gempukku.secsy.network.serialize;
 import com.gempukku.secsy.entity.Component;
 import com.gempukku.secsy.entity.EntityRef;
 import com.gempukku.secsy.entity.component.InternalComponentManager;
+import com.gempukku.secsy.entity.event.Event;
 import com.gempukku.secsy.network.server.EntityComponentFieldFilter;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Map;
 
 public class EntitySerializationUtil {
     private EntitySerializationUtil() {
     }
 
+    /**
+     * Returns event class of the name received from a client. The class is not initialized, unless it's an event.
+     *
+     * @param name
+     * @return
+     * @throws IOException If there is no such class, or it's not an event.
+     */
+    public static Class<? extends Event> getEventClass(String name) throws IOException {
+        Class<?> clazz;
+        try {
+            clazz = Class.forName(name, false, EntitySerializationUtil.class.getClassLoader());
+        } catch (ClassNotFoundException exp) {
+            throw new IOException("Unknown event: " + name, exp);
+        }
+        if (!Event.class.isAssignableFrom(clazz))
+            throw new IOException("Not an event: " + name);
+        return clazz.asSubclass(Event.class);
+    }
+
     public static EntityInformation serializeEntity(InternalComponentManager componentManager, EntityRef clientEntity,
                                                     int entityId, EntityRef entity, Iterable<? extends EntityComponentFieldFilter> componentFieldFilters) {
         EntityInformation entityInformation = new EntityInformation();
@@ -34,6 +57,26 @@ public class EntitySerializationUtil {
         return entityInformation;
     }
 
+    /**
+     * Takes a snapshot of the entity, with the same components and fields serializeEntity would include. Values of
+     * the fields are taken all at once from the component manager, rather than one by one.
+     */
+    public static EntitySnapshot snapshotEntity(InternalComponentManager componentManager, EntityRef clientEntity,
+                                                int entityId, EntityRef entity, Iterable<? extends EntityComponentFieldFilter> componentFieldFilters) {
+        Collection<Class<? extends Component>> componentClasses = entity.listComponents();
+        ComponentSnapshot[] components = new ComponentSnapshot[componentClasses.size()];
+        int count = 0;
+        for (Class<? extends Component> componentClass : componentClasses) {
+            if (filtersAcceptComponent(clientEntity, entity, componentClass, componentFieldFilters)) {
+                Map<String, Object> fields = componentManager.getComponentFieldValues(entity.getComponent(componentClass));
+                fields.keySet().removeIf(
+                        fieldName -> !filtersAcceptField(clientEntity, entity, componentClass, fieldName, componentFieldFilters));
+                components[count++] = new ComponentSnapshot(componentClass, fields);
+            }
+        }
+        return new EntitySnapshot(entityId, (count == components.length) ? components : Arrays.copyOf(components, count));
+    }
+
     private static boolean filtersAcceptField(EntityRef clientEntity, EntityRef entity, Class<? extends Component> componentClass, String fieldName, Iterable<? extends EntityComponentFieldFilter> componentFieldFilters) {
         for (EntityComponentFieldFilter componentFieldFilter : componentFieldFilters) {
             if (componentFieldFilter.isComponentFieldRelevant(clientEntity, entity, componentClass, fieldName)) {
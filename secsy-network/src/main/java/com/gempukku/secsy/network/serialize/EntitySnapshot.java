@@ -0,0 +1,40 @@
+package com.gempukku.secsy.network.serialize;
+
+import com.gempukku.secsy.entity.Component;
+import com.gempukku.secsy.entity.io.ComponentData;
+import com.gempukku.secsy.entity.io.StoredEntityData;
+
+import java.util.Arrays;
+
+/**
+ * Immutable state of an entity, that can be passed to another context in the same JVM as it is, rather than being
+ * copied into EntityInformation.
+ */
+public class EntitySnapshot implements StoredEntityData {
+    private final int entityId;
+    private final ComponentSnapshot[] components;
+
+    public EntitySnapshot(int entityId, ComponentSnapshot[] components) {
+        this.entityId = entityId;
+        this.components = components;
+    }
+
+    @Override
+    public int getEntityId() {
+        return entityId;
+    }
+
+    @Override
+    public Iterable<ComponentSnapshot> getComponents() {
+        return Arrays.asList(components);
+    }
+
+    @Override
+    public ComponentData getComponent(Class<? extends Component> componentClass) {
+        for (ComponentSnapshot component : components) {
+            if (component.getComponentClass() == componentClass)
+                return component;
+        }
+        return null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.gempukku.secsy.network.server;
 
+import com.gempukku.secsy.entity.Component;
 import com.gempukku.secsy.entity.EntityRef;
 
 public interface ClientManager {
@@ -14,4 +15,14 @@ public interface ClientManager {
     void addEntityComponentFieldFilter(EntityComponentFieldFilter entityComponentFieldFilter);
 
     void removeEntityComponentFieldFilter(EntityComponentFieldFilter entityComponentFieldFilter);
+
+    /**
+     * Updates of an entity, where only components with an update interval have changed, are sent to clients at
+     * most once in the shortest of the intervals of these components. Any other change of the entity is sent
+     * right away, together with the delayed changes.
+     *
+     * @param component Component to send updates of less often.
+     * @param interval  Minimum time between two updates of the entity (in milliseconds).
+     */
+    void setComponentUpdateInterval(Class<? extends Component> component, long interval);
 }
@@ -4,6 +4,7 @@ import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.NetProfiles;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
 import com.gempukku.secsy.context.system.LifeCycleSystem;
+import com.gempukku.secsy.entity.Component;
 import com.gempukku.secsy.entity.EntityEventListener;
 import com.gempukku.secsy.entity.EntityRef;
 import com.gempukku.secsy.entity.InternalEntityManager;
@@ -17,8 +18,10 @@ import com.gempukku.secsy.entity.game.InternalGameLoopListener;
 import com.gempukku.secsy.network.ToClientEvent;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -40,6 +43,9 @@ public class ClientSystem implements ClientManager, EntityEventListener, LifeCyc
     private Map<String, EntityRef> clientEntityMap = new HashMap<>();
     private Map<String, Set<Integer>> entitiesClientIsAwareOf = new HashMap<>();
 
+    private Map<Class<? extends Component>, Long> componentUpdateIntervals = new HashMap<>();
+    private Map<Integer, ThrottledEntity> throttledEntities = new HashMap<>();
+
     @Override
     public void initialize() {
         internalEntityManager.addEntityEventListener(this);
@@ -68,8 +74,15 @@ public class ClientSystem implements ClientManager, EntityEventListener, LifeCyc
         entityComponentFieldFilters.remove(entityComponentFieldFilter);
     }
 
+    @Override
+    public void setComponentUpdateInterval(Class<? extends Component> component, long interval) {
+        componentUpdateIntervals.put(component, interval);
+    }
+
     @Override
     public void preUpdate() {
+        sendThrottledUpdates();
+
         for (ClientCommunication clientCommunication : connectedClients.values()) {
             try {
                 clientCommunication.commitChanges();
@@ -93,10 +106,15 @@ public class ClientSystem implements ClientManager, EntityEventListener, LifeCyc
 
     @Override
     public void eventSent(EntityRef entity, Event event) {
-        if (event.getClass() == AfterComponentAdded.class
-                || event.getClass() == AfterComponentUpdated.class
+        if (event.getClass() == AfterComponentUpdated.class) {
+            long updateInterval = getUpdateInterval(((AfterComponentUpdated) event).getComponents());
+            if (updateInterval > 0)
+                throttledEntityModified(entity, updateInterval);
+            else
+                notThrottledEntityModified(entity);
+        } else if (event.getClass() == AfterComponentAdded.class
                 || event.getClass() == AfterComponentRemoved.class) {
-            entityModified(entity);
+            notThrottledEntityModified(entity);
         }
         if (event.getClass() == BeforeEntityUnloaded.class) {
             entityUnloaded(entity);
@@ -123,6 +141,9 @@ public class ClientSystem implements ClientManager, EntityEventListener, LifeCyc
         EntityRef clientEntity = clientEntityMap.get(clientId);
         Set<Integer> entitiesClientKnows = entitiesClientIsAwareOf.get(clientId);
         ClientCommunication clientCommunication = connectedClients.get(clientId);
+        // Rules might still track a client that has just disconnected
+        if (clientCommunication == null)
+            return;
 
         for (EntityRef entity : entities) {
             int entityId = internalEntityManager.getEntityId(entity);
@@ -148,6 +169,7 @@ public class ClientSystem implements ClientManager, EntityEventListener, LifeCyc
 
     public void entityUnloaded(EntityRef entity) {
         int entityId = internalEntityManager.getEntityId(entity);
+        throttledEntities.remove(entityId);
         for (Map.Entry<String, Set<Integer>> clientKnownEntities : entitiesClientIsAwareOf.entrySet()) {
             String clientId = clientKnownEntities.getKey();
             ClientCommunication clientCommunication = connectedClients.get(clientId);
@@ -162,6 +184,68 @@ public class ClientSystem implements ClientManager, EntityEventListener, LifeCyc
         }
     }
 
+    private long getUpdateInterval(Collection<Class<? extends Component>> components) {
+        if (components.isEmpty())
+            return 0;
+        long result = Long.MAX_VALUE;
+        for (Class<? extends Component> component : components) {
+            Long interval = componentUpdateIntervals.get(component);
+            if (interval == null)
+                return 0;
+            result = Math.min(result, interval);
+        }
+        return result;
+    }
+
+    private void throttledEntityModified(EntityRef entity, long updateInterval) {
+        int entityId = internalEntityManager.getEntityId(entity);
+        ThrottledEntity throttledEntity = throttledEntities.get(entityId);
+        if (throttledEntity == null) {
+            long time = System.currentTimeMillis();
+            throttledEntity = new ThrottledEntity();
+            throttledEntity.sentAt = time;
+            throttledEntity.sendAt = time + updateInterval;
+            throttledEntities.put(entityId, throttledEntity);
+            entityModified(entity);
+        } else {
+            throttledEntity.entity = entity;
+            throttledEntity.sendAt = Math.min(throttledEntity.sendAt, throttledEntity.sentAt + updateInterval);
+        }
+        throttledEntity.updateInterval = updateInterval;
+    }
+
+    private void sendThrottledUpdates() {
+        if (throttledEntities.isEmpty())
+            return;
+
+        long time = System.currentTimeMillis();
+        Iterator<ThrottledEntity> throttledEntityIterator = throttledEntities.values().iterator();
+        while (throttledEntityIterator.hasNext()) {
+            ThrottledEntity throttledEntity = throttledEntityIterator.next();
+            if (time >= throttledEntity.sendAt) {
+                EntityRef entity = throttledEntity.entity;
+                if (entity != null && entity.exists()) {
+                    throttledEntity.entity = null;
+                    throttledEntity.sentAt = time;
+                    throttledEntity.sendAt = time + throttledEntity.updateInterval;
+                    entityModified(entity);
+                } else {
+                    throttledEntityIterator.remove();
+                }
+            }
+        }
+    }
+
+    private void notThrottledEntityModified(EntityRef entity) {
+        if (!throttledEntities.isEmpty()) {
+            // Delayed changes are sent with this update
+            ThrottledEntity throttledEntity = throttledEntities.get(internalEntityManager.getEntityId(entity));
+            if (throttledEntity != null)
+                throttledEntity.entity = null;
+        }
+        entityModified(entity);
+    }
+
     private void entityModified(EntityRef entity) {
         int entityId = internalEntityManager.getEntityId(entity);
         for (Map.Entry<String, Set<Integer>> clientKnownEntities : entitiesClientIsAwareOf.entrySet()) {
@@ -215,4 +299,12 @@ public class ClientSystem implements ClientManager, EntityEventListener, LifeCyc
     private void handleCommunicationErrorWithClient(ClientCommunication clientCommunication) {
         // TODO
     }
+
+    private static class ThrottledEntity {
+        // Entity with changes that were not sent yet
+        private EntityRef entity;
+        private long sentAt;
+        private long sendAt;
+        private long updateInterval;
+    }
 }
@@ -5,6 +5,8 @@ import com.gempukku.secsy.entity.component.InternalComponentManager;
 import com.gempukku.secsy.entity.event.Event;
 import com.gempukku.secsy.network.serialize.EntityInformation;
 import com.gempukku.secsy.network.serialize.EntitySerializationUtil;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.map.ObjectMapper;
 
 import java.io.DataInputStream;
@@ -12,15 +14,29 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * Communicates with a remote client over a pair of streams (i.e. of a socket). Each message to the client starts
+ * with its type byte:
+ * <ul>
+ * <li>0 - add entity, followed by length prefixed JSON of EntityInformation</li>
+ * <li>1 - update entity, followed by length prefixed JSON of EntityInformation</li>
+ * <li>2 - remove entity, followed by entity id</li>
+ * <li>3 - event, followed by entity id, event class name and length prefixed JSON of the event</li>
+ * <li>4 - commit changes, the output is flushed after it</li>
+ * </ul>
+ * Each event from the client is its class name, followed by length prefixed JSON of the event.
+ * JSON is length prefixed, so that it can be read without the parser reading ahead, or closing the stream.
+ */
 public class StreamClientCommunication implements ClientCommunication {
-    private ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
     private InternalComponentManager componentManager;
     private EntityRef clientEntity;
-    private OutputStream outputStream;
+    private DataOutputStream outputStream;
 
     private final List<Event> eventsToConsume = new LinkedList<>();
 
@@ -28,7 +44,9 @@ public class StreamClientCommunication implements ClientCommunication {
                                      OutputStream outputStream) {
         this.componentManager = componentManager;
         this.clientEntity = clientEntity;
-        this.outputStream = outputStream;
+        this.outputStream = new DataOutputStream(outputStream);
+        objectMapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        objectMapper.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
     }
 
     @Override
@@ -36,7 +54,7 @@ public class StreamClientCommunication implements ClientCommunication {
         outputStream.write(0);
 
         EntityInformation entityInformation = EntitySerializationUtil.serializeEntity(componentManager, clientEntity, entityId, entity, componentFieldFilters);
-        objectMapper.writeValue(outputStream, entityInformation);
+        writeJson(entityInformation);
     }
 
     @Override
@@ -44,54 +62,66 @@ public class StreamClientCommunication implements ClientCommunication {
         outputStream.write(1);
 
         EntityInformation entityInformation = EntitySerializationUtil.serializeEntity(componentManager, clientEntity, entityId, entity, componentFieldFilters);
-        objectMapper.writeValue(outputStream, entityInformation);
+        writeJson(entityInformation);
     }
 
     @Override
     public void removeEntity(int entityId) throws IOException {
         outputStream.write(2);
-        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
-        dataOutputStream.writeInt(entityId);
-        dataOutputStream.flush();
+        outputStream.writeInt(entityId);
     }
 
     @Override
     public void sendEventToClient(int entityId, Event event) throws IOException {
         outputStream.write(3);
-        DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
-        dataOutputStream.writeInt(entityId);
-        dataOutputStream.writeUTF(event.getClass().getName());
-        dataOutputStream.flush();
-        objectMapper.writeValue(outputStream, event);
+        outputStream.writeInt(entityId);
+        outputStream.writeUTF(event.getClass().getName());
+        writeJson(event);
     }
 
     @Override
     public void commitChanges() throws IOException {
         outputStream.write(4);
+        outputStream.flush();
     }
 
     @Override
     public void visitQueuedEvents(ServerEventVisitor visitor) {
+        List<Event> events;
         synchronized (eventsToConsume) {
-            for (Event event : eventsToConsume) {
-                visitor.visitEventReceived(event);
-            }
+            if (eventsToConsume.isEmpty())
+                return;
+            events = new ArrayList<>(eventsToConsume);
+            eventsToConsume.clear();
+        }
+        for (Event event : events) {
+            visitor.visitEventReceived(event);
         }
     }
 
+    /**
+     * Reads events sent by the client, until the stream ends (EOFException is thrown then) or fails. Should be
+     * called on a thread dedicated to reading from this client. Fails on the first class name that is not an event.
+     *
+     * @param inputStream
+     * @throws IOException
+     */
     public void readEvents(InputStream inputStream) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
         while (true) {
-            DataInputStream dataInputStream = new DataInputStream(inputStream);
             String className = dataInputStream.readUTF();
-            try {
-                Event event = (Event) objectMapper.readValue(inputStream, Class.forName(className));
-                synchronized (eventsToConsume) {
-                    eventsToConsume.add(event);
-                }
-            } catch (ClassNotFoundException exp) {
-                throw new IOException("Unable to create class object: " + className, exp);
+            byte[] json = new byte[dataInputStream.readInt()];
+            dataInputStream.readFully(json);
+            Event event = objectMapper.readValue(json, EntitySerializationUtil.getEventClass(className));
+            synchronized (eventsToConsume) {
+                eventsToConsume.add(event);
             }
         }
     }
+
+    private void writeJson(Object value) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(value);
+        outputStream.writeInt(json.length);
+        outputStream.write(json);
+    }
 }
@@ -0,0 +1,86 @@
+package com.gempukku.secsy.network.server.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed size ring of bytes, with a single producer thread writing into it and a single consumer thread writing its
+ * contents to a channel. Neither of them blocks or takes a lock, each position is written only by its owner thread
+ * and published with an ordered write.
+ */
+public class ByteRingBuffer {
+    private final byte[] buffer;
+    private final int mask;
+    // Used only by the consumer thread
+    private final ByteBuffer consumerView;
+
+    private final AtomicLong writePosition = new AtomicLong();
+    private final AtomicLong readPosition = new AtomicLong();
+
+    /**
+     * @param capacity Capacity in bytes, rounded up to a power of two.
+     */
+    public ByteRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30))
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+        buffer = new byte[size];
+        mask = size - 1;
+        consumerView = ByteBuffer.wrap(buffer);
+    }
+
+    public int getCapacity() {
+        return buffer.length;
+    }
+
+    public boolean isEmpty() {
+        return readPosition.get() == writePosition.get();
+    }
+
+    /**
+     * Called by the producer thread. Writes as many of the bytes as there is space for.
+     *
+     * @return Number of bytes written.
+     */
+    public int write(byte[] bytes, int offset, int length) {
+        long write = writePosition.get();
+        int count = Math.min(length, buffer.length - (int) (write - readPosition.get()));
+        if (count == 0)
+            return 0;
+
+        int index = (int) write & mask;
+        int firstPart = Math.min(count, buffer.length - index);
+        System.arraycopy(bytes, offset, buffer, index, firstPart);
+        System.arraycopy(bytes, offset + firstPart, buffer, 0, count - firstPart);
+        writePosition.lazySet(write + count);
+        return count;
+    }
+
+    /**
+     * Called by the consumer thread. Writes as much as the channel accepts without blocking (if it is non-blocking).
+     *
+     * @return Number of bytes written to the channel.
+     */
+    public int writeTo(WritableByteChannel channel) throws IOException {
+        int result = 0;
+        while (true) {
+            long read = readPosition.get();
+            int available = (int) (writePosition.get() - read);
+            if (available == 0)
+                return result;
+
+            int index = (int) read & mask;
+            consumerView.limit(index + Math.min(available, buffer.length - index));
+            consumerView.position(index);
+            int written = channel.write(consumerView);
+            readPosition.lazySet(read + written);
+            result += written;
+            if (written == 0)
+                return result;
+        }
+    }
+}
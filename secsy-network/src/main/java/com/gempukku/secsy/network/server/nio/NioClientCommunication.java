@@ -0,0 +1,118 @@
+package com.gempukku.secsy.network.server.nio;
+
+import com.gempukku.secsy.entity.EntityRef;
+import com.gempukku.secsy.entity.component.InternalComponentManager;
+import com.gempukku.secsy.entity.event.Event;
+import com.gempukku.secsy.network.serialize.EntityInformation;
+import com.gempukku.secsy.network.serialize.EntitySerializationUtil;
+import com.gempukku.secsy.network.server.ClientCommunication;
+import com.gempukku.secsy.network.server.EntityComponentFieldFilter;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Communicates with a client connected to NioClientServer, with the same messages as StreamClientCommunication.
+ * Messages are collected in memory during the tick and passed to the connection as a single frame on commit, the
+ * selector thread then writes it to the socket. Events from the client are decoded by the selector thread, so
+ * visiting them only takes them from a queue.
+ * <p>
+ * Once the connection is closed, all messages are dropped, the server is notified through the ConnectionListener.
+ */
+public class NioClientCommunication implements ClientCommunication {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final InternalComponentManager componentManager;
+    private final EntityRef clientEntity;
+    private final NioClientConnection connection;
+
+    private final FrameOutputStream frame = new FrameOutputStream();
+    private final DataOutputStream output = new DataOutputStream(frame);
+
+    public NioClientCommunication(InternalComponentManager componentManager, EntityRef clientEntity,
+                                  NioClientConnection connection) {
+        this.componentManager = componentManager;
+        this.clientEntity = clientEntity;
+        this.connection = connection;
+        objectMapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+    }
+
+    @Override
+    public void addEntity(int entityId, EntityRef entity, Iterable<? extends EntityComponentFieldFilter> componentFieldFilters) throws IOException {
+        if (connection.isClosed())
+            return;
+        output.write(0);
+
+        EntityInformation entityInformation = EntitySerializationUtil.serializeEntity(componentManager, clientEntity, entityId, entity, componentFieldFilters);
+        writeJson(entityInformation);
+    }
+
+    @Override
+    public void updateEntity(int entityId, EntityRef entity, Iterable<? extends EntityComponentFieldFilter> componentFieldFilters) throws IOException {
+        if (connection.isClosed())
+            return;
+        output.write(1);
+
+        EntityInformation entityInformation = EntitySerializationUtil.serializeEntity(componentManager, clientEntity, entityId, entity, componentFieldFilters);
+        writeJson(entityInformation);
+    }
+
+    @Override
+    public void removeEntity(int entityId) throws IOException {
+        if (connection.isClosed())
+            return;
+        output.write(2);
+        output.writeInt(entityId);
+    }
+
+    @Override
+    public void sendEventToClient(int entityId, Event event) throws IOException {
+        if (connection.isClosed())
+            return;
+        output.write(3);
+        output.writeInt(entityId);
+        output.writeUTF(event.getClass().getName());
+        writeJson(event);
+    }
+
+    @Override
+    public void commitChanges() throws IOException {
+        if (connection.isClosed()) {
+            frame.reset();
+            return;
+        }
+        output.write(4);
+        connection.sendFrame(frame.getBuffer(), 0, frame.size());
+        frame.reset();
+    }
+
+    @Override
+    public void visitQueuedEvents(ServerEventVisitor visitor) {
+        while (true) {
+            Event event = connection.pollReceivedEvent();
+            if (event == null)
+                break;
+            visitor.visitEventReceived(event);
+        }
+    }
+
+    private void writeJson(Object value) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(value);
+        output.writeInt(json.length);
+        output.write(json);
+    }
+
+    // Gives access to the bytes written, without copying them
+    private static class FrameOutputStream extends ByteArrayOutputStream {
+        private FrameOutputStream() {
+            super(64 * 1024);
+        }
+
+        private byte[] getBuffer() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.gempukku.secsy.network.server.nio;
+
+import com.gempukku.secsy.entity.event.Event;
+import com.gempukku.secsy.network.serialize.EntitySerializationUtil;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Connection of a single client to NioClientServer. The game thread queues whole frames of messages to the client
+ * with sendFrame and takes events received from the client with pollReceivedEvent, neither of these ever blocks.
+ * Everything else is called only by the selector thread of the server.
+ * <p>
+ * The client starts by sending its client id, then each event is its class name followed by length prefixed JSON
+ * of the event. Strings are sent as written by DataOutputStream.writeUTF, and read as UTF-8.
+ */
+public class NioClientConnection {
+    private static final int initialInboundSize = 16 * 1024;
+
+    private final NioClientServer server;
+    private final SocketChannel channel;
+    private final ByteRingBuffer outbound;
+    private final int maxBacklogSize;
+    private final int maxInboundFrameSize;
+
+    private final Queue<Event> receivedEvents = new ConcurrentLinkedQueue<>();
+
+    private volatile String clientId;
+    private volatile boolean closed;
+
+    // Part of the frames that did not fit into the outbound buffer, used only by the game thread
+    private byte[] backlog = new byte[0];
+    private int backlogStart;
+    private int backlogLength;
+
+    // Fields below are used only by the selector thread
+    private SelectionKey selectionKey;
+    private ByteBuffer inbound = ByteBuffer.allocate(initialInboundSize);
+    private boolean announced;
+    private long lastProgressTime;
+
+    NioClientConnection(NioClientServer server, SocketChannel channel, int outboundBufferSize, int maxBacklogSize,
+                        int maxInboundFrameSize) {
+        this.server = server;
+        this.channel = channel;
+        this.outbound = new ByteRingBuffer(outboundBufferSize);
+        this.maxBacklogSize = maxBacklogSize;
+        this.maxInboundFrameSize = maxInboundFrameSize;
+    }
+
+    /**
+     * @return Id the client has sent, or null if it has not been received yet.
+     */
+    public String getClientId() {
+        return clientId;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Queues a whole frame of messages to be written to the client by the selector thread. Whatever does not fit into
+     * the outbound buffer is kept in a backlog, that is moved into the buffer with the following frames, so a burst
+     * (i.e. all the chunks around a joining player) can be larger than the buffer. If the backlog would grow past
+     * its maximum size, the client is disconnected, rather than waiting for it.
+     */
+    public void sendFrame(byte[] bytes, int offset, int length) {
+        if (closed)
+            return;
+
+        if (backlogLength > 0) {
+            int written = outbound.write(backlog, backlogStart, backlogLength);
+            backlogStart += written;
+            backlogLength -= written;
+            // Do not keep the memory of a burst
+            if (backlogLength == 0)
+                backlog = new byte[0];
+        }
+        if (backlogLength == 0) {
+            backlogStart = 0;
+            int written = outbound.write(bytes, offset, length);
+            offset += written;
+            length -= written;
+        }
+
+        if (length > 0) {
+            if (backlogLength + length > maxBacklogSize) {
+                closed = true;
+                server.closeRequested(this, "outbound buffer full");
+                return;
+            }
+            appendToBacklog(bytes, offset, length);
+        }
+        server.flushRequested(this);
+    }
+
+    /**
+     * @return Next event received from the client, or null, if there are none.
+     */
+    public Event pollReceivedEvent() {
+        return receivedEvents.poll();
+    }
+
+    /**
+     * Disconnects the client, can be called from any thread.
+     */
+    public void close() {
+        if (!closed) {
+            closed = true;
+            server.closeRequested(this, "closed by server");
+        }
+    }
+
+    private void appendToBacklog(byte[] bytes, int offset, int length) {
+        if (backlogStart + backlogLength + length > backlog.length) {
+            byte[] newBacklog = (backlogLength + length > backlog.length)
+                    ? new byte[Math.min(maxBacklogSize, Math.max(backlogLength + length, 2 * backlog.length))] : backlog;
+            System.arraycopy(backlog, backlogStart, newBacklog, 0, backlogLength);
+            backlog = newBacklog;
+            backlogStart = 0;
+        }
+        System.arraycopy(bytes, offset, backlog, backlogStart + backlogLength, length);
+        backlogLength += length;
+    }
+
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+    void setSelectionKey(SelectionKey selectionKey) {
+        this.selectionKey = selectionKey;
+    }
+
+    void markClosed() {
+        closed = true;
+    }
+
+    boolean isAnnounced() {
+        return announced;
+    }
+
+    void setAnnounced() {
+        announced = true;
+    }
+
+    long getLastProgressTime() {
+        return lastProgressTime;
+    }
+
+    void setLastProgressTime(long lastProgressTime) {
+        this.lastProgressTime = lastProgressTime;
+    }
+
+    boolean isOutboundEmpty() {
+        return outbound.isEmpty();
+    }
+
+    /**
+     * Writes as much of the outbound buffer as the socket accepts, and registers for write readiness, if some of it
+     * remains.
+     */
+    void flush(long time) throws IOException {
+        if (outbound.writeTo(channel) > 0 || outbound.isEmpty())
+            lastProgressTime = time;
+        if (outbound.isEmpty())
+            selectionKey.interestOps(SelectionKey.OP_READ);
+        else
+            selectionKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+    }
+
+    /**
+     * Reads whatever is available from the socket and decodes all the complete messages in it.
+     *
+     * @return False, if the client has closed the connection.
+     */
+    boolean read(ObjectMapper objectMapper) throws IOException {
+        int read = channel.read(inbound);
+        if (read == -1)
+            return false;
+
+        inbound.flip();
+        try {
+            while (decodeMessage(objectMapper)) {
+            }
+        } finally {
+            inbound.compact();
+        }
+        return true;
+    }
+
+    private boolean decodeMessage(ObjectMapper objectMapper) throws IOException {
+        inbound.mark();
+        String string = readString();
+        if (string == null)
+            return false;
+
+        if (clientId == null) {
+            clientId = string;
+            return true;
+        }
+
+        if (inbound.remaining() < 4) {
+            inbound.reset();
+            return false;
+        }
+        int length = inbound.getInt();
+        if (length < 0 || length > maxInboundFrameSize)
+            throw new IOException("Invalid event length: " + length);
+        if (inbound.remaining() < length) {
+            inbound.reset();
+            // Remaining bytes include the class name and the length, that precede the event
+            ensureInboundCapacity(inbound.remaining() + length);
+            return false;
+        }
+
+        byte[] json = new byte[length];
+        inbound.get(json);
+        receivedEvents.add(objectMapper.readValue(json, EntitySerializationUtil.getEventClass(string)));
+        return true;
+    }
+
+    private String readString() {
+        if (inbound.remaining() < 2)
+            return null;
+        int length = inbound.getShort() & 0xffff;
+        if (inbound.remaining() < length) {
+            inbound.reset();
+            ensureInboundCapacity(2 + length);
+            return null;
+        }
+        String result = new String(inbound.array(), inbound.arrayOffset() + inbound.position(), length, StandardCharsets.UTF_8);
+        inbound.position(inbound.position() + length);
+        return result;
+    }
+
+    // Called with inbound in read mode, the message starts at its position
+    private void ensureInboundCapacity(int messageLength) {
+        if (messageLength > inbound.capacity()) {
+            ByteBuffer newInbound = ByteBuffer.allocate(Math.max(messageLength, 2 * inbound.capacity()));
+            newInbound.put(inbound);
+            newInbound.flip();
+            inbound = newInbound;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.gempukku.secsy.network.server.nio;
+
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Accepts clients and does all the socket reads and writes on a single thread, with a Selector. Game thread only
+ * copies frames into the outbound buffers of the connections and takes already decoded events from them, so it
+ * is never blocked by the network.
+ * <p>
+ * A client is disconnected as slow, if its backlog of data not fitting into the outbound buffer grows past
+ * maxBacklogSize, or if it has not accepted any data for maxStallMillis, while having some pending. A client that does not send its id in that time is
+ * disconnected as well.
+ * <p>
+ * Listener is notified on the selector thread, so it should pass the connection to the game thread, rather than
+ * use it in the game context right away.
+ */
+public class NioClientServer extends Thread {
+    public interface ConnectionListener {
+        /**
+         * Called when the client has sent its id.
+         *
+         * @return If the client is accepted, if not, the connection is closed.
+         */
+        boolean clientConnected(NioClientConnection connection);
+
+        /**
+         * Called when a client, that has been accepted, is disconnected for any reason.
+         */
+        void clientDisconnected(NioClientConnection connection, String reason);
+
+        /**
+         * Called when accepting a client fails, or the server stops due to a failure of its selector.
+         */
+        void networkError(String message, Exception exception);
+    }
+
+    private static final int maxInboundFrameSize = 1024 * 1024;
+
+    private final ConnectionListener connectionListener;
+    private final int outboundBufferSize;
+    private final int maxBacklogSize;
+    private final long maxStallNanos;
+    private final long checkIntervalMillis;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Selector selector;
+    private final ServerSocketChannel serverSocketChannel;
+
+    // Requests from other threads, handled on the selector thread
+    private final Queue<NioClientConnection> flushRequests = new ConcurrentLinkedQueue<>();
+    private final Queue<CloseRequest> closeRequests = new ConcurrentLinkedQueue<>();
+
+    // Used only by the selector thread
+    private final Set<NioClientConnection> connections = new HashSet<>();
+
+    private volatile boolean running = true;
+
+    public NioClientServer(int port, ConnectionListener connectionListener, int outboundBufferSize, int maxBacklogSize,
+                           long maxStallMillis) throws IOException {
+        this.connectionListener = connectionListener;
+        this.outboundBufferSize = outboundBufferSize;
+        this.maxBacklogSize = maxBacklogSize;
+        this.maxStallNanos = TimeUnit.MILLISECONDS.toNanos(maxStallMillis);
+        this.checkIntervalMillis = Math.max(1, Math.min(100, maxStallMillis / 4));
+        setName("SECSy-network-selector");
+        setDaemon(true);
+
+        objectMapper.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+
+        selector = Selector.open();
+        serverSocketChannel = ServerSocketChannel.open();
+        serverSocketChannel.configureBlocking(false);
+        serverSocketChannel.bind(new InetSocketAddress(port));
+        serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return serverSocketChannel.socket().getLocalPort();
+    }
+
+    public void stopServer() {
+        running = false;
+        selector.wakeup();
+    }
+
+    void flushRequested(NioClientConnection connection) {
+        flushRequests.add(connection);
+        selector.wakeup();
+    }
+
+    void closeRequested(NioClientConnection connection, String reason) {
+        closeRequests.add(new CloseRequest(connection, reason));
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            long lastCheck = System.nanoTime();
+            while (running) {
+                selector.select(checkIntervalMillis);
+
+                processCloseRequests();
+                processFlushRequests();
+                processSelectedKeys();
+
+                long time = System.nanoTime();
+                if (time - lastCheck >= TimeUnit.MILLISECONDS.toNanos(checkIntervalMillis)) {
+                    disconnectStalledClients(time);
+                    lastCheck = time;
+                }
+            }
+        } catch (IOException | ClosedSelectorException exp) {
+            connectionListener.networkError("Server stopped due to selector failure", exp);
+        } finally {
+            for (NioClientConnection connection : new HashSet<>(connections))
+                closeConnection(connection, "server stopped");
+            closeQuietly(serverSocketChannel);
+            try {
+                selector.close();
+            } catch (IOException exp) {
+                // ignore
+            }
+        }
+    }
+
+    private void processCloseRequests() {
+        while (true) {
+            CloseRequest closeRequest = closeRequests.poll();
+            if (closeRequest == null)
+                break;
+            closeConnection(closeRequest.connection, closeRequest.reason);
+        }
+    }
+
+    private void processFlushRequests() {
+        long time = System.nanoTime();
+        while (true) {
+            NioClientConnection connection = flushRequests.poll();
+            if (connection == null)
+                break;
+            flush(connection, time);
+        }
+    }
+
+    private void processSelectedKeys() {
+        long time = System.nanoTime();
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+            if (!key.isValid())
+                continue;
+
+            if (key.isAcceptable()) {
+                acceptConnections(time);
+            } else {
+                NioClientConnection connection = (NioClientConnection) key.attachment();
+                if (key.isReadable())
+                    read(connection);
+                if (key.isValid() && key.isWritable())
+                    flush(connection, time);
+            }
+        }
+    }
+
+    private void acceptConnections(long time) {
+        while (true) {
+            SocketChannel socketChannel;
+            try {
+                socketChannel = serverSocketChannel.accept();
+            } catch (IOException exp) {
+                // i.e. too many open files, accepting is tried again with the next select
+                connectionListener.networkError("Unable to accept client", exp);
+                return;
+            }
+            if (socketChannel == null)
+                return;
+
+            // Failure of a single client must not stop the server
+            try {
+                socketChannel.configureBlocking(false);
+                socketChannel.socket().setTcpNoDelay(true);
+                NioClientConnection connection = new NioClientConnection(this, socketChannel, outboundBufferSize, maxBacklogSize, maxInboundFrameSize);
+                connection.setSelectionKey(socketChannel.register(selector, SelectionKey.OP_READ, connection));
+                connection.setLastProgressTime(time);
+                connections.add(connection);
+            } catch (IOException exp) {
+                closeQuietly(socketChannel);
+                connectionListener.networkError("Unable to set up accepted client", exp);
+            }
+        }
+    }
+
+    private void read(NioClientConnection connection) {
+        try {
+            if (!connection.read(objectMapper)) {
+                closeConnection(connection, "disconnected by client");
+                return;
+            }
+        } catch (IOException exp) {
+            closeConnection(connection, exp.getMessage());
+            return;
+        }
+
+        if (!connection.isAnnounced() && connection.getClientId() != null) {
+            connection.setAnnounced();
+            if (!connectionListener.clientConnected(connection))
+                closeConnection(connection, "rejected");
+        }
+    }
+
+    private void flush(NioClientConnection connection, long time) {
+        if (connection.isClosed())
+            return;
+        try {
+            connection.flush(time);
+        } catch (IOException exp) {
+            closeConnection(connection, exp.getMessage());
+        }
+    }
+
+    private void disconnectStalledClients(long time) {
+        for (NioClientConnection connection : new HashSet<>(connections)) {
+            if (connection.isAnnounced() && connection.isOutboundEmpty()) {
+                connection.setLastProgressTime(time);
+            } else if (time - connection.getLastProgressTime() > maxStallNanos) {
+                closeConnection(connection, connection.isAnnounced() ? "client too slow" : "client id not received");
+            }
+        }
+    }
+
+    private void closeConnection(NioClientConnection connection, String reason) {
+        if (!connections.remove(connection))
+            return;
+
+        connection.markClosed();
+        closeQuietly(connection.getChannel());
+        if (connection.isAnnounced())
+            connectionListener.clientDisconnected(connection, reason);
+    }
+
+    private static void closeQuietly(Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException exp) {
+            // ignore
+        }
+    }
+
+    private static class CloseRequest {
+        private final NioClientConnection connection;
+        private final String reason;
+
+        private CloseRequest(NioClientConnection connection, String reason) {
+            this.connection = connection;
+            this.reason = reason;
+        }
+    }
+}
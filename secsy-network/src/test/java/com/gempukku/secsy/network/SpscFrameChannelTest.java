@@ -0,0 +1,97 @@
+package com.gempukku.secsy.network;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpscFrameChannelTest {
+    @Test
+    public void messagesNotVisibleBeforeCommit() {
+        SpscFrameChannel channel = new SpscFrameChannel(4);
+        List<Object> received = new ArrayList<>();
+
+        channel.add(1, 2, "a");
+        channel.visitMessages((type, entityId, payload) -> received.add(payload));
+        assertTrue(received.isEmpty());
+
+        assertTrue(channel.commit());
+        channel.visitMessages((type, entityId, payload) -> received.add(type + ":" + entityId + ":" + payload));
+        assertEquals(Arrays.asList("1:2:a"), received);
+    }
+
+    @Test
+    public void framesVisitedInOrder() {
+        SpscFrameChannel channel = new SpscFrameChannel(4);
+        List<Object> received = new ArrayList<>();
+
+        channel.add(0, 0, "a");
+        channel.add(0, 0, "b");
+        channel.commit();
+        channel.add(0, 0, "c");
+        channel.commit();
+        channel.visitMessages((type, entityId, payload) -> received.add(payload));
+        assertEquals(Arrays.asList("a", "b", "c"), received);
+
+        // Already visited messages are not visited again
+        channel.visitMessages((type, entityId, payload) -> received.add(payload));
+        assertEquals(3, received.size());
+    }
+
+    @Test
+    public void frameKeptUntilSlotIsFree() {
+        SpscFrameChannel channel = new SpscFrameChannel(2);
+        List<Object> received = new ArrayList<>();
+
+        channel.add(0, 0, "a");
+        assertTrue(channel.commit());
+        channel.add(0, 0, "b");
+        assertTrue(channel.commit());
+        channel.add(0, 0, "c");
+        assertFalse(channel.commit());
+        channel.add(0, 0, "d");
+        assertFalse(channel.commit());
+
+        channel.visitMessages((type, entityId, payload) -> received.add(payload));
+        assertEquals(Arrays.asList("a", "b"), received);
+
+        assertTrue(channel.commit());
+        channel.visitMessages((type, entityId, payload) -> received.add(payload));
+        assertEquals(Arrays.asList("a", "b", "c", "d"), received);
+    }
+
+    @Test
+    public void passesMessagesBetweenThreads() throws InterruptedException {
+        final int messageCount = 1000000;
+        SpscFrameChannel channel = new SpscFrameChannel(8);
+
+        Thread producer = new Thread(
+                () -> {
+                    for (int i = 0; i < messageCount; i++) {
+                        channel.add(0, i, null);
+                        if (i % 10 == 9)
+                            channel.commit();
+                    }
+                    while (!channel.commit())
+                        Thread.yield();
+                });
+        producer.start();
+
+        int[] nextExpected = new int[1];
+        long start = System.currentTimeMillis();
+        while (nextExpected[0] < messageCount && System.currentTimeMillis() - start < 10000) {
+            channel.visitMessages(
+                    (type, entityId, payload) -> {
+                        assertEquals(nextExpected[0], entityId);
+                        nextExpected[0]++;
+                    });
+        }
+        producer.join();
+        assertEquals(messageCount, nextExpected[0]);
+    }
+}
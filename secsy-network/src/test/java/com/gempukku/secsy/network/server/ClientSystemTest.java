@@ -4,10 +4,13 @@ import com.gempukku.secsy.context.annotation.RegisterSystem;
 import com.gempukku.secsy.context.system.ClassSystemProducer;
 import com.gempukku.secsy.context.system.ShareSystemInitializer;
 import com.gempukku.secsy.context.system.SimpleContext;
+import com.gempukku.secsy.entity.Component;
 import com.gempukku.secsy.entity.EntityEventListener;
 import com.gempukku.secsy.entity.EntityListener;
 import com.gempukku.secsy.entity.EntityRef;
 import com.gempukku.secsy.entity.InternalEntityManager;
+import com.gempukku.secsy.entity.SampleComponent;
+import com.gempukku.secsy.entity.SampleComponent2;
 import com.gempukku.secsy.entity.SampleEvent;
 import com.gempukku.secsy.entity.SimpleEntity;
 import com.gempukku.secsy.entity.event.AfterComponentAdded;
@@ -102,6 +105,41 @@ public class ClientSystemTest {
         Mockito.verifyNoMoreInteractions(clientEntity, clientCommunication);
     }
 
+    @Test
+    public void throttledUpdatesAreDelayed() throws IOException {
+        EntityRef clientEntity = Mockito.mock(EntityRef.class);
+        ClientCommunication clientCommunication = Mockito.mock(ClientCommunication.class);
+
+        SimpleClientEntityRelevanceRule relevanceRule = new SimpleClientEntityRelevanceRule();
+        clientSystem.addClientEntityRelevanceRule(relevanceRule);
+        clientSystem.setComponentUpdateInterval(SampleComponent.class, 60000);
+
+        clientSystem.addClient("clientId", clientEntity, clientCommunication);
+
+        EntityRef relevantEntity = Mockito.mock(EntityRef.class);
+        mockInternalEntityManager.setEntityId(relevantEntity, 1);
+
+        relevanceRule.setEntityRelevant("clientId", relevantEntity, true);
+        Mockito.verify(clientCommunication).addEntity(Mockito.eq(1), Mockito.same(relevantEntity), Mockito.any());
+
+        Map<Class<? extends Component>, Component> throttledComponents = Collections.singletonMap(SampleComponent.class, null);
+        clientSystem.eventSent(relevantEntity, new AfterComponentUpdated(throttledComponents, throttledComponents));
+        Mockito.verify(clientCommunication, new Times(1)).updateEntity(Mockito.eq(1), Mockito.same(relevantEntity), Mockito.any());
+
+        clientSystem.eventSent(relevantEntity, new AfterComponentUpdated(throttledComponents, throttledComponents));
+        Mockito.verify(clientCommunication, new Times(1)).updateEntity(Mockito.eq(1), Mockito.same(relevantEntity), Mockito.any());
+
+        Map<Class<? extends Component>, Component> otherComponents = new HashMap<>();
+        otherComponents.put(SampleComponent.class, null);
+        otherComponents.put(SampleComponent2.class, null);
+        clientSystem.eventSent(relevantEntity, new AfterComponentUpdated(otherComponents, otherComponents));
+        Mockito.verify(clientCommunication, new Times(2)).updateEntity(Mockito.eq(1), Mockito.same(relevantEntity), Mockito.any());
+
+        Mockito.verify(clientEntity).send(ClientConnectedEvent.SINGLETON);
+
+        Mockito.verifyNoMoreInteractions(clientEntity, clientCommunication);
+    }
+
     @Test
     public void clientNotAwareOfClientEventsOnIrrelevantEntity() {
         EntityRef clientEntity = Mockito.mock(EntityRef.class);
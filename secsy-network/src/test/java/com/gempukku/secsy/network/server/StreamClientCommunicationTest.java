@@ -0,0 +1,102 @@
+package com.gempukku.secsy.network.server;
+
+import com.gempukku.secsy.entity.event.Event;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class StreamClientCommunicationTest {
+    private static volatile boolean notAnEventInitialized;
+
+    @Test
+    public void readEventsFromClient() throws IOException {
+        StreamClientCommunication communication = new StreamClientCommunication(null, null, new ByteArrayOutputStream());
+
+        ByteArrayOutputStream clientOutput = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(clientOutput);
+        writeEvent(output, TestEvent.class.getName(), "{\"value\":\"first\"}");
+        writeEvent(output, TestEvent.class.getName(), "{\"value\":\"second\"}");
+
+        try {
+            communication.readEvents(new ByteArrayInputStream(clientOutput.toByteArray()));
+            fail("Expected end of stream");
+        } catch (EOFException exp) {
+            // Expected
+        }
+
+        List<Event> events = new ArrayList<>();
+        communication.visitQueuedEvents(events::add);
+        assertEquals(2, events.size());
+        assertEquals("first", ((TestEvent) events.get(0)).value);
+        assertEquals("second", ((TestEvent) events.get(1)).value);
+    }
+
+    @Test
+    public void notAnEventRejected() throws IOException {
+        StreamClientCommunication communication = new StreamClientCommunication(null, null, new ByteArrayOutputStream());
+
+        ByteArrayOutputStream clientOutput = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(clientOutput);
+        writeEvent(output, NotAnEvent.class.getName(), "{}");
+
+        try {
+            communication.readEvents(new ByteArrayInputStream(clientOutput.toByteArray()));
+            fail("Expected IOException");
+        } catch (EOFException exp) {
+            fail("Expected the class to be rejected");
+        } catch (IOException exp) {
+            assertEquals("Not an event: " + NotAnEvent.class.getName(), exp.getMessage());
+        }
+        assertFalse(notAnEventInitialized);
+
+        List<Event> events = new ArrayList<>();
+        communication.visitQueuedEvents(events::add);
+        assertEquals(0, events.size());
+    }
+
+    @Test
+    public void unknownClassRejected() throws IOException {
+        StreamClientCommunication communication = new StreamClientCommunication(null, null, new ByteArrayOutputStream());
+
+        ByteArrayOutputStream clientOutput = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(clientOutput);
+        writeEvent(output, "com.example.NoSuchEvent", "{}");
+
+        try {
+            communication.readEvents(new ByteArrayInputStream(clientOutput.toByteArray()));
+            fail("Expected IOException");
+        } catch (EOFException exp) {
+            fail("Expected the class to be rejected");
+        } catch (IOException exp) {
+            assertEquals("Unknown event: com.example.NoSuchEvent", exp.getMessage());
+        }
+    }
+
+    private void writeEvent(DataOutputStream output, String className, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        output.writeUTF(className);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    public static class TestEvent extends Event {
+        public String value;
+    }
+
+    public static class NotAnEvent {
+        static {
+            notAnEventInitialized = true;
+        }
+    }
+}
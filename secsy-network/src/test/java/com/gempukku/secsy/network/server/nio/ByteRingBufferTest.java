@@ -0,0 +1,101 @@
+package com.gempukku.secsy.network.server.nio;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ByteRingBufferTest {
+    @Test
+    public void capacityRoundedUpToPowerOfTwo() {
+        assertEquals(16, new ByteRingBuffer(10).getCapacity());
+        assertEquals(16, new ByteRingBuffer(16).getCapacity());
+    }
+
+    @Test
+    public void writeAndDrain() throws Exception {
+        ByteRingBuffer ringBuffer = new ByteRingBuffer(16);
+        assertTrue(ringBuffer.isEmpty());
+        assertEquals(3, ringBuffer.write(new byte[]{1, 2, 3}, 0, 3));
+        assertFalse(ringBuffer.isEmpty());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(3, ringBuffer.writeTo(new LimitedChannel(output, 100)));
+        assertArrayEquals(new byte[]{1, 2, 3}, output.toByteArray());
+        assertTrue(ringBuffer.isEmpty());
+    }
+
+    @Test
+    public void writesWhatFits() throws Exception {
+        ByteRingBuffer ringBuffer = new ByteRingBuffer(16);
+        assertEquals(10, ringBuffer.write(new byte[10], 0, 10));
+        assertEquals(6, ringBuffer.write(new byte[10], 0, 10));
+        assertEquals(0, ringBuffer.write(new byte[10], 0, 10));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(16, ringBuffer.writeTo(new LimitedChannel(output, 100)));
+        assertEquals(16, output.size());
+    }
+
+    @Test
+    public void wrapsAround() throws Exception {
+        ByteRingBuffer ringBuffer = new ByteRingBuffer(8);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(6, ringBuffer.write(new byte[]{1, 2, 3, 4, 5, 6}, 0, 6));
+        assertEquals(6, ringBuffer.writeTo(new LimitedChannel(output, 100)));
+
+        assertEquals(5, ringBuffer.write(new byte[]{7, 8, 9, 10, 11}, 0, 5));
+        assertEquals(5, ringBuffer.writeTo(new LimitedChannel(output, 100)));
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11}, output.toByteArray());
+    }
+
+    @Test
+    public void keepsWhatChannelDoesNotAccept() throws Exception {
+        ByteRingBuffer ringBuffer = new ByteRingBuffer(8);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertEquals(5, ringBuffer.write(new byte[]{1, 2, 3, 4, 5}, 0, 5));
+
+        LimitedChannel channel = new LimitedChannel(output, 2);
+        assertEquals(2, ringBuffer.writeTo(channel));
+        assertFalse(ringBuffer.isEmpty());
+        assertEquals(5, ringBuffer.write(new byte[]{6, 7, 8, 9, 10}, 0, 5));
+
+        channel.limit = 100;
+        assertEquals(8, ringBuffer.writeTo(channel));
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, output.toByteArray());
+    }
+
+    private static class LimitedChannel implements WritableByteChannel {
+        private final ByteArrayOutputStream output;
+        private int limit;
+
+        private LimitedChannel(ByteArrayOutputStream output, int limit) {
+            this.output = output;
+            this.limit = limit;
+        }
+
+        @Override
+        public int write(ByteBuffer src) {
+            int count = Math.min(limit, src.remaining());
+            for (int i = 0; i < count; i++)
+                output.write(src.get());
+            limit -= count;
+            return count;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
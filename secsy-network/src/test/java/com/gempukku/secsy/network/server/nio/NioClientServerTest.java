@@ -0,0 +1,241 @@
+package com.gempukku.secsy.network.server.nio;
+
+import com.gempukku.secsy.entity.event.Event;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NioClientServerTest {
+    private NioClientServer server;
+    private Socket socket;
+
+    private final BlockingQueue<NioClientConnection> connected = new ArrayBlockingQueue<>(10);
+    private final BlockingQueue<String> disconnected = new ArrayBlockingQueue<>(10);
+    private final BlockingQueue<String> networkErrors = new ArrayBlockingQueue<>(10);
+    private final Set<String> clientIds = ConcurrentHashMap.newKeySet();
+
+    private static volatile boolean notAnEventInitialized;
+
+    @After
+    public void cleanup() throws IOException {
+        if (socket != null)
+            socket.close();
+        if (server != null)
+            server.stopServer();
+        assertTrue(networkErrors.toString(), networkErrors.isEmpty());
+    }
+
+    @Test
+    public void clientSendsIdAndEvents() throws Exception {
+        startServer(1024, 1024, 10000);
+        DataOutputStream output = connect("client");
+
+        NioClientConnection connection = connected.poll(5, TimeUnit.SECONDS);
+        assertNotNull(connection);
+        assertEquals("client", connection.getClientId());
+
+        byte[] json = new ObjectMapper().writeValueAsBytes(new TestEvent("value"));
+        output.writeUTF(TestEvent.class.getName());
+        output.writeInt(json.length);
+        // Event split into two writes, to be decoded only when all of it is received
+        output.write(json, 0, 3);
+        output.flush();
+        Thread.sleep(50);
+        assertNull(connection.pollReceivedEvent());
+        output.write(json, 3, json.length - 3);
+        output.flush();
+
+        Event event = pollEvent(connection);
+        assertEquals("value", ((TestEvent) event).getValue());
+    }
+
+    @Test
+    public void clientSendingNonEventDisconnected() throws Exception {
+        startServer(1024, 1024, 10000);
+        DataOutputStream output = connect("client");
+        assertNotNull(connected.poll(5, TimeUnit.SECONDS));
+
+        output.writeUTF(NotAnEvent.class.getName());
+        output.writeInt(2);
+        output.write(new byte[]{'{', '}'});
+        output.flush();
+
+        assertEquals("Not an event: " + NotAnEvent.class.getName(), disconnected.poll(5, TimeUnit.SECONDS));
+        assertFalse(notAnEventInitialized);
+    }
+
+    @Test
+    public void framesWrittenToClient() throws Exception {
+        startServer(1024, 1024, 10000);
+        connect("client");
+        NioClientConnection connection = connected.poll(5, TimeUnit.SECONDS);
+
+        connection.sendFrame(new byte[]{1, 2, 3}, 0, 3);
+        connection.sendFrame(new byte[]{9, 4, 5, 9}, 1, 2);
+
+        byte[] received = new byte[5];
+        new DataInputStream(socket.getInputStream()).readFully(received);
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, received);
+    }
+
+    @Test
+    public void frameLargerThanBufferSentThroughBacklog() throws Exception {
+        startServer(1024, 4096, 10000);
+        connect("client");
+        NioClientConnection connection = connected.poll(5, TimeUnit.SECONDS);
+
+        byte[] frame = new byte[3000];
+        for (int i = 0; i < frame.length; i++)
+            frame[i] = (byte) i;
+        connection.sendFrame(frame, 0, frame.length);
+
+        DataInputStream input = new DataInputStream(socket.getInputStream());
+        byte[] received = new byte[frame.length];
+        int receivedCount = 0;
+        socket.setSoTimeout(10);
+        long start = System.currentTimeMillis();
+        while (receivedCount < frame.length && System.currentTimeMillis() - start < 5000) {
+            // Backlog is moved to the outbound buffer with the following frames
+            connection.sendFrame(frame, 0, 0);
+            try {
+                receivedCount += input.read(received, receivedCount, received.length - receivedCount);
+            } catch (SocketTimeoutException exp) {
+                // Try again
+            }
+        }
+        assertArrayEquals(frame, received);
+    }
+
+    @Test
+    public void clientDisconnectedWhenBacklogFull() throws Exception {
+        startServer(1024, 1024, 10000);
+        connect("client");
+        NioClientConnection connection = connected.poll(5, TimeUnit.SECONDS);
+
+        connection.sendFrame(new byte[3000], 0, 3000);
+        assertEquals("outbound buffer full", disconnected.poll(5, TimeUnit.SECONDS));
+        assertTrue(connection.isClosed());
+    }
+
+    @Test
+    public void clientNotReadingDisconnected() throws Exception {
+        startServer(64 * 1024, 1024 * 1024, 200);
+        connect("client");
+        socket.setReceiveBufferSize(1024);
+        NioClientConnection connection = connected.poll(5, TimeUnit.SECONDS);
+
+        // Client never reads, so at some point socket buffers get full and nothing more can be written
+        byte[] frame = new byte[16 * 1024];
+        long start = System.currentTimeMillis();
+        while (!connection.isClosed() && System.currentTimeMillis() - start < 5000) {
+            connection.sendFrame(frame, 0, frame.length);
+            Thread.sleep(5);
+        }
+        String reason = disconnected.poll(5, TimeUnit.SECONDS);
+        assertTrue(reason, "client too slow".equals(reason) || "outbound buffer full".equals(reason));
+    }
+
+    @Test
+    public void duplicateClientRejected() throws Exception {
+        startServer(1024, 1024, 10000);
+        connect("client");
+        assertNotNull(connected.poll(5, TimeUnit.SECONDS));
+
+        Socket secondSocket = new Socket("localhost", server.getPort());
+        try {
+            DataOutputStream output = new DataOutputStream(secondSocket.getOutputStream());
+            output.writeUTF("client");
+            output.flush();
+            secondSocket.setSoTimeout(5000);
+            assertEquals(-1, secondSocket.getInputStream().read());
+        } finally {
+            secondSocket.close();
+        }
+    }
+
+    private void startServer(int outboundBufferSize, int maxBacklogSize, long maxStallMillis) throws IOException {
+        server = new NioClientServer(0,
+                new NioClientServer.ConnectionListener() {
+                    @Override
+                    public boolean clientConnected(NioClientConnection connection) {
+                        if (!clientIds.add(connection.getClientId()))
+                            return false;
+                        connected.add(connection);
+                        return true;
+                    }
+
+                    @Override
+                    public void clientDisconnected(NioClientConnection connection, String reason) {
+                        disconnected.add(reason);
+                    }
+
+                    @Override
+                    public void networkError(String message, Exception exception) {
+                        networkErrors.add(message);
+                    }
+                }, outboundBufferSize, maxBacklogSize, maxStallMillis);
+        server.start();
+    }
+
+    private DataOutputStream connect(String clientId) throws IOException {
+        socket = new Socket("localhost", server.getPort());
+        DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+        output.writeUTF(clientId);
+        output.flush();
+        return output;
+    }
+
+    private static Event pollEvent(NioClientConnection connection) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        while (System.currentTimeMillis() - start < 5000) {
+            Event event = connection.pollReceivedEvent();
+            if (event != null)
+                return event;
+            Thread.sleep(10);
+        }
+        return null;
+    }
+
+    public static class TestEvent extends Event {
+        private String value;
+
+        public TestEvent() {
+        }
+
+        public TestEvent(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+
+    public static class NotAnEvent {
+        static {
+            notAnEventInitialized = true;
+        }
+    }
+}
@@ -18,6 +18,7 @@ import com.gempukku.terasology.trees.component.SimpleTreeDefinitionComponent;
 import com.gempukku.terasology.world.CommonBlockManager;
 import com.gempukku.terasology.world.chunk.ChunkComponent;
 import com.gempukku.terasology.world.chunk.ChunkSize;
+import com.gempukku.terasology.world.chunk.ColumnHeightmapCache;
 import com.gempukku.terasology.world.chunk.WorldGenerator;
 import com.gempukku.terasology.world.component.BlockComponent;
 import com.gempukku.terasology.world.component.LocationComponent;
@@ -41,6 +42,9 @@ public class HillsWorldGenerator implements WorldGenerator {
 
     private float noiseScale = 0.005f;
     private Noise noise = new SimplexNoise(0);
+    private int mountainAmplitude = 32;
+
+    private ColumnHeightmapCache columnHeightmapCache = new ColumnHeightmapCache(256, this::generateColumnHeights);
 
     private short air = -1;
     private short grass = -1;
@@ -84,23 +88,13 @@ public class HillsWorldGenerator implements WorldGenerator {
 
     @Override
     public Iterable<StoredEntityData> generateChunk(String worldId, int x, int y, int z) {
-        if (air == -1) {
-            air = commonBlockManager.getCommonBlockId("air");
-            grass = commonBlockManager.getCommonBlockId("grass");
-            dirt = commonBlockManager.getCommonBlockId("dirt");
-            stone = commonBlockManager.getCommonBlockId("stone");
-            tree = commonBlockManager.getCommonBlockId("tree");
-
-            oakPrefab = prefabManager.getPrefabByName("oak");
-            pinePrefab = prefabManager.getPrefabByName("pine");
-        }
+        initBlockIds();
 
         FastRandom rnd = new FastRandom(x + 153 * y + 3121 * z);
 
-        int mountainAmplitude = 32;
-
         List<StoredEntityData> entities = new LinkedList<>();
         short[] blockIds = new short[ChunkSize.X * ChunkSize.Y * ChunkSize.Z];
+        int[] heightmap = columnHeightmapCache.getHeightmap(worldId, x, z);
         int index = 0;
         for (int dx = 0; dx < ChunkSize.X; dx++) {
             for (int dy = 0; dy < ChunkSize.Y; dy++) {
@@ -109,9 +103,7 @@ public class HillsWorldGenerator implements WorldGenerator {
                     int worldX = x * ChunkSize.X + dx;
                     int worldZ = z * ChunkSize.Z + dz;
 
-                    float noiseForColumn = this.noise.noise(noiseScale * worldX, noiseScale * worldZ);
-                    noiseForColumn = (noiseForColumn + 1 / 2);
-                    int groundLevel = FastMath.floor(noiseForColumn * mountainAmplitude);
+                    int groundLevel = heightmap[ColumnHeightmapCache.getIndex(dx, dz)];
                     if (blockLevel == groundLevel + 1 && dx % (ChunkSize.X / 2) == 0 && dz % (ChunkSize.Z / 2) == 0) {
                         EntityData prefab = (dx == 0) ? oakPrefab : pinePrefab;
                         int maxGenerations = ((Number) prefab.getComponent(SimpleTreeDefinitionComponent.class).getFields().get("maxGenerations")).intValue();
@@ -163,4 +155,34 @@ public class HillsWorldGenerator implements WorldGenerator {
 
         return entities;
     }
+
+    // Chunks are generated by multiple threads at once
+    private synchronized void initBlockIds() {
+        if (air == -1) {
+            grass = commonBlockManager.getCommonBlockId("grass");
+            dirt = commonBlockManager.getCommonBlockId("dirt");
+            stone = commonBlockManager.getCommonBlockId("stone");
+            tree = commonBlockManager.getCommonBlockId("tree");
+
+            oakPrefab = prefabManager.getPrefabByName("oak");
+            pinePrefab = prefabManager.getPrefabByName("pine");
+
+            air = commonBlockManager.getCommonBlockId("air");
+        }
+    }
+
+    private void generateColumnHeights(String worldId, int chunkX, int chunkZ, int[] heights) {
+        float[] noiseValues = new float[ChunkSize.X * ChunkSize.Z];
+        noise.fill2D(noiseValues, noiseScale * chunkX * ChunkSize.X, noiseScale * chunkZ * ChunkSize.Z,
+                noiseScale, noiseScale, ChunkSize.X, ChunkSize.Z);
+
+        for (int dx = 0; dx < ChunkSize.X; dx++) {
+            for (int dz = 0; dz < ChunkSize.Z; dz++) {
+                int index = ColumnHeightmapCache.getIndex(dx, dz);
+
+                float noiseForColumn = (noiseValues[index] + 1 / 2);
+                heights[index] = FastMath.floor(noiseForColumn * mountainAmplitude);
+            }
+        }
+    }
 }
@@ -5,7 +5,9 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.gempukku.secsy.context.annotation.In;
 import com.gempukku.secsy.context.annotation.RegisterSystem;
 import com.gempukku.secsy.context.system.LifeCycleSystem;
+import com.gempukku.secsy.entity.EntityRef;
 import com.gempukku.terasology.graphics.environment.mesh.ChunkMeshGeneratorCallback;
+import com.gempukku.terasology.trees.component.IndividualTreeComponent;
 import com.gempukku.terasology.trees.component.TreeGenerationComponent;
 import com.gempukku.terasology.trees.leaves.LeavesGenerator;
 import com.gempukku.terasology.trees.leaves.LeavesGeneratorRegistry;
@@ -17,6 +19,7 @@ import com.gempukku.terasology.world.chunk.ChunkBlocks;
 import com.gempukku.terasology.world.chunk.ChunkSize;
 import com.gempukku.terasology.world.chunk.geometry.BlockGeometryGenerator;
 import com.gempukku.terasology.world.chunk.geometry.BlockGeometryGeneratorRegistry;
+import com.gempukku.terasology.world.component.SeedComponent;
 import org.terasology.math.TeraMath;
 import org.terasology.math.geom.Matrix4f;
 import org.terasology.math.geom.Quat4f;
@@ -38,6 +41,9 @@ public class LSystemTreeBlockGeometryGenerator implements BlockGeometryGenerator
     private Map<String, TreeGenerator> treeGenerators = new HashMap<>();
     private Map<String, LeavesGenerator> leavesGenerators = new HashMap<>();
 
+    // Trees are grown and tessellated once, then just translated to their location for each texture and re-mesh
+    private TreeGeometryCache treeGeometryCache = new TreeGeometryCache(256);
+
     @Override
     public void initialize() {
         blockGeometryGeneratorRegistry.registerBlockMeshGenerator("trees:tree", this);
@@ -69,33 +75,44 @@ public class LSystemTreeBlockGeometryGenerator implements BlockGeometryGenerator
                 treeZ);
 
         // It's possible that the chunk has been unloaded in the meantime
-        if (entityAndBlockId != null & entityAndBlockId.entityRef != null) {
-            TreeGenerationComponent treeGeneration = entityAndBlockId.entityRef.getComponent(TreeGenerationComponent.class);
-            TreeDefinition treeDefinition = treeGenerators.get(treeGeneration.getGenerationType()).generateTreeDefinition(entityAndBlockId.entityRef);
-
-            if (texture == treeDefinition.barkTexture.getTexture()) {
-                Matrix4f movingMatrix = new Matrix4f(new Quat4f(), new Vector3f(
-                        treeX + 0.5f,
-                        treeY,
-                        treeZ + 0.5f), 1);
+        if (entityAndBlockId != null && entityAndBlockId.entityRef != null) {
+            EntityRef entityRef = entityAndBlockId.entityRef;
+            TreeGenerationComponent treeGeneration = entityRef.getComponent(TreeGenerationComponent.class);
+            TreeGenerator treeGenerator = treeGenerators.get(treeGeneration.getGenerationType());
 
-                BranchDrawingCallback branchCallback = new BranchDrawingCallback(vertexOutput,
-                        treeDefinition.barkTexture);
+            TreeDefinitionKey treeDefinitionKey = new TreeDefinitionKey(treeGeneration.getGenerationType(),
+                    treeGenerator.getTreeDefinitionId(entityRef),
+                    entityRef.getComponent(SeedComponent.class).getSeed(),
+                    entityRef.getComponent(IndividualTreeComponent.class).getGeneration());
 
-                processBranchWithCallback(branchCallback, true, treeDefinition.trunkDefinition, movingMatrix);
-            }
+            TreeGeometryCache.CachedTree cachedTree = treeGeometryCache.getTree(treeDefinitionKey,
+                    () -> treeGenerator.generateTreeDefinition(entityRef));
+            TreeDefinition treeDefinition = cachedTree.getTreeDefinition();
 
             LeavesGenerator leavesGenerator = leavesGenerators.get(treeDefinition.leavesGenerator);
-            LSystemCallback leavesCallback = leavesGenerator.createLeavesCallback(entityAndBlockId.entityRef, vertexOutput, texture);
-            if (leavesCallback != null) {
-                Matrix4f movingMatrix = new Matrix4f(new Quat4f(), new Vector3f(
-                        treeX + 0.5f,
-                        treeY,
-                        treeZ + 0.5f), 1);
-
-                processBranchWithCallback(leavesCallback, true, treeDefinition.trunkDefinition, movingMatrix);
-            }
+            RecordedGeometry geometry = cachedTree.getGeometry(leavesGenerator.getLeavesDefinitionId(entityRef), texture,
+                    geometryTexture -> generateTreeGeometry(entityRef, treeDefinition, leavesGenerator, geometryTexture));
+
+            geometry.replay(vertexOutput, treeX + 0.5f, treeY, treeZ + 0.5f);
+        }
+    }
+
+    private RecordedGeometry generateTreeGeometry(EntityRef entityRef, TreeDefinition treeDefinition,
+                                                  LeavesGenerator leavesGenerator, Texture texture) {
+        RecordedGeometry geometry = new RecordedGeometry();
+        if (texture == treeDefinition.barkTexture.getTexture()) {
+            BranchDrawingCallback branchCallback = new BranchDrawingCallback(geometry,
+                    treeDefinition.barkTexture);
+
+            processBranchWithCallback(branchCallback, true, treeDefinition.trunkDefinition, new Matrix4f(new Quat4f(), new Vector3f(), 1));
+        }
+
+        LSystemCallback leavesCallback = leavesGenerator.createLeavesCallback(entityRef, geometry, texture);
+        if (leavesCallback != null) {
+            processBranchWithCallback(leavesCallback, true, treeDefinition.trunkDefinition, new Matrix4f(new Quat4f(), new Vector3f(), 1));
         }
+        geometry.compact();
+        return geometry;
     }
 
     private class BranchDrawingCallback implements LSystemCallback {
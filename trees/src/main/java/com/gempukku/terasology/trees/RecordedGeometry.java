@@ -0,0 +1,114 @@
+package com.gempukku.terasology.trees;
+
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ShortArray;
+import com.gempukku.terasology.world.chunk.geometry.BlockGeometryGenerator;
+
+/**
+ * Records the vertices and indices produced by a geometry generator, so that they can be replayed later,
+ * translated to any position.
+ */
+public class RecordedGeometry implements BlockGeometryGenerator.BlockVertexOutput {
+    private static final int VERTEX_SIZE = 8;
+
+    private final FloatArray vertices = new FloatArray();
+    private final IntArray flags = new IntArray();
+    private final ShortArray indices = new ShortArray();
+
+    private float x;
+    private float y;
+    private float z;
+    private float normalX;
+    private float normalY;
+    private float normalZ;
+    private float textureCoordX;
+    private float textureCoordY;
+    private int flag;
+
+    public boolean isEmpty() {
+        return indices.size == 0;
+    }
+
+    /**
+     * Releases the memory reserved for further vertices, should be called once the recording is finished.
+     */
+    public void compact() {
+        vertices.shrink();
+        flags.shrink();
+        indices.shrink();
+    }
+
+    public void replay(BlockGeometryGenerator.BlockVertexOutput vertexOutput, float translateX, float translateY, float translateZ) {
+        int vertexCount = flags.size;
+        short[] vertexMapping = new short[vertexCount];
+        float[] vertexValues = vertices.items;
+        for (int i = 0; i < vertexCount; i++) {
+            int offset = i * VERTEX_SIZE;
+            vertexOutput.setPosition(
+                    vertexValues[offset] + translateX,
+                    vertexValues[offset + 1] + translateY,
+                    vertexValues[offset + 2] + translateZ);
+            vertexOutput.setNormal(vertexValues[offset + 3], vertexValues[offset + 4], vertexValues[offset + 5]);
+            vertexOutput.setTextureCoordinate(vertexValues[offset + 6], vertexValues[offset + 7]);
+            vertexOutput.setFlag(flags.get(i));
+            vertexMapping[i] = vertexOutput.finishVertex();
+        }
+
+        short[] indexValues = indices.items;
+        for (int i = 0; i < indices.size; i++)
+            vertexOutput.addVertexIndex(vertexMapping[indexValues[i]]);
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z) {
+        // Recorded geometry is not bound to any block
+    }
+
+    @Override
+    public void setPosition(float x, float y, float z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    @Override
+    public void setNormal(float x, float y, float z) {
+        normalX = x;
+        normalY = y;
+        normalZ = z;
+    }
+
+    @Override
+    public void setTextureCoordinate(float x, float y) {
+        textureCoordX = x;
+        textureCoordY = y;
+    }
+
+    @Override
+    public void setFlag(int flag) {
+        this.flag = flag;
+    }
+
+    @Override
+    public short finishVertex() {
+        vertices.add(x);
+        vertices.add(y);
+        vertices.add(z);
+        vertices.add(normalX);
+        vertices.add(normalY);
+        vertices.add(normalZ);
+        vertices.add(textureCoordX);
+        vertices.add(textureCoordY);
+        flags.add(flag);
+
+        x = y = z = normalX = normalY = normalZ = textureCoordX = textureCoordY = flag = 0;
+
+        return (short) (flags.size - 1);
+    }
+
+    @Override
+    public void addVertexIndex(short vertexIndex) {
+        indices.add(vertexIndex);
+    }
+}
@@ -49,6 +49,31 @@ public class SimpleTreeGenerator implements TreeGenerator, LifeCycleSystem {
         textureAtlasRegistry.registerTextures(ChunkMeshGenerator.CHUNK_ATLAS_NAME, texturesToLoad);
     }
 
+    @Override
+    public String getTreeDefinitionId(EntityRef entityRef) {
+        SimpleTreeDefinitionComponent simpleTreeDefinition = entityRef.getComponent(SimpleTreeDefinitionComponent.class);
+        // Entities do not know the prefab they were created from, so the definition is identified by its values
+        StringBuilder result = new StringBuilder();
+        result.append(simpleTreeDefinition.getBarkTexture()).append('|')
+                .append(simpleTreeDefinition.getLeavesGenerator()).append('|')
+                .append(simpleTreeDefinition.getInitialTrunkRotationDist()).append('|')
+                .append(simpleTreeDefinition.getTrunkSegmentLengthDist()).append('|')
+                .append(simpleTreeDefinition.getTrunkSegmentRadiusDist()).append('|')
+                .append(simpleTreeDefinition.getTrunkSegmentRotateXDist()).append('|')
+                .append(simpleTreeDefinition.getTrunkSegmentRotateZDist()).append('|')
+                .append(simpleTreeDefinition.getTrunkSegmentLengthIncreasePerGenerationDist()).append('|')
+                .append(simpleTreeDefinition.getTrunkSegmentRadiusIncreasePerGenerationDist()).append('|')
+                .append(simpleTreeDefinition.getBranchCountDist()).append('|')
+                .append(simpleTreeDefinition.getBranchLengthDist()).append('|')
+                .append(simpleTreeDefinition.getBranchRadiusDist()).append('|')
+                .append(simpleTreeDefinition.getBranchInitialAngleAddYDist()).append('|')
+                .append(simpleTreeDefinition.getBranchInitialAngleZDist()).append('|')
+                .append(simpleTreeDefinition.getBranchCurveAngleZDist()).append('|')
+                .append(simpleTreeDefinition.getBranchSegmentLengthIncreasePerGenerationDist()).append('|')
+                .append(simpleTreeDefinition.getBranchSegmentRadiusIncreasePerGenerationDist());
+        return result.toString();
+    }
+
     @Override
     public TreeDefinition generateTreeDefinition(EntityRef entityRef) {
         SimpleTreeDefinitionComponent simpleTreeDefinition = entityRef.getComponent(SimpleTreeDefinitionComponent.class);
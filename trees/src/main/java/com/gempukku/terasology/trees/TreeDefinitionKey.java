@@ -0,0 +1,41 @@
+package com.gempukku.terasology.trees;
+
+/**
+ * Identifies a tree shape - trees of the same generation type, definition, seed and generation always grow
+ * into the same tree.
+ */
+public class TreeDefinitionKey {
+    private final String generationType;
+    private final String definitionId;
+    private final long seed;
+    private final int generation;
+
+    public TreeDefinitionKey(String generationType, String definitionId, long seed, int generation) {
+        this.generationType = generationType;
+        this.definitionId = definitionId;
+        this.seed = seed;
+        this.generation = generation;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        TreeDefinitionKey that = (TreeDefinitionKey) o;
+
+        if (seed != that.seed) return false;
+        if (generation != that.generation) return false;
+        if (!generationType.equals(that.generationType)) return false;
+        return definitionId.equals(that.definitionId);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = generationType.hashCode();
+        result = 31 * result + definitionId.hashCode();
+        result = 31 * result + (int) (seed ^ (seed >>> 32));
+        result = 31 * result + generation;
+        return result;
+    }
+}
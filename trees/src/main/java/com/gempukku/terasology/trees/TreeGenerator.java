@@ -4,5 +4,14 @@ import com.gempukku.secsy.entity.EntityRef;
 import com.gempukku.terasology.trees.model.TreeDefinition;
 
 public interface TreeGenerator {
+    /**
+     * Returns an id of the definition the tree is grown from. Trees with the same definition id, seed and
+     * generation have to produce the same TreeDefinition, as definitions are cached by these values.
+     *
+     * @param entityRef
+     * @return
+     */
+    String getTreeDefinitionId(EntityRef entityRef);
+
     TreeDefinition generateTreeDefinition(EntityRef entityRef);
 }
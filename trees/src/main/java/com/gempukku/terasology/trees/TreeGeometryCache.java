@@ -0,0 +1,72 @@
+package com.gempukku.terasology.trees;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.gempukku.terasology.trees.model.TreeDefinition;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the most recently used tree definitions, together with their geometry in tree-local space (tree base
+ * at the origin) for each of the leaves definitions and textures it has been requested for. Definitions returned from this cache are
+ * shared and must not be modified.
+ */
+public class TreeGeometryCache {
+    private final Map<TreeDefinitionKey, CachedTree> trees;
+
+    public TreeGeometryCache(int maximumTrees) {
+        if (maximumTrees < 1)
+            throw new IllegalArgumentException("Cache has to be able to hold at least one tree");
+        this.trees = new LinkedHashMap<TreeDefinitionKey, CachedTree>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TreeDefinitionKey, CachedTree> eldest) {
+                return size() > maximumTrees;
+            }
+        };
+    }
+
+    public CachedTree getTree(TreeDefinitionKey key, Supplier<TreeDefinition> treeDefinitionSupplier) {
+        synchronized (trees) {
+            CachedTree tree = trees.get(key);
+            if (tree != null)
+                return tree;
+        }
+
+        // Generate outside of the lock, so that mesh generating threads do not wait for each other,
+        // in the rare case two threads grow the same tree, the result is the same anyway
+        CachedTree tree = new CachedTree(treeDefinitionSupplier.get());
+
+        synchronized (trees) {
+            trees.put(key, tree);
+        }
+        return tree;
+    }
+
+    public void clear() {
+        synchronized (trees) {
+            trees.clear();
+        }
+    }
+
+    public static class CachedTree {
+        private final TreeDefinition treeDefinition;
+        private final Map<String, Map<Texture, RecordedGeometry>> geometryPerLeavesAndTexture = new ConcurrentHashMap<>();
+
+        private CachedTree(TreeDefinition treeDefinition) {
+            this.treeDefinition = treeDefinition;
+        }
+
+        public TreeDefinition getTreeDefinition() {
+            return treeDefinition;
+        }
+
+        public RecordedGeometry getGeometry(String leavesDefinitionId, Texture texture,
+                                            Function<Texture, RecordedGeometry> geometryGenerator) {
+            return geometryPerLeavesAndTexture.computeIfAbsent(leavesDefinitionId, id -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(texture, geometryGenerator);
+        }
+    }
+}
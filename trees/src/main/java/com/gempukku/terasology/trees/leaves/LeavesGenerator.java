@@ -6,6 +6,15 @@ import com.gempukku.terasology.trees.LSystemTreeBlockGeometryGenerator;
 import com.gempukku.terasology.world.chunk.geometry.BlockGeometryGenerator;
 
 public interface LeavesGenerator {
+    /**
+     * Returns an id of the leaves definition, trees with the same leaves definition id produce the same leaves
+     * for the same tree definition.
+     *
+     * @param entityRef
+     * @return
+     */
+    String getLeavesDefinitionId(EntityRef entityRef);
+
     LSystemTreeBlockGeometryGenerator.LSystemCallback createLeavesCallback(
             EntityRef entityRef, BlockGeometryGenerator.BlockVertexOutput vertexOutput, Texture texture);
 }
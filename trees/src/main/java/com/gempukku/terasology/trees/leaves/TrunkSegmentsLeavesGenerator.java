@@ -52,6 +52,12 @@ public class TrunkSegmentsLeavesGenerator implements LeavesGenerator, LifeCycleS
         textureAtlasRegistry.registerTextures(ChunkMeshGenerator.CHUNK_ATLAS_NAME, texturesToLoad);
     }
 
+    @Override
+    public String getLeavesDefinitionId(EntityRef entityRef) {
+        LeavesDefinitionComponent leavesDefinition = entityRef.getComponent(LeavesDefinitionComponent.class);
+        return leavesDefinition.getLeavesTexture() + "|" + leavesDefinition.getLeavesShape();
+    }
+
     @Override
     public LSystemTreeBlockGeometryGenerator.LSystemCallback createLeavesCallback(
             EntityRef entityRef, BlockGeometryGenerator.BlockVertexOutput vertexOutput, Texture texture) {